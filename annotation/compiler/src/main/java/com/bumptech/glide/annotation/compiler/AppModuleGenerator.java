@@ -1,6 +1,7 @@
 package com.bumptech.glide.annotation.compiler;
 
 import com.bumptech.glide.annotation.Excludes;
+import com.bumptech.glide.annotation.GlideType;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.MethodSpec;
@@ -76,6 +77,15 @@ import javax.lang.model.type.TypeMirror;
  *    public java.util.Set&lt;java.lang.Class&lt;?>> getExcludedModuleClasses() {
  *      return appGlideModule.getExcludedModuleClasses();
  *    }
+ *
+ *    // Only generated if GlideExtensions contain methods annotated with GlideType.
+ *    {@literal @java.lang.Override}
+ *    {@literal @androidx.annotation.NonNull}
+ *    java.util.Set&lt;java.lang.Class&lt;?>> getGlideTypeClasses() {
+ *      java.util.Set&lt;java.lang.Class&lt;?>> glideTypeClasses = new java.util.HashSet&lt;>();
+ *      glideTypeClasses.add(com.bumptech.glide.samples.giphy.Gif.class);
+ *      return glideTypeClasses;
+ *    }
  *  }
  * </code>
  * </pre>
@@ -94,7 +104,10 @@ final class AppModuleGenerator {
     this.processorUtil = processorUtil;
   }
 
-  TypeSpec generate(TypeElement appGlideModule, Set<String> libraryGlideModuleClassNames) {
+  TypeSpec generate(
+      TypeElement appGlideModule,
+      Set<String> libraryGlideModuleClassNames,
+      Set<String> glideExtensionClassNames) {
     ClassName appGlideModuleClassName = ClassName.get(appGlideModule);
     List<String> excludedGlideModuleClassNames = getExcludedGlideModuleClassNames(appGlideModule);
 
@@ -156,6 +169,11 @@ final class AppModuleGenerator {
             .addMethod(isManifestParsingEnabled)
             .addMethod(getExcludedModuleClasses);
 
+    List<String> glideTypeClassNames = getGlideTypeClassNames(glideExtensionClassNames);
+    if (!glideTypeClassNames.isEmpty()) {
+      builder.addMethod(generateGetGlideTypeClasses(glideTypeClassNames));
+    }
+
     ClassName generatedRequestManagerFactoryClassName =
         ClassName.get(
             RequestManagerFactoryGenerator.GENERATED_REQUEST_MANAGER_FACTORY_PACKAGE_NAME,
@@ -206,6 +224,32 @@ final class AppModuleGenerator {
     return builder.build();
   }
 
+  // Lets Glide resolve the resource classes for the types the generated API can request while it's
+  // initialized, along with the types that Glide's own API can request.
+  private MethodSpec generateGetGlideTypeClasses(Collection<String> glideTypeClassNames) {
+    TypeName wildCardOfObject = WildcardTypeName.subtypeOf(Object.class);
+    ParameterizedTypeName classOfWildcardOfObject =
+        ParameterizedTypeName.get(ClassName.get(Class.class), wildCardOfObject);
+    ParameterizedTypeName setOfClassOfWildcardOfObject =
+        ParameterizedTypeName.get(ClassName.get(Set.class), classOfWildcardOfObject);
+    ParameterizedTypeName hashSetOfClassOfWildcardOfObject =
+        ParameterizedTypeName.get(ClassName.get(HashSet.class), classOfWildcardOfObject);
+    MethodSpec.Builder builder =
+        MethodSpec.methodBuilder("getGlideTypeClasses")
+            .addAnnotation(Override.class)
+            .addAnnotation(processorUtil.nonNull())
+            .returns(setOfClassOfWildcardOfObject)
+            .addStatement(
+                "$T glideTypeClasses = new $T()",
+                setOfClassOfWildcardOfObject,
+                hashSetOfClassOfWildcardOfObject);
+    for (String glideTypeClassName : glideTypeClassNames) {
+      builder.addStatement(
+          "glideTypeClasses.add($T.class)", ClassName.bestGuess(glideTypeClassName));
+    }
+    return builder.addStatement("return glideTypeClasses").build();
+  }
+
   private MethodSpec generateRegisterComponents(
       Collection<String> libraryGlideModuleClassNames,
       Collection<String> excludedGlideModuleClassNames) {
@@ -317,6 +361,18 @@ final class AppModuleGenerator {
     return constructorBuilder.build();
   }
 
+  private List<String> getGlideTypeClassNames(Set<String> glideExtensionClassNames) {
+    Set<String> names = new HashSet<>();
+    for (ExecutableElement method :
+        processorUtil.findAnnotatedElementsInClasses(glideExtensionClassNames, GlideType.class)) {
+      names.addAll(
+          processorUtil.findClassValuesFromAnnotationOnClassAsNames(method, GlideType.class));
+    }
+    List<String> result = new ArrayList<>(names);
+    Collections.sort(result);
+    return result;
+  }
+
   private List<String> getExcludedGlideModuleClassNames(TypeElement appGlideModule) {
     Set<String> names =
         processorUtil.findClassValuesFromAnnotationOnClassAsNames(appGlideModule, Excludes.class);
@@ -109,7 +109,8 @@ final class AppModuleProcessor {
     writeGlide(generatedCodePackageName, glide);
 
     TypeSpec generatedAppGlideModule =
-        appModuleGenerator.generate(appModule, indexedClassNames.glideModules);
+        appModuleGenerator.generate(
+            appModule, indexedClassNames.glideModules, indexedClassNames.extensions);
     writeAppModule(generatedAppGlideModule);
 
     processorUtil.infoLog("Wrote GeneratedAppGlideModule with: " + indexedClassNames.glideModules);
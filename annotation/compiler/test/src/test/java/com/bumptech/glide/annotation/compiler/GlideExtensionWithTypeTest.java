@@ -74,11 +74,10 @@ public class GlideExtensionWithTypeTest implements CompilationProvider {
   }
 
   @Test
-  @ReferencedResource
   public void compilation_generatesExpectedGeneratedAppGlideModuleImpl() throws IOException {
     assertThat(compilation)
         .generatedSourceFile(glide("GeneratedAppGlideModuleImpl"))
-        .hasSourceEquivalentTo(appResource("GeneratedAppGlideModuleImpl.java"));
+        .hasSourceEquivalentTo(forResource("GeneratedAppGlideModuleImpl.java"));
   }
 
   @Test
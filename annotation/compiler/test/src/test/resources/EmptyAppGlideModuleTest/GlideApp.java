@@ -12,6 +12,7 @@ import androidx.annotation.VisibleForTesting;
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.GlideBuilder;
 import java.io.File;
+import java.util.concurrent.Executor;
 
 /**
  * The entry point for interacting with Glide for Applications
@@ -50,6 +51,27 @@ public final class GlideApp {
     return Glide.get(context);
   }
 
+  /**
+   * @see Glide#initInBackground(Context)
+   */
+  public static void initInBackground(@NonNull Context context) {
+    Glide.initInBackground(context);
+  }
+
+  /**
+   * @see Glide#initInBackground(Context, Executor)
+   */
+  public static void initInBackground(@NonNull Context context, @NonNull Executor executor) {
+    Glide.initInBackground(context, executor);
+  }
+
+  /**
+   * @see Glide#whenReady(Context, Runnable)
+   */
+  public static void whenReady(@NonNull Context context, @NonNull Runnable runnable) {
+    Glide.whenReady(context, runnable);
+  }
+
   /**
    * @see Glide#init(Glide)
    */
@@ -0,0 +1,76 @@
+package com.bumptech.glide.benchmark;
+
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.MagazineArrayPool;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares the throughput of {@link ArrayPool} implementations when many threads get and put the
+ * arrays a decode typically uses concurrently.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkArrayPool {
+  private static final int DECODES_PER_THREAD = 1000;
+  private static final int EXIF_BUFFER_SIZE = 16 * 1024;
+  // The default size for devices that aren't low ram.
+  private static final int POOL_SIZE = 4 * 1024 * 1024;
+
+  @Rule public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  @Test
+  public void lru_1Thread() throws Exception {
+    runBenchmark(new LruArrayPool(POOL_SIZE), 1);
+  }
+
+  @Test
+  public void lru_4Threads() throws Exception {
+    runBenchmark(new LruArrayPool(POOL_SIZE), 4);
+  }
+
+  @Test
+  public void lru_8Threads() throws Exception {
+    runBenchmark(new LruArrayPool(POOL_SIZE), 8);
+  }
+
+  @Test
+  public void magazine_1Thread() throws Exception {
+    runBenchmark(new MagazineArrayPool(POOL_SIZE), 1);
+  }
+
+  @Test
+  public void magazine_4Threads() throws Exception {
+    runBenchmark(new MagazineArrayPool(POOL_SIZE), 4);
+  }
+
+  @Test
+  public void magazine_8Threads() throws Exception {
+    runBenchmark(new MagazineArrayPool(POOL_SIZE), 8);
+  }
+
+  private void runBenchmark(final ArrayPool pool, int threadCount) throws Exception {
+    new ConcurrentBenchmarkRunner(threadCount)
+        .run(
+            benchmarkRule.getState(),
+            DECODES_PER_THREAD,
+            new ConcurrentBenchmarkRunner.Operation() {
+              @Override
+              public void run(int threadIndex, int operationIndex) {
+                // Mimics the buffered stream, the Downsampler's temp storage and the exif parser.
+                byte[] streamBuffer =
+                    pool.get(ArrayPool.STANDARD_BUFFER_SIZE_BYTES, byte[].class);
+                byte[] tempStorage =
+                    pool.get(ArrayPool.STANDARD_BUFFER_SIZE_BYTES, byte[].class);
+                byte[] exif = pool.get(EXIF_BUFFER_SIZE, byte[].class);
+                pool.put(exif);
+                pool.put(tempStorage);
+                pool.put(streamBuffer);
+              }
+            });
+    pool.clearMemory();
+  }
+}
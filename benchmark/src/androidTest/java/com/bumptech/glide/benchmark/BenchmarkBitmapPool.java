@@ -0,0 +1,83 @@
+package com.bumptech.glide.benchmark;
+
+import android.graphics.Bitmap;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.SizeClassBitmapPool;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares the throughput of {@link BitmapPool} implementations when many threads get and put
+ * {@link Bitmap}s concurrently, simulating decode and transformation threads during a fast scroll.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkBitmapPool {
+  private static final int OPERATIONS_PER_THREAD = 1000;
+  // A handful of thumbnail sizes, as in a grid of mixed aspect ratios.
+  private static final int[][] DIMENSIONS = {
+    {96, 96}, {128, 96}, {96, 128}, {160, 120}, {200, 200}, {256, 192},
+  };
+  private static final long POOL_SIZE = 16 * 1024 * 1024;
+
+  @Rule public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  @Test
+  public void lru_1Thread() throws Exception {
+    runBenchmark(new LruBitmapPool(POOL_SIZE), 1);
+  }
+
+  @Test
+  public void lru_8Threads() throws Exception {
+    runBenchmark(new LruBitmapPool(POOL_SIZE), 8);
+  }
+
+  @Test
+  public void lru_16Threads() throws Exception {
+    runBenchmark(new LruBitmapPool(POOL_SIZE), 16);
+  }
+
+  @Test
+  public void sizeClass_1Thread() throws Exception {
+    runBenchmark(new SizeClassBitmapPool(POOL_SIZE), 1);
+  }
+
+  @Test
+  public void sizeClass_8Threads() throws Exception {
+    runBenchmark(new SizeClassBitmapPool(POOL_SIZE), 8);
+  }
+
+  @Test
+  public void sizeClass_16Threads() throws Exception {
+    runBenchmark(new SizeClassBitmapPool(POOL_SIZE), 16);
+  }
+
+  private void runBenchmark(final BitmapPool pool, int threadCount) throws Exception {
+    // Fill the pool up front so that the benchmark measures re-use rather than allocation.
+    for (int i = 0; i < threadCount * DIMENSIONS.length; i++) {
+      int[] dimensions = DIMENSIONS[i % DIMENSIONS.length];
+      pool.put(Bitmap.createBitmap(dimensions[0], dimensions[1], Bitmap.Config.ARGB_8888));
+    }
+    try {
+      new ConcurrentBenchmarkRunner(threadCount)
+          .run(
+              benchmarkRule.getState(),
+              OPERATIONS_PER_THREAD,
+              new ConcurrentBenchmarkRunner.Operation() {
+                @Override
+                public void run(int threadIndex, int operationIndex) {
+                  int[] dimensions =
+                      DIMENSIONS[(threadIndex * 31 + operationIndex) % DIMENSIONS.length];
+                  Bitmap bitmap =
+                      pool.getDirty(dimensions[0], dimensions[1], Bitmap.Config.ARGB_8888);
+                  pool.put(bitmap);
+                }
+              });
+    } finally {
+      pool.clearMemory();
+    }
+  }
+}
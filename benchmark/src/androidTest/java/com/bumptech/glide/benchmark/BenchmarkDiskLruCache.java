@@ -0,0 +1,132 @@
+package com.bumptech.glide.benchmark;
+
+import android.content.Context;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import com.bumptech.glide.disklrucache.DiskLruCache;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Compares the time required to open {@link DiskLruCache}s with text and binary journals and the
+ * throughput of reads and edits once they're open, for caches with varying numbers of entries.
+ */
+@RunWith(Parameterized.class)
+public class BenchmarkDiskLruCache {
+  private static final int APP_VERSION = 1;
+  private static final int VALUE_COUNT = 1;
+  private static final long MAX_SIZE = Long.MAX_VALUE;
+
+  @Rule public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private final int entryCount;
+  private final boolean useBinaryJournal;
+  private final Random random = new Random(0);
+  private File directory;
+  private DiskLruCache cache;
+
+  @Parameters(name = "entries={0}, binary={1}")
+  public static Collection<Object[]> data() {
+    return Arrays.asList(
+        new Object[][] {
+          {10_000, false}, {10_000, true},
+          {50_000, false}, {50_000, true},
+          {100_000, false}, {100_000, true},
+        });
+  }
+
+  public BenchmarkDiskLruCache(int entryCount, boolean useBinaryJournal) {
+    this.entryCount = entryCount;
+    this.useBinaryJournal = useBinaryJournal;
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    Context context = ApplicationProvider.getApplicationContext();
+    directory = new File(context.getCacheDir(), "benchmark_disk_lru_cache");
+    deleteRecursively(directory);
+    cache = open();
+    for (int i = 0; i < entryCount; i++) {
+      put(key(i));
+    }
+    cache.close();
+    cache = open();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    cache.close();
+    deleteRecursively(directory);
+  }
+
+  @Test
+  public void open_existingCache() throws IOException {
+    cache.close();
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      cache = open();
+      state.pauseTiming();
+      cache.close();
+      state.resumeTiming();
+    }
+    cache = open();
+  }
+
+  @Test
+  public void get_existingEntry() throws IOException {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      cache.get(key(random.nextInt(entryCount)));
+    }
+  }
+
+  @Test
+  public void edit_existingEntry() throws IOException {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      put(key(random.nextInt(entryCount)));
+    }
+  }
+
+  private DiskLruCache open() throws IOException {
+    return DiskLruCache.open(directory, APP_VERSION, VALUE_COUNT, MAX_SIZE, useBinaryJournal);
+  }
+
+  private void put(String key) throws IOException {
+    DiskLruCache.Editor editor = cache.edit(key);
+    editor.set(0, key);
+    editor.commit();
+  }
+
+  /** Returns a 64 character key, the same length as the keys Glide uses. */
+  private static String key(int index) {
+    StringBuilder result = new StringBuilder(Integer.toHexString(index));
+    while (result.length() < 64) {
+      result.insert(0, '0');
+    }
+    return result.toString();
+  }
+
+  private static void deleteRecursively(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteRecursively(child);
+      }
+    }
+    if (file.exists() && !file.delete()) {
+      throw new IllegalStateException("Failed to delete: " + file);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.bumptech.glide.benchmark;
+
+import android.graphics.Bitmap;
+import androidx.annotation.RawRes;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.bumptech.glide.benchmark.data.DataOpener.ByteArrayBufferOpener;
+import com.bumptech.glide.gifdecoder.GifDecoder;
+import com.bumptech.glide.gifdecoder.GifHeader;
+import com.bumptech.glide.gifdecoder.GifHeaderParser;
+import com.bumptech.glide.gifdecoder.StandardGifDecoder;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.resource.gif.GifBitmapProvider;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures decoding every frame of a set of GIFs with {@link StandardGifDecoder}, most of which is
+ * spent expanding LZW codes and mapping the result through the color table.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkGifDecoder {
+  @Rule public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  @Test
+  public void smallAnimation() throws IOException {
+    runBenchmark(R.raw.dl_world_anim, /*sampleSize=*/ 1);
+  }
+
+  @Test
+  public void opaqueInterlaced() throws IOException {
+    runBenchmark(R.raw.opaque_interlaced_gif, /*sampleSize=*/ 1);
+  }
+
+  @Test
+  public void transparentInterlaced() throws IOException {
+    runBenchmark(R.raw.interlaced_transparent_gif, /*sampleSize=*/ 1);
+  }
+
+  @Test
+  public void transparentInterlaced_downsampled() throws IOException {
+    runBenchmark(R.raw.interlaced_transparent_gif, /*sampleSize=*/ 2);
+  }
+
+  private void runBenchmark(@RawRes int resourceId, int sampleSize) throws IOException {
+    ByteBuffer data = new ByteArrayBufferOpener().acquire(resourceId);
+    GifHeader header = new GifHeaderParser().setData(data).parseHeader();
+    LruBitmapPool bitmapPool = new LruBitmapPool(20 * 1024 * 1024);
+    GifDecoder.BitmapProvider provider =
+        new GifBitmapProvider(bitmapPool, new LruArrayPool(4 * 1024 * 1024));
+    GifDecoder decoder = new StandardGifDecoder(provider, header, data, sampleSize);
+
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      decoder.resetFrameIndex();
+      for (int i = 0; i < decoder.getFrameCount(); i++) {
+        decoder.advance();
+        Bitmap frame = decoder.getNextFrame();
+        if (frame != null) {
+          bitmapPool.put(frame);
+        }
+      }
+    }
+    decoder.clear();
+    bitmapPool.clearMemory();
+  }
+}
@@ -0,0 +1,66 @@
+package com.bumptech.glide.benchmark;
+
+import android.app.Application;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.testutil.TearDownGlide;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.rules.TestRule;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures how long it takes to initialize Glide, which apps usually do on the main thread while
+ * they're starting up.
+ *
+ * <p>Components registered lazily aren't created during {@link Glide#get(android.content.Context)},
+ * so {@link #getAndFirstLookups()} measures the cost that's deferred to the first loads.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkGlideInitialization {
+  private final Application app = ApplicationProvider.getApplicationContext();
+  private final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  @Rule
+  public final TestRule ruleChain =
+      RuleChain.outerRule(benchmarkRule).around(new TearDownGlide());
+
+  @Test
+  public void get() {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      Glide.get(app);
+
+      state.pauseTiming();
+      Glide.tearDown();
+      state.resumeTiming();
+    }
+  }
+
+  @Test
+  public void getAndFirstLookups() {
+    Uri uri = Uri.parse("android.resource://" + app.getPackageName() + "/" + R.raw.small);
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      Registry registry = Glide.get(app).getRegistry();
+      registry.getModelLoaders(uri);
+      registry.getLoadPath(InputStream.class, Object.class, Drawable.class);
+      registry.getLoadPath(ByteBuffer.class, Object.class, Drawable.class);
+      registry.getLoadPath(InputStream.class, Bitmap.class, Bitmap.class);
+
+      state.pauseTiming();
+      Glide.tearDown();
+      state.resumeTiming();
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package com.bumptech.glide.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemoryCache;
+import com.bumptech.glide.load.engine.cache.StripedLruResourceCache;
+import com.bumptech.glide.signature.ObjectKey;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares the throughput of {@link MemoryCache} implementations when many threads put and remove
+ * resources concurrently, simulating decode threads and the main thread during a fast scroll.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkMemoryCache {
+  private static final int OPERATIONS_PER_THREAD = 1000;
+  private static final int KEY_COUNT = 512;
+  private static final int RESOURCE_SIZE = 1024;
+  // Large enough to hold roughly half of the keys so that puts also trigger evictions.
+  private static final long CACHE_SIZE = KEY_COUNT * RESOURCE_SIZE / 2;
+
+  @Rule public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private final Key[] keys = new Key[KEY_COUNT];
+
+  public BenchmarkMemoryCache() {
+    for (int i = 0; i < KEY_COUNT; i++) {
+      keys[i] = new ObjectKey(i);
+    }
+  }
+
+  @Test
+  public void lru_1Thread() throws Exception {
+    runBenchmark(new LruResourceCache(CACHE_SIZE), 1);
+  }
+
+  @Test
+  public void lru_8Threads() throws Exception {
+    runBenchmark(new LruResourceCache(CACHE_SIZE), 8);
+  }
+
+  @Test
+  public void lru_16Threads() throws Exception {
+    runBenchmark(new LruResourceCache(CACHE_SIZE), 16);
+  }
+
+  @Test
+  public void striped_1Thread() throws Exception {
+    runBenchmark(new StripedLruResourceCache(CACHE_SIZE), 1);
+  }
+
+  @Test
+  public void striped_8Threads() throws Exception {
+    runBenchmark(new StripedLruResourceCache(CACHE_SIZE), 8);
+  }
+
+  @Test
+  public void striped_16Threads() throws Exception {
+    runBenchmark(new StripedLruResourceCache(CACHE_SIZE), 16);
+  }
+
+  private void runBenchmark(final MemoryCache cache, int threadCount) throws Exception {
+    final Resource<?> resource = new FixedSizeResource(RESOURCE_SIZE);
+    new ConcurrentBenchmarkRunner(threadCount)
+        .run(
+            benchmarkRule.getState(),
+            OPERATIONS_PER_THREAD,
+            new ConcurrentBenchmarkRunner.Operation() {
+              @Override
+              public void run(int threadIndex, int operationIndex) {
+                Key key = keys[(threadIndex * 31 + operationIndex) % KEY_COUNT];
+                // Mimics Engine, which removes resources from the cache when they're loaded and
+                // puts them back when they're released.
+                Resource<?> removed = cache.remove(key);
+                cache.put(key, removed != null ? removed : resource);
+              }
+            });
+  }
+
+  private static final class FixedSizeResource implements Resource<Object> {
+    private final int size;
+
+    FixedSizeResource(int size) {
+      this.size = size;
+    }
+
+    @NonNull
+    @Override
+    public Class<Object> getResourceClass() {
+      return Object.class;
+    }
+
+    @NonNull
+    @Override
+    public Object get() {
+      return this;
+    }
+
+    @Override
+    public int getSize() {
+      return size;
+    }
+
+    @Override
+    public void recycle() {}
+  }
+}
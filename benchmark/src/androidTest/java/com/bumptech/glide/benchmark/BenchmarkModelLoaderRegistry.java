@@ -0,0 +1,88 @@
+package com.bumptech.glide.benchmark;
+
+import android.app.Application;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.testutil.TearDownGlide;
+import java.io.File;
+import java.io.InputStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.rules.TestRule;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures the throughput of the {@link Registry} lookups that every load makes when many threads
+ * start loads at once, simulating the decode threads during a fast scroll.
+ *
+ * <p>Every lookup is cached before timing starts, so this only measures the cost of reading the
+ * caches.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkModelLoaderRegistry {
+  private static final int OPERATIONS_PER_THREAD = 1000;
+
+  private final Application app = ApplicationProvider.getApplicationContext();
+  private final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  @Rule
+  public final TestRule ruleChain =
+      RuleChain.outerRule(benchmarkRule).around(new TearDownGlide());
+
+  private Registry registry;
+  private Object[] models;
+
+  @Before
+  public void setUp() {
+    registry = Glide.get(app).getRegistry();
+    models =
+        new Object[] {
+          "https://www.example.com/image.jpg",
+          Uri.parse("android.resource://" + app.getPackageName() + "/" + R.raw.small),
+          new File(app.getCacheDir(), "image.jpg"),
+          R.raw.small,
+        };
+    for (Object model : models) {
+      registry.getModelLoaders(model);
+    }
+    registry.getLoadPath(InputStream.class, Object.class, Drawable.class);
+  }
+
+  @Test
+  public void getModelLoaders_1Thread() throws Exception {
+    runBenchmark(1);
+  }
+
+  @Test
+  public void getModelLoaders_8Threads() throws Exception {
+    runBenchmark(8);
+  }
+
+  @Test
+  public void getModelLoaders_16Threads() throws Exception {
+    runBenchmark(16);
+  }
+
+  private void runBenchmark(int threadCount) throws Exception {
+    new ConcurrentBenchmarkRunner(threadCount)
+        .run(
+            benchmarkRule.getState(),
+            OPERATIONS_PER_THREAD,
+            new ConcurrentBenchmarkRunner.Operation() {
+              @Override
+              public void run(int threadIndex, int operationIndex) {
+                // Mimics DecodeHelper, which looks up the model loaders and then a load path for
+                // each load.
+                registry.getModelLoaders(models[(threadIndex + operationIndex) % models.length]);
+                registry.getLoadPath(InputStream.class, Object.class, Drawable.class);
+              }
+            });
+  }
+}
@@ -0,0 +1,177 @@
+package com.bumptech.glide.benchmark;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.load.engine.executor.PrioritizedTask;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Compares the default {@link GlideExecutor} with a work stealing {@link GlideExecutor} when many
+ * short tasks with mixed priorities are submitted at once, as they are when a list is scrolled.
+ *
+ * <p>Each iteration submits a batch of tasks and waits for all of them to finish. The time each
+ * task spent queued is logged as percentiles once the benchmark completes.
+ */
+@RunWith(Parameterized.class)
+public class BenchmarkSourceExecutor {
+  private static final String TAG = "BenchmarkExecutor";
+  private static final int TASKS_PER_BATCH = 1000;
+  private static final int PRODUCER_COUNT = 4;
+  private static final int MAX_SAMPLES = 200_000;
+  private static final long TASK_DURATION_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+  @Rule public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private final int threadCount;
+  private final boolean isWorkStealingEnabled;
+  private final long[] samples = new long[MAX_SAMPLES];
+  private int sampleCount;
+  private GlideExecutor executor;
+
+  @Parameters(name = "threads={0}, workStealing={1}")
+  public static Collection<Object[]> data() {
+    return Arrays.asList(
+        new Object[][] {
+          {4, false}, {4, true},
+          {8, false}, {8, true},
+          {16, false}, {16, true},
+        });
+  }
+
+  public BenchmarkSourceExecutor(int threadCount, boolean isWorkStealingEnabled) {
+    this.threadCount = threadCount;
+    this.isWorkStealingEnabled = isWorkStealingEnabled;
+  }
+
+  @Before
+  public void setUp() {
+    executor =
+        GlideExecutor.newSourceBuilder()
+            .setThreadCount(threadCount)
+            .setWorkStealingEnabled(isWorkStealingEnabled)
+            .build();
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void submitBatch() throws InterruptedException {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      runBatch();
+    }
+    logPercentiles();
+  }
+
+  private void runBatch() throws InterruptedException {
+    final long[] latencies = new long[TASKS_PER_BATCH];
+    final CountDownLatch done = new CountDownLatch(TASKS_PER_BATCH);
+    Thread[] producers = new Thread[PRODUCER_COUNT];
+    for (int p = 0; p < PRODUCER_COUNT; p++) {
+      final int producer = p;
+      producers[p] =
+          new Thread() {
+            @Override
+            public void run() {
+              for (int i = producer; i < TASKS_PER_BATCH; i += PRODUCER_COUNT) {
+                executor.execute(new Task(i, latencies, done));
+              }
+            }
+          };
+      producers[p].start();
+    }
+    for (Thread producer : producers) {
+      producer.join();
+    }
+    done.await();
+    for (long latency : latencies) {
+      if (sampleCount < MAX_SAMPLES) {
+        samples[sampleCount++] = latency;
+      }
+    }
+  }
+
+  private void logPercentiles() {
+    long[] sorted = Arrays.copyOf(samples, sampleCount);
+    Arrays.sort(sorted);
+    Log.i(
+        TAG,
+        "threads="
+            + threadCount
+            + ", workStealing="
+            + isWorkStealingEnabled
+            + ", queued micros p50="
+            + percentileMicros(sorted, 0.5)
+            + ", p90="
+            + percentileMicros(sorted, 0.9)
+            + ", p99="
+            + percentileMicros(sorted, 0.99));
+  }
+
+  private static long percentileMicros(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = Math.min(sorted.length - 1, (int) (sorted.length * percentile));
+    return TimeUnit.NANOSECONDS.toMicros(sorted[index]);
+  }
+
+  /** Comparable so that the default executor's priority queue orders tasks as Glide's do. */
+  private static final class Task implements Runnable, PrioritizedTask, Comparable<Task> {
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final int index;
+    private final long[] latencies;
+    private final CountDownLatch done;
+    private final long enqueuedNanos = System.nanoTime();
+
+    Task(int index, long[] latencies, CountDownLatch done) {
+      this.index = index;
+      this.latencies = latencies;
+      this.done = done;
+    }
+
+    @NonNull
+    @Override
+    public Priority getPriority() {
+      return PRIORITIES[index % PRIORITIES.length];
+    }
+
+    @Override
+    public int compareTo(@NonNull Task other) {
+      int result = getPriority().ordinal() - other.getPriority().ordinal();
+      if (result == 0) {
+        result = index - other.index;
+      }
+      return result;
+    }
+
+    @Override
+    public void run() {
+      long startNanos = System.nanoTime();
+      latencies[index] = startNanos - enqueuedNanos;
+      while (System.nanoTime() - startNanos < TASK_DURATION_NANOS) {
+        // Simulate a small amount of work.
+      }
+      done.countDown();
+    }
+  }
+}
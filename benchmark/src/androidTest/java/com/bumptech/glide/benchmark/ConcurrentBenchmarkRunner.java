@@ -0,0 +1,82 @@
+package com.bumptech.glide.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a fixed number of operations on each of a fixed number of threads for every iteration of a
+ * {@link BenchmarkState}, so that the measured time reflects throughput under contention.
+ *
+ * <p>Threads are started once, before timing begins, and are reused for every iteration.
+ */
+public final class ConcurrentBenchmarkRunner {
+  private final int threadCount;
+
+  /** A single unit of work, called {@code operationsPerThread} times on every thread. */
+  public interface Operation {
+    void run(int threadIndex, int operationIndex) throws Exception;
+  }
+
+  public ConcurrentBenchmarkRunner(int threadCount) {
+    this.threadCount = threadCount;
+  }
+
+  public void run(BenchmarkState state, final int operationsPerThread, final Operation operation)
+      throws Exception {
+    state.pauseTiming();
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      // Make sure all of the threads are started before we start timing.
+      final CountDownLatch warm = new CountDownLatch(threadCount);
+      for (int i = 0; i < threadCount; i++) {
+        executor.execute(
+            new Runnable() {
+              @Override
+              public void run() {
+                warm.countDown();
+              }
+            });
+      }
+      warm.await();
+      state.resumeTiming();
+
+      final AtomicReference<Exception> failure = new AtomicReference<>();
+      while (state.keepRunning()) {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+          final int threadIndex = i;
+          executor.execute(
+              new Runnable() {
+                @Override
+                public void run() {
+                  try {
+                    start.await();
+                    for (int j = 0; j < operationsPerThread; j++) {
+                      operation.run(threadIndex, j);
+                    }
+                  } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                  } finally {
+                    done.countDown();
+                  }
+                }
+              });
+        }
+        start.countDown();
+        done.await();
+      }
+      if (failure.get() != null) {
+        throw failure.get();
+      }
+    } finally {
+      // Timing has already stopped once keepRunning returns false.
+      executor.shutdownNow();
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+  }
+}
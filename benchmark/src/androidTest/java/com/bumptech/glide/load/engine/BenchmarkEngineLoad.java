@@ -0,0 +1,192 @@
+package com.bumptech.glide.load.engine;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.core.util.Pools;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.benchmark.ConcurrentBenchmarkRunner;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.load.engine.cache.DiskCacheAdapter;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.load.resource.SimpleResource;
+import com.bumptech.glide.request.ResourceCallback;
+import com.bumptech.glide.signature.EmptySignature;
+import com.bumptech.glide.signature.ObjectKey;
+import com.bumptech.glide.util.Executors;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures the throughput of {@link Engine#load} calls that hit in memory while other threads
+ * complete jobs and release resources, as decode threads do during a fast scroll.
+ *
+ * <p>Each loading thread uses its own set of keys and releases every resource it loads, so that
+ * resources move between active resources and the memory cache on every operation.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkEngineLoad {
+  private static final int LOAD_THREADS = 4;
+  private static final int OPERATIONS_PER_THREAD = 1000;
+  private static final int KEYS_PER_LOAD_THREAD = 64;
+  private static final int COMPLETION_KEY_COUNT = 64;
+  private static final int SIZE = 100;
+  // Each SimpleResource has a size of 1, so every key fits and nothing is evicted.
+  private static final long CACHE_SIZE =
+      LOAD_THREADS * KEYS_PER_LOAD_THREAD + COMPLETION_KEY_COUNT;
+
+  @Rule public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private final Key signature = EmptySignature.obtain();
+  private final Map<Class<?>, Transformation<?>> transformations = Collections.emptyMap();
+  private final Options options = new Options();
+  private final Object[] models = new Object[LOAD_THREADS * KEYS_PER_LOAD_THREAD];
+  private final Key[] completionKeys = new Key[COMPLETION_KEY_COUNT];
+  private final ResourceCallback releasingCallback =
+      new ResourceCallback() {
+        @Override
+        public void onResourceReady(
+            Resource<?> resource, DataSource dataSource, boolean isLoadedFromAlternateCacheKey) {
+          engine.release(resource);
+        }
+
+        @Override
+        public void onLoadFailed(GlideException e) {
+          throw new IllegalStateException("Expected a memory cache hit", e);
+        }
+
+        @Override
+        public Object getLock() {
+          return this;
+        }
+      };
+
+  private GlideExecutor executor;
+  private Engine engine;
+  private EngineJob<Object> completedJob;
+
+  @Before
+  public void setUp() {
+    executor = GlideExecutor.newDiskCacheExecutor();
+    LruResourceCache cache = new LruResourceCache(CACHE_SIZE);
+    engine =
+        new Engine(
+            cache,
+            new DiskCacheAdapter.Factory(),
+            executor,
+            executor,
+            executor,
+            executor,
+            /*isActiveResourceRetentionAllowed=*/ false);
+    completedJob =
+        new EngineJob<>(
+            executor,
+            executor,
+            executor,
+            executor,
+            /*decodeExecutor=*/ null,
+            engine,
+            engine,
+            new Pools.SimplePool<EngineJob<?>>(1));
+
+    for (int i = 0; i < models.length; i++) {
+      models[i] = i;
+      EngineKey key =
+          new EngineKey(
+              models[i],
+              signature,
+              SIZE,
+              SIZE,
+              transformations,
+              Object.class,
+              Object.class,
+              options);
+      cache.put(key, newResource(key));
+    }
+    for (int i = 0; i < COMPLETION_KEY_COUNT; i++) {
+      completionKeys[i] = new ObjectKey("completion" + i);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    engine.shutdown();
+  }
+
+  @Test
+  public void hits_withoutCompletions() throws Exception {
+    runBenchmark(/*completionThreads=*/ 0);
+  }
+
+  @Test
+  public void hits_withConcurrentCompletions() throws Exception {
+    runBenchmark(/*completionThreads=*/ 2);
+  }
+
+  private void runBenchmark(int completionThreads) throws Exception {
+    BenchmarkState state = benchmarkRule.getState();
+    new ConcurrentBenchmarkRunner(LOAD_THREADS + completionThreads)
+        .run(
+            state,
+            OPERATIONS_PER_THREAD,
+            new ConcurrentBenchmarkRunner.Operation() {
+              @Override
+              public void run(int threadIndex, int operationIndex) {
+                if (threadIndex < LOAD_THREADS) {
+                  load(threadIndex * KEYS_PER_LOAD_THREAD + operationIndex % KEYS_PER_LOAD_THREAD);
+                } else {
+                  complete(completionKeys[operationIndex % COMPLETION_KEY_COUNT]);
+                }
+              }
+            });
+  }
+
+  private void load(int modelIndex) {
+    engine.load(
+        /*glideContext=*/ null,
+        models[modelIndex],
+        signature,
+        SIZE,
+        SIZE,
+        Object.class,
+        Object.class,
+        Priority.NORMAL,
+        DiskCacheStrategy.NONE,
+        transformations,
+        /*isTransformationRequired=*/ false,
+        /*isScaleOnlyOrNoTransform=*/ true,
+        options,
+        /*isMemoryCacheable=*/ true,
+        /*useUnlimitedSourceExecutorPool=*/ false,
+        /*useAnimationPool=*/ false,
+        /*onlyRetrieveFromCache=*/ true,
+        releasingCallback,
+        Executors.directExecutor());
+  }
+
+  /** Simulates a job finishing and its resource immediately being released to the cache. */
+  private void complete(Key key) {
+    EngineResource<Object> resource = newResource(key);
+    engine.onEngineJobComplete(completedJob, key, resource);
+    resource.acquire();
+    resource.release();
+  }
+
+  private EngineResource<Object> newResource(Key key) {
+    return new EngineResource<Object>(
+        new SimpleResource<>(new Object()),
+        /*isMemoryCacheable=*/ true,
+        /*isRecyclable=*/ true,
+        key,
+        engine);
+  }
+}
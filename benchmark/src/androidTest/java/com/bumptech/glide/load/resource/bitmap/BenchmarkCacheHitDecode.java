@@ -0,0 +1,224 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import android.app.Application;
+import android.graphics.Bitmap;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.benchmark.R;
+import com.bumptech.glide.benchmark.data.DataOpener.FileOpener;
+import com.bumptech.glide.load.ImageHeaderParser;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.model.ByteBufferFileLoader;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.util.pool.FactoryPools;
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares the cost of reading and decoding a file that's already in the disk cache using the
+ * stream path ({@link com.bumptech.glide.load.model.FileLoader} and {@link StreamBitmapDecoder})
+ * and the memory mapped path ({@link ByteBufferFileLoader} and {@link ByteBufferBitmapDecoder}).
+ *
+ * <p>The number of bytes requested from the {@link ArrayPool} per decode is logged for each
+ * benchmark.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkCacheHitDecode {
+  private static final String TAG = "BenchmarkCacheHit";
+  private static final int SIZE = 512;
+  private static final int RESOURCE_ID = R.raw.pixel3a_portrait;
+
+  @Rule public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private final Application app = ApplicationProvider.getApplicationContext();
+  private final FileOpener fileOpener = new FileOpener();
+  private final CountingArrayPool arrayPool = new CountingArrayPool(new LruArrayPool());
+  private final LruBitmapPool bitmapPool = new LruBitmapPool(20 * 1024 * 1024);
+  private Downsampler downsampler;
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = fileOpener.acquire(RESOURCE_ID);
+    ImmutableList<ImageHeaderParser> parsers =
+        ImmutableList.<ImageHeaderParser>of(new DefaultImageHeaderParser());
+    downsampler =
+        new Downsampler(parsers, app.getResources().getDisplayMetrics(), bitmapPool, arrayPool);
+  }
+
+  @After
+  public void tearDown() {
+    fileOpener.close(file);
+  }
+
+  @Test
+  public void inputStream() throws IOException {
+    final StreamBitmapDecoder decoder = new StreamBitmapDecoder(downsampler, arrayPool);
+    runBenchmark(
+        "inputStream",
+        new Decode() {
+          @Override
+          public Resource<Bitmap> decode() throws IOException {
+            InputStream is = new FileInputStream(file);
+            try {
+              return decoder.decode(is, SIZE, SIZE, new Options());
+            } finally {
+              is.close();
+            }
+          }
+        });
+  }
+
+  @Test
+  public void memoryMappedByteBuffer() throws IOException {
+    runByteBufferBenchmark("memoryMappedByteBuffer", new ByteBufferFileLoader());
+  }
+
+  @Test
+  public void reusedMemoryMappedByteBuffer() throws IOException {
+    ModelLoader<File, ByteBuffer> loader =
+        new ByteBufferFileLoader.Factory()
+            .build(new MultiModelLoaderFactory(FactoryPools.<Throwable>threadSafeList()));
+    runByteBufferBenchmark("reusedMemoryMappedByteBuffer", loader);
+  }
+
+  private void runByteBufferBenchmark(String name, final ModelLoader<File, ByteBuffer> loader)
+      throws IOException {
+    final ByteBufferBitmapDecoder decoder = new ByteBufferBitmapDecoder(downsampler);
+    runBenchmark(
+        name,
+        new Decode() {
+          @Override
+          public Resource<Bitmap> decode() throws IOException {
+            ByteBuffer data = load(loader);
+            return decoder.decode(data, SIZE, SIZE, new Options());
+          }
+        });
+  }
+
+  private ByteBuffer load(ModelLoader<File, ByteBuffer> loader) throws IOException {
+    final ByteBuffer[] result = new ByteBuffer[1];
+    final Exception[] failure = new Exception[1];
+    ModelLoader.LoadData<ByteBuffer> loadData =
+        loader.buildLoadData(file, SIZE, SIZE, new Options());
+    if (loadData == null) {
+      throw new IllegalStateException("Failed to build load data for: " + file);
+    }
+    loadData.fetcher.loadData(
+        Priority.NORMAL,
+        new DataFetcher.DataCallback<ByteBuffer>() {
+          @Override
+          public void onDataReady(@Nullable ByteBuffer data) {
+            result[0] = data;
+          }
+
+          @Override
+          public void onLoadFailed(@NonNull Exception e) {
+            failure[0] = e;
+          }
+        });
+    if (result[0] == null) {
+      throw new IOException("Failed to load: " + file, failure[0]);
+    }
+    return result[0];
+  }
+
+  private void runBenchmark(String name, Decode decode) throws IOException {
+    BenchmarkState state = benchmarkRule.getState();
+    int decodes = 0;
+    arrayPool.reset();
+    while (state.keepRunning()) {
+      Resource<Bitmap> resource = decode.decode();
+      decodes++;
+
+      state.pauseTiming();
+      if (resource != null) {
+        resource.recycle();
+      }
+      state.resumeTiming();
+    }
+    Log.i(TAG, name + ": " + arrayPool.getRequestedBytes() / decodes + " pooled bytes/decode");
+  }
+
+  private interface Decode {
+    @Nullable
+    Resource<Bitmap> decode() throws IOException;
+  }
+
+  /** Counts the number of bytes requested from a wrapped {@link ArrayPool}. */
+  private static final class CountingArrayPool implements ArrayPool {
+    private final ArrayPool wrapped;
+    private long requestedBytes;
+
+    CountingArrayPool(ArrayPool wrapped) {
+      this.wrapped = wrapped;
+    }
+
+    synchronized void reset() {
+      requestedBytes = 0;
+    }
+
+    synchronized long getRequestedBytes() {
+      return requestedBytes;
+    }
+
+    private synchronized void onRequested(int size) {
+      requestedBytes += size;
+    }
+
+    @Deprecated
+    @Override
+    public <T> void put(T array, Class<T> arrayClass) {
+      wrapped.put(array, arrayClass);
+    }
+
+    @Override
+    public <T> void put(T array) {
+      wrapped.put(array);
+    }
+
+    @Override
+    public <T> T get(int size, Class<T> arrayClass) {
+      onRequested(size);
+      return wrapped.get(size, arrayClass);
+    }
+
+    @Override
+    public <T> T getExact(int size, Class<T> arrayClass) {
+      onRequested(size);
+      return wrapped.getExact(size, arrayClass);
+    }
+
+    @Override
+    public void clearMemory() {
+      wrapped.clearMemory();
+    }
+
+    @Override
+    public void trimMemory(int level) {
+      wrapped.trimMemory(level);
+    }
+  }
+}
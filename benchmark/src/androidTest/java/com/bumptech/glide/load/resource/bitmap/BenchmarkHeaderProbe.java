@@ -0,0 +1,149 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import android.app.Application;
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.bumptech.glide.benchmark.R;
+import com.bumptech.glide.benchmark.data.DataOpener.StreamOpener;
+import com.bumptech.glide.load.ImageHeaderParser;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.request.target.Target;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares decoding {@link InputStream}s with the type, orientation and dimensions parsed in a
+ * single pass over the header against parsing each of them separately and running an {@code
+ * inJustDecodeBounds} decode.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkHeaderProbe {
+  private static final int SMALL_SIZE = 200;
+  private final Application app = ApplicationProvider.getApplicationContext();
+  private final StreamOpener opener = new StreamOpener();
+
+  @Rule public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  @Test
+  public void singlePass_original() throws IOException {
+    runBenchmark(new DefaultImageHeaderParser(), R.raw.pixel3a_portrait, Target.SIZE_ORIGINAL);
+  }
+
+  @Test
+  public void separatePasses_original() throws IOException {
+    runBenchmark(
+        new ForwardingImageHeaderParser(new DefaultImageHeaderParser()),
+        R.raw.pixel3a_portrait,
+        Target.SIZE_ORIGINAL);
+  }
+
+  @Test
+  public void singlePass_downsampled() throws IOException {
+    runBenchmark(new DefaultImageHeaderParser(), R.raw.pixel3a_portrait, SMALL_SIZE);
+  }
+
+  @Test
+  public void separatePasses_downsampled() throws IOException {
+    runBenchmark(
+        new ForwardingImageHeaderParser(new DefaultImageHeaderParser()),
+        R.raw.pixel3a_portrait,
+        SMALL_SIZE);
+  }
+
+  @Test
+  public void singlePass_exifRotated() throws IOException {
+    runBenchmark(new DefaultImageHeaderParser(), R.raw.pixel3a_exif_rotated, SMALL_SIZE);
+  }
+
+  @Test
+  public void separatePasses_exifRotated() throws IOException {
+    runBenchmark(
+        new ForwardingImageHeaderParser(new DefaultImageHeaderParser()),
+        R.raw.pixel3a_exif_rotated,
+        SMALL_SIZE);
+  }
+
+  @Test
+  public void singlePass_small() throws IOException {
+    runBenchmark(new DefaultImageHeaderParser(), R.raw.small, Target.SIZE_ORIGINAL);
+  }
+
+  @Test
+  public void separatePasses_small() throws IOException {
+    runBenchmark(
+        new ForwardingImageHeaderParser(new DefaultImageHeaderParser()),
+        R.raw.small,
+        Target.SIZE_ORIGINAL);
+  }
+
+  private void runBenchmark(ImageHeaderParser parser, int resourceId, int size)
+      throws IOException {
+    Downsampler downsampler =
+        new Downsampler(
+            ImmutableList.of(parser),
+            app.getResources().getDisplayMetrics(),
+            new LruBitmapPool(20 * 1024 * 1024),
+            new LruArrayPool(5 * 1024 * 1024));
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      state.pauseTiming();
+      InputStream is = opener.acquire(resourceId);
+      state.resumeTiming();
+      try {
+        downsampler.decode(is, size, size, new Options()).recycle();
+      } finally {
+        state.pauseTiming();
+        opener.close(is);
+        state.resumeTiming();
+      }
+    }
+  }
+
+  /**
+   * Hides the {@link DefaultImageHeaderParser} from {@link ImageReader} so that the type,
+   * orientation and dimensions are each read in a separate pass, as they were before the single
+   * pass probe.
+   */
+  private static final class ForwardingImageHeaderParser implements ImageHeaderParser {
+    private final ImageHeaderParser delegate;
+
+    ForwardingImageHeaderParser(ImageHeaderParser delegate) {
+      this.delegate = delegate;
+    }
+
+    @NonNull
+    @Override
+    public ImageType getType(@NonNull InputStream is) throws IOException {
+      return delegate.getType(is);
+    }
+
+    @NonNull
+    @Override
+    public ImageType getType(@NonNull ByteBuffer byteBuffer) throws IOException {
+      return delegate.getType(byteBuffer);
+    }
+
+    @Override
+    public int getOrientation(@NonNull InputStream is, @NonNull ArrayPool byteArrayPool)
+        throws IOException {
+      return delegate.getOrientation(is, byteArrayPool);
+    }
+
+    @Override
+    public int getOrientation(@NonNull ByteBuffer byteBuffer, @NonNull ArrayPool byteArrayPool)
+        throws IOException {
+      return delegate.getOrientation(byteBuffer, byteArrayPool);
+    }
+  }
+}
@@ -4,6 +4,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.bumptech.glide.manager.RequestManagerRetriever;
 import com.bumptech.glide.module.AppGlideModule;
+import java.util.Collections;
 import java.util.Set;
 
 /**
@@ -21,4 +22,13 @@ abstract class GeneratedAppGlideModule extends AppGlideModule {
   RequestManagerRetriever.RequestManagerFactory getRequestManagerFactory() {
     return null;
   }
+
+  /**
+   * Returns the classes that {@link com.bumptech.glide.annotation.GlideType} methods in {@link
+   * com.bumptech.glide.annotation.GlideExtension}s allow requests to load.
+   */
+  @NonNull
+  Set<Class<?>> getGlideTypeClasses() {
+    return Collections.emptySet();
+  }
 }
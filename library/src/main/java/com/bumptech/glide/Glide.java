@@ -22,7 +22,9 @@ import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
+import com.bumptech.glide.GlideBuilder.AutoPreFillBitmapPool;
 import com.bumptech.glide.GlideBuilder.EnableImageDecoderForBitmaps;
+import com.bumptech.glide.gifdecoder.FrameSequenceDecoder;
 import com.bumptech.glide.gifdecoder.GifDecoder;
 import com.bumptech.glide.load.DecodeFormat;
 import com.bumptech.glide.load.ImageHeaderParser;
@@ -32,7 +34,10 @@ import com.bumptech.glide.load.data.ParcelFileDescriptorRewinder;
 import com.bumptech.glide.load.engine.Engine;
 import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
 import com.bumptech.glide.load.engine.cache.MemoryCache;
+import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.load.engine.prefill.AutoBitmapPreFiller;
 import com.bumptech.glide.load.engine.prefill.BitmapPreFiller;
 import com.bumptech.glide.load.engine.prefill.PreFillType;
 import com.bumptech.glide.load.engine.prefill.PreFillType.Builder;
@@ -44,6 +49,7 @@ import com.bumptech.glide.load.model.DataUrlLoader;
 import com.bumptech.glide.load.model.FileLoader;
 import com.bumptech.glide.load.model.GlideUrl;
 import com.bumptech.glide.load.model.MediaStoreFileLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
 import com.bumptech.glide.load.model.ResourceLoader;
 import com.bumptech.glide.load.model.StreamEncoder;
 import com.bumptech.glide.load.model.StringLoader;
@@ -75,14 +81,20 @@ import com.bumptech.glide.load.resource.drawable.ResourceDrawableDecoder;
 import com.bumptech.glide.load.resource.drawable.UnitDrawableDecoder;
 import com.bumptech.glide.load.resource.file.FileDecoder;
 import com.bumptech.glide.load.resource.gif.ByteBufferGifDecoder;
+import com.bumptech.glide.load.resource.gif.FrameSequenceResourceDecoder;
 import com.bumptech.glide.load.resource.gif.GifDrawable;
 import com.bumptech.glide.load.resource.gif.GifDrawableEncoder;
 import com.bumptech.glide.load.resource.gif.GifFrameResourceDecoder;
 import com.bumptech.glide.load.resource.gif.StreamGifDecoder;
+import com.bumptech.glide.load.resource.tile.ByteBufferTiledImageDecoder;
+import com.bumptech.glide.load.resource.tile.StreamTiledImageDecoder;
+import com.bumptech.glide.load.resource.tile.TiledImage;
 import com.bumptech.glide.load.resource.transcode.BitmapBytesTranscoder;
 import com.bumptech.glide.load.resource.transcode.BitmapDrawableTranscoder;
 import com.bumptech.glide.load.resource.transcode.DrawableBytesTranscoder;
 import com.bumptech.glide.load.resource.transcode.GifDrawableBytesTranscoder;
+import com.bumptech.glide.load.resource.webp.ByteBufferWebpDecoder;
+import com.bumptech.glide.load.resource.webp.StreamWebpDecoder;
 import com.bumptech.glide.manager.ConnectivityMonitorFactory;
 import com.bumptech.glide.manager.RequestManagerRetriever;
 import com.bumptech.glide.module.ManifestParser;
@@ -90,7 +102,10 @@ import com.bumptech.glide.request.RequestListener;
 import com.bumptech.glide.request.RequestOptions;
 import com.bumptech.glide.request.target.ImageViewTargetFactory;
 import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.util.GlideSuppliers;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
 import com.bumptech.glide.util.Preconditions;
+import com.bumptech.glide.util.Synthetic;
 import com.bumptech.glide.util.Util;
 import java.io.File;
 import java.io.InputStream;
@@ -98,11 +113,14 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * A singleton to present a simple static interface for building requests with {@link
@@ -112,12 +130,27 @@ import java.util.Set;
 public class Glide implements ComponentCallbacks2 {
   private static final String DEFAULT_DISK_CACHE_DIR = "image_manager_disk_cache";
   private static final String TAG = "Glide";
+  private static final String INIT_EXECUTOR_NAME = "init";
+  // The classes that RequestManager's own methods can load.
+  private static final List<Class<?>> DEFAULT_TRANSCODE_CLASSES =
+      Arrays.<Class<?>>asList(Drawable.class, Bitmap.class, GifDrawable.class, File.class);
 
   @GuardedBy("Glide.class")
   private static volatile Glide glide;
 
   private static volatile boolean isInitializing;
 
+  /**
+   * Guards the state of {@link #initInBackground(Context)}, separately from {@code Glide.class},
+   * which is held for as long as initialization runs.
+   */
+  private static final Object READY_LOCK = new Object();
+
+  /** Callbacks waiting for {@link #initInBackground(Context)}, or null if it isn't running. */
+  @GuardedBy("READY_LOCK")
+  @Nullable
+  private static List<Runnable> pendingReadyCallbacks;
+
   private final Engine engine;
   private final BitmapPool bitmapPool;
   private final MemoryCache memoryCache;
@@ -136,6 +169,7 @@ public class Glide implements ComponentCallbacks2 {
   @GuardedBy("this")
   @Nullable
   private BitmapPreFiller bitmapPreFiller;
+  @Nullable private final AutoBitmapPreFiller autoBitmapPreFiller;
 
   /**
    * Returns a directory with a default name in the private cache directory of the application to
@@ -207,8 +241,117 @@ public class Glide implements ComponentCallbacks2 {
               + " use the provided Glide instance instead");
     }
     isInitializing = true;
-    initializeGlide(context, generatedAppGlideModule);
-    isInitializing = false;
+    try {
+      initializeGlide(context, generatedAppGlideModule);
+    } finally {
+      // Otherwise a failure, possibly on a background thread, makes every later call look like a
+      // recursive one.
+      isInitializing = false;
+    }
+  }
+
+  /**
+   * Starts initializing Glide on a new background thread so that the first call to {@link
+   * #get(Context)} or {@link #with(Context)} doesn't have to.
+   *
+   * @see #initInBackground(Context, Executor)
+   */
+  // glide is volatile, so it can be read without blocking on an initialization that's running.
+  @SuppressWarnings("GuardedBy")
+  public static void initInBackground(@NonNull Context context) {
+    synchronized (READY_LOCK) {
+      if (glide != null || pendingReadyCallbacks != null) {
+        return;
+      }
+    }
+    GlideExecutor executor =
+        GlideExecutor.newDiskCacheBuilder().setThreadCount(1).setName(INIT_EXECUTOR_NAME).build();
+    initInBackground(context, executor);
+    // The submitted task still runs, but the thread is allowed to exit once it's done.
+    executor.shutdown();
+  }
+
+  /**
+   * Starts initializing Glide on the given {@link Executor}, typically from {@link
+   * android.app.Application#onCreate()}.
+   *
+   * <p>Initialization parses manifest modules, applies options and registers components from
+   * every {@link com.bumptech.glide.module.LibraryGlideModule} and {@link
+   * com.bumptech.glide.module.AppGlideModule}. After that, the disk cache is created and its
+   * journal read so that the first load doesn't have to wait for either.
+   *
+   * <p>Calls to {@link #get(Context)} or {@link #with(Context)} made while initialization is
+   * running wait for it to finish rather than initializing Glide a second time. Use {@link
+   * #whenReady(Context, Runnable)} to avoid waiting on the main thread.
+   *
+   * <p>Does nothing if Glide is already initialized or being initialized in the background.
+   */
+  // glide is volatile, so it can be read without blocking on an initialization that's running.
+  @SuppressWarnings("GuardedBy")
+  public static void initInBackground(@NonNull Context context, @NonNull Executor executor) {
+    final Context applicationContext = context.getApplicationContext();
+    synchronized (READY_LOCK) {
+      if (glide != null || pendingReadyCallbacks != null) {
+        return;
+      }
+      pendingReadyCallbacks = new ArrayList<>();
+    }
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            initAndWarmUp(applicationContext);
+          }
+        });
+  }
+
+  @Synthetic
+  static void initAndWarmUp(@NonNull Context applicationContext) {
+    Glide glide;
+    try {
+      glide = get(applicationContext);
+    } finally {
+      // If initialization failed, callbacks will see the same failure when they call get(), which
+      // is more useful than never being called.
+      onBackgroundInitFinished();
+    }
+    glide.engine.warmUpDiskCache();
+  }
+
+  /**
+   * Runs the given callback on the main thread once Glide is initialized, starting {@link
+   * #initInBackground(Context)} if Glide isn't already initialized or being initialized.
+   *
+   * <p>If Glide is already initialized, the callback is run immediately when called on the main
+   * thread and posted to the main thread otherwise.
+   */
+  public static void whenReady(@NonNull Context context, @NonNull Runnable callback) {
+    initInBackground(context);
+    synchronized (READY_LOCK) {
+      if (pendingReadyCallbacks != null) {
+        pendingReadyCallbacks.add(callback);
+        return;
+      }
+    }
+    if (Util.isOnMainThread()) {
+      callback.run();
+    } else {
+      Util.postOnUiThread(callback);
+    }
+  }
+
+  private static void onBackgroundInitFinished() {
+    List<Runnable> callbacks;
+    synchronized (READY_LOCK) {
+      callbacks = pendingReadyCallbacks;
+      pendingReadyCallbacks = null;
+    }
+    if (callbacks == null) {
+      return;
+    }
+    for (Runnable callback : callbacks) {
+      Util.postOnUiThread(callback);
+    }
   }
 
   /**
@@ -258,6 +401,9 @@ public class Glide implements ComponentCallbacks2 {
       }
       glide = null;
     }
+    synchronized (READY_LOCK) {
+      pendingReadyCallbacks = null;
+    }
   }
 
   @GuardedBy("Glide.class")
@@ -328,6 +474,11 @@ public class Glide implements ComponentCallbacks2 {
     if (annotationGeneratedModule != null) {
       annotationGeneratedModule.registerComponents(applicationContext, glide, glide.registry);
     }
+    Set<Class<?>> transcodeClasses = new HashSet<>(DEFAULT_TRANSCODE_CLASSES);
+    if (annotationGeneratedModule != null) {
+      transcodeClasses.addAll(annotationGeneratedModule.getGlideTypeClasses());
+    }
+    glide.registry.setPrecomputedTranscodeClasses(transcodeClasses);
     applicationContext.registerComponentCallbacks(glide);
     Glide.glide = glide;
   }
@@ -374,11 +525,11 @@ public class Glide implements ComponentCallbacks2 {
 
   @SuppressWarnings("PMD.UnusedFormalParameter")
   Glide(
-      @NonNull Context context,
+      @NonNull final Context context,
       @NonNull Engine engine,
-      @NonNull MemoryCache memoryCache,
-      @NonNull BitmapPool bitmapPool,
-      @NonNull ArrayPool arrayPool,
+      @NonNull final MemoryCache memoryCache,
+      @NonNull final BitmapPool bitmapPool,
+      @NonNull final ArrayPool arrayPool,
       @NonNull RequestManagerRetriever requestManagerRetriever,
       @NonNull ConnectivityMonitorFactory connectivityMonitorFactory,
       int logLevel,
@@ -394,6 +545,13 @@ public class Glide implements ComponentCallbacks2 {
     this.connectivityMonitorFactory = connectivityMonitorFactory;
     this.defaultRequestOptionsFactory = defaultRequestOptionsFactory;
 
+    if (experiments.isEnabled(AutoPreFillBitmapPool.class) && bitmapPool instanceof LruBitmapPool) {
+      autoBitmapPreFiller = new AutoBitmapPreFiller(getBitmapPreFiller(), bitmapPool);
+      ((LruBitmapPool) bitmapPool).setMissListener(autoBitmapPreFiller);
+    } else {
+      autoBitmapPreFiller = null;
+    }
+
     final Resources resources = context.getResources();
 
     registry = new Registry();
@@ -404,30 +562,102 @@ public class Glide implements ComponentCallbacks2 {
       registry.register(new ExifInterfaceImageHeaderParser());
     }
 
-    List<ImageHeaderParser> imageHeaderParsers = registry.getImageHeaderParsers();
-
-    ByteBufferGifDecoder byteBufferGifDecoder =
-        new ByteBufferGifDecoder(context, imageHeaderParsers, bitmapPool, arrayPool);
-    ResourceDecoder<ParcelFileDescriptor, Bitmap> parcelFileDescriptorVideoDecoder =
-        VideoDecoder.parcel(bitmapPool);
+    final List<ImageHeaderParser> imageHeaderParsers = registry.getImageHeaderParsers();
+
+    // Decoders and the heavier model loaders are registered lazily so that they, and the classes
+    // they depend on, are only created once a load first needs them rather than while Glide is
+    // initialized, which is usually on the main thread during app startup.
+    final GlideSupplier<ResourceDecoder<ByteBuffer, GifDrawable>> byteBufferGifDecoder =
+        GlideSuppliers.memoize(
+            new GlideSupplier<ResourceDecoder<ByteBuffer, GifDrawable>>() {
+              @NonNull
+              @Override
+              public ResourceDecoder<ByteBuffer, GifDrawable> get() {
+                return new ByteBufferGifDecoder(context, imageHeaderParsers, bitmapPool, arrayPool);
+              }
+            });
+    final GlideSupplier<ResourceDecoder<ByteBuffer, GifDrawable>> byteBufferWebpDecoder =
+        GlideSuppliers.memoize(
+            new GlideSupplier<ResourceDecoder<ByteBuffer, GifDrawable>>() {
+              @NonNull
+              @Override
+              public ResourceDecoder<ByteBuffer, GifDrawable> get() {
+                return new ByteBufferWebpDecoder(context, bitmapPool, arrayPool);
+              }
+            });
+    final GlideSupplier<ResourceDecoder<ByteBuffer, TiledImage>> byteBufferTiledImageDecoder =
+        GlideSuppliers.memoize(
+            new GlideSupplier<ResourceDecoder<ByteBuffer, TiledImage>>() {
+              @NonNull
+              @Override
+              public ResourceDecoder<ByteBuffer, TiledImage> get() {
+                return new ByteBufferTiledImageDecoder(
+                    imageHeaderParsers, bitmapPool, memoryCache, arrayPool);
+              }
+            });
+    final GlideSupplier<ResourceDecoder<ParcelFileDescriptor, Bitmap>>
+        parcelFileDescriptorVideoDecoder =
+            GlideSuppliers.memoize(
+                new GlideSupplier<ResourceDecoder<ParcelFileDescriptor, Bitmap>>() {
+                  @NonNull
+                  @Override
+                  public ResourceDecoder<ParcelFileDescriptor, Bitmap> get() {
+                    return VideoDecoder.parcel(bitmapPool);
+                  }
+                });
 
     // TODO(judds): Make ParcelFileDescriptorBitmapDecoder work with ImageDecoder.
-    Downsampler downsampler =
-        new Downsampler(
-            registry.getImageHeaderParsers(), resources.getDisplayMetrics(), bitmapPool, arrayPool);
-
-    ResourceDecoder<ByteBuffer, Bitmap> byteBufferBitmapDecoder;
-    ResourceDecoder<InputStream, Bitmap> streamBitmapDecoder;
+    final GlideSupplier<Downsampler> downsampler =
+        GlideSuppliers.memoize(
+            new GlideSupplier<Downsampler>() {
+              @NonNull
+              @Override
+              public Downsampler get() {
+                return new Downsampler(
+                    imageHeaderParsers, resources.getDisplayMetrics(), bitmapPool, arrayPool);
+              }
+            });
+
+    GlideSupplier<ResourceDecoder<ByteBuffer, Bitmap>> byteBufferBitmapDecoder;
+    GlideSupplier<ResourceDecoder<InputStream, Bitmap>> streamBitmapDecoder;
     if (experiments.isEnabled(EnableImageDecoderForBitmaps.class)
         && Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
-      streamBitmapDecoder = new InputStreamBitmapImageDecoderResourceDecoder();
-      byteBufferBitmapDecoder = new ByteBufferBitmapImageDecoderResourceDecoder();
+      streamBitmapDecoder =
+          GlideSuppliers.<ResourceDecoder<InputStream, Bitmap>>ofInstance(
+              new InputStreamBitmapImageDecoderResourceDecoder());
+      byteBufferBitmapDecoder =
+          GlideSuppliers.<ResourceDecoder<ByteBuffer, Bitmap>>ofInstance(
+              new ByteBufferBitmapImageDecoderResourceDecoder());
     } else {
-      byteBufferBitmapDecoder = new ByteBufferBitmapDecoder(downsampler);
-      streamBitmapDecoder = new StreamBitmapDecoder(downsampler, arrayPool);
+      byteBufferBitmapDecoder =
+          GlideSuppliers.memoize(
+              new GlideSupplier<ResourceDecoder<ByteBuffer, Bitmap>>() {
+                @NonNull
+                @Override
+                public ResourceDecoder<ByteBuffer, Bitmap> get() {
+                  return new ByteBufferBitmapDecoder(downsampler.get());
+                }
+              });
+      streamBitmapDecoder =
+          GlideSuppliers.memoize(
+              new GlideSupplier<ResourceDecoder<InputStream, Bitmap>>() {
+                @NonNull
+                @Override
+                public ResourceDecoder<InputStream, Bitmap> get() {
+                  return new StreamBitmapDecoder(downsampler.get(), arrayPool);
+                }
+              });
     }
 
-    ResourceDrawableDecoder resourceDrawableDecoder = new ResourceDrawableDecoder(context);
+    final GlideSupplier<ResourceDrawableDecoder> resourceDrawableDecoder =
+        GlideSuppliers.memoize(
+            new GlideSupplier<ResourceDrawableDecoder>() {
+              @NonNull
+              @Override
+              public ResourceDrawableDecoder get() {
+                return new ResourceDrawableDecoder(context);
+              }
+            });
     ResourceLoader.StreamFactory resourceLoaderStreamFactory =
         new ResourceLoader.StreamFactory(resources);
     ResourceLoader.UriFactory resourceLoaderUriFactory = new ResourceLoader.UriFactory(resources);
@@ -446,56 +676,108 @@ public class Glide implements ComponentCallbacks2 {
         .append(ByteBuffer.class, new ByteBufferEncoder())
         .append(InputStream.class, new StreamEncoder(arrayPool))
         /* Bitmaps */
-        .append(Registry.BUCKET_BITMAP, ByteBuffer.class, Bitmap.class, byteBufferBitmapDecoder)
-        .append(Registry.BUCKET_BITMAP, InputStream.class, Bitmap.class, streamBitmapDecoder);
+        .appendLazily(
+            Registry.BUCKET_BITMAP, ByteBuffer.class, Bitmap.class, byteBufferBitmapDecoder)
+        .appendLazily(Registry.BUCKET_BITMAP, InputStream.class, Bitmap.class, streamBitmapDecoder);
 
     if (ParcelFileDescriptorRewinder.isSupported()) {
-      registry.append(
+      registry.appendLazily(
           Registry.BUCKET_BITMAP,
           ParcelFileDescriptor.class,
           Bitmap.class,
-          new ParcelFileDescriptorBitmapDecoder(downsampler));
+          new GlideSupplier<ResourceDecoder<ParcelFileDescriptor, Bitmap>>() {
+            @NonNull
+            @Override
+            public ResourceDecoder<ParcelFileDescriptor, Bitmap> get() {
+              return new ParcelFileDescriptorBitmapDecoder(downsampler.get());
+            }
+          });
     }
 
     registry
-        .append(
+        .appendLazily(
             Registry.BUCKET_BITMAP,
             ParcelFileDescriptor.class,
             Bitmap.class,
             parcelFileDescriptorVideoDecoder)
-        .append(
+        .appendLazily(
             Registry.BUCKET_BITMAP,
             AssetFileDescriptor.class,
             Bitmap.class,
-            VideoDecoder.asset(bitmapPool))
+            new GlideSupplier<ResourceDecoder<AssetFileDescriptor, Bitmap>>() {
+              @NonNull
+              @Override
+              public ResourceDecoder<AssetFileDescriptor, Bitmap> get() {
+                return VideoDecoder.asset(bitmapPool);
+              }
+            })
         .append(Bitmap.class, Bitmap.class, UnitModelLoader.Factory.<Bitmap>getInstance())
         .append(Registry.BUCKET_BITMAP, Bitmap.class, Bitmap.class, new UnitBitmapDecoder())
         .append(Bitmap.class, bitmapEncoder)
         /* BitmapDrawables */
-        .append(
+        .appendLazily(
             Registry.BUCKET_BITMAP_DRAWABLE,
             ByteBuffer.class,
             BitmapDrawable.class,
-            new BitmapDrawableDecoder<>(resources, byteBufferBitmapDecoder))
-        .append(
+            bitmapDrawableDecoder(resources, byteBufferBitmapDecoder))
+        .appendLazily(
             Registry.BUCKET_BITMAP_DRAWABLE,
             InputStream.class,
             BitmapDrawable.class,
-            new BitmapDrawableDecoder<>(resources, streamBitmapDecoder))
-        .append(
+            bitmapDrawableDecoder(resources, streamBitmapDecoder))
+        .appendLazily(
             Registry.BUCKET_BITMAP_DRAWABLE,
             ParcelFileDescriptor.class,
             BitmapDrawable.class,
-            new BitmapDrawableDecoder<>(resources, parcelFileDescriptorVideoDecoder))
+            bitmapDrawableDecoder(resources, parcelFileDescriptorVideoDecoder))
         .append(BitmapDrawable.class, new BitmapDrawableEncoder(bitmapPool, bitmapEncoder))
         /* GIFs */
-        .append(
+        .appendLazily(
+            Registry.BUCKET_GIF,
+            InputStream.class,
+            GifDrawable.class,
+            new GlideSupplier<ResourceDecoder<InputStream, GifDrawable>>() {
+              @NonNull
+              @Override
+              public ResourceDecoder<InputStream, GifDrawable> get() {
+                return new StreamGifDecoder(
+                    imageHeaderParsers, byteBufferGifDecoder.get(), arrayPool);
+              }
+            })
+        .appendLazily(
+            Registry.BUCKET_GIF, ByteBuffer.class, GifDrawable.class, byteBufferGifDecoder)
+        .appendLazily(
             Registry.BUCKET_GIF,
             InputStream.class,
             GifDrawable.class,
-            new StreamGifDecoder(imageHeaderParsers, byteBufferGifDecoder, arrayPool))
-        .append(Registry.BUCKET_GIF, ByteBuffer.class, GifDrawable.class, byteBufferGifDecoder)
+            new GlideSupplier<ResourceDecoder<InputStream, GifDrawable>>() {
+              @NonNull
+              @Override
+              public ResourceDecoder<InputStream, GifDrawable> get() {
+                return new StreamWebpDecoder(byteBufferWebpDecoder.get(), arrayPool);
+              }
+            })
+        .appendLazily(
+            Registry.BUCKET_GIF, ByteBuffer.class, GifDrawable.class, byteBufferWebpDecoder)
         .append(GifDrawable.class, new GifDrawableEncoder())
+        /* Tiled images */
+        .appendLazily(
+            Registry.BUCKET_APPEND_ALL,
+            InputStream.class,
+            TiledImage.class,
+            new GlideSupplier<ResourceDecoder<InputStream, TiledImage>>() {
+              @NonNull
+              @Override
+              public ResourceDecoder<InputStream, TiledImage> get() {
+                return new StreamTiledImageDecoder(
+                    imageHeaderParsers, byteBufferTiledImageDecoder.get(), arrayPool);
+              }
+            })
+        .appendLazily(
+            Registry.BUCKET_APPEND_ALL,
+            ByteBuffer.class,
+            TiledImage.class,
+            byteBufferTiledImageDecoder)
         /* GIF Frames */
         // Compilation with Gradle requires the type to be specified for UnitModelLoader here.
         .append(
@@ -505,10 +787,31 @@ public class Glide implements ComponentCallbacks2 {
             GifDecoder.class,
             Bitmap.class,
             new GifFrameResourceDecoder(bitmapPool))
-        /* Drawables */
-        .append(Uri.class, Drawable.class, resourceDrawableDecoder)
+        /* Animated WebP Frames */
+        // Appended after GIF frames, which GifDecoders also match, so GIFs still use the above.
+        .append(
+            FrameSequenceDecoder.class,
+            FrameSequenceDecoder.class,
+            UnitModelLoader.Factory.<FrameSequenceDecoder>getInstance())
         .append(
-            Uri.class, Bitmap.class, new ResourceBitmapDecoder(resourceDrawableDecoder, bitmapPool))
+            Registry.BUCKET_BITMAP,
+            FrameSequenceDecoder.class,
+            Bitmap.class,
+            new FrameSequenceResourceDecoder(bitmapPool))
+        /* Drawables */
+        .appendLazily(
+            Registry.BUCKET_APPEND_ALL, Uri.class, Drawable.class, resourceDrawableDecoder)
+        .appendLazily(
+            Registry.BUCKET_APPEND_ALL,
+            Uri.class,
+            Bitmap.class,
+            new GlideSupplier<ResourceDecoder<Uri, Bitmap>>() {
+              @NonNull
+              @Override
+              public ResourceDecoder<Uri, Bitmap> get() {
+                return new ResourceBitmapDecoder(resourceDrawableDecoder.get(), bitmapPool);
+              }
+            })
         /* Files */
         .register(new ByteBufferRewinder.Factory())
         .append(File.class, ByteBuffer.class, new ByteBufferFileLoader.Factory())
@@ -544,15 +847,47 @@ public class Glide implements ComponentCallbacks2 {
             Uri.class,
             ParcelFileDescriptor.class,
             new AssetUriLoader.FileDescriptorFactory(context.getAssets()))
-        .append(Uri.class, InputStream.class, new MediaStoreImageThumbLoader.Factory(context))
-        .append(Uri.class, InputStream.class, new MediaStoreVideoThumbLoader.Factory(context));
+        .appendLazily(
+            Uri.class,
+            InputStream.class,
+            new GlideSupplier<ModelLoaderFactory<Uri, InputStream>>() {
+              @NonNull
+              @Override
+              public ModelLoaderFactory<Uri, InputStream> get() {
+                return new MediaStoreImageThumbLoader.Factory(context);
+              }
+            })
+        .appendLazily(
+            Uri.class,
+            InputStream.class,
+            new GlideSupplier<ModelLoaderFactory<Uri, InputStream>>() {
+              @NonNull
+              @Override
+              public ModelLoaderFactory<Uri, InputStream> get() {
+                return new MediaStoreVideoThumbLoader.Factory(context);
+              }
+            });
     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-      registry.append(
-          Uri.class, InputStream.class, new QMediaStoreUriLoader.InputStreamFactory(context));
-      registry.append(
+      registry.appendLazily(
+          Uri.class,
+          InputStream.class,
+          new GlideSupplier<ModelLoaderFactory<Uri, InputStream>>() {
+            @NonNull
+            @Override
+            public ModelLoaderFactory<Uri, InputStream> get() {
+              return new QMediaStoreUriLoader.InputStreamFactory(context);
+            }
+          });
+      registry.appendLazily(
           Uri.class,
           ParcelFileDescriptor.class,
-          new QMediaStoreUriLoader.FileDescriptorFactory(context));
+          new GlideSupplier<ModelLoaderFactory<Uri, ParcelFileDescriptor>>() {
+            @NonNull
+            @Override
+            public ModelLoaderFactory<Uri, ParcelFileDescriptor> get() {
+              return new QMediaStoreUriLoader.FileDescriptorFactory(context);
+            }
+          });
     }
     registry
         .append(Uri.class, InputStream.class, new UriLoader.StreamFactory(contentResolver))
@@ -566,7 +901,16 @@ public class Glide implements ComponentCallbacks2 {
             new UriLoader.AssetFileDescriptorFactory(contentResolver))
         .append(Uri.class, InputStream.class, new UrlUriLoader.StreamFactory())
         .append(URL.class, InputStream.class, new UrlLoader.StreamFactory())
-        .append(Uri.class, File.class, new MediaStoreFileLoader.Factory(context))
+        .appendLazily(
+            Uri.class,
+            File.class,
+            new GlideSupplier<ModelLoaderFactory<Uri, File>>() {
+              @NonNull
+              @Override
+              public ModelLoaderFactory<Uri, File> get() {
+                return new MediaStoreFileLoader.Factory(context);
+              }
+            })
         .append(GlideUrl.class, InputStream.class, new HttpGlideUrlLoader.Factory())
         .append(byte[].class, ByteBuffer.class, new ByteArrayLoader.ByteBufferFactory())
         .append(byte[].class, InputStream.class, new ByteArrayLoader.StreamFactory())
@@ -584,13 +928,22 @@ public class Glide implements ComponentCallbacks2 {
         .register(GifDrawable.class, byte[].class, gifDrawableBytesTranscoder);
 
     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-      ResourceDecoder<ByteBuffer, Bitmap> byteBufferVideoDecoder =
-          VideoDecoder.byteBuffer(bitmapPool);
-      registry.append(ByteBuffer.class, Bitmap.class, byteBufferVideoDecoder);
-      registry.append(
+      GlideSupplier<ResourceDecoder<ByteBuffer, Bitmap>> byteBufferVideoDecoder =
+          GlideSuppliers.memoize(
+              new GlideSupplier<ResourceDecoder<ByteBuffer, Bitmap>>() {
+                @NonNull
+                @Override
+                public ResourceDecoder<ByteBuffer, Bitmap> get() {
+                  return VideoDecoder.byteBuffer(bitmapPool);
+                }
+              });
+      registry.appendLazily(
+          Registry.BUCKET_APPEND_ALL, ByteBuffer.class, Bitmap.class, byteBufferVideoDecoder);
+      registry.appendLazily(
+          Registry.BUCKET_APPEND_ALL,
           ByteBuffer.class,
           BitmapDrawable.class,
-          new BitmapDrawableDecoder<>(resources, byteBufferVideoDecoder));
+          bitmapDrawableDecoder(resources, byteBufferVideoDecoder));
     }
 
     ImageViewTargetFactory imageViewTargetFactory = new ImageViewTargetFactory();
@@ -608,6 +961,19 @@ public class Glide implements ComponentCallbacks2 {
             logLevel);
   }
 
+  private static <DataT> GlideSupplier<ResourceDecoder<DataT, BitmapDrawable>>
+      bitmapDrawableDecoder(
+          final Resources resources,
+          final GlideSupplier<? extends ResourceDecoder<DataT, Bitmap>> bitmapDecoder) {
+    return new GlideSupplier<ResourceDecoder<DataT, BitmapDrawable>>() {
+      @NonNull
+      @Override
+      public ResourceDecoder<DataT, BitmapDrawable> get() {
+        return new BitmapDrawableDecoder<>(resources, bitmapDecoder.get());
+      }
+    };
+  }
+
   /**
    * Returns the {@link com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool} used to
    * temporarily store {@link android.graphics.Bitmap}s so they can be reused to avoid garbage
@@ -636,6 +1002,15 @@ public class Glide implements ComponentCallbacks2 {
     return arrayPool;
   }
 
+  /**
+   * Returns the executor used to decode frames of animated resources, the same one used by
+   * requests that set {@link com.bumptech.glide.request.RequestOptions#useAnimationPool(boolean)}.
+   */
+  @NonNull
+  public GlideExecutor getAnimationExecutor() {
+    return engine.getAnimationExecutor();
+  }
+
   /** @return The context associated with this instance. */
   @NonNull
   public Context getContext() {
@@ -674,13 +1049,16 @@ public class Glide implements ComponentCallbacks2 {
   @SuppressWarnings("unused") // Public API
   public synchronized void preFillBitmapPool(
       @NonNull PreFillType.Builder... bitmapAttributeBuilders) {
+    getBitmapPreFiller().preFill(bitmapAttributeBuilders);
+  }
+
+  private synchronized BitmapPreFiller getBitmapPreFiller() {
     if (bitmapPreFiller == null) {
       DecodeFormat decodeFormat =
           defaultRequestOptionsFactory.build().getOptions().get(Downsampler.DECODE_FORMAT);
       bitmapPreFiller = new BitmapPreFiller(memoryCache, bitmapPool, decodeFormat);
     }
-
-    bitmapPreFiller.preFill(bitmapAttributeBuilders);
+    return bitmapPreFiller;
   }
 
   /**
@@ -696,6 +1074,9 @@ public class Glide implements ComponentCallbacks2 {
     memoryCache.clearMemory();
     bitmapPool.clearMemory();
     arrayPool.clearMemory();
+    if (autoBitmapPreFiller != null) {
+      autoBitmapPreFiller.clear();
+    }
   }
 
   /**
@@ -717,6 +1098,9 @@ public class Glide implements ComponentCallbacks2 {
     memoryCache.trimMemory(level);
     bitmapPool.trimMemory(level);
     arrayPool.trimMemory(level);
+    if (autoBitmapPreFiller != null && level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+      autoBitmapPreFiller.clear();
+    }
   }
 
   /**
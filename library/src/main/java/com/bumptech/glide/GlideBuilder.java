@@ -17,6 +17,7 @@ import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolAdapter;
 import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
 import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.MagazineArrayPool;
 import com.bumptech.glide.load.engine.cache.DiskCache;
 import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
 import com.bumptech.glide.load.engine.cache.LruResourceCache;
@@ -62,7 +63,9 @@ public final class GlideBuilder {
       };
   @Nullable private RequestManagerFactory requestManagerFactory;
   private GlideExecutor animationExecutor;
+  @Nullable private GlideExecutor decodeExecutor;
   private boolean isActiveResourceRetentionAllowed;
+  private boolean isArrayPoolThreadCachingEnabled;
   @Nullable private List<RequestListener<Object>> defaultRequestListeners;
 
   /**
@@ -91,10 +94,34 @@ public final class GlideBuilder {
     return this;
   }
 
+  /**
+   * Set to {@code true} to make the default {@link ArrayPool} keep a few arrays for each of Glide's
+   * threads in front of the shared pool, so that most gets and puts during decodes don't acquire a
+   * lock.
+   *
+   * <p>Ignored if an {@link ArrayPool} is set via {@link #setArrayPool(ArrayPool)}. See {@link
+   * MagazineArrayPool}.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setArrayPoolThreadCachingEnabled(boolean isEnabled) {
+    this.isArrayPoolThreadCachingEnabled = isEnabled;
+    return this;
+  }
+
   /**
    * Sets the {@link com.bumptech.glide.load.engine.cache.MemoryCache} implementation to store
    * {@link com.bumptech.glide.load.engine.Resource}s that are not currently in use.
    *
+   * <p>Defaults to {@link com.bumptech.glide.load.engine.cache.LruResourceCache}. Apps that load
+   * many images concurrently may see less lock contention with {@link
+   * com.bumptech.glide.load.engine.cache.StripedLruResourceCache}.
+   *
    * @param memoryCache The cache to use.
    * @return This builder.
    */
@@ -111,6 +138,10 @@ public final class GlideBuilder {
    * to construct the {@link com.bumptech.glide.load.engine.cache.DiskCache} to use to store {@link
    * com.bumptech.glide.load.engine.Resource} data on disk.
    *
+   * <p>To read and write the disk cache on multiple threads in parallel, use a {@link
+   * com.bumptech.glide.load.engine.cache.ShardedDiskLruCacheFactory} along with a disk cache
+   * executor with more than one thread, see {@link #setDiskCacheExecutor(GlideExecutor)}.
+   *
    * @param diskCacheFactory The disk cache factory to use.
    * @return This builder.
    */
@@ -151,7 +182,8 @@ public final class GlideBuilder {
    * 4.
    *
    * <p>Use the {@link GlideExecutor#newSourceExecutor()} methods if you'd like to specify options
-   * for the source executor.
+   * for the source executor. Source executors with more threads may benefit from {@link
+   * GlideExecutor.Builder#setWorkStealingEnabled(boolean)}.
    *
    * @param service The ExecutorService to use.
    * @return This builder.
@@ -209,6 +241,31 @@ public final class GlideBuilder {
     return this;
   }
 
+  /**
+   * Sets the {@link GlideExecutor} to use when decoding and transforming data retrieved by the
+   * source executor.
+   *
+   * <p>Defaults to {@code null}, in which case data is decoded on the same source executor thread
+   * that retrieved it. If set, source executor threads are released as soon as data is retrieved,
+   * so the source executor can be sized for network concurrency while this executor is sized for
+   * the number of cores, see {@link GlideExecutor#newDecodeExecutor()}.
+   *
+   * <p>Loads from Glide's disk cache and loads that use the unlimited or animation executors are
+   * unaffected.
+   *
+   * @param service The {@link GlideExecutor} to use, or {@code null} to decode on the source
+   *     executor.
+   * @return This builder.
+   * @see #setSourceExecutor(GlideExecutor)
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setDecodeExecutor(@Nullable GlideExecutor service) {
+    this.decodeExecutor = service;
+    return this;
+  }
+
   /**
    * Sets the default {@link RequestOptions} to use for all loads across the app.
    *
@@ -485,6 +542,60 @@ public final class GlideBuilder {
     return this;
   }
 
+  /**
+   * Set to {@code true} to make Glide decode source data that will be written to the disk cache at
+   * the same time as it is written, rather than writing the data to the disk cache first and then
+   * decoding it from the cache file.
+   *
+   * <p>This applies to {@link java.io.InputStream}s, typically from remote urls, that would be
+   * cached by {@link com.bumptech.glide.load.engine.DiskCacheStrategy#DATA}, {@link
+   * com.bumptech.glide.load.engine.DiskCacheStrategy#AUTOMATIC} or {@link
+   * com.bumptech.glide.load.engine.DiskCacheStrategy#ALL}. Bytes are copied to a temporary file in
+   * {@link Context#getCacheDir()} as they're read by the decoder and the file is moved into the
+   * disk cache once the decode finishes. For cold loads this avoids a full write and read of the
+   * data before the first pixel is decoded.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   */
+  public GlideBuilder setDecodeSourceWhileCaching(boolean isEnabled) {
+    glideExperimentsBuilder.update(new DecodeSourceWhileCaching(), isEnabled);
+    return this;
+  }
+
+  /**
+   * Set to {@code true} to make Glide record the sizes and configs of {@link Bitmap}s that aren't
+   * found in the {@link BitmapPool} and pre-fill the pool with the most frequently missed ones when
+   * the main thread is idle, so that scrolling after the first screen of images is loaded doesn't
+   * need to allocate new {@link Bitmap}s.
+   *
+   * <p>Only applies if the {@link BitmapPool} is a {@link LruBitmapPool}, which it is by default.
+   * See {@link com.bumptech.glide.load.engine.prefill.AutoBitmapPreFiller}.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   */
+  public GlideBuilder setAutoPreFillBitmapPool(boolean isEnabled) {
+    glideExperimentsBuilder.update(new AutoPreFillBitmapPool(), isEnabled);
+    return this;
+  }
+
+  /**
+   * Set to {@code true} to make Glide remember the type, exif orientation and dimensions of images
+   * decoded from data in the disk cache, so that decoding the same data again, for example at
+   * another size or after a restart, doesn't need to parse its header.
+   *
+   * <p>Each header is stored as a separate entry in the {@link DiskCache}, which doubles the
+   * number of entries for images and costs an extra disk read for each decode from cached data
+   * whose header isn't among the most recently used ones in memory. Each entry also takes up a
+   * file system block on disk, but only the few bytes it contains count towards the cache's
+   * maximum size. It's most useful when the same data is frequently decoded at several sizes.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   */
+  public GlideBuilder setIndexImageHeaders(boolean isEnabled) {
+    glideExperimentsBuilder.update(new IndexImageHeaders(), isEnabled);
+    return this;
+  }
+
   void setRequestManagerFactory(@Nullable RequestManagerFactory factory) {
     this.requestManagerFactory = factory;
   }
@@ -527,7 +638,9 @@ public final class GlideBuilder {
     }
 
     if (arrayPool == null) {
-      arrayPool = new LruArrayPool(memorySizeCalculator.getArrayPoolSizeInBytes());
+      int size = memorySizeCalculator.getArrayPoolSizeInBytes();
+      arrayPool =
+          isArrayPoolThreadCachingEnabled ? new MagazineArrayPool(size) : new LruArrayPool(size);
     }
 
     if (memoryCache == null) {
@@ -547,6 +660,7 @@ public final class GlideBuilder {
               sourceExecutor,
               GlideExecutor.newUnlimitedSourceExecutor(),
               animationExecutor,
+              decodeExecutor,
               isActiveResourceRetentionAllowed);
     }
 
@@ -593,4 +707,13 @@ public final class GlideBuilder {
 
   /** See {@link #setLogRequestOrigins(boolean)}. */
   public static final class LogRequestOrigins implements Experiment {}
+
+  /** See {@link #setDecodeSourceWhileCaching(boolean)}. */
+  public static final class DecodeSourceWhileCaching implements Experiment {}
+
+  /** See {@link #setAutoPreFillBitmapPool(boolean)}. */
+  public static final class AutoPreFillBitmapPool implements Experiment {}
+
+  /** See {@link #setIndexImageHeaders(boolean)}. */
+  public static final class IndexImageHeaders implements Experiment {}
 }
@@ -24,11 +24,16 @@ import com.bumptech.glide.provider.LoadPathCache;
 import com.bumptech.glide.provider.ModelToResourceClassCache;
 import com.bumptech.glide.provider.ResourceDecoderRegistry;
 import com.bumptech.glide.provider.ResourceEncoderRegistry;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
+import com.bumptech.glide.util.Preconditions;
 import com.bumptech.glide.util.pool.FactoryPools;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Manages component registration to extend or replace Glide's default loading, decoding, and
@@ -41,7 +46,8 @@ public class Registry {
   public static final String BUCKET_BITMAP = "Bitmap";
   public static final String BUCKET_BITMAP_DRAWABLE = "BitmapDrawable";
   private static final String BUCKET_PREPEND_ALL = "legacy_prepend_all";
-  private static final String BUCKET_APPEND_ALL = "legacy_append";
+  // Package private so that Glide can register its own components lazily in the legacy bucket.
+  static final String BUCKET_APPEND_ALL = "legacy_append";
 
   private final ModelLoaderRegistry modelLoaderRegistry;
   private final EncoderRegistry encoderRegistry;
@@ -56,6 +62,14 @@ public class Registry {
   private final LoadPathCache loadPathCache = new LoadPathCache();
   private final Pool<List<Throwable>> throwableListPool = FactoryPools.threadSafeList();
 
+  // Both are only written while holding the lock. The table is built on the first lookup after
+  // setPrecomputedTranscodeClasses and discarded when any component it depends on changes.
+  private final Object precomputedResourceClassesLock = new Object();
+  @Nullable private volatile List<Class<?>> precomputedTranscodeClasses;
+
+  @Nullable
+  private volatile Map<Class<?>, Map<Class<?>, List<Class<?>>>> precomputedResourceClasses;
+
   public Registry() {
     this.modelLoaderRegistry = new ModelLoaderRegistry(throwableListPool);
     this.encoderRegistry = new EncoderRegistry();
@@ -181,6 +195,7 @@ public class Registry {
       @NonNull Class<TResource> resourceClass,
       @NonNull ResourceDecoder<Data, TResource> decoder) {
     decoderRegistry.append(bucket, decoder, dataClass, resourceClass);
+    invalidatePrecomputedResourceClasses();
     return this;
   }
 
@@ -238,6 +253,60 @@ public class Registry {
       @NonNull Class<TResource> resourceClass,
       @NonNull ResourceDecoder<Data, TResource> decoder) {
     decoderRegistry.prepend(bucket, decoder, dataClass, resourceClass);
+    invalidatePrecomputedResourceClasses();
+    return this;
+  }
+
+  /**
+   * Appends a {@link ResourceDecoder} to the given bucket like {@link #append(String, Class, Class,
+   * ResourceDecoder)}, but doesn't create it until it's first needed to decode the given data and
+   * resource classes.
+   *
+   * <p>Registering decoders lazily moves the cost of creating them, and of loading their classes,
+   * out of Glide's initialization, which usually happens on the main thread. The supplier is called
+   * at most once, on whichever thread first looks up decoders for its types, and must not call
+   * {@link Glide#get(android.content.Context)}.
+   *
+   * @see #prependLazily(String, Class, Class, GlideSupplier)
+   * @param bucket The bucket identifier to add this decoder to.
+   * @param dataClass The data that will be decoded from ({@link java.io.InputStream}, {@link
+   *     java.io.FileDescriptor} etc).
+   * @param resourceClass The resource that will be decoded to ({@link android.graphics.Bitmap},
+   *     {@link com.bumptech.glide.load.resource.gif.GifDrawable} etc).
+   * @param decoder Creates the {@link ResourceDecoder} to register.
+   */
+  @NonNull
+  public <Data, TResource> Registry appendLazily(
+      @NonNull String bucket,
+      @NonNull Class<Data> dataClass,
+      @NonNull Class<TResource> resourceClass,
+      @NonNull GlideSupplier<? extends ResourceDecoder<Data, TResource>> decoder) {
+    decoderRegistry.append(bucket, decoder, dataClass, resourceClass);
+    invalidatePrecomputedResourceClasses();
+    return this;
+  }
+
+  /**
+   * Prepends a {@link ResourceDecoder} to the given bucket like {@link #prepend(String, Class,
+   * Class, ResourceDecoder)}, but doesn't create it until it's first needed to decode the given
+   * data and resource classes.
+   *
+   * @see #appendLazily(String, Class, Class, GlideSupplier)
+   * @param bucket The bucket identifier to add this decoder to.
+   * @param dataClass The data that will be decoded from ({@link java.io.InputStream}, {@link
+   *     java.io.FileDescriptor} etc).
+   * @param resourceClass The resource that will be decoded to ({@link android.graphics.Bitmap},
+   *     {@link com.bumptech.glide.load.resource.gif.GifDrawable} etc).
+   * @param decoder Creates the {@link ResourceDecoder} to register.
+   */
+  @NonNull
+  public <Data, TResource> Registry prependLazily(
+      @NonNull String bucket,
+      @NonNull Class<Data> dataClass,
+      @NonNull Class<TResource> resourceClass,
+      @NonNull GlideSupplier<? extends ResourceDecoder<Data, TResource>> decoder) {
+    decoderRegistry.prepend(bucket, decoder, dataClass, resourceClass);
+    invalidatePrecomputedResourceClasses();
     return this;
   }
 
@@ -268,6 +337,7 @@ public class Registry {
     }
     modifiedBuckets.add(BUCKET_APPEND_ALL);
     decoderRegistry.setBucketPriorityList(modifiedBuckets);
+    invalidatePrecomputedResourceClasses();
     return this;
   }
 
@@ -362,6 +432,7 @@ public class Registry {
       @NonNull Class<Transcode> transcodeClass,
       @NonNull ResourceTranscoder<TResource, Transcode> transcoder) {
     transcoderRegistry.register(resourceClass, transcodeClass, transcoder);
+    invalidatePrecomputedResourceClasses();
     return this;
   }
 
@@ -401,6 +472,7 @@ public class Registry {
       @NonNull Class<Data> dataClass,
       @NonNull ModelLoaderFactory<Model, Data> factory) {
     modelLoaderRegistry.append(modelClass, dataClass, factory);
+    invalidatePrecomputedResourceClasses();
     return this;
   }
 
@@ -432,6 +504,50 @@ public class Registry {
       @NonNull Class<Data> dataClass,
       @NonNull ModelLoaderFactory<Model, Data> factory) {
     modelLoaderRegistry.prepend(modelClass, dataClass, factory);
+    invalidatePrecomputedResourceClasses();
+    return this;
+  }
+
+  /**
+   * Appends a {@link ModelLoaderFactory} like {@link #append(Class, Class, ModelLoaderFactory)},
+   * but doesn't create it until a {@link ModelLoader} is first needed for the given model and data
+   * classes.
+   *
+   * <p>The supplier is called at most once, on whichever thread first looks up {@link
+   * ModelLoader}s for its types, and must not call {@link Glide#get(android.content.Context)}.
+   *
+   * @see #prependLazily(Class, Class, GlideSupplier)
+   * @param modelClass The model class (e.g. URL, file path).
+   * @param dataClass the data class (e.g. {@link java.io.InputStream}, {@link
+   *     java.io.FileDescriptor}).
+   */
+  @NonNull
+  public <Model, Data> Registry appendLazily(
+      @NonNull Class<Model> modelClass,
+      @NonNull Class<Data> dataClass,
+      @NonNull GlideSupplier<? extends ModelLoaderFactory<Model, Data>> factory) {
+    modelLoaderRegistry.append(modelClass, dataClass, factory);
+    invalidatePrecomputedResourceClasses();
+    return this;
+  }
+
+  /**
+   * Prepends a {@link ModelLoaderFactory} like {@link #prepend(Class, Class, ModelLoaderFactory)},
+   * but doesn't create it until a {@link ModelLoader} is first needed for the given model and data
+   * classes.
+   *
+   * @see #appendLazily(Class, Class, GlideSupplier)
+   * @param modelClass The model class (e.g. URL, file path).
+   * @param dataClass the data class (e.g. {@link java.io.InputStream}, {@link
+   *     java.io.FileDescriptor}).
+   */
+  @NonNull
+  public <Model, Data> Registry prependLazily(
+      @NonNull Class<Model> modelClass,
+      @NonNull Class<Data> dataClass,
+      @NonNull GlideSupplier<? extends ModelLoaderFactory<Model, Data>> factory) {
+    modelLoaderRegistry.prepend(modelClass, dataClass, factory);
+    invalidatePrecomputedResourceClasses();
     return this;
   }
 
@@ -462,6 +578,7 @@ public class Registry {
       @NonNull Class<Data> dataClass,
       @NonNull ModelLoaderFactory<? extends Model, ? extends Data> factory) {
     modelLoaderRegistry.replace(modelClass, dataClass, factory);
+    invalidatePrecomputedResourceClasses();
     return this;
   }
 
@@ -531,27 +648,110 @@ public class Registry {
       @NonNull Class<TResource> resourceClass,
       @NonNull Class<Transcode> transcodeClass) {
     List<Class<?>> result =
-        modelToResourceClassCache.get(modelClass, resourceClass, transcodeClass);
+        getPrecomputedResourceClasses(modelClass, resourceClass, transcodeClass);
+    if (result != null) {
+      return result;
+    }
 
+    result = modelToResourceClassCache.get(modelClass, resourceClass, transcodeClass);
     if (result == null) {
-      result = new ArrayList<>();
-      List<Class<?>> dataClasses = modelLoaderRegistry.getDataClasses(modelClass);
-      for (Class<?> dataClass : dataClasses) {
-        List<? extends Class<?>> registeredResourceClasses =
-            decoderRegistry.getResourceClasses(dataClass, resourceClass);
-        for (Class<?> registeredResourceClass : registeredResourceClasses) {
-          List<Class<Transcode>> registeredTranscodeClasses =
-              transcoderRegistry.getTranscodeClasses(registeredResourceClass, transcodeClass);
-          if (!registeredTranscodeClasses.isEmpty() && !result.contains(registeredResourceClass)) {
-            result.add(registeredResourceClass);
-          }
+      result = resolveRegisteredResourceClasses(modelClass, resourceClass, transcodeClass);
+      modelToResourceClassCache.put(modelClass, resourceClass, transcodeClass, result);
+    }
+
+    return result;
+  }
+
+  @NonNull
+  private List<Class<?>> resolveRegisteredResourceClasses(
+      @NonNull Class<?> modelClass,
+      @NonNull Class<?> resourceClass,
+      @NonNull Class<?> transcodeClass) {
+    List<Class<?>> result = new ArrayList<>();
+    List<Class<?>> dataClasses = modelLoaderRegistry.getDataClasses(modelClass);
+    for (Class<?> dataClass : dataClasses) {
+      List<? extends Class<?>> registeredResourceClasses =
+          decoderRegistry.getResourceClasses(dataClass, resourceClass);
+      for (Class<?> registeredResourceClass : registeredResourceClasses) {
+        List<? extends Class<?>> registeredTranscodeClasses =
+            transcoderRegistry.getTranscodeClasses(registeredResourceClass, transcodeClass);
+        if (!registeredTranscodeClasses.isEmpty() && !result.contains(registeredResourceClass)) {
+          result.add(registeredResourceClass);
         }
       }
-      modelToResourceClassCache.put(
-          modelClass, resourceClass, transcodeClass, Collections.unmodifiableList(result));
     }
+    return Collections.unmodifiableList(result);
+  }
 
-    return result;
+  @Nullable
+  private List<Class<?>> getPrecomputedResourceClasses(
+      @NonNull Class<?> modelClass,
+      @NonNull Class<?> resourceClass,
+      @NonNull Class<?> transcodeClass) {
+    if (resourceClass != Object.class) {
+      return null;
+    }
+    Map<Class<?>, Map<Class<?>, List<Class<?>>>> precomputed = precomputedResourceClasses;
+    if (precomputed == null) {
+      if (precomputedTranscodeClasses == null) {
+        return null;
+      }
+      precomputed = buildPrecomputedResourceClasses();
+    }
+    Map<Class<?>, List<Class<?>>> resourceClassesByTranscodeClass = precomputed.get(modelClass);
+    return resourceClassesByTranscodeClass != null
+        ? resourceClassesByTranscodeClass.get(transcodeClass)
+        : null;
+  }
+
+  /**
+   * Sets the transcode classes for which {@link #getRegisteredResourceClasses(Class, Class, Class)}
+   * resolves the resource classes of every registered model class at once, so that later lookups
+   * use an immutable table without locking.
+   *
+   * <p>The table is built on the first lookup, which happens on one of Glide's executors rather
+   * than on the thread that initializes Glide. Only requests that don't specify a resource class
+   * use the table. Anything else, including models whose classes are subclasses of the registered
+   * ones, is resolved and cached as usual. Registering or replacing a model loader, decoder or
+   * transcoder discards the table, which is then built again on the next lookup.
+   *
+   * <p>This only inspects registered classes, so it doesn't create any components registered
+   * lazily.
+   */
+  void setPrecomputedTranscodeClasses(@NonNull Collection<Class<?>> transcodeClasses) {
+    synchronized (precomputedResourceClassesLock) {
+      precomputedTranscodeClasses = new ArrayList<>(transcodeClasses);
+      precomputedResourceClasses = null;
+    }
+  }
+
+  @NonNull
+  private Map<Class<?>, Map<Class<?>, List<Class<?>>>> buildPrecomputedResourceClasses() {
+    synchronized (precomputedResourceClassesLock) {
+      Map<Class<?>, Map<Class<?>, List<Class<?>>>> result = precomputedResourceClasses;
+      if (result != null) {
+        return result;
+      }
+      List<Class<?>> transcodeClasses = Preconditions.checkNotNull(precomputedTranscodeClasses);
+      result = new HashMap<>();
+      for (Class<?> modelClass : modelLoaderRegistry.getModelClasses()) {
+        Map<Class<?>, List<Class<?>>> resourceClassesByTranscodeClass = new HashMap<>();
+        for (Class<?> transcodeClass : transcodeClasses) {
+          resourceClassesByTranscodeClass.put(
+              transcodeClass,
+              resolveRegisteredResourceClasses(modelClass, Object.class, transcodeClass));
+        }
+        result.put(modelClass, resourceClassesByTranscodeClass);
+      }
+      precomputedResourceClasses = result;
+      return result;
+    }
+  }
+
+  private void invalidatePrecomputedResourceClasses() {
+    synchronized (precomputedResourceClassesLock) {
+      precomputedResourceClasses = null;
+    }
   }
 
   public boolean isResourceEncoderAvailable(@NonNull Resource<?> resource) {
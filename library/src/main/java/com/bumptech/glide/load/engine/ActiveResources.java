@@ -11,8 +11,8 @@ import com.bumptech.glide.util.Preconditions;
 import com.bumptech.glide.util.Synthetic;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
@@ -20,10 +20,12 @@ import java.util.concurrent.ThreadFactory;
 final class ActiveResources {
   private final boolean isActiveResourceRetentionAllowed;
   private final Executor monitorClearedResourcesExecutor;
-  @VisibleForTesting final Map<Key, ResourceWeakReference> activeEngineResources = new HashMap<>();
+  // Concurrent so that memory cache hits in the Engine can read active resources without locking.
+  @VisibleForTesting
+  final Map<Key, ResourceWeakReference> activeEngineResources = new ConcurrentHashMap<>();
   private final ReferenceQueue<EngineResource<?>> resourceReferenceQueue = new ReferenceQueue<>();
 
-  private ResourceListener listener;
+  private volatile ResourceListener listener;
 
   private volatile boolean isShutdown;
   @Nullable private volatile DequeuedResourceCallback cb;
@@ -71,7 +73,7 @@ final class ActiveResources {
     }
   }
 
-  synchronized void activate(Key key, EngineResource<?> resource) {
+  void activate(Key key, EngineResource<?> resource) {
     ResourceWeakReference toPut =
         new ResourceWeakReference(
             key, resource, resourceReferenceQueue, isActiveResourceRetentionAllowed);
@@ -82,7 +84,7 @@ final class ActiveResources {
     }
   }
 
-  synchronized void deactivate(Key key) {
+  void deactivate(Key key) {
     ResourceWeakReference removed = activeEngineResources.remove(key);
     if (removed != null) {
       removed.reset();
@@ -90,7 +92,7 @@ final class ActiveResources {
   }
 
   @Nullable
-  synchronized EngineResource<?> get(Key key) {
+  EngineResource<?> get(Key key) {
     ResourceWeakReference activeRef = activeEngineResources.get(key);
     if (activeRef == null) {
       return null;
@@ -106,17 +108,17 @@ final class ActiveResources {
   @SuppressWarnings({"WeakerAccess", "SynchronizeOnNonFinalField"})
   @Synthetic
   void cleanupActiveReference(@NonNull ResourceWeakReference ref) {
-    synchronized (this) {
-      activeEngineResources.remove(ref.key);
+    activeEngineResources.remove(ref.key, ref);
 
-      if (!ref.isCacheable || ref.resource == null) {
-        return;
-      }
+    // The resource may be reset concurrently if the key is re-activated or deactivated.
+    Resource<?> resource = ref.resource;
+    if (!ref.isCacheable || resource == null) {
+      return;
     }
 
     EngineResource<?> newResource =
         new EngineResource<>(
-            ref.resource, /*isMemoryCacheable=*/ true, /*isRecyclable=*/ false, ref.key, listener);
+            resource, /*isMemoryCacheable=*/ true, /*isRecyclable=*/ false, ref.key, listener);
     listener.onResourceReleased(ref.key, newResource);
   }
 
@@ -172,7 +174,7 @@ final class ActiveResources {
     @Nullable
     @SuppressWarnings("WeakerAccess")
     @Synthetic
-    Resource<?> resource;
+    volatile Resource<?> resource;
 
     @Synthetic
     @SuppressWarnings("WeakerAccess")
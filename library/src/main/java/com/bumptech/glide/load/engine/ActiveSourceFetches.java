@@ -0,0 +1,95 @@
+package com.bumptech.glide.load.engine;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.util.Synthetic;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks source data that's being fetched and written to the disk cache by key so that concurrent
+ * loads of the same source, for example at different sizes, can wait for a single fetch and then
+ * decode the cached data rather than each fetching the source.
+ *
+ * <p>Loads that start a fetch must always call {@link #finish(Key, Callback)}, whether or not the
+ * fetch succeeds, or the loads waiting on it will never be notified.
+ */
+final class ActiveSourceFetches {
+  @GuardedBy("this")
+  private final Map<Key, Fetch> fetches = new HashMap<>();
+
+  interface Callback {
+    /**
+     * Called on the thread that finished the fetch once the data has been written to the disk
+     * cache, or has failed to be.
+     */
+    void onSourceFetchFinished();
+  }
+
+  /**
+   * Returns {@code true} if a fetch for the given key is already in progress, in which case the
+   * given callback will be notified once it finishes, or {@code false} if the caller is now
+   * responsible for the fetch.
+   */
+  synchronized boolean startOrWait(@NonNull Key key, @NonNull Callback callback) {
+    Fetch fetch = fetches.get(key);
+    if (fetch == null) {
+      fetches.put(key, new Fetch(callback));
+      return false;
+    }
+    fetch.waiters.add(callback);
+    return true;
+  }
+
+  /**
+   * Returns {@code true} if no fetch for the given key is in progress and the caller is now
+   * responsible for the fetch, or {@code false} if the caller should fetch the data without
+   * sharing it.
+   */
+  synchronized boolean start(@NonNull Key key, @NonNull Callback callback) {
+    if (fetches.containsKey(key)) {
+      return false;
+    }
+    fetches.put(key, new Fetch(callback));
+    return true;
+  }
+
+  /**
+   * Notifies any loads waiting on the given key if the given callback is responsible for the
+   * fetch, does nothing otherwise.
+   */
+  // We want reference equality explicitly so that only the load doing the fetch can finish it.
+  @SuppressWarnings("PMD.CompareObjectsWithEquals")
+  void finish(@NonNull Key key, @NonNull Callback callback) {
+    Fetch fetch;
+    synchronized (this) {
+      fetch = fetches.get(key);
+      if (fetch == null || fetch.owner != callback) {
+        return;
+      }
+      fetches.remove(key);
+    }
+    for (Callback waiter : fetch.waiters) {
+      waiter.onSourceFetchFinished();
+    }
+  }
+
+  synchronized void removeWaiter(@NonNull Key key, @NonNull Callback callback) {
+    Fetch fetch = fetches.get(key);
+    if (fetch != null) {
+      fetch.waiters.remove(callback);
+    }
+  }
+
+  private static final class Fetch {
+    @Synthetic final Callback owner;
+    @Synthetic final List<Callback> waiters = new ArrayList<>();
+
+    Fetch(Callback owner) {
+      this.owner = owner;
+    }
+  }
+}
@@ -0,0 +1,290 @@
+package com.bumptech.glide.load.engine;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.data.BufferedOutputStream;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Wraps a source {@link InputStream} and copies every byte that is read from it to a temporary
+ * file, allowing source data to be decoded while it's written to the disk cache.
+ *
+ * <p>Once the decode finishes, {@link DecodeJob} calls {@link #onDecodeComplete(boolean)} before
+ * cleaning up the source {@link com.bumptech.glide.load.data.DataFetcher}. The {@link Callback}
+ * then either calls {@link #commit(DiskCache, Key)}, which copies any bytes the decoder didn't read
+ * to the temporary file and moves the file into the disk cache, or {@link #abort()}.
+ *
+ * <p>Failures to write to the temporary file never affect the decode. Once a write fails, the
+ * remaining bytes are passed through to the decoder without being copied and {@link
+ * #commit(DiskCache, Key)} will fail.
+ *
+ * <p>This class is not thread safe.
+ */
+final class DataCacheTee extends InputStream {
+  private static final String TAG = "DataCacheTee";
+  private static final String TEMP_FILE_PREFIX = "glide_source_";
+
+  private final InputStream source;
+  private final File tempFile;
+  private final ArrayPool arrayPool;
+  private final Callback callback;
+  private OutputStream os;
+  private boolean isComplete;
+
+  interface Callback {
+    /**
+     * Called once the decode using this stream has finished, successfully or not.
+     *
+     * @param tee The stream that was decoded.
+     * @param isDecoded {@code true} if the decode produced a resource.
+     */
+    void onDecodeComplete(@NonNull DataCacheTee tee, boolean isDecoded);
+  }
+
+  /**
+   * Creates a new tee for the given source in a temporary file in the given directory.
+   *
+   * @throws IOException If the temporary file can't be created.
+   */
+  @NonNull
+  static DataCacheTee create(
+      @NonNull InputStream source,
+      @NonNull File tempDirectory,
+      @NonNull ArrayPool arrayPool,
+      @NonNull Callback callback)
+      throws IOException {
+    File tempFile = File.createTempFile(TEMP_FILE_PREFIX, null /*suffix*/, tempDirectory);
+    OutputStream os;
+    try {
+      os = new BufferedOutputStream(new FileOutputStream(tempFile), arrayPool);
+    } catch (IOException e) {
+      deleteQuietly(tempFile);
+      throw e;
+    }
+    return new DataCacheTee(source, tempFile, os, arrayPool, callback);
+  }
+
+  private DataCacheTee(
+      InputStream source, File tempFile, OutputStream os, ArrayPool arrayPool, Callback callback) {
+    this.source = source;
+    this.tempFile = tempFile;
+    this.os = os;
+    this.arrayPool = arrayPool;
+    this.callback = callback;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int result = source.read();
+    if (result != -1 && os != null) {
+      try {
+        os.write(result);
+      } catch (IOException e) {
+        onWriteFailed(e);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+    int read = source.read(buffer, offset, length);
+    if (read > 0 && os != null) {
+      try {
+        os.write(buffer, offset, read);
+      } catch (IOException e) {
+        onWriteFailed(e);
+      }
+    }
+    return read;
+  }
+
+  /** Reads rather than skips so that the skipped bytes are still written to the cache. */
+  @Override
+  public long skip(long byteCount) throws IOException {
+    if (os == null) {
+      return source.skip(byteCount);
+    }
+    byte[] buffer = arrayPool.get(ArrayPool.STANDARD_BUFFER_SIZE_BYTES, byte[].class);
+    try {
+      long skipped = 0;
+      while (skipped < byteCount) {
+        int read = read(buffer, 0, (int) Math.min(buffer.length, byteCount - skipped));
+        if (read == -1) {
+          break;
+        }
+        skipped += read;
+      }
+      return skipped;
+    } finally {
+      arrayPool.put(buffer);
+    }
+  }
+
+  @Override
+  public int available() throws IOException {
+    return source.available();
+  }
+
+  /**
+   * Does nothing, the source stream is owned and closed by its {@link
+   * com.bumptech.glide.load.data.DataFetcher}.
+   */
+  @Override
+  public void close() {
+    // Do nothing.
+  }
+
+  /**
+   * Notifies the {@link Callback} that the decode has finished.
+   *
+   * <p>Must be called before the source stream is closed so that any unread bytes can still be
+   * copied to the cache.
+   */
+  void onDecodeComplete(boolean isDecoded) {
+    if (isComplete) {
+      return;
+    }
+    isComplete = true;
+    callback.onDecodeComplete(this, isDecoded);
+  }
+
+  /**
+   * Copies any unread bytes from the source to the temporary file and then moves the temporary
+   * file into the disk cache at the given key.
+   *
+   * <p>The temporary file is always deleted, regardless of whether or not the commit succeeds.
+   *
+   * @return {@code true} if the data is now in the disk cache.
+   */
+  boolean commit(@NonNull DiskCache diskCache, @NonNull Key key) {
+    try {
+      if (!drainAndClose()) {
+        return false;
+      }
+      diskCache.put(key, new TempFileWriter(tempFile, arrayPool));
+      return diskCache.get(key) != null;
+    } finally {
+      abort();
+    }
+  }
+
+  /** Stops copying to the temporary file and deletes it. */
+  void abort() {
+    closeQuietly();
+    deleteQuietly(tempFile);
+  }
+
+  private boolean drainAndClose() {
+    if (os == null) {
+      return false;
+    }
+    byte[] buffer = arrayPool.get(ArrayPool.STANDARD_BUFFER_SIZE_BYTES, byte[].class);
+    try {
+      while (read(buffer, 0, buffer.length) != -1) {
+        // Keep copying until we reach the end of the source or fail to write.
+      }
+      if (os == null) {
+        return false;
+      }
+      os.close();
+      os = null;
+      return true;
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to read the remainder of the source data", e);
+      }
+      closeQuietly();
+      return false;
+    } finally {
+      arrayPool.put(buffer);
+    }
+  }
+
+  private void onWriteFailed(IOException e) {
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "Failed to write source data to the temporary file: " + tempFile, e);
+    }
+    closeQuietly();
+  }
+
+  private void closeQuietly() {
+    if (os != null) {
+      try {
+        os.close();
+      } catch (IOException e) {
+        // Ignored.
+      }
+      os = null;
+    }
+  }
+
+  private static void deleteQuietly(File file) {
+    if (file.exists() && !file.delete() && Log.isLoggable(TAG, Log.WARN)) {
+      Log.w(TAG, "Failed to delete temporary file: " + file);
+    }
+  }
+
+  /**
+   * Moves the temporary file into the disk cache, falling back to a copy if the file can't be
+   * renamed, for example because the disk cache is on a different volume.
+   */
+  private static final class TempFileWriter implements DiskCache.Writer {
+    private final File tempFile;
+    private final ArrayPool arrayPool;
+
+    TempFileWriter(File tempFile, ArrayPool arrayPool) {
+      this.tempFile = tempFile;
+      this.arrayPool = arrayPool;
+    }
+
+    @Override
+    public boolean write(@NonNull File file) {
+      if (tempFile.renameTo(file)) {
+        return true;
+      }
+      byte[] buffer = arrayPool.get(ArrayPool.STANDARD_BUFFER_SIZE_BYTES, byte[].class);
+      InputStream is = null;
+      OutputStream os = null;
+      try {
+        is = new FileInputStream(tempFile);
+        os = new FileOutputStream(file);
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+          os.write(buffer, 0, read);
+        }
+        os.close();
+        os = null;
+        return true;
+      } catch (IOException e) {
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+          Log.d(TAG, "Failed to copy temporary file into the disk cache", e);
+        }
+        return false;
+      } finally {
+        closeQuietly(is);
+        closeQuietly(os);
+        arrayPool.put(buffer);
+      }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+      if (closeable != null) {
+        try {
+          closeable.close();
+        } catch (IOException e) {
+          // Ignored.
+        }
+      }
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package com.bumptech.glide.load.engine;
 
+import com.bumptech.glide.GlideBuilder.DecodeSourceWhileCaching;
+import com.bumptech.glide.GlideBuilder.IndexImageHeaders;
 import com.bumptech.glide.GlideContext;
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.Registry;
@@ -21,7 +23,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-final class DecodeHelper<Transcode> {
+// Non-final for mocking.
+class DecodeHelper<Transcode> {
 
   private final List<LoadData<?>> loadData = new ArrayList<>();
   private final List<Key> cacheKeys = new ArrayList<>();
@@ -128,6 +131,18 @@ final class DecodeHelper<Transcode> {
     return glideContext.getArrayPool();
   }
 
+  boolean isDecodeSourceWhileCachingEnabled() {
+    return glideContext.getExperiments().isEnabled(DecodeSourceWhileCaching.class);
+  }
+
+  boolean isImageHeaderIndexEnabled() {
+    return glideContext.getExperiments().isEnabled(IndexImageHeaders.class);
+  }
+
+  File getTemporaryFileDirectory() {
+    return glideContext.getCacheDir();
+  }
+
   Class<?> getTranscodeClass() {
     return transcodeClass;
   }
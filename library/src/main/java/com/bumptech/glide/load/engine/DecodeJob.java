@@ -3,6 +3,7 @@ package com.bumptech.glide.load.engine;
 import android.os.Build;
 import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
 import androidx.core.util.Pools;
 import com.bumptech.glide.GlideContext;
 import com.bumptech.glide.Priority;
@@ -16,7 +17,9 @@ import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.data.DataFetcher;
 import com.bumptech.glide.load.data.DataRewinder;
 import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.executor.PrioritizedTask;
 import com.bumptech.glide.load.resource.bitmap.Downsampler;
+import com.bumptech.glide.load.resource.bitmap.ImageHeaderIndex;
 import com.bumptech.glide.util.LogTime;
 import com.bumptech.glide.util.Synthetic;
 import com.bumptech.glide.util.pool.FactoryPools.Poolable;
@@ -39,6 +42,7 @@ class DecodeJob<R>
     implements DataFetcherGenerator.FetcherReadyCallback,
         Runnable,
         Comparable<DecodeJob<?>>,
+        PrioritizedTask,
         Poolable {
   private static final String TAG = "DecodeJob";
 
@@ -46,6 +50,8 @@ class DecodeJob<R>
   private final List<Throwable> throwables = new ArrayList<>();
   private final StateVerifier stateVerifier = StateVerifier.newInstance();
   private final DiskCacheProvider diskCacheProvider;
+  private final ImageHeaderIndex imageHeaderIndex;
+  private final ActiveSourceFetches activeSourceFetches;
   private final Pools.Pool<DecodeJob<?>> pool;
   private final DeferredEncodeManager<?> deferredEncodeManager = new DeferredEncodeManager<>();
   private final ReleaseManager releaseManager = new ReleaseManager();
@@ -77,9 +83,20 @@ class DecodeJob<R>
   private volatile boolean isCallbackNotified;
   private volatile boolean isCancelled;
   private boolean isLoadingFromAlternateCacheKey;
-
-  DecodeJob(DiskCacheProvider diskCacheProvider, Pools.Pool<DecodeJob<?>> pool) {
+  // Set when data from source is retrieved synchronously and will be decoded on the decode
+  // executor once the generator that retrieved it returns.
+  private boolean isDecodeHandOffPending;
+  private boolean isDecodingOnDecodeExecutor;
+  private boolean isRunningGenerators;
+
+  DecodeJob(
+      DiskCacheProvider diskCacheProvider,
+      ImageHeaderIndex imageHeaderIndex,
+      ActiveSourceFetches activeSourceFetches,
+      Pools.Pool<DecodeJob<?>> pool) {
     this.diskCacheProvider = diskCacheProvider;
+    this.imageHeaderIndex = imageHeaderIndex;
+    this.activeSourceFetches = activeSourceFetches;
     this.pool = pool;
   }
 
@@ -190,6 +207,9 @@ class DecodeJob<R>
     currentFetcher = null;
     startFetchTime = 0L;
     isCancelled = false;
+    isDecodeHandOffPending = false;
+    isDecodingOnDecodeExecutor = false;
+    isRunningGenerators = false;
     model = null;
     throwables.clear();
     pool.release(this);
@@ -197,15 +217,17 @@ class DecodeJob<R>
 
   @Override
   public int compareTo(@NonNull DecodeJob<?> other) {
-    int result = getPriority() - other.getPriority();
+    int result = priority.ordinal() - other.priority.ordinal();
     if (result == 0) {
       result = order - other.order;
     }
     return result;
   }
 
-  private int getPriority() {
-    return priority.ordinal();
+  @NonNull
+  @Override
+  public Priority getPriority() {
+    return priority;
   }
 
   public void cancel() {
@@ -294,7 +316,7 @@ class DecodeJob<R>
       case DATA_CACHE:
         return new DataCacheGenerator(decodeHelper, this);
       case SOURCE:
-        return new SourceGenerator(decodeHelper, this);
+        return new SourceGenerator(decodeHelper, activeSourceFetches, this);
       case FINISHED:
         return null;
       default:
@@ -306,6 +328,7 @@ class DecodeJob<R>
     currentThread = Thread.currentThread();
     startFetchTime = LogTime.getLogTime();
     boolean isStarted = false;
+    isRunningGenerators = true;
     while (!isCancelled
         && currentGenerator != null
         && !(isStarted = currentGenerator.startNext())) {
@@ -313,10 +336,17 @@ class DecodeJob<R>
       currentGenerator = getNextGenerator();
 
       if (stage == Stage.SOURCE) {
+        isRunningGenerators = false;
         reschedule();
         return;
       }
     }
+    isRunningGenerators = false;
+    if (isDecodeHandOffPending) {
+      isDecodeHandOffPending = false;
+      rescheduleDecode();
+      return;
+    }
     // We've run out of stages and generators, give up.
     if ((stage == Stage.FINISHED || isCancelled) && !isStarted) {
       notifyFailed();
@@ -375,6 +405,24 @@ class DecodeJob<R>
     callback.reschedule(this);
   }
 
+  /**
+   * Returns {@code true} if data retrieved from source should be decoded on the decode executor so
+   * that slow fetches and CPU bound decodes don't compete for the same threads.
+   */
+  private boolean shouldDecodeOnDecodeExecutor() {
+    return stage == Stage.SOURCE && callback.hasDecodeExecutor();
+  }
+
+  private void rescheduleDecode() {
+    runReason = RunReason.DECODE_DATA;
+    if (shouldDecodeOnDecodeExecutor()) {
+      isDecodingOnDecodeExecutor = true;
+      callback.rescheduleDecode(this);
+    } else {
+      callback.reschedule(this);
+    }
+  }
+
   @Override
   public void onDataFetcherReady(
       Key sourceKey, Object data, DataFetcher<?> fetcher, DataSource dataSource, Key attemptedKey) {
@@ -386,8 +434,14 @@ class DecodeJob<R>
     this.isLoadingFromAlternateCacheKey = sourceKey != decodeHelper.getCacheKeys().get(0);
 
     if (Thread.currentThread() != currentThread) {
-      runReason = RunReason.DECODE_DATA;
-      callback.reschedule(this);
+      rescheduleDecode();
+    } else if (shouldDecodeOnDecodeExecutor()) {
+      if (isRunningGenerators) {
+        // Let the generator that retrieved the data return before another thread decodes it.
+        isDecodeHandOffPending = true;
+      } else {
+        rescheduleDecode();
+      }
     } else {
       GlideTrace.beginSection("DecodeJob.decodeFromRetrievedData");
       try {
@@ -434,6 +488,10 @@ class DecodeJob<R>
     }
     if (resource != null) {
       notifyEncodeAndRelease(resource, currentDataSource, isLoadingFromAlternateCacheKey);
+    } else if (isDecodingOnDecodeExecutor) {
+      // Any remaining sources need to be fetched on the source executor, not the decode executor.
+      isDecodingOnDecodeExecutor = false;
+      reschedule();
     } else {
       runGenerators();
     }
@@ -477,17 +535,22 @@ class DecodeJob<R>
 
   private <Data> Resource<R> decodeFromData(
       DataFetcher<?> fetcher, Data data, DataSource dataSource) throws GlideException {
+    Resource<R> result = null;
     try {
       if (data == null) {
         return null;
       }
       long startTime = LogTime.getLogTime();
-      Resource<R> result = decodeFromFetcher(data, dataSource);
+      result = decodeFromFetcher(data, dataSource);
       if (Log.isLoggable(TAG, Log.VERBOSE)) {
         logWithTimeAndKey("Decoded result " + result, startTime);
       }
       return result;
     } finally {
+      // The tee needs to finish reading from the source before the fetcher closes it.
+      if (data instanceof DataCacheTee) {
+        ((DataCacheTee) data).onDecodeComplete(/*isDecoded=*/ result != null);
+      }
       fetcher.cleanup();
     }
   }
@@ -525,10 +588,34 @@ class DecodeJob<R>
     return options;
   }
 
+  /**
+   * Adds the {@link ImageHeaderIndex} entry for data from the disk cache so that decoders can skip
+   * parsing headers they've already parsed for the same data, if enabled with {@link
+   * com.bumptech.glide.GlideBuilder#setIndexImageHeaders(boolean)}.
+   */
+  @VisibleForTesting
+  @NonNull
+  Options getOptionsForDecode(DataSource dataSource, Key sourceKey) {
+    Options options = getOptionsWithHardwareConfig(dataSource);
+    if (dataSource != DataSource.DATA_DISK_CACHE || !decodeHelper.isImageHeaderIndexEnabled()) {
+      return options;
+    }
+    if (options == this.options) {
+      options = new Options();
+      options.putAll(this.options);
+    }
+    options.set(
+        ImageHeaderIndex.ENTRY,
+        imageHeaderIndex.getEntry(
+            diskCacheProvider.getDiskCache(),
+            new DataCacheKey(sourceKey, decodeHelper.getSignature())));
+    return options;
+  }
+
   private <Data, ResourceType> Resource<R> runLoadPath(
       Data data, DataSource dataSource, LoadPath<Data, ResourceType, R> path)
       throws GlideException {
-    Options options = getOptionsWithHardwareConfig(dataSource);
+    Options options = getOptionsForDecode(dataSource, currentSourceKey);
     DataRewinder<Data> rewinder = glideContext.getRegistry().getRewinder(data);
     try {
       // ResourceType in DecodeCallback below is required for compilation to work with gradle.
@@ -727,6 +814,15 @@ class DecodeJob<R>
     void onLoadFailed(GlideException e);
 
     void reschedule(DecodeJob<?> job);
+
+    /**
+     * Returns {@code true} if data retrieved from source should be decoded using {@link
+     * #rescheduleDecode(DecodeJob)}.
+     */
+    boolean hasDecodeExecutor();
+
+    /** Runs the given job on the executor used to decode data retrieved from source. */
+    void rescheduleDecode(DecodeJob<?> job);
   }
 
   interface DiskCacheProvider {
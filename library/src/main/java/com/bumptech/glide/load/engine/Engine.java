@@ -14,8 +14,11 @@ import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.engine.EngineResource.ResourceListener;
 import com.bumptech.glide.load.engine.cache.DiskCache;
 import com.bumptech.glide.load.engine.cache.DiskCacheAdapter;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheWrapper;
 import com.bumptech.glide.load.engine.cache.MemoryCache;
+import com.bumptech.glide.load.engine.cache.ShardedDiskLruCacheWrapper;
 import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.load.resource.bitmap.ImageHeaderIndex;
 import com.bumptech.glide.request.ResourceCallback;
 import com.bumptech.glide.util.Executors;
 import com.bumptech.glide.util.LogTime;
@@ -57,6 +60,32 @@ public class Engine
         sourceExecutor,
         sourceUnlimitedExecutor,
         animationExecutor,
+        /*decodeExecutor=*/ null,
+        isActiveResourceRetentionAllowed);
+  }
+
+  /**
+   * @param decodeExecutor If non-null, data retrieved from source on the source executor is handed
+   *     off to this executor to be decoded and transformed, see {@link
+   *     com.bumptech.glide.GlideBuilder#setDecodeExecutor(GlideExecutor)}.
+   */
+  public Engine(
+      MemoryCache memoryCache,
+      DiskCache.Factory diskCacheFactory,
+      GlideExecutor diskCacheExecutor,
+      GlideExecutor sourceExecutor,
+      GlideExecutor sourceUnlimitedExecutor,
+      GlideExecutor animationExecutor,
+      @Nullable GlideExecutor decodeExecutor,
+      boolean isActiveResourceRetentionAllowed) {
+    this(
+        memoryCache,
+        diskCacheFactory,
+        diskCacheExecutor,
+        sourceExecutor,
+        sourceUnlimitedExecutor,
+        animationExecutor,
+        decodeExecutor,
         /*jobs=*/ null,
         /*keyFactory=*/ null,
         /*activeResources=*/ null,
@@ -74,6 +103,7 @@ public class Engine
       GlideExecutor sourceExecutor,
       GlideExecutor sourceUnlimitedExecutor,
       GlideExecutor animationExecutor,
+      @Nullable GlideExecutor decodeExecutor,
       Jobs jobs,
       EngineKeyFactory keyFactory,
       ActiveResources activeResources,
@@ -107,13 +137,16 @@ public class Engine
               sourceExecutor,
               sourceUnlimitedExecutor,
               animationExecutor,
+              decodeExecutor,
               /*engineJobListener=*/ this,
               /*resourceListener=*/ this);
     }
     this.engineJobFactory = engineJobFactory;
 
     if (decodeJobFactory == null) {
-      decodeJobFactory = new DecodeJobFactory(diskCacheProvider);
+      decodeJobFactory =
+          new DecodeJobFactory(
+              diskCacheProvider, new ImageHeaderIndex(), new ActiveSourceFetches());
     }
     this.decodeJobFactory = decodeJobFactory;
 
@@ -174,8 +207,9 @@ public class Engine
       Executor callbackExecutor) {
     long startTime = VERBOSE_IS_LOGGABLE ? LogTime.getLogTime() : 0;
 
-    EngineKey key =
-        keyFactory.buildKey(
+    // Memory cache hits don't allocate a key that can be retained.
+    EngineKey probeKey =
+        keyFactory.obtainProbeKey(
             model,
             signature,
             width,
@@ -186,33 +220,45 @@ public class Engine
             options);
 
     EngineResource<?> memoryResource;
-    synchronized (this) {
-      memoryResource = loadFromMemory(key, isMemoryCacheable, startTime);
-
+    try {
+      // Memory cache hits don't need to coordinate with jobs, so avoid the engine lock entirely.
+      memoryResource = loadFromMemory(probeKey, isMemoryCacheable, startTime);
       if (memoryResource == null) {
-        return waitForExistingOrStartNewJob(
-            glideContext,
-            model,
-            signature,
-            width,
-            height,
-            resourceClass,
-            transcodeClass,
-            priority,
-            diskCacheStrategy,
-            transformations,
-            isTransformationRequired,
-            isScaleOnlyOrNoTransform,
-            options,
-            isMemoryCacheable,
-            useUnlimitedSourceExecutorPool,
-            useAnimationPool,
-            onlyRetrieveFromCache,
-            cb,
-            callbackExecutor,
-            key,
-            startTime);
+        synchronized (this) {
+          // A job for this key may have completed after the first check, look again before
+          // starting a new one. Completed jobs activate their resources before they're removed
+          // from jobs.
+          memoryResource = loadFromMemory(probeKey, isMemoryCacheable, startTime);
+
+          if (memoryResource == null) {
+            EngineKey key = keyFactory.buildKey(probeKey);
+            return waitForExistingOrStartNewJob(
+                glideContext,
+                model,
+                signature,
+                width,
+                height,
+                resourceClass,
+                transcodeClass,
+                priority,
+                diskCacheStrategy,
+                transformations,
+                isTransformationRequired,
+                isScaleOnlyOrNoTransform,
+                options,
+                isMemoryCacheable,
+                useUnlimitedSourceExecutorPool,
+                useAnimationPool,
+                onlyRetrieveFromCache,
+                cb,
+                callbackExecutor,
+                key,
+                startTime);
+          }
+        }
       }
+    } finally {
+      keyFactory.releaseProbeKey(probeKey);
     }
 
     // Avoid calling back while holding the engine lock, doing so makes it easier for callers to
@@ -332,17 +378,18 @@ public class Engine
     return active;
   }
 
-  private EngineResource<?> loadFromCache(Key key) {
-    EngineResource<?> cached = getEngineResourceFromCache(key);
+  private EngineResource<?> loadFromCache(EngineKey probeKey) {
+    EngineResource<?> cached = getEngineResourceFromCache(probeKey);
     if (cached != null) {
       cached.acquire();
-      activeResources.activate(key, cached);
+      // The probe key can't be retained, but the resource holds on to an equal key already.
+      activeResources.activate(cached.getKey(), cached);
     }
     return cached;
   }
 
-  private EngineResource<?> getEngineResourceFromCache(Key key) {
-    Resource<?> cached = cache.remove(key);
+  private EngineResource<?> getEngineResourceFromCache(EngineKey probeKey) {
+    Resource<?> cached = cache.remove(probeKey);
 
     final EngineResource<?> result;
     if (cached == null) {
@@ -353,7 +400,11 @@ public class Engine
     } else {
       result =
           new EngineResource<>(
-              cached, /*isMemoryCacheable=*/ true, /*isRecyclable=*/ true, key, /*listener=*/ this);
+              cached,
+              /*isMemoryCacheable=*/ true,
+              /*isRecyclable=*/ true,
+              keyFactory.buildKey(probeKey),
+              /*listener=*/ this);
     }
     return result;
   }
@@ -368,14 +419,16 @@ public class Engine
 
   @SuppressWarnings("unchecked")
   @Override
-  public synchronized void onEngineJobComplete(
-      EngineJob<?> engineJob, Key key, EngineResource<?> resource) {
+  public void onEngineJobComplete(EngineJob<?> engineJob, Key key, EngineResource<?> resource) {
     // A null resource indicates that the load failed, usually due to an exception.
     if (resource != null && resource.isMemoryCacheable()) {
+      // Must happen before the job is removed, see load().
       activeResources.activate(key, resource);
     }
 
-    jobs.removeIfCurrent(key, engineJob);
+    synchronized (this) {
+      jobs.removeIfCurrent(key, engineJob);
+    }
   }
 
   @Override
@@ -404,6 +457,25 @@ public class Engine
     diskCacheProvider.getDiskCache().clear();
   }
 
+  /**
+   * Creates the disk cache and, for Glide's own disk caches, opens it, so that the first load that
+   * uses the disk cache doesn't have to.
+   */
+  public void warmUpDiskCache() {
+    DiskCache diskCache = diskCacheProvider.getDiskCache();
+    if (diskCache instanceof DiskLruCacheWrapper) {
+      ((DiskLruCacheWrapper) diskCache).warmUp();
+    } else if (diskCache instanceof ShardedDiskLruCacheWrapper) {
+      ((ShardedDiskLruCacheWrapper) diskCache).warmUp();
+    }
+  }
+
+  /** Returns the executor that loads requests using the animation pool. */
+  @NonNull
+  public GlideExecutor getAnimationExecutor() {
+    return engineJobFactory.animationExecutor;
+  }
+
   @VisibleForTesting
   public void shutdown() {
     engineJobFactory.shutdown();
@@ -472,6 +544,8 @@ public class Engine
   @VisibleForTesting
   static class DecodeJobFactory {
     @Synthetic final DecodeJob.DiskCacheProvider diskCacheProvider;
+    @Synthetic final ImageHeaderIndex imageHeaderIndex;
+    @Synthetic final ActiveSourceFetches activeSourceFetches;
 
     @Synthetic
     final Pools.Pool<DecodeJob<?>> pool =
@@ -480,14 +554,20 @@ public class Engine
             new FactoryPools.Factory<DecodeJob<?>>() {
               @Override
               public DecodeJob<?> create() {
-                return new DecodeJob<>(diskCacheProvider, pool);
+                return new DecodeJob<>(
+                    diskCacheProvider, imageHeaderIndex, activeSourceFetches, pool);
               }
             });
 
     private int creationOrder;
 
-    DecodeJobFactory(DecodeJob.DiskCacheProvider diskCacheProvider) {
+    DecodeJobFactory(
+        DecodeJob.DiskCacheProvider diskCacheProvider,
+        ImageHeaderIndex imageHeaderIndex,
+        ActiveSourceFetches activeSourceFetches) {
       this.diskCacheProvider = diskCacheProvider;
+      this.imageHeaderIndex = imageHeaderIndex;
+      this.activeSourceFetches = activeSourceFetches;
     }
 
     @SuppressWarnings("unchecked")
@@ -536,6 +616,7 @@ public class Engine
     @Synthetic final GlideExecutor sourceExecutor;
     @Synthetic final GlideExecutor sourceUnlimitedExecutor;
     @Synthetic final GlideExecutor animationExecutor;
+    @Synthetic @Nullable final GlideExecutor decodeExecutor;
     @Synthetic final EngineJobListener engineJobListener;
     @Synthetic final ResourceListener resourceListener;
 
@@ -551,6 +632,7 @@ public class Engine
                     sourceExecutor,
                     sourceUnlimitedExecutor,
                     animationExecutor,
+                    decodeExecutor,
                     engineJobListener,
                     resourceListener,
                     pool);
@@ -562,12 +644,14 @@ public class Engine
         GlideExecutor sourceExecutor,
         GlideExecutor sourceUnlimitedExecutor,
         GlideExecutor animationExecutor,
+        @Nullable GlideExecutor decodeExecutor,
         EngineJobListener engineJobListener,
         ResourceListener resourceListener) {
       this.diskCacheExecutor = diskCacheExecutor;
       this.sourceExecutor = sourceExecutor;
       this.sourceUnlimitedExecutor = sourceUnlimitedExecutor;
       this.animationExecutor = animationExecutor;
+      this.decodeExecutor = decodeExecutor;
       this.engineJobListener = engineJobListener;
       this.resourceListener = resourceListener;
     }
@@ -578,6 +662,9 @@ public class Engine
       Executors.shutdownAndAwaitTermination(sourceExecutor);
       Executors.shutdownAndAwaitTermination(sourceUnlimitedExecutor);
       Executors.shutdownAndAwaitTermination(animationExecutor);
+      if (decodeExecutor != null) {
+        Executors.shutdownAndAwaitTermination(decodeExecutor);
+      }
     }
 
     @SuppressWarnings("unchecked")
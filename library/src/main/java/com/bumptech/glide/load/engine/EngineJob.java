@@ -2,6 +2,7 @@ package com.bumptech.glide.load.engine;
 
 import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.core.util.Pools;
 import com.bumptech.glide.load.DataSource;
@@ -40,6 +41,7 @@ class EngineJob<R> implements DecodeJob.Callback<R>, Poolable {
   private final GlideExecutor sourceExecutor;
   private final GlideExecutor sourceUnlimitedExecutor;
   private final GlideExecutor animationExecutor;
+  @Nullable private final GlideExecutor decodeExecutor;
   private final AtomicInteger pendingCallbacks = new AtomicInteger();
 
   private Key key;
@@ -76,6 +78,7 @@ class EngineJob<R> implements DecodeJob.Callback<R>, Poolable {
       GlideExecutor sourceExecutor,
       GlideExecutor sourceUnlimitedExecutor,
       GlideExecutor animationExecutor,
+      @Nullable GlideExecutor decodeExecutor,
       EngineJobListener engineJobListener,
       ResourceListener resourceListener,
       Pools.Pool<EngineJob<?>> pool) {
@@ -84,6 +87,7 @@ class EngineJob<R> implements DecodeJob.Callback<R>, Poolable {
         sourceExecutor,
         sourceUnlimitedExecutor,
         animationExecutor,
+        decodeExecutor,
         engineJobListener,
         resourceListener,
         pool,
@@ -96,6 +100,7 @@ class EngineJob<R> implements DecodeJob.Callback<R>, Poolable {
       GlideExecutor sourceExecutor,
       GlideExecutor sourceUnlimitedExecutor,
       GlideExecutor animationExecutor,
+      @Nullable GlideExecutor decodeExecutor,
       EngineJobListener engineJobListener,
       ResourceListener resourceListener,
       Pools.Pool<EngineJob<?>> pool,
@@ -104,6 +109,7 @@ class EngineJob<R> implements DecodeJob.Callback<R>, Poolable {
     this.sourceExecutor = sourceExecutor;
     this.sourceUnlimitedExecutor = sourceUnlimitedExecutor;
     this.animationExecutor = animationExecutor;
+    this.decodeExecutor = decodeExecutor;
     this.engineJobListener = engineJobListener;
     this.resourceListener = resourceListener;
     this.pool = pool;
@@ -339,6 +345,21 @@ class EngineJob<R> implements DecodeJob.Callback<R>, Poolable {
     getActiveSourceExecutor().execute(job);
   }
 
+  @Override
+  public boolean hasDecodeExecutor() {
+    // Loads that asked for a specific pool keep using that pool for decodes too.
+    return decodeExecutor != null && !useUnlimitedSourceGeneratorPool && !useAnimationPool;
+  }
+
+  @Override
+  public void rescheduleDecode(DecodeJob<?> job) {
+    if (hasDecodeExecutor()) {
+      decodeExecutor.execute(job);
+    } else {
+      reschedule(job);
+    }
+  }
+
   // We have to post Runnables in a loop. Typically there will be very few callbacks. Acessor method
   // warning seems to be false positive.
   @SuppressWarnings({
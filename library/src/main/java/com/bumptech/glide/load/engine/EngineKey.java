@@ -8,16 +8,22 @@ import com.bumptech.glide.util.Preconditions;
 import java.security.MessageDigest;
 import java.util.Map;
 
-/** An in memory only cache key used to multiplex loads. */
+/**
+ * An in memory only cache key used to multiplex loads.
+ *
+ * <p>Keys are immutable once they're constructed, except for probe keys, see {@link
+ * EngineKeyFactory#obtainProbeKey}, which are reused to look up resources in memory without
+ * allocating and must never be retained.
+ */
 class EngineKey implements Key {
-  private final Object model;
-  private final int width;
-  private final int height;
-  private final Class<?> resourceClass;
-  private final Class<?> transcodeClass;
-  private final Key signature;
-  private final Map<Class<?>, Transformation<?>> transformations;
-  private final Options options;
+  private Object model;
+  private int width;
+  private int height;
+  private Class<?> resourceClass;
+  private Class<?> transcodeClass;
+  private Key signature;
+  private Map<Class<?>, Transformation<?>> transformations;
+  private Options options;
   private int hashCode;
 
   EngineKey(
@@ -29,6 +35,22 @@ class EngineKey implements Key {
       Class<?> resourceClass,
       Class<?> transcodeClass,
       Options options) {
+    set(model, signature, width, height, transformations, resourceClass, transcodeClass, options);
+  }
+
+  /** Creates an empty probe key, see {@link EngineKeyFactory#obtainProbeKey}. */
+  EngineKey() {}
+
+  /** Replaces the contents of a probe key. */
+  void set(
+      Object model,
+      Key signature,
+      int width,
+      int height,
+      Map<Class<?>, Transformation<?>> transformations,
+      Class<?> resourceClass,
+      Class<?> transcodeClass,
+      Options options) {
     this.model = Preconditions.checkNotNull(model);
     this.signature = Preconditions.checkNotNull(signature, "Signature must not be null");
     this.width = width;
@@ -39,6 +61,34 @@ class EngineKey implements Key {
     this.transcodeClass =
         Preconditions.checkNotNull(transcodeClass, "Transcode class must not be null");
     this.options = Preconditions.checkNotNull(options);
+    hashCode = 0;
+  }
+
+  /** Clears the contents of a probe key so that it doesn't hold on to the model or options. */
+  void clear() {
+    model = null;
+    signature = null;
+    transformations = null;
+    resourceClass = null;
+    transcodeClass = null;
+    options = null;
+    hashCode = 0;
+  }
+
+  /** Returns an immutable copy of this key that's safe to retain, with the same hash code. */
+  EngineKey copy() {
+    EngineKey result =
+        new EngineKey(
+            model,
+            signature,
+            width,
+            height,
+            transformations,
+            resourceClass,
+            transcodeClass,
+            options);
+    result.hashCode = hashCode;
+    return result;
   }
 
   @Override
@@ -6,9 +6,23 @@ import com.bumptech.glide.load.Transformation;
 import java.util.Map;
 
 class EngineKeyFactory {
+  private final ThreadLocal<EngineKey> probeKeys =
+      new ThreadLocal<EngineKey>() {
+        @Override
+        protected EngineKey initialValue() {
+          return new EngineKey();
+        }
+      };
 
-  @SuppressWarnings("rawtypes")
-  EngineKey buildKey(
+  /**
+   * Returns a key for this thread that can be used to look up resources in memory without
+   * allocating.
+   *
+   * <p>The returned key is reused by subsequent calls on the same thread, so it must not be
+   * retained. Use {@link #buildKey(EngineKey)} to obtain a key that can be retained and call {@link
+   * #releaseProbeKey(EngineKey)} when the lookup is finished.
+   */
+  EngineKey obtainProbeKey(
       Object model,
       Key signature,
       int width,
@@ -17,7 +31,18 @@ class EngineKeyFactory {
       Class<?> resourceClass,
       Class<?> transcodeClass,
       Options options) {
-    return new EngineKey(
+    EngineKey result = probeKeys.get();
+    result.set(
         model, signature, width, height, transformations, resourceClass, transcodeClass, options);
+    return result;
+  }
+
+  /** Returns a key equal to the given probe key that can be retained. */
+  EngineKey buildKey(EngineKey probeKey) {
+    return probeKey.copy();
+  }
+
+  void releaseProbeKey(EngineKey probeKey) {
+    probeKey.clear();
   }
 }
@@ -3,12 +3,19 @@ package com.bumptech.glide.load.engine;
 import androidx.annotation.VisibleForTesting;
 import com.bumptech.glide.load.Key;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Tracks in progress {@link EngineJob}s by key.
+ *
+ * <p>Safe to read from any thread. The {@link Engine} still serializes adding callbacks to and
+ * removing jobs so that a job can't be found after it's been completed or cancelled and returned
+ * to its pool.
+ */
 final class Jobs {
-  private final Map<Key, EngineJob<?>> jobs = new HashMap<>();
-  private final Map<Key, EngineJob<?>> onlyCacheJobs = new HashMap<>();
+  private final Map<Key, EngineJob<?>> jobs = new ConcurrentHashMap<>();
+  private final Map<Key, EngineJob<?>> onlyCacheJobs = new ConcurrentHashMap<>();
 
   @VisibleForTesting
   Map<Key, EngineJob<?>> getAll() {
@@ -24,10 +31,7 @@ final class Jobs {
   }
 
   void removeIfCurrent(Key key, EngineJob<?> expected) {
-    Map<Key, EngineJob<?>> jobMap = getJobMap(expected.onlyRetrieveFromCache());
-    if (expected.equals(jobMap.get(key))) {
-      jobMap.remove(key);
-    }
+    getJobMap(expected.onlyRetrieveFromCache()).remove(key, expected);
   }
 
   private Map<Key, EngineJob<?>> getJobMap(boolean onlyRetrieveFromCache) {
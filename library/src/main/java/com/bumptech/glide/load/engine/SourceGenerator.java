@@ -12,9 +12,11 @@ import com.bumptech.glide.load.data.DataRewinder;
 import com.bumptech.glide.load.engine.cache.DiskCache;
 import com.bumptech.glide.load.model.ModelLoader;
 import com.bumptech.glide.load.model.ModelLoader.LoadData;
+import com.bumptech.glide.load.model.StreamEncoder;
 import com.bumptech.glide.util.LogTime;
 import com.bumptech.glide.util.Synthetic;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 
 /**
@@ -23,25 +25,40 @@ import java.util.Collections;
  * provided for the load.
  *
  * <p>Depending on the disk cache strategy, source data may first be written to disk and then loaded
- * from the cache file rather than returned directly.
+ * from the cache file rather than returned directly. If another load is already fetching the same
+ * source data to write it to disk, we wait for that fetch and then load from the cache file instead
+ * of fetching the data again.
  *
  * <p>This object may be used by multiple threads, but only one at a time. It is not safe to access
  * this object on multiple threads concurrently.
  */
-class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.FetcherReadyCallback {
+class SourceGenerator
+    implements DataFetcherGenerator,
+        DataFetcherGenerator.FetcherReadyCallback,
+        DataCacheTee.Callback,
+        ActiveSourceFetches.Callback {
   private static final String TAG = "SourceGenerator";
 
   private final DecodeHelper<?> helper;
   private final FetcherReadyCallback cb;
+  private final ActiveSourceFetches activeSourceFetches;
 
   private volatile int loadDataListIndex;
   private volatile DataCacheGenerator sourceCacheGenerator;
   private volatile Object dataToCache;
   private volatile ModelLoader.LoadData<?> loadData;
   private volatile DataCacheKey originalKey;
+  // The fetch we're responsible for that other loads may be waiting on.
+  private volatile DataCacheKey sharedFetchKey;
+  // Another load's fetch that we're waiting on.
+  private volatile DataCacheKey awaitedFetchKey;
 
-  SourceGenerator(DecodeHelper<?> helper, FetcherReadyCallback cb) {
+  SourceGenerator(
+      DecodeHelper<?> helper,
+      ActiveSourceFetches activeSourceFetches,
+      FetcherReadyCallback cb) {
     this.helper = helper;
+    this.activeSourceFetches = activeSourceFetches;
     this.cb = cb;
   }
 
@@ -52,6 +69,9 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
     if (dataToCache != null) {
       Object data = dataToCache;
       dataToCache = null;
+      if (helper.isDecodeSourceWhileCachingEnabled() && decodeWhileCaching(data)) {
+        return true;
+      }
       try {
         boolean isDataInCache = cacheData(data);
         // If we failed to write the data to cache, the cacheData method will try to decode the
@@ -72,6 +92,12 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
       }
     }
 
+    if (awaitedFetchKey != null) {
+      awaitedFetchKey = null;
+      loadFromSharedFetch(loadData);
+      return true;
+    }
+
     if (sourceCacheGenerator != null && sourceCacheGenerator.startNext()) {
       return true;
     }
@@ -85,14 +111,28 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
           && (helper.getDiskCacheStrategy().isDataCacheable(loadData.fetcher.getDataSource())
               || helper.hasLoadPath(loadData.fetcher.getDataClass()))) {
         started = true;
-        startNextLoad(loadData);
+        startNextLoad(loadData, /*canWait=*/ true);
       }
     }
     return started;
   }
 
-  private void startNextLoad(final LoadData<?> toStart) {
-    loadData.fetcher.loadData(
+  private void startNextLoad(final LoadData<?> toStart, boolean canWait) {
+    if (helper.getDiskCacheStrategy().isDataCacheable(toStart.fetcher.getDataSource())) {
+      DataCacheKey key = new DataCacheKey(toStart.sourceKey, helper.getSignature());
+      if (canWait) {
+        // Set before we start waiting in case the fetch finishes on another thread first.
+        awaitedFetchKey = key;
+        if (activeSourceFetches.startOrWait(key, this)) {
+          return;
+        }
+        awaitedFetchKey = null;
+        sharedFetchKey = key;
+      } else if (activeSourceFetches.start(key, this)) {
+        sharedFetchKey = key;
+      }
+    }
+    toStart.fetcher.loadData(
         helper.getPriority(),
         new DataCallback<Object>() {
           @Override
@@ -119,6 +159,36 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
     return currentLoadData != null && currentLoadData == requestLoadData;
   }
 
+  /**
+   * Loads the data another load fetched and wrote to the disk cache, or fetches the data ourselves
+   * if the other load couldn't write it to the cache.
+   */
+  private void loadFromSharedFetch(LoadData<?> toLoad) {
+    sourceCacheGenerator =
+        new DataCacheGenerator(Collections.singletonList(toLoad.sourceKey), helper, this);
+    if (sourceCacheGenerator.startNext()) {
+      return;
+    }
+    sourceCacheGenerator = null;
+    // Only wait once so that if the disk cache is disabled or full, loads aren't serialized.
+    startNextLoad(toLoad, /*canWait=*/ false);
+  }
+
+  @Override
+  public void onSourceFetchFinished() {
+    // We might be being called back on someone else's thread. Before doing anything, we should
+    // reschedule to get back onto Glide's thread.
+    cb.reschedule();
+  }
+
+  private void finishSharedFetch() {
+    DataCacheKey key = sharedFetchKey;
+    if (key != null) {
+      sharedFetchKey = null;
+      activeSourceFetches.finish(key, this);
+    }
+  }
+
   private boolean hasNextModelLoader() {
     return loadDataListIndex < helper.getLoadData().size();
   }
@@ -139,6 +209,7 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
       DataCacheKey newOriginalKey = new DataCacheKey(loadData.sourceKey, helper.getSignature());
       DiskCache diskCache = helper.getDiskCache();
       diskCache.put(newOriginalKey, writer);
+      finishSharedFetch();
       if (Log.isLoggable(TAG, Log.VERBOSE)) {
         Log.v(
             TAG,
@@ -183,18 +254,99 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
       // We failed to write the data to cache.
       return false;
     } finally {
+      // In case we failed before writing the data.
+      finishSharedFetch();
       if (!isLoadingFromSourceData) {
         loadData.fetcher.cleanup();
       }
     }
   }
 
+  /**
+   * Starts decoding the given data while simultaneously copying it to a temporary file that will
+   * be moved into the disk cache once the decode completes, saving a full write and read of the
+   * data before it can be decoded.
+   *
+   * <p>Only {@link InputStream}s that would otherwise be written to cache by a {@link
+   * StreamEncoder} are supported, because other data types or custom encoders may not write the
+   * data verbatim.
+   *
+   * @return {@code true} if the decode was started, or {@code false} if the data should be written
+   *     to cache normally.
+   */
+  private boolean decodeWhileCaching(Object data) {
+    if (!(data instanceof InputStream)) {
+      return false;
+    }
+    Object encoder = helper.getSourceEncoder(data);
+    if (!(encoder instanceof StreamEncoder)) {
+      return false;
+    }
+    DataCacheTee tee;
+    try {
+      tee =
+          DataCacheTee.create(
+              (InputStream) data, helper.getTemporaryFileDirectory(), helper.getArrayPool(), this);
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to create temporary file, falling back to writing data to cache", e);
+      }
+      return false;
+    }
+    originalKey = new DataCacheKey(loadData.sourceKey, helper.getSignature());
+    cb.onDataFetcherReady(
+        loadData.sourceKey,
+        tee,
+        loadData.fetcher,
+        loadData.fetcher.getDataSource(),
+        loadData.sourceKey);
+    return true;
+  }
+
+  /**
+   * Commits data that was decoded via {@link #decodeWhileCaching(Object)} to the disk cache.
+   *
+   * <p>The data is cached only if the decode succeeded and the data was written in its entirety.
+   * Data that couldn't be decoded is discarded, otherwise every later load would read the same
+   * corrupt or unsupported data from the cache and fail again.
+   */
+  @Override
+  public void onDecodeComplete(@NonNull DataCacheTee tee, boolean isDecoded) {
+    long startTime = LogTime.getLogTime();
+    boolean isDataInCache;
+    if (isDecoded) {
+      isDataInCache = tee.commit(helper.getDiskCache(), originalKey);
+    } else {
+      tee.abort();
+      isDataInCache = false;
+    }
+    finishSharedFetch();
+    if (Log.isLoggable(TAG, Log.VERBOSE)) {
+      Log.v(
+          TAG,
+          "Finished teeing source to cache"
+              + ", key: "
+              + originalKey
+              + ", decoded: "
+              + isDecoded
+              + ", cached: "
+              + isDataInCache
+              + ", duration: "
+              + LogTime.getElapsedMillis(startTime));
+    }
+  }
+
   @Override
   public void cancel() {
+    DataCacheKey awaited = awaitedFetchKey;
     LoadData<?> local = loadData;
-    if (local != null) {
+    if (awaited != null) {
+      // Our fetcher hasn't been started.
+      activeSourceFetches.removeWaiter(awaited, this);
+    } else if (local != null) {
       local.fetcher.cancel();
     }
+    finishSharedFetch();
   }
 
   @SuppressWarnings("WeakerAccess")
@@ -207,6 +359,7 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
       // reschedule to get back onto Glide's thread.
       cb.reschedule();
     } else {
+      finishSharedFetch();
       cb.onDataFetcherReady(
           loadData.sourceKey,
           data,
@@ -219,6 +372,7 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
   @SuppressWarnings("WeakerAccess")
   @Synthetic
   void onLoadFailedInternal(LoadData<?> loadData, @NonNull Exception e) {
+    finishSharedFetch();
     cb.onDataFetcherFailed(originalKey, e, loadData.fetcher, loadData.fetcher.getDataSource());
   }
 
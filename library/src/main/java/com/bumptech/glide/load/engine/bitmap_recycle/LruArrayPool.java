@@ -92,14 +92,46 @@ public final class LruArrayPool implements ArrayPool {
     return getForKey(key, arrayClass);
   }
 
-  private <T> T getForKey(Key key, Class<T> arrayClass) {
-    ArrayAdapterInterface<T> arrayAdapter = getAdapterFromType(arrayClass);
-    T result = getArrayForKey(key);
-    if (result != null) {
-      currentSize -= arrayAdapter.getArrayLength(result) * arrayAdapter.getElementSizeInBytes();
-      decrementArrayOfSize(arrayAdapter.getArrayLength(result), arrayClass);
+  /**
+   * Removes up to {@code arrays.length} arrays that can fill a request for an array of the given
+   * size from the pool while only acquiring the pool's lock once, and returns the number of arrays
+   * removed.
+   *
+   * <p>Unlike {@link #get(int, Class)} and {@link #getExact(int, Class)}, no arrays are allocated.
+   */
+  synchronized <T> int removeAll(int size, Class<T> arrayClass, boolean isExact, Object[] arrays) {
+    int removed = 0;
+    while (removed < arrays.length) {
+      final Key key;
+      Integer possibleSize = isExact ? null : getSizesForAdapter(arrayClass).ceilingKey(size);
+      if (mayFillRequest(size, possibleSize)) {
+        key = keyPool.get(possibleSize, arrayClass);
+      } else {
+        key = keyPool.get(size, arrayClass);
+      }
+      T result = removeForKey(key, arrayClass);
+      if (result == null) {
+        break;
+      }
+      arrays[removed++] = result;
+    }
+    return removed;
+  }
+
+  /**
+   * Adds the first {@code count} arrays in {@code arrays} to the pool while only acquiring the
+   * pool's lock once, and clears them from {@code arrays}.
+   */
+  synchronized void putAll(Object[] arrays, int count) {
+    for (int i = 0; i < count; i++) {
+      put(arrays[i]);
+      arrays[i] = null;
     }
+  }
 
+  private <T> T getForKey(Key key, Class<T> arrayClass) {
+    ArrayAdapterInterface<T> arrayAdapter = getAdapterFromType(arrayClass);
+    T result = removeForKey(key, arrayClass);
     if (result == null) {
       if (Log.isLoggable(arrayAdapter.getTag(), Log.VERBOSE)) {
         Log.v(arrayAdapter.getTag(), "Allocated " + key.size + " bytes");
@@ -109,6 +141,17 @@ public final class LruArrayPool implements ArrayPool {
     return result;
   }
 
+  @Nullable
+  private <T> T removeForKey(Key key, Class<T> arrayClass) {
+    ArrayAdapterInterface<T> arrayAdapter = getAdapterFromType(arrayClass);
+    T result = getArrayForKey(key);
+    if (result != null) {
+      currentSize -= arrayAdapter.getArrayLength(result) * arrayAdapter.getElementSizeInBytes();
+      decrementArrayOfSize(arrayAdapter.getArrayLength(result), arrayClass);
+    }
+    return result;
+  }
+
   // Our cast is safe because the Key is based on the type.
   @SuppressWarnings({"unchecked", "TypeParameterUnusedInFormals"})
   @Nullable
@@ -22,8 +22,17 @@ import java.util.Set;
  * recently used bucket in order to keep the pool below a given maximum size limit.
  */
 public class LruBitmapPool implements BitmapPool {
+  /** An interface that will be called whenever a request for a {@link Bitmap} misses the pool. */
+  public interface MissListener {
+    /**
+     * Called on the requesting thread, outside of the pool's lock, before the missing {@link
+     * Bitmap} is allocated.
+     */
+    void onBitmapMissed(int width, int height, @NonNull Bitmap.Config config);
+  }
+
   private static final String TAG = "LruBitmapPool";
-  private static final Bitmap.Config DEFAULT_CONFIG = Bitmap.Config.ARGB_8888;
+  static final Bitmap.Config DEFAULT_CONFIG = Bitmap.Config.ARGB_8888;
 
   private final LruPoolStrategy strategy;
   private final Set<Bitmap.Config> allowedConfigs;
@@ -36,6 +45,7 @@ public class LruBitmapPool implements BitmapPool {
   private int misses;
   private int puts;
   private int evictions;
+  @Nullable private volatile MissListener missListener;
 
   // Exposed for testing only.
   LruBitmapPool(long maxSize, LruPoolStrategy strategy, Set<Bitmap.Config> allowedConfigs) {
@@ -68,6 +78,14 @@ public class LruBitmapPool implements BitmapPool {
     this(maxSize, getDefaultStrategy(), allowedConfigs);
   }
 
+  /**
+   * Set the listener to be called when a request for a {@link Bitmap} misses the pool, or {@code
+   * null} to remove the current listener.
+   */
+  public void setMissListener(@Nullable MissListener listener) {
+    missListener = listener;
+  }
+
   /** Returns the number of cache hits for bitmaps in the pool. */
   public long hitCount() {
     return hits;
@@ -154,6 +172,7 @@ public class LruBitmapPool implements BitmapPool {
       // contents individually, so we do so here. See issue #131.
       result.eraseColor(Color.TRANSPARENT);
     } else {
+      onMissed(width, height, config);
       result = createBitmap(width, height, config);
     }
 
@@ -165,18 +184,26 @@ public class LruBitmapPool implements BitmapPool {
   public Bitmap getDirty(int width, int height, Bitmap.Config config) {
     Bitmap result = getDirtyOrNull(width, height, config);
     if (result == null) {
+      onMissed(width, height, config);
       result = createBitmap(width, height, config);
     }
     return result;
   }
 
+  private void onMissed(int width, int height, @Nullable Bitmap.Config config) {
+    MissListener listener = missListener;
+    if (listener != null) {
+      listener.onBitmapMissed(width, height, config != null ? config : DEFAULT_CONFIG);
+    }
+  }
+
   @NonNull
-  private static Bitmap createBitmap(int width, int height, @Nullable Bitmap.Config config) {
+  static Bitmap createBitmap(int width, int height, @Nullable Bitmap.Config config) {
     return Bitmap.createBitmap(width, height, config != null ? config : DEFAULT_CONFIG);
   }
 
   @TargetApi(Build.VERSION_CODES.O)
-  private static void assertNotHardwareConfig(Bitmap.Config config) {
+  static void assertNotHardwareConfig(Bitmap.Config config) {
     // Avoid short circuiting on sdk int since it breaks on some versions of Android.
     if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
       return;
@@ -219,7 +246,7 @@ public class LruBitmapPool implements BitmapPool {
 
   // Setting these two values provides Bitmaps that are essentially equivalent to those returned
   // from Bitmap.createBitmap.
-  private static void normalize(Bitmap bitmap) {
+  static void normalize(Bitmap bitmap) {
     bitmap.setHasAlpha(true);
     maybeSetPreMultiplied(bitmap);
   }
@@ -314,7 +341,7 @@ public class LruBitmapPool implements BitmapPool {
   }
 
   @TargetApi(Build.VERSION_CODES.O)
-  private static Set<Bitmap.Config> getDefaultAllowedConfigs() {
+  static Set<Bitmap.Config> getDefaultAllowedConfigs() {
     Set<Bitmap.Config> configs = new HashSet<>(Arrays.asList(Bitmap.Config.values()));
     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
       // GIFs, among other types, end up with a native Bitmap config that doesn't map to a java
@@ -0,0 +1,347 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import android.content.ComponentCallbacks2;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.util.Synthetic;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An {@link ArrayPool} that keeps a small magazine of arrays for each thread in front of a shared
+ * {@link LruArrayPool}, similar to the per CPU caches used by slab allocators.
+ *
+ * <p>Decodes typically get and put the same few array sizes many times. Those requests are served
+ * from the calling thread's magazine without acquiring any locks. A thread only acquires the
+ * shared pool's lock when its magazine can't fill a request, in which case a small batch of arrays
+ * is removed from the shared pool at once, or when its magazine is full, in which case half of the
+ * magazine is moved to the shared pool at once.
+ *
+ * <p>A fixed fraction of the maximum size is reserved for magazines and the shared pool gets the
+ * rest, so arrays held by magazines and by the shared pool together never exceed the maximum size.
+ * Magazines are intended for long lived threads, like those in {@link
+ * com.bumptech.glide.load.engine.executor.GlideExecutor}. Arrays held in the magazines of threads
+ * that have died are returned to the shared pool the next time a thread creates a magazine.
+ */
+public final class MagazineArrayPool implements ArrayPool {
+  private static final String TAG = "MagazineArrayPool";
+  /** The number of arrays each thread may hold. */
+  @VisibleForTesting static final int MAGAZINE_SIZE = 4;
+  /** The number of arrays moved to or from the shared pool at once. */
+  private static final int BATCH_SIZE = MAGAZINE_SIZE / 2;
+  /** Used to calculate the fraction of the maximum size that's reserved for magazines. */
+  private static final int MAGAZINE_MAX_SIZE_DIVISOR = 4;
+
+  private final LruArrayPool sharedPool;
+  private final int maxMagazinesSize;
+  private final AtomicInteger magazinesSize = new AtomicInteger();
+  private final AtomicInteger sharedPoolAccesses = new AtomicInteger();
+  private final ByteArrayAdapter byteArrayAdapter = new ByteArrayAdapter();
+  private final IntegerArrayAdapter integerArrayAdapter = new IntegerArrayAdapter();
+  // Guarded by itself.
+  private final List<Magazine> allMagazines = new ArrayList<>();
+  private final ThreadLocal<Magazine> magazines =
+      new ThreadLocal<Magazine>() {
+        @Override
+        protected Magazine initialValue() {
+          return registerMagazine();
+        }
+      };
+
+  /**
+   * Constructor for a new pool.
+   *
+   * @param maxSize The maximum size in bytes of the arrays held by the pool, including those held
+   *     in magazines.
+   */
+  public MagazineArrayPool(int maxSize) {
+    maxMagazinesSize = maxSize / MAGAZINE_MAX_SIZE_DIVISOR;
+    sharedPool = new LruArrayPool(maxSize - maxMagazinesSize);
+  }
+
+  @Deprecated
+  @Override
+  public <T> void put(T array, Class<T> arrayClass) {
+    put(array);
+  }
+
+  @Override
+  public <T> void put(T array) {
+    int arrayBytes = getArrayBytes(array);
+    if (!reserve(arrayBytes)) {
+      putShared(array);
+      return;
+    }
+    Magazine magazine = magazines.get();
+    if (!magazine.offer(array)) {
+      spill(magazine);
+      // Only the owning thread fills slots, so spilling always makes room.
+      magazine.offer(array);
+    }
+  }
+
+  @Override
+  public <T> T get(int size, Class<T> arrayClass) {
+    return get(size, arrayClass, /*isExact=*/ false);
+  }
+
+  @Override
+  public <T> T getExact(int size, Class<T> arrayClass) {
+    return get(size, arrayClass, /*isExact=*/ true);
+  }
+
+  private <T> T get(int size, Class<T> arrayClass, boolean isExact) {
+    Magazine magazine = magazines.get();
+    Object result = magazine.take(size, arrayClass, isExact);
+    if (result != null) {
+      magazinesSize.addAndGet(-getArrayBytes(result));
+    } else {
+      result = refill(magazine, size, arrayClass, isExact);
+    }
+    return arrayClass.cast(result);
+  }
+
+  /**
+   * Removes a batch of arrays that can fill the given request from the shared pool, keeps those
+   * that fit in {@code magazine} and returns one, or allocates a new array if the shared pool has
+   * none.
+   */
+  private Object refill(Magazine magazine, int size, Class<?> arrayClass, boolean isExact) {
+    Object[] batch = magazine.batch;
+    sharedPoolAccesses.incrementAndGet();
+    int count = sharedPool.removeAll(size, arrayClass, isExact, batch);
+    if (count == 0) {
+      ArrayAdapterInterface<?> arrayAdapter = getAdapter(arrayClass);
+      if (Log.isLoggable(arrayAdapter.getTag(), Log.VERBOSE)) {
+        Log.v(arrayAdapter.getTag(), "Allocated " + size + " bytes");
+      }
+      return arrayAdapter.newArray(size);
+    }
+    Object result = batch[0];
+    batch[0] = null;
+    int rejected = 0;
+    for (int i = 1; i < count; i++) {
+      Object array = batch[i];
+      batch[i] = null;
+      if (reserve(getArrayBytes(array))) {
+        if (magazine.offer(array)) {
+          continue;
+        }
+        magazinesSize.addAndGet(-getArrayBytes(array));
+      }
+      batch[rejected++] = array;
+    }
+    if (rejected > 0) {
+      sharedPoolAccesses.incrementAndGet();
+      sharedPool.putAll(batch, rejected);
+    }
+    return result;
+  }
+
+  /** Moves a batch of arrays from {@code magazine} to the shared pool. */
+  private void spill(Magazine magazine) {
+    Object[] batch = magazine.batch;
+    int count = magazine.drain(batch);
+    for (int i = 0; i < count; i++) {
+      magazinesSize.addAndGet(-getArrayBytes(batch[i]));
+    }
+    sharedPoolAccesses.incrementAndGet();
+    sharedPool.putAll(batch, count);
+  }
+
+  private void putShared(Object array) {
+    sharedPoolAccesses.incrementAndGet();
+    sharedPool.put(array);
+  }
+
+  /** Reserves space for an array in the magazines, or returns {@code false} if there's none. */
+  private boolean reserve(int arrayBytes) {
+    while (true) {
+      int current = magazinesSize.get();
+      if (current + arrayBytes > maxMagazinesSize) {
+        return false;
+      }
+      if (magazinesSize.compareAndSet(current, current + arrayBytes)) {
+        return true;
+      }
+    }
+  }
+
+  @Synthetic
+  Magazine registerMagazine() {
+    Magazine result = new Magazine(Thread.currentThread());
+    List<Object> orphaned = new ArrayList<>();
+    synchronized (allMagazines) {
+      Iterator<Magazine> iterator = allMagazines.iterator();
+      while (iterator.hasNext()) {
+        Magazine magazine = iterator.next();
+        Thread owner = magazine.owner.get();
+        if (owner == null || !owner.isAlive()) {
+          iterator.remove();
+          clear(magazine, orphaned);
+        }
+      }
+      allMagazines.add(result);
+    }
+    if (!orphaned.isEmpty()) {
+      Object[] arrays = orphaned.toArray();
+      sharedPoolAccesses.incrementAndGet();
+      sharedPool.putAll(arrays, arrays.length);
+    }
+    return result;
+  }
+
+  /**
+   * Removes all arrays from {@code magazine}, adding them to {@code removed} if it's non-null.
+   *
+   * <p>Safe to call from threads other than the magazine's owner.
+   */
+  private void clear(Magazine magazine, @Nullable List<Object> removed) {
+    for (int i = 0; i < MAGAZINE_SIZE; i++) {
+      Object array = magazine.slots.getAndSet(i, null);
+      if (array != null) {
+        magazinesSize.addAndGet(-getArrayBytes(array));
+        if (removed != null) {
+          removed.add(array);
+        }
+      }
+    }
+  }
+
+  private void clearMagazines(@Nullable List<Object> removed) {
+    synchronized (allMagazines) {
+      for (Magazine magazine : allMagazines) {
+        clear(magazine, removed);
+      }
+    }
+  }
+
+  @Override
+  public void clearMemory() {
+    clearMagazines(/*removed=*/ null);
+    sharedPool.clearMemory();
+  }
+
+  @Override
+  public void trimMemory(int level) {
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+      clearMemory();
+    } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+        || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      // Give the shared pool the chance to keep the most recently used arrays while trimming.
+      List<Object> removed = new ArrayList<>();
+      clearMagazines(removed);
+      Object[] arrays = removed.toArray();
+      sharedPool.putAll(arrays, arrays.length);
+      sharedPool.trimMemory(level);
+    }
+  }
+
+  /** Returns the number of times the shared pool's lock has been acquired by gets and puts. */
+  @VisibleForTesting
+  int getSharedPoolAccessCount() {
+    return sharedPoolAccesses.get();
+  }
+
+  @VisibleForTesting
+  int getCurrentSize() {
+    return magazinesSize.get() + sharedPool.getCurrentSize();
+  }
+
+  private int getArrayBytes(Object array) {
+    if (array instanceof byte[]) {
+      return ((byte[]) array).length * byteArrayAdapter.getElementSizeInBytes();
+    } else if (array instanceof int[]) {
+      return ((int[]) array).length * integerArrayAdapter.getElementSizeInBytes();
+    }
+    throw new IllegalArgumentException(
+        "No array pool found for: " + array.getClass().getSimpleName());
+  }
+
+  private ArrayAdapterInterface<?> getAdapter(Class<?> arrayClass) {
+    if (arrayClass.equals(byte[].class)) {
+      return byteArrayAdapter;
+    } else if (arrayClass.equals(int[].class)) {
+      return integerArrayAdapter;
+    }
+    throw new IllegalArgumentException("No array pool found for: " + arrayClass.getSimpleName());
+  }
+
+  @Override
+  public String toString() {
+    return TAG + "{magazinesSize=" + magazinesSize + ", maxMagazinesSize=" + maxMagazinesSize + '}';
+  }
+
+  /**
+   * The arrays held for a single thread.
+   *
+   * <p>Only the owning thread adds arrays. Any thread may remove them, so every removal is a
+   * compare and set.
+   */
+  private static final class Magazine {
+    @Synthetic final WeakReference<Thread> owner;
+    @Synthetic final AtomicReferenceArray<Object> slots = new AtomicReferenceArray<>(MAGAZINE_SIZE);
+    // Scratch space for moving arrays to and from the shared pool, only used by the owning thread.
+    @Synthetic final Object[] batch = new Object[BATCH_SIZE];
+    // The next slot to drain, rotated so that repeated spills don't always keep the same slots.
+    private int nextDrain;
+
+    @Synthetic
+    Magazine(Thread owner) {
+      this.owner = new WeakReference<>(owner);
+    }
+
+    @Nullable
+    Object take(int size, Class<?> arrayClass, boolean isExact) {
+      for (int i = 0; i < MAGAZINE_SIZE; i++) {
+        Object array = slots.get(i);
+        if (array != null
+            && array.getClass() == arrayClass
+            && canFillRequest(getLength(array), size, isExact)
+            && slots.compareAndSet(i, array, null)) {
+          return array;
+        }
+      }
+      return null;
+    }
+
+    boolean offer(Object array) {
+      for (int i = 0; i < MAGAZINE_SIZE; i++) {
+        // Only the owning thread fills slots, so an empty slot stays empty until it does.
+        if (slots.get(i) == null) {
+          slots.set(i, array);
+          return true;
+        }
+      }
+      return false;
+    }
+
+    int drain(Object[] arrays) {
+      int count = 0;
+      for (int i = 0; i < MAGAZINE_SIZE && count < arrays.length; i++) {
+        int slot = nextDrain;
+        nextDrain = (nextDrain + 1) % MAGAZINE_SIZE;
+        Object array = slots.getAndSet(slot, null);
+        if (array != null) {
+          arrays[count++] = array;
+        }
+      }
+      return count;
+    }
+
+    private static boolean canFillRequest(int length, int size, boolean isExact) {
+      return isExact
+          ? length == size
+          : length >= size && length <= LruArrayPool.MAX_OVER_SIZE_MULTIPLE * size;
+    }
+
+    private static int getLength(Object array) {
+      return array instanceof byte[] ? ((byte[]) array).length : ((int[]) array).length;
+    }
+  }
+}
@@ -0,0 +1,379 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import android.annotation.SuppressLint;
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.util.Synthetic;
+import com.bumptech.glide.util.Util;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link BitmapPool} that buckets {@link Bitmap}s by {@link Bitmap.Config} and by power of two
+ * size classes of their allocation byte counts, so that concurrent decodes and transformations only
+ * contend when they use the same bucket.
+ *
+ * <p>Each bucket has its own lock. The total size of the pool is tracked globally and kept below
+ * the maximum size by a clock that sweeps over the buckets, giving recently used buckets a second
+ * chance and evicting the oldest {@link Bitmap} from the others. This approximates the LRU eviction
+ * of {@link LruBitmapPool} without a global lock.
+ *
+ * <p>As with {@link SizeConfigStrategy}, a {@link Bitmap} is only re-used for requests that need no
+ * more than its allocation byte count and at least an eighth of it. Use {@link
+ * com.bumptech.glide.GlideBuilder#setBitmapPool(BitmapPool)} to use this pool in place of the
+ * default {@link LruBitmapPool}.
+ */
+@RequiresApi(Build.VERSION_CODES.KITKAT)
+public class SizeClassBitmapPool implements BitmapPool {
+  private static final String TAG = "SizeClassBitmapPool";
+  private static final int MAX_SIZE_MULTIPLE = 8;
+  private static final int SIZE_CLASS_COUNT = Integer.SIZE;
+  // The maximum number of bitmaps to examine in a bucket before moving on to a larger size class.
+  private static final int MAX_SCAN = 8;
+  private static final Bitmap.Config[] CONFIGS = Bitmap.Config.values();
+
+  private final Bucket[] buckets;
+  private final Set<Bitmap.Config> allowedConfigs;
+  private final long initialMaxSize;
+  private final AtomicLong currentSize = new AtomicLong();
+  private final AtomicInteger clockHand = new AtomicInteger();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong puts = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  private volatile long maxSize;
+
+  /**
+   * Constructor for SizeClassBitmapPool.
+   *
+   * @param maxSize The initial maximum size of the pool in bytes.
+   */
+  public SizeClassBitmapPool(long maxSize) {
+    this(maxSize, LruBitmapPool.getDefaultAllowedConfigs());
+  }
+
+  /**
+   * Constructor for SizeClassBitmapPool.
+   *
+   * @param maxSize The initial maximum size of the pool in bytes.
+   * @param allowedConfigs The {@link Bitmap.Config}s that are allowed to be put into the pool.
+   *     Bitmaps with other configs will be rejected.
+   */
+  public SizeClassBitmapPool(long maxSize, Set<Bitmap.Config> allowedConfigs) {
+    this.initialMaxSize = maxSize;
+    this.maxSize = maxSize;
+    this.allowedConfigs = allowedConfigs;
+    // One set of size classes for each config and one for bitmaps with a null config.
+    buckets = new Bucket[(CONFIGS.length + 1) * SIZE_CLASS_COUNT];
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new Bucket();
+    }
+  }
+
+  /** Returns the number of cache hits for bitmaps in the pool. */
+  public long hitCount() {
+    return hits.get();
+  }
+
+  /** Returns the number of cache misses for bitmaps in the pool. */
+  public long missCount() {
+    return misses.get();
+  }
+
+  /** Returns the number of bitmaps that have been evicted from the pool. */
+  public long evictionCount() {
+    return evictions.get();
+  }
+
+  /** Returns the current size of the pool in bytes. */
+  public long getCurrentSize() {
+    return currentSize.get();
+  }
+
+  @Override
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public void setSizeMultiplier(float sizeMultiplier) {
+    maxSize = Math.round(initialMaxSize * sizeMultiplier);
+    trimToSize(maxSize);
+  }
+
+  @Override
+  public void put(Bitmap bitmap) {
+    if (bitmap == null) {
+      throw new NullPointerException("Bitmap must not be null");
+    }
+    if (bitmap.isRecycled()) {
+      throw new IllegalStateException("Cannot pool recycled bitmap");
+    }
+    int size = Util.getBitmapByteSize(bitmap);
+    if (!bitmap.isMutable() || size > maxSize || !allowedConfigs.contains(bitmap.getConfig())) {
+      if (Log.isLoggable(TAG, Log.VERBOSE)) {
+        Log.v(
+            TAG,
+            "Reject bitmap from pool"
+                + ", size: "
+                + size
+                + ", config: "
+                + bitmap.getConfig()
+                + ", is mutable: "
+                + bitmap.isMutable()
+                + ", is allowed config: "
+                + allowedConfigs.contains(bitmap.getConfig()));
+      }
+      bitmap.recycle();
+      return;
+    }
+
+    Bucket bucket = getBucket(bitmap.getConfig(), floorSizeClass(size));
+    synchronized (bucket) {
+      bucket.push(bitmap);
+    }
+    puts.incrementAndGet();
+    if (currentSize.addAndGet(size) > maxSize) {
+      trimToSize(maxSize);
+    }
+  }
+
+  @NonNull
+  @Override
+  public Bitmap get(int width, int height, Bitmap.Config config) {
+    Bitmap result = getDirtyOrNull(width, height, config);
+    if (result != null) {
+      // See LruBitmapPool#get.
+      result.eraseColor(Color.TRANSPARENT);
+    } else {
+      result = LruBitmapPool.createBitmap(width, height, config);
+    }
+    return result;
+  }
+
+  @NonNull
+  @Override
+  public Bitmap getDirty(int width, int height, Bitmap.Config config) {
+    Bitmap result = getDirtyOrNull(width, height, config);
+    if (result == null) {
+      result = LruBitmapPool.createBitmap(width, height, config);
+    }
+    return result;
+  }
+
+  @Nullable
+  private Bitmap getDirtyOrNull(int width, int height, @Nullable Bitmap.Config config) {
+    LruBitmapPool.assertNotHardwareConfig(config);
+    // See LruBitmapPool#getDirtyOrNull.
+    Bitmap.Config requestedConfig = config != null ? config : LruBitmapPool.DEFAULT_CONFIG;
+    int size = Util.getBitmapByteSize(width, height, requestedConfig);
+    Bitmap result = remove(size, requestedConfig);
+    if (result == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    currentSize.addAndGet(-Util.getBitmapByteSize(result));
+    result.reconfigure(width, height, requestedConfig);
+    LruBitmapPool.normalize(result);
+    return result;
+  }
+
+  @Nullable
+  private Bitmap remove(int size, Bitmap.Config requestedConfig) {
+    // Bitmaps in the first size class may be too small, the rest are checked against the upper
+    // bound only because the last size class may also contain bitmaps that are too large.
+    long maxAcceptedSize = (long) size * MAX_SIZE_MULTIPLE;
+    int firstSizeClass = floorSizeClass(size);
+    int lastSizeClass = floorSizeClass((int) Math.min(Integer.MAX_VALUE, maxAcceptedSize));
+    for (Bitmap.Config possibleConfig : SizeConfigStrategy.getInConfigs(requestedConfig)) {
+      for (int sizeClass = firstSizeClass; sizeClass <= lastSizeClass; sizeClass++) {
+        Bucket bucket = getBucket(possibleConfig, sizeClass);
+        if (bucket.isEmpty()) {
+          continue;
+        }
+        Bitmap result;
+        synchronized (bucket) {
+          result = bucket.removeNewest(size, maxAcceptedSize);
+        }
+        if (result != null) {
+          return result;
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void clearMemory() {
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "clearMemory");
+    }
+    trimToSize(0);
+  }
+
+  @SuppressLint("InlinedApi")
+  @Override
+  public void trimMemory(int level) {
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "trimMemory, level=" + level);
+    }
+    if ((level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND)
+        || ((Build.VERSION.SDK_INT >= Build.VERSION_CODES.M)
+            && (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN))) {
+      clearMemory();
+    } else if ((level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN)
+        || (level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL)) {
+      trimToSize(getMaxSize() / 2);
+    }
+  }
+
+  /**
+   * Sweeps the clock over the buckets, evicting the oldest {@link Bitmap} from each bucket that
+   * hasn't been used since the clock last passed it, until the pool is no larger than {@code size}.
+   */
+  private void trimToSize(long size) {
+    // Each bucket is passed at most twice before it's evicted from, once to clear its used bit and
+    // once to evict. If a full sweep beyond that finds nothing, other threads emptied the pool.
+    int maxIdleSteps = 2 * buckets.length;
+    int idleSteps = 0;
+    while (currentSize.get() > size && idleSteps < maxIdleSteps) {
+      Bucket bucket = buckets[(clockHand.getAndIncrement() & Integer.MAX_VALUE) % buckets.length];
+      if (bucket.isEmpty()) {
+        idleSteps++;
+        continue;
+      }
+      if (bucket.isUsed) {
+        bucket.isUsed = false;
+        idleSteps++;
+        continue;
+      }
+      Bitmap removed;
+      synchronized (bucket) {
+        removed = bucket.removeOldest();
+      }
+      if (removed == null) {
+        idleSteps++;
+        continue;
+      }
+      idleSteps = 0;
+      currentSize.addAndGet(-Util.getBitmapByteSize(removed));
+      evictions.incrementAndGet();
+      removed.recycle();
+    }
+  }
+
+  private Bucket getBucket(@Nullable Bitmap.Config config, int sizeClass) {
+    int configIndex = config == null ? 0 : config.ordinal() + 1;
+    return buckets[configIndex * SIZE_CLASS_COUNT + sizeClass];
+  }
+
+  /** Returns the index of the largest power of two that's less than or equal to {@code size}. */
+  @VisibleForTesting
+  static int floorSizeClass(int size) {
+    return size <= 0 ? 0 : (Integer.SIZE - 1) - Integer.numberOfLeadingZeros(size);
+  }
+
+  @Override
+  public String toString() {
+    return "SizeClassBitmapPool{"
+        + "hits="
+        + hits
+        + ", misses="
+        + misses
+        + ", puts="
+        + puts
+        + ", evictions="
+        + evictions
+        + ", currentSize="
+        + currentSize
+        + ", maxSize="
+        + maxSize
+        + '}';
+  }
+
+  /**
+   * The {@link Bitmap}s in a single config and size class, ordered from oldest to newest in a
+   * circular array.
+   *
+   * <p>All methods other than {@link #isEmpty()} must be called while holding the bucket's lock.
+   */
+  private static final class Bucket {
+    private Bitmap[] bitmaps = new Bitmap[4];
+    private int head;
+    // Read without the lock to skip empty buckets.
+    private volatile int count;
+    // Set when a bitmap is added to or taken from this bucket, cleared by the clock.
+    @Synthetic volatile boolean isUsed;
+
+    @Synthetic
+    Bucket() {}
+
+    boolean isEmpty() {
+      return count == 0;
+    }
+
+    void push(Bitmap bitmap) {
+      if (count == bitmaps.length) {
+        Bitmap[] grown = new Bitmap[bitmaps.length * 2];
+        for (int i = 0; i < count; i++) {
+          grown[i] = bitmaps[index(i)];
+        }
+        bitmaps = grown;
+        head = 0;
+      }
+      bitmaps[index(count)] = bitmap;
+      count++;
+      isUsed = true;
+    }
+
+    /**
+     * Removes and returns the most recently added {@link Bitmap} whose size is in {@code [minSize,
+     * maxSize]}, or {@code null} if none of the most recently added few {@link Bitmap}s are.
+     */
+    @Nullable
+    Bitmap removeNewest(int minSize, long maxSize) {
+      int scanned = Math.min(count, MAX_SCAN);
+      for (int i = count - 1; i >= count - scanned; i--) {
+        Bitmap candidate = bitmaps[index(i)];
+        int candidateSize = Util.getBitmapByteSize(candidate);
+        if (candidateSize >= minSize && candidateSize <= maxSize) {
+          // Shift the newer bitmaps down to fill the gap.
+          for (int j = i; j < count - 1; j++) {
+            bitmaps[index(j)] = bitmaps[index(j + 1)];
+          }
+          bitmaps[index(count - 1)] = null;
+          count--;
+          isUsed = true;
+          return candidate;
+        }
+      }
+      return null;
+    }
+
+    @Nullable
+    Bitmap removeOldest() {
+      if (count == 0) {
+        return null;
+      }
+      Bitmap result = bitmaps[head];
+      bitmaps[head] = null;
+      head = (head + 1) & (bitmaps.length - 1);
+      count--;
+      return result;
+    }
+
+    private int index(int position) {
+      return (head + position) & (bitmaps.length - 1);
+    }
+  }
+}
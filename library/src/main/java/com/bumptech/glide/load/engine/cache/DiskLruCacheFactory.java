@@ -14,6 +14,7 @@ import java.io.File;
 public class DiskLruCacheFactory implements DiskCache.Factory {
   private final long diskCacheSize;
   private final CacheDirectoryGetter cacheDirectoryGetter;
+  private final boolean useBinaryJournal;
 
   /** Interface called out of UI thread to get the cache folder. */
   public interface CacheDirectoryGetter {
@@ -53,8 +54,22 @@ public class DiskLruCacheFactory implements DiskCache.Factory {
   // Public API.
   @SuppressWarnings("WeakerAccess")
   public DiskLruCacheFactory(CacheDirectoryGetter cacheDirectoryGetter, long diskCacheSize) {
+    this(cacheDirectoryGetter, diskCacheSize, /*useBinaryJournal=*/ false);
+  }
+
+  /**
+   * @param cacheDirectoryGetter Interface called out of UI thread to get the cache folder.
+   * @param diskCacheSize Desired max bytes size for the LRU disk cache.
+   * @param useBinaryJournal True to use a binary journal, see {@link
+   *     DiskLruCacheWrapper#create(File, long, boolean)}.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public DiskLruCacheFactory(
+      CacheDirectoryGetter cacheDirectoryGetter, long diskCacheSize, boolean useBinaryJournal) {
     this.diskCacheSize = diskCacheSize;
     this.cacheDirectoryGetter = cacheDirectoryGetter;
+    this.useBinaryJournal = useBinaryJournal;
   }
 
   @Override
@@ -66,7 +81,7 @@ public class DiskLruCacheFactory implements DiskCache.Factory {
     }
 
     if (cacheDir.isDirectory() || cacheDir.mkdirs()) {
-      return DiskLruCacheWrapper.create(cacheDir, diskCacheSize);
+      return DiskLruCacheWrapper.create(cacheDir, diskCacheSize, useBinaryJournal);
     }
 
     return null;
@@ -27,6 +27,7 @@ public class DiskLruCacheWrapper implements DiskCache {
   private final SafeKeyGenerator safeKeyGenerator;
   private final File directory;
   private final long maxSize;
+  private final boolean useBinaryJournal;
   private final DiskCacheWriteLocker writeLocker = new DiskCacheWriteLocker();
   private DiskLruCache diskLruCache;
 
@@ -63,26 +64,68 @@ public class DiskLruCacheWrapper implements DiskCache {
     return new DiskLruCacheWrapper(directory, maxSize);
   }
 
+  /**
+   * Create a new DiskCache in the given directory with a specified max size and journal format.
+   *
+   * <p>A binary journal makes opening caches with many entries faster, but the most recently
+   * completed writes may be lost if the process dies, see {@link DiskLruCache#open(File, int, int,
+   * long, boolean)}.
+   *
+   * @param directory The directory for the disk cache
+   * @param maxSize The max size for the disk cache
+   * @param useBinaryJournal True to use a binary journal, false to use the default text journal.
+   * @return The new disk cache with the given arguments
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public static DiskCache create(File directory, long maxSize, boolean useBinaryJournal) {
+    return new DiskLruCacheWrapper(directory, maxSize, useBinaryJournal);
+  }
+
   /** @deprecated Do not extend this class. */
   @Deprecated
   // Deprecated public API.
   @SuppressWarnings({"WeakerAccess", "DeprecatedIsStillUsed"})
   protected DiskLruCacheWrapper(File directory, long maxSize) {
+    this(directory, maxSize, /*useBinaryJournal=*/ false);
+  }
+
+  private DiskLruCacheWrapper(File directory, long maxSize, boolean useBinaryJournal) {
     this.directory = directory;
     this.maxSize = maxSize;
+    this.useBinaryJournal = useBinaryJournal;
     this.safeKeyGenerator = new SafeKeyGenerator();
   }
 
   private synchronized DiskLruCache getDiskCache() throws IOException {
     if (diskLruCache == null) {
-      diskLruCache = DiskLruCache.open(directory, APP_VERSION, VALUE_COUNT, maxSize);
+      diskLruCache =
+          DiskLruCache.open(directory, APP_VERSION, VALUE_COUNT, maxSize, useBinaryJournal);
     }
     return diskLruCache;
   }
 
+  /**
+   * Opens the cache, creating its directory and reading its journal if necessary, so that later
+   * reads and writes don't have to.
+   */
+  public void warmUp() {
+    try {
+      getDiskCache();
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Unable to open disk cache", e);
+      }
+    }
+  }
+
   @Override
   public File get(Key key) {
-    String safeKey = safeKeyGenerator.getSafeKey(key);
+    return get(safeKeyGenerator.getSafeKey(key), key);
+  }
+
+  /** Returns the cached file for the given key, which has already been converted to a safe key. */
+  File get(String safeKey, Key key) {
     if (Log.isLoggable(TAG, Log.VERBOSE)) {
       Log.v(TAG, "Get: Obtained: " + safeKey + " for for Key: " + key);
     }
@@ -105,9 +148,13 @@ public class DiskLruCacheWrapper implements DiskCache {
 
   @Override
   public void put(Key key, Writer writer) {
+    put(safeKeyGenerator.getSafeKey(key), key, writer);
+  }
+
+  /** Writes to the given key, which has already been converted to a safe key. */
+  void put(String safeKey, Key key, Writer writer) {
     // We want to make sure that puts block so that data is available when put completes. We may
     // actually not write any data if we find that data is written by the time we acquire the lock.
-    String safeKey = safeKeyGenerator.getSafeKey(key);
     writeLocker.acquire(safeKey);
     try {
       if (Log.isLoggable(TAG, Log.VERBOSE)) {
@@ -146,7 +193,11 @@ public class DiskLruCacheWrapper implements DiskCache {
 
   @Override
   public void delete(Key key) {
-    String safeKey = safeKeyGenerator.getSafeKey(key);
+    delete(safeKeyGenerator.getSafeKey(key));
+  }
+
+  /** Removes the given key, which has already been converted to a safe key. */
+  void delete(String safeKey) {
     try {
       getDiskCache().remove(safeKey);
     } catch (IOException e) {
@@ -1,6 +1,5 @@
 package com.bumptech.glide.load.engine.cache;
 
-import android.annotation.SuppressLint;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.bumptech.glide.load.Key;
@@ -41,19 +40,11 @@ public class LruResourceCache extends LruCache<Key, Resource<?>> implements Memo
     }
   }
 
-  @SuppressLint("InlinedApi")
   @Override
   public void trimMemory(int level) {
-    if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
-      // Entering list of cached background apps
-      // Evict our entire bitmap cache
-      clearMemory();
-    } else if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
-        || level == android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
-      // The app's UI is no longer visible, or app is in the foreground but system is running
-      // critically low on memory
-      // Evict oldest half of our bitmap cache
-      trimToSize(getMaxSize() / 2);
+    long targetSize = MemoryTrimLevels.getTargetSize(level, getMaxSize());
+    if (targetSize != MemoryTrimLevels.NO_TRIM) {
+      trimToSize(targetSize);
     }
   }
 }
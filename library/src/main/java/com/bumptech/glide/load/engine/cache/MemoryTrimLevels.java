@@ -0,0 +1,37 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.annotation.SuppressLint;
+import android.content.ComponentCallbacks2;
+
+/**
+ * Maps the levels passed to {@link MemoryCache#trimMemory(int)} to the size {@link MemoryCache}s
+ * should trim themselves to.
+ */
+final class MemoryTrimLevels {
+  /** Returned by {@link #getTargetSize(int, long)} if the cache shouldn't be trimmed. */
+  static final long NO_TRIM = -1;
+
+  private MemoryTrimLevels() {
+    // Utility class.
+  }
+
+  /**
+   * Returns the size a cache with the given maximum size should be trimmed to for the given level,
+   * or {@link #NO_TRIM}.
+   */
+  @SuppressLint("InlinedApi")
+  static long getTargetSize(int level, long maxSize) {
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+      // Entering list of cached background apps
+      // Evict our entire bitmap cache
+      return 0;
+    } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+        || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      // The app's UI is no longer visible, or app is in the foreground but system is running
+      // critically low on memory
+      // Evict half of our bitmap cache
+      return maxSize / 2;
+    }
+    return NO_TRIM;
+  }
+}
@@ -0,0 +1,92 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.content.Context;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheFactory.CacheDirectoryGetter;
+import com.bumptech.glide.util.Preconditions;
+import java.io.File;
+
+/**
+ * Creates a {@link ShardedDiskLruCacheWrapper} in the specified disk cache directory.
+ *
+ * <p>Sharding only helps if more than one thread accesses the disk cache at a time, so this factory
+ * should be used along with a disk cache executor with a matching number of threads, for example:
+ *
+ * <pre>{@code
+ * builder
+ *     .setDiskCache(new ShardedDiskLruCacheFactory(context, DEFAULT_DISK_CACHE_SIZE, 4))
+ *     .setDiskCacheExecutor(
+ *         GlideExecutor.newDiskCacheBuilder().setThreadCount(4).build());
+ * }</pre>
+ */
+// Public API.
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class ShardedDiskLruCacheFactory implements DiskCache.Factory {
+  private final CacheDirectoryGetter cacheDirectoryGetter;
+  private final long diskCacheSize;
+  private final int shardCount;
+
+  /**
+   * Creates a factory for a sharded cache in the default directory in the application's internal
+   * cache directory.
+   *
+   * <p>Any existing unsharded cache in the same directory is deleted when the cache is built.
+   */
+  public ShardedDiskLruCacheFactory(Context context, long diskCacheSize, int shardCount) {
+    this(context, DiskCache.Factory.DEFAULT_DISK_CACHE_DIR, diskCacheSize, shardCount);
+  }
+
+  /**
+   * Creates a factory for a sharded cache in a directory with the given name in the application's
+   * internal cache directory.
+   *
+   * @param diskCacheName The name of the cache directory. Must not be null or empty so that shards
+   *     aren't created directly in the cache directory shared with the rest of the application.
+   */
+  public ShardedDiskLruCacheFactory(
+      final Context context, final String diskCacheName, long diskCacheSize, int shardCount) {
+    this(
+        new CacheDirectoryGetter() {
+          @Override
+          public File getCacheDirectory() {
+            File cacheDirectory = context.getCacheDir();
+            if (cacheDirectory == null) {
+              return null;
+            }
+            return new File(cacheDirectory, diskCacheName);
+          }
+        },
+        diskCacheSize,
+        shardCount);
+    Preconditions.checkNotEmpty(diskCacheName);
+  }
+
+  /**
+   * @param cacheDirectoryGetter Interface called off of the UI thread to get the cache folder.
+   * @param diskCacheSize Desired max bytes size for all shards combined.
+   * @param shardCount The number of independent shards to split keys between.
+   */
+  public ShardedDiskLruCacheFactory(
+      CacheDirectoryGetter cacheDirectoryGetter, long diskCacheSize, int shardCount) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Shard count must be at least 1, but was: " + shardCount);
+    }
+    this.cacheDirectoryGetter = cacheDirectoryGetter;
+    this.diskCacheSize = diskCacheSize;
+    this.shardCount = shardCount;
+  }
+
+  @Override
+  public DiskCache build() {
+    File cacheDir = cacheDirectoryGetter.getCacheDirectory();
+
+    if (cacheDir == null) {
+      return null;
+    }
+
+    if (cacheDir.isDirectory() || cacheDir.mkdirs()) {
+      return ShardedDiskLruCacheWrapper.create(cacheDir, diskCacheSize, shardCount);
+    }
+
+    return null;
+  }
+}
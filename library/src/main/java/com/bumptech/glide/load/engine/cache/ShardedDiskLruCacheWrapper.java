@@ -0,0 +1,135 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.load.Key;
+import java.io.File;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link DiskCache} that spreads keys across a fixed number of independent {@link
+ * com.bumptech.glide.disklrucache.DiskLruCache} shards.
+ *
+ * <p>Each shard has its own directory, journal, lock, eviction thread and an equal share of the
+ * total size, so threads reading or writing keys in different shards don't block each other. Use
+ * this cache with a disk cache executor that has more than one thread, see {@link
+ * com.bumptech.glide.GlideBuilder#setDiskCacheExecutor(
+ * com.bumptech.glide.load.engine.executor.GlideExecutor)}.
+ *
+ * <p>Shards are stored in subdirectories of the given directory, named after the number of shards.
+ * Shards from a cache with a different number of shards and the journal and entry files of an
+ * unsharded {@link DiskLruCacheWrapper} in the same directory are deleted when the cache is
+ * created. Other files are left alone, but the directory should still be used only for this cache.
+ * There must be no more than one active instance for a given directory at a time.
+ */
+public final class ShardedDiskLruCacheWrapper implements DiskCache {
+  private static final String TAG = "ShardedDiskCache";
+  private static final Pattern SHARD_DIRECTORY = Pattern.compile("shard_\\d+_of_(\\d+)");
+  /** Matches the journals of a {@link DiskLruCacheWrapper} and its entries, named by safe keys. */
+  private static final Pattern UNSHARDED_CACHE_FILE =
+      Pattern.compile("journal(\\.bin)?(\\.tmp|\\.bkp)?|[0-9a-f]{64}\\.\\d+(\\.tmp)?");
+
+  private final SafeKeyGenerator safeKeyGenerator = new SafeKeyGenerator();
+  private final DiskLruCacheWrapper[] shards;
+
+  /**
+   * Creates a new cache in the given directory.
+   *
+   * @param directory The directory for the disk cache, shards will be created in subdirectories.
+   * @param maxSize The max size for the disk cache, split evenly between the shards.
+   * @param shardCount The number of shards, must be at least 1.
+   */
+  @NonNull
+  public static DiskCache create(@NonNull File directory, long maxSize, int shardCount) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Shard count must be at least 1, but was: " + shardCount);
+    }
+    deleteStaleFiles(directory, shardCount);
+    return new ShardedDiskLruCacheWrapper(directory, maxSize, shardCount);
+  }
+
+  @SuppressWarnings("deprecation")
+  private ShardedDiskLruCacheWrapper(File directory, long maxSize, int shardCount) {
+    long shardSize = Math.max(1, maxSize / shardCount);
+    shards = new DiskLruCacheWrapper[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new DiskLruCacheWrapper(getShardDirectory(directory, i, shardCount), shardSize);
+    }
+  }
+
+  @VisibleForTesting
+  static File getShardDirectory(File directory, int index, int shardCount) {
+    return new File(directory, "shard_" + index + "_of_" + shardCount);
+  }
+
+  private static void deleteStaleFiles(File directory, int shardCount) {
+    File[] children = directory.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      String name = child.getName();
+      if (child.isDirectory()) {
+        Matcher matcher = SHARD_DIRECTORY.matcher(name);
+        if (matcher.matches() && !matcher.group(1).equals(String.valueOf(shardCount))) {
+          deleteRecursively(child);
+        }
+      } else if (UNSHARDED_CACHE_FILE.matcher(name).matches()) {
+        deleteRecursively(child);
+      }
+    }
+  }
+
+  private static void deleteRecursively(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteRecursively(child);
+      }
+    }
+    if (!file.delete() && file.exists() && Log.isLoggable(TAG, Log.WARN)) {
+      Log.w(TAG, "Failed to delete stale disk cache file: " + file);
+    }
+  }
+
+  private DiskLruCacheWrapper getShard(String safeKey) {
+    // Safe keys are hex encoded SHA-256 hashes, so their hash codes are evenly distributed.
+    return shards[(safeKey.hashCode() & Integer.MAX_VALUE) % shards.length];
+  }
+
+  /** Opens every shard, see {@link DiskLruCacheWrapper#warmUp()}. */
+  public void warmUp() {
+    for (DiskLruCacheWrapper shard : shards) {
+      shard.warmUp();
+    }
+  }
+
+  @Nullable
+  @Override
+  public File get(Key key) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    return getShard(safeKey).get(safeKey, key);
+  }
+
+  @Override
+  public void put(Key key, Writer writer) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    getShard(safeKey).put(safeKey, key, writer);
+  }
+
+  @Override
+  public void delete(Key key) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    getShard(safeKey).delete(safeKey);
+  }
+
+  @Override
+  public void clear() {
+    for (DiskLruCacheWrapper shard : shards) {
+      shard.clear();
+    }
+  }
+}
@@ -0,0 +1,301 @@
+package com.bumptech.glide.load.engine.cache;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.util.Synthetic;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock striped in memory cache for {@link Resource}s that approximates the global LRU ordering of
+ * {@link LruResourceCache}.
+ *
+ * <p>Keys are spread across a fixed number of segments, each of which is an access ordered {@link
+ * LinkedHashMap} guarded by its own lock. Puts and removes for keys in different segments never
+ * contend with each other. The total size of the cache is tracked globally so that large {@link
+ * Resource}s can be cached as long as they fit in the overall budget. When the cache exceeds its
+ * maximum size, the least recently used entry across the heads of all segments is evicted.
+ *
+ * <p>The LRU ordering is approximate only in the presence of concurrent writes. Entries are stamped
+ * with a global access counter so single threaded use evicts in exactly the same order as {@link
+ * LruResourceCache}.
+ *
+ * <p>Use {@link com.bumptech.glide.GlideBuilder#setMemoryCache(MemoryCache)} to use this cache in
+ * place of the default {@link LruResourceCache}.
+ */
+public class StripedLruResourceCache implements MemoryCache {
+  @VisibleForTesting static final int DEFAULT_SEGMENT_COUNT = 16;
+
+  private final Segment[] segments;
+  private final int segmentMask;
+  private final long initialMaxSize;
+  private final AtomicLong currentSize = new AtomicLong();
+  private final AtomicLong accessClock = new AtomicLong();
+  private final Object evictionLock = new Object();
+  private volatile long maxSize;
+  private volatile ResourceRemovedListener listener;
+
+  /**
+   * Constructor for StripedLruResourceCache.
+   *
+   * @param size The maximum size in bytes the in memory cache can use.
+   */
+  public StripedLruResourceCache(long size) {
+    this(size, DEFAULT_SEGMENT_COUNT);
+  }
+
+  /**
+   * Constructor for StripedLruResourceCache.
+   *
+   * @param size The maximum size in bytes the in memory cache can use.
+   * @param segmentCount The number of independently locked segments, rounded up to the nearest
+   *     power of two. Should be at least the number of threads expected to access the cache
+   *     concurrently.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public StripedLruResourceCache(long size, int segmentCount) {
+    if (segmentCount <= 0) {
+      throw new IllegalArgumentException("Segment count must be > 0");
+    }
+    int powerOfTwoSegmentCount = Integer.highestOneBit(segmentCount);
+    if (powerOfTwoSegmentCount < segmentCount) {
+      powerOfTwoSegmentCount <<= 1;
+    }
+    segments = new Segment[powerOfTwoSegmentCount];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new Segment();
+    }
+    segmentMask = powerOfTwoSegmentCount - 1;
+    initialMaxSize = size;
+    maxSize = size;
+  }
+
+  @Override
+  public void setResourceRemovedListener(@NonNull ResourceRemovedListener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public long getCurrentSize() {
+    return currentSize.get();
+  }
+
+  @Override
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public void setSizeMultiplier(float multiplier) {
+    if (multiplier < 0) {
+      throw new IllegalArgumentException("Multiplier must be >= 0");
+    }
+    maxSize = Math.round(initialMaxSize * multiplier);
+    evict();
+  }
+
+  /**
+   * Returns true if there is a value for the given key in the cache.
+   *
+   * @param key The key to check.
+   */
+  public boolean contains(@NonNull Key key) {
+    Segment segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.entries.containsKey(key);
+    }
+  }
+
+  /**
+   * Returns the item in the cache for the given key or null if no such item exists.
+   *
+   * @param key The key to check.
+   */
+  @Nullable
+  public Resource<?> get(@NonNull Key key) {
+    Segment segment = segmentFor(key);
+    synchronized (segment) {
+      Entry entry = segment.entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      entry.lastAccess = accessClock.incrementAndGet();
+      return entry.value;
+    }
+  }
+
+  @Nullable
+  @Override
+  public Resource<?> put(@NonNull Key key, @Nullable Resource<?> resource) {
+    final int itemSize = getSize(resource);
+    if (itemSize >= maxSize) {
+      onItemEvicted(resource);
+      return null;
+    }
+
+    // Null items are retained with a size of 0 to match LruResourceCache.
+    final int retainedSize = resource == null ? 0 : itemSize;
+    Segment segment = segmentFor(key);
+    Entry old;
+    synchronized (segment) {
+      Entry entry = new Entry(resource, retainedSize, accessClock.incrementAndGet());
+      old = segment.entries.put(key, entry);
+    }
+    long delta = retainedSize;
+    if (old != null) {
+      delta -= old.size;
+    }
+    currentSize.addAndGet(delta);
+
+    if (old != null && old.value != null && !old.value.equals(resource)) {
+      onItemEvicted(old.value);
+    }
+    evict();
+
+    return old != null ? old.value : null;
+  }
+
+  @Nullable
+  @Override
+  public Resource<?> remove(@NonNull Key key) {
+    Segment segment = segmentFor(key);
+    Entry entry;
+    synchronized (segment) {
+      entry = segment.entries.remove(key);
+    }
+    if (entry == null) {
+      return null;
+    }
+    currentSize.addAndGet(-entry.size);
+    return entry.value;
+  }
+
+  @Override
+  public void clearMemory() {
+    trimToSize(0);
+  }
+
+  @Override
+  public void trimMemory(int level) {
+    long targetSize = MemoryTrimLevels.getTargetSize(level, getMaxSize());
+    if (targetSize != MemoryTrimLevels.NO_TRIM) {
+      trimToSize(targetSize);
+    }
+  }
+
+  /**
+   * Removes the least recently used items from the cache until the current size is less than the
+   * given size.
+   *
+   * <p>Only one thread evicts at a time, but puts and removes from other threads may continue
+   * concurrently. Listeners are notified without holding any segment lock so they're free to put
+   * items back into the cache.
+   *
+   * @param size The size the cache should be less than.
+   */
+  protected void trimToSize(long size) {
+    synchronized (evictionLock) {
+      while (currentSize.get() > size) {
+        Entry evicted = evictOldest();
+        if (evicted == null) {
+          // Another thread removed the remaining entries before we could evict them.
+          return;
+        }
+        onItemEvicted(evicted.value);
+      }
+    }
+  }
+
+  private void evict() {
+    if (currentSize.get() > maxSize) {
+      trimToSize(maxSize);
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  @Nullable
+  private Entry evictOldest() {
+    while (true) {
+      Segment oldestSegment = null;
+      long oldestAccess = Long.MAX_VALUE;
+      for (Segment segment : segments) {
+        synchronized (segment) {
+          Entry head = segment.head();
+          if (head != null && head.lastAccess < oldestAccess) {
+            oldestAccess = head.lastAccess;
+            oldestSegment = segment;
+          }
+        }
+      }
+      if (oldestSegment == null) {
+        return null;
+      }
+
+      synchronized (oldestSegment) {
+        Iterator<Map.Entry<Key, Entry>> iterator = oldestSegment.entries.entrySet().iterator();
+        // The head may have been accessed or removed since we looked, in which case we look again.
+        if (iterator.hasNext()) {
+          Entry head = iterator.next().getValue();
+          if (head.lastAccess == oldestAccess) {
+            iterator.remove();
+            currentSize.addAndGet(-head.size);
+            return head;
+          }
+        }
+      }
+    }
+  }
+
+  private Segment segmentFor(Key key) {
+    int hash = key.hashCode();
+    // Spread the higher bits downwards since keys often have poorly distributed low bits.
+    hash ^= (hash >>> 16);
+    return segments[hash & segmentMask];
+  }
+
+  private void onItemEvicted(@Nullable Resource<?> item) {
+    ResourceRemovedListener listener = this.listener;
+    if (listener != null && item != null) {
+      listener.onResourceRemoved(item);
+    }
+  }
+
+  private static int getSize(@Nullable Resource<?> item) {
+    return item == null ? 1 : item.getSize();
+  }
+
+  private static final class Segment {
+    // Guarded by this.
+    @Synthetic final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Synthetic
+    Segment() {}
+
+    @Nullable
+    @Synthetic
+    Entry head() {
+      return entries.isEmpty() ? null : entries.values().iterator().next();
+    }
+  }
+
+  private static final class Entry {
+    @Synthetic final Resource<?> value;
+    @Synthetic final int size;
+    // Guarded by the owning Segment.
+    @Synthetic long lastAccess;
+
+    @Synthetic
+    Entry(Resource<?> value, int size, long lastAccess) {
+      this.value = value;
+      this.size = size;
+      this.lastAccess = lastAccess;
+    }
+  }
+}
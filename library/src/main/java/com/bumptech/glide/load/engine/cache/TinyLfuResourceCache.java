@@ -0,0 +1,74 @@
+package com.bumptech.glide.load.engine.cache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.util.TinyLfuCache;
+
+/**
+ * A frequency aware in memory cache for {@link com.bumptech.glide.load.engine.Resource}s that
+ * resists pollution by resources that are only loaded once.
+ *
+ * <p>Sizes and evictions are handled identically to {@link LruResourceCache}, so evicted {@link
+ * android.graphics.Bitmap}s are returned to the {@link
+ * com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool} as usual. Use {@link
+ * com.bumptech.glide.GlideBuilder#setMemoryCache(MemoryCache)} to use this cache in place of the
+ * default {@link LruResourceCache}.
+ *
+ * @see TinyLfuCache
+ */
+public class TinyLfuResourceCache extends TinyLfuCache<Key, Resource<?>> implements MemoryCache {
+  private ResourceRemovedListener listener;
+
+  /**
+   * Constructor for TinyLfuResourceCache.
+   *
+   * @param size The maximum size in bytes the in memory cache can use.
+   */
+  public TinyLfuResourceCache(long size) {
+    super(size);
+  }
+
+  /**
+   * Constructor for TinyLfuResourceCache.
+   *
+   * @param size The maximum size in bytes the in memory cache can use.
+   * @param windowFraction The fraction of {@code size} in [0, 1] reserved for recently added
+   *     resources that have not yet been admitted to the main cache.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  public TinyLfuResourceCache(long size, float windowFraction) {
+    super(size, windowFraction);
+  }
+
+  @Override
+  public void setResourceRemovedListener(@NonNull ResourceRemovedListener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  protected void onItemEvicted(@NonNull Key key, @Nullable Resource<?> item) {
+    if (listener != null && item != null) {
+      listener.onResourceRemoved(item);
+    }
+  }
+
+  @Override
+  protected int getSize(@Nullable Resource<?> item) {
+    if (item == null) {
+      return super.getSize(null);
+    } else {
+      return item.getSize();
+    }
+  }
+
+  @Override
+  public void trimMemory(int level) {
+    long targetSize = MemoryTrimLevels.getTargetSize(level, getMaxSize());
+    if (targetSize != MemoryTrimLevels.NO_TRIM) {
+      trimToSize(targetSize);
+    }
+  }
+}
@@ -21,7 +21,10 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-/** A prioritized {@link ThreadPoolExecutor} for running jobs in Glide. */
+/**
+ * A prioritized {@link ThreadPoolExecutor}, or optionally a prioritized work stealing executor, for
+ * running jobs in Glide.
+ */
 public final class GlideExecutor implements ExecutorService {
   /**
    * The default thread name prefix for executors used to load/decode/transform data not found in
@@ -51,6 +54,12 @@ public final class GlideExecutor implements ExecutorService {
 
   private static final String DEFAULT_ANIMATION_EXECUTOR_NAME = "animation";
 
+  /**
+   * The default thread name prefix for executors used to decode/transform data retrieved on a
+   * source executor.
+   */
+  private static final String DEFAULT_DECODE_EXECUTOR_NAME = "decode";
+
   /** The default keep alive time for threads in our cached thread pools in milliseconds. */
   private static final long KEEP_ALIVE_TIME_MS = TimeUnit.SECONDS.toMillis(10);
 
@@ -210,6 +219,33 @@ public final class GlideExecutor implements ExecutorService {
         .build();
   }
 
+  /**
+   * Returns a new {@link Builder} with the default thread count returned from {@link
+   * #calculateBestThreadCount()}, suitable for {@link
+   * com.bumptech.glide.GlideBuilder#setDecodeExecutor(GlideExecutor)}.
+   *
+   * <p>Decoding is CPU bound, but the thread count is capped like the source executor's rather than
+   * matching the number of cores because each concurrent decode holds its own {@link
+   * android.graphics.Bitmap} and buffers.
+   *
+   * <p>Data that isn't written to the disk cache before it's decoded may still be streamed from the
+   * network on these threads, so network operations are allowed.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public static GlideExecutor.Builder newDecodeBuilder() {
+    return new GlideExecutor.Builder(/*preventNetworkOperations=*/ false)
+        .setThreadCount(calculateBestThreadCount())
+        .setName(DEFAULT_DECODE_EXECUTOR_NAME);
+  }
+
+  /** Shortcut for calling {@link Builder#build()} on {@link #newDecodeBuilder()}. */
+  // Public API.
+  @SuppressWarnings("unused")
+  public static GlideExecutor newDecodeExecutor() {
+    return newDecodeBuilder().build();
+  }
+
   @VisibleForTesting
   GlideExecutor(ExecutorService delegate) {
     this.delegate = delegate;
@@ -419,6 +455,7 @@ public final class GlideExecutor implements ExecutorService {
 
     private String name;
     private long threadTimeoutMillis;
+    private boolean isWorkStealingEnabled;
 
     @Synthetic
     Builder(boolean preventNetworkOperations) {
@@ -461,12 +498,50 @@ public final class GlideExecutor implements ExecutorService {
       return this;
     }
 
+    /**
+     * Uses an executor where each thread has its own queue and takes work from the queues of other
+     * threads when its own queue is empty, instead of a {@link ThreadPoolExecutor} where all
+     * threads share a single queue.
+     *
+     * <p>Tasks still run in {@link com.bumptech.glide.Priority} order and lower priority tasks are
+     * guaranteed to run eventually even if higher priority tasks are continuously submitted. Work
+     * stealing reduces contention between threads, which makes it worth considering for source
+     * executors with more threads than the default maximum of 4, for example:
+     *
+     * <pre>{@code
+     * builder.setSourceExecutor(
+     *     GlideExecutor.newSourceBuilder()
+     *         .setThreadCount(8)
+     *         .setWorkStealingEnabled(true)
+     *         .build());
+     * }</pre>
+     *
+     * <p>Threads in work stealing executors never time out, so this option can't be combined with
+     * {@link #setThreadTimeoutMillis(long)}.
+     */
+    // Public API.
+    @SuppressWarnings("unused")
+    public Builder setWorkStealingEnabled(boolean isEnabled) {
+      this.isWorkStealingEnabled = isEnabled;
+      return this;
+    }
+
     /** Builds a new {@link GlideExecutor} with any previously specified options. */
     public GlideExecutor build() {
       if (TextUtils.isEmpty(name)) {
         throw new IllegalArgumentException(
             "Name must be non-null and non-empty, but given: " + name);
       }
+      DefaultThreadFactory threadFactory =
+          new DefaultThreadFactory(name, uncaughtThrowableStrategy, preventNetworkOperations);
+      if (isWorkStealingEnabled) {
+        if (threadTimeoutMillis != NO_THREAD_TIMEOUT) {
+          throw new IllegalArgumentException(
+              "Work stealing executors don't support thread timeouts, but given: "
+                  + threadTimeoutMillis);
+        }
+        return new GlideExecutor(new WorkStealingExecutor(maximumPoolSize, threadFactory));
+      }
       ThreadPoolExecutor executor =
           new ThreadPoolExecutor(
               corePoolSize,
@@ -474,7 +549,7 @@ public final class GlideExecutor implements ExecutorService {
               /*keepAliveTime=*/ threadTimeoutMillis,
               TimeUnit.MILLISECONDS,
               new PriorityBlockingQueue<Runnable>(),
-              new DefaultThreadFactory(name, uncaughtThrowableStrategy, preventNetworkOperations));
+              threadFactory);
 
       if (threadTimeoutMillis != NO_THREAD_TIMEOUT) {
         executor.allowCoreThreadTimeOut(true);
@@ -0,0 +1,16 @@
+package com.bumptech.glide.load.engine.executor;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide.Priority;
+
+/**
+ * Implemented by tasks that expose the {@link Priority} they should run at to executors that
+ * schedule by priority, like those built with {@link
+ * GlideExecutor.Builder#setWorkStealingEnabled(boolean)}.
+ */
+public interface PrioritizedTask {
+
+  /** Returns the priority this task should run at. */
+  @NonNull
+  Priority getPriority();
+}
@@ -0,0 +1,428 @@
+package com.bumptech.glide.load.engine.executor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.util.Synthetic;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed size {@link java.util.concurrent.ExecutorService} where each thread has its own queue and
+ * takes work from the queues of other threads when its own queue is empty.
+ *
+ * <p>Tasks submitted from outside of the executor are spread across the queues round robin. Tasks
+ * submitted from one of the executor's threads are added to that thread's queue. Each queue has its
+ * own lock, so unlike a {@link java.util.concurrent.ThreadPoolExecutor} with a single shared queue,
+ * threads rarely contend with each other when adding or taking tasks.
+ *
+ * <p>Each queue has one lane per {@link Priority}, tasks are assigned to lanes using {@link
+ * PrioritizedTask#getPriority()}, or {@link Priority#NORMAL} if they don't implement {@link
+ * PrioritizedTask}. Threads take tasks from the highest priority non-empty lane of any queue and
+ * tasks within a lane run in the order they were submitted to that queue. To bound starvation, a
+ * thread that has taken {@link #MAX_BYPASSES} tasks in a row while lower priority tasks were
+ * waiting takes the oldest waiting task next, regardless of its priority.
+ *
+ * <p>Threads are started when the first task is submitted and do not time out.
+ */
+final class WorkStealingExecutor extends AbstractExecutorService {
+  @VisibleForTesting static final int MAX_BYPASSES = 8;
+
+  private static final int LANE_COUNT = Priority.values().length;
+  private static final int DEFAULT_LANE = Priority.NORMAL.ordinal();
+
+  private static final int RUNNING = 0;
+  private static final int SHUTDOWN = 1;
+  private static final int STOP = 2;
+
+  private final ThreadFactory threadFactory;
+  private final Worker[] workers;
+  // An upper bound on the number of tasks in each lane across all workers, used to skip empty
+  // lanes without acquiring every worker's lock.
+  private final AtomicInteger[] laneSizes = new AtomicInteger[LANE_COUNT];
+  private final AtomicInteger queuedCount = new AtomicInteger();
+  private final AtomicInteger nextWorker = new AtomicInteger();
+  private final AtomicLong nextSequence = new AtomicLong();
+  private final AtomicInteger idleCount = new AtomicInteger();
+  private final AtomicInteger liveThreadCount = new AtomicInteger();
+  private final CountDownLatch terminated = new CountDownLatch(1);
+  private final Object idleLock = new Object();
+  private final ThreadLocal<Worker> currentWorker = new ThreadLocal<>();
+
+  private volatile int runState = RUNNING;
+  private volatile boolean isStarted;
+
+  WorkStealingExecutor(int threadCount, @NonNull ThreadFactory threadFactory) {
+    if (threadCount < 1) {
+      throw new IllegalArgumentException(
+          "Thread count must be at least 1, but was: " + threadCount);
+    }
+    this.threadFactory = threadFactory;
+    workers = new Worker[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      workers[i] = new Worker(i);
+    }
+    for (int i = 0; i < LANE_COUNT; i++) {
+      laneSizes[i] = new AtomicInteger();
+    }
+  }
+
+  @Override
+  public void execute(@NonNull Runnable command) {
+    if (command == null) {
+      throw new NullPointerException();
+    }
+    if (runState != RUNNING || !ensureStarted()) {
+      throw new RejectedExecutionException("Executor is shut down, rejecting: " + command);
+    }
+    int lane = getLane(command);
+    QueuedTask task = new QueuedTask(command, nextSequence.getAndIncrement());
+    Worker worker = currentWorker.get();
+    if (worker == null) {
+      worker = workers[(nextWorker.getAndIncrement() & Integer.MAX_VALUE) % workers.length];
+    }
+    // Counts are incremented first so that they're never lower than the number of queued tasks.
+    laneSizes[lane].incrementAndGet();
+    queuedCount.incrementAndGet();
+    worker.add(task, lane);
+
+    if (runState != RUNNING && worker.remove(task, lane)) {
+      onTaskRemoved(lane);
+      throw new RejectedExecutionException("Executor is shut down, rejecting: " + command);
+    }
+    if (idleCount.get() > 0) {
+      synchronized (idleLock) {
+        idleLock.notify();
+      }
+    }
+  }
+
+  private static int getLane(Runnable runnable) {
+    if (runnable instanceof PrioritizedTask) {
+      Priority priority = ((PrioritizedTask) runnable).getPriority();
+      if (priority != null) {
+        return priority.ordinal();
+      }
+    }
+    return DEFAULT_LANE;
+  }
+
+  private boolean ensureStarted() {
+    if (isStarted) {
+      return true;
+    }
+    synchronized (this) {
+      if (runState != RUNNING) {
+        return false;
+      }
+      if (!isStarted) {
+        liveThreadCount.set(workers.length);
+        for (Worker worker : workers) {
+          startThread(worker);
+        }
+        isStarted = true;
+      }
+      return true;
+    }
+  }
+
+  private void startThread(Worker worker) {
+    Thread thread = threadFactory.newThread(worker);
+    if (thread == null) {
+      throw new IllegalStateException("ThreadFactory failed to create a thread");
+    }
+    worker.thread = thread;
+    thread.start();
+  }
+
+  @Synthetic
+  void runWorker(Worker worker) {
+    currentWorker.set(worker);
+    boolean completedAbruptly = true;
+    try {
+      while (runState != STOP) {
+        QueuedTask task = take(worker);
+        if (task != null) {
+          task.runnable.run();
+        } else if (!awaitWork()) {
+          break;
+        }
+      }
+      completedAbruptly = false;
+    } finally {
+      onWorkerExit(worker, completedAbruptly);
+    }
+  }
+
+  @Nullable
+  private QueuedTask take(Worker worker) {
+    if (worker.bypasses >= MAX_BYPASSES) {
+      worker.bypasses = 0;
+      QueuedTask oldest = takeOldest();
+      if (oldest != null) {
+        return oldest;
+      }
+    }
+    for (int lane = 0; lane < LANE_COUNT; lane++) {
+      if (laneSizes[lane].get() <= 0) {
+        continue;
+      }
+      QueuedTask task = take(worker, lane);
+      if (task != null) {
+        if (hasQueuedTasksAfter(lane)) {
+          worker.bypasses++;
+        } else {
+          worker.bypasses = 0;
+        }
+        return task;
+      }
+    }
+    return null;
+  }
+
+  /** Takes from the given worker's queue first, then tries to steal from the other workers. */
+  @Nullable
+  private QueuedTask take(Worker worker, int lane) {
+    for (int i = 0; i < workers.length; i++) {
+      Worker victim = workers[(worker.index + i) % workers.length];
+      QueuedTask task = victim.poll(lane);
+      if (task != null) {
+        onTaskRemoved(lane);
+        return task;
+      }
+    }
+    return null;
+  }
+
+  @Nullable
+  private QueuedTask takeOldest() {
+    Worker oldestWorker = null;
+    int oldestLane = -1;
+    long oldestSequence = Long.MAX_VALUE;
+    for (int lane = 0; lane < LANE_COUNT; lane++) {
+      if (laneSizes[lane].get() <= 0) {
+        continue;
+      }
+      for (Worker worker : workers) {
+        long sequence = worker.peekSequence(lane);
+        if (sequence < oldestSequence) {
+          oldestSequence = sequence;
+          oldestWorker = worker;
+          oldestLane = lane;
+        }
+      }
+    }
+    if (oldestWorker == null) {
+      return null;
+    }
+    QueuedTask task = oldestWorker.poll(oldestLane);
+    if (task != null) {
+      onTaskRemoved(oldestLane);
+    }
+    return task;
+  }
+
+  private boolean hasQueuedTasksAfter(int lane) {
+    for (int i = lane + 1; i < LANE_COUNT; i++) {
+      if (laneSizes[i].get() > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void onTaskRemoved(int lane) {
+    laneSizes[lane].decrementAndGet();
+    queuedCount.decrementAndGet();
+  }
+
+  /**
+   * Blocks until there's work to do and returns {@code true}, or returns {@code false} if the
+   * calling worker should exit.
+   */
+  private boolean awaitWork() {
+    synchronized (idleLock) {
+      while (true) {
+        // Incremented before checking for queued tasks so that execute() either sees this worker
+        // as idle and notifies it, or this worker sees the newly queued task.
+        idleCount.incrementAndGet();
+        try {
+          if (runState == STOP) {
+            return false;
+          }
+          if (queuedCount.get() > 0) {
+            return true;
+          }
+          if (runState == SHUTDOWN) {
+            return false;
+          }
+          try {
+            idleLock.wait();
+          } catch (InterruptedException e) {
+            // Re-check the run state.
+          }
+        } finally {
+          idleCount.decrementAndGet();
+        }
+      }
+    }
+  }
+
+  private void onWorkerExit(Worker worker, boolean completedAbruptly) {
+    // Replace threads killed by tasks that threw, like ThreadPoolExecutor does. The throwable is
+    // then handled by the thread factory's thread.
+    if (completedAbruptly && runState != STOP) {
+      try {
+        startThread(worker);
+        return;
+      } catch (RuntimeException e) {
+        // Fall through and treat the worker as exited.
+      }
+    }
+    if (liveThreadCount.decrementAndGet() == 0) {
+      terminated.countDown();
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    synchronized (this) {
+      if (runState == RUNNING) {
+        runState = SHUTDOWN;
+      }
+      if (!isStarted) {
+        terminated.countDown();
+      }
+    }
+    wakeAll();
+  }
+
+  @NonNull
+  @Override
+  public List<Runnable> shutdownNow() {
+    synchronized (this) {
+      runState = STOP;
+      if (!isStarted) {
+        terminated.countDown();
+      }
+    }
+    List<Runnable> result = new ArrayList<>();
+    for (Worker worker : workers) {
+      worker.drainTo(result);
+      Thread thread = worker.thread;
+      if (thread != null) {
+        thread.interrupt();
+      }
+    }
+    wakeAll();
+    return result;
+  }
+
+  private void wakeAll() {
+    synchronized (idleLock) {
+      idleLock.notifyAll();
+    }
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return runState != RUNNING;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return terminated.getCount() == 0;
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, @NonNull TimeUnit unit)
+      throws InterruptedException {
+    return terminated.await(timeout, unit);
+  }
+
+  @Override
+  public String toString() {
+    return super.toString()
+        + "{threads="
+        + workers.length
+        + ", queued="
+        + queuedCount.get()
+        + ", runState="
+        + runState
+        + "}";
+  }
+
+  private static final class QueuedTask {
+    @Synthetic final Runnable runnable;
+    @Synthetic final long sequence;
+
+    QueuedTask(Runnable runnable, long sequence) {
+      this.runnable = runnable;
+      this.sequence = sequence;
+    }
+  }
+
+  private final class Worker implements Runnable {
+    @Synthetic final int index;
+    // Guarded by this.
+    private final ArrayDeque<QueuedTask>[] lanes;
+    // Only accessed by the thread running this worker.
+    @Synthetic int bypasses;
+    @Synthetic volatile Thread thread;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Worker(int index) {
+      this.index = index;
+      lanes = new ArrayDeque[LANE_COUNT];
+      for (int i = 0; i < LANE_COUNT; i++) {
+        lanes[i] = new ArrayDeque<>();
+      }
+    }
+
+    synchronized void add(QueuedTask task, int lane) {
+      lanes[lane].addLast(task);
+    }
+
+    @Nullable
+    synchronized QueuedTask poll(int lane) {
+      return lanes[lane].pollFirst();
+    }
+
+    synchronized long peekSequence(int lane) {
+      QueuedTask task = lanes[lane].peekFirst();
+      return task != null ? task.sequence : Long.MAX_VALUE;
+    }
+
+    synchronized boolean remove(QueuedTask task, int lane) {
+      return lanes[lane].removeLastOccurrence(task);
+    }
+
+    void drainTo(List<Runnable> result) {
+      for (int lane = 0; lane < LANE_COUNT; lane++) {
+        synchronized (this) {
+          Iterator<QueuedTask> iterator = lanes[lane].iterator();
+          while (iterator.hasNext()) {
+            result.add(iterator.next().runnable);
+            iterator.remove();
+            onTaskRemoved(lane);
+          }
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      runWorker(this);
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package com.bumptech.glide.load.engine.prefill;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the sizes and configs of {@link Bitmap}s that miss an {@link LruBitmapPool} and pre-fills
+ * the pool with the most frequently missed ones the next time the main thread is idle.
+ *
+ * <p>The first screen of images an app shows usually misses the pool for every {@link Bitmap}.
+ * Pre-filling the pool with the same sizes once those loads finish means that the first scroll
+ * can re-use {@link Bitmap}s rather than allocating them while frames are being drawn.
+ *
+ * <p>Pre-filling only starts after {@link #MIN_MISSES_TO_PRE_FILL} misses and at most once every
+ * {@link #MIN_PRE_FILL_INTERVAL_MS}, and allocates at most half of the pool's maximum size, so
+ * that pre-filled {@link Bitmap}s don't evict the rest of the pool.
+ *
+ * <p>A pre-fill takes the first {@link Bitmap} of each type from the pool and so misses it once
+ * per type. Those misses aren't recorded, so that a pre-fill doesn't count towards the next one.
+ */
+public final class AutoBitmapPreFiller implements LruBitmapPool.MissListener {
+  private static final String TAG = "AutoPreFiller";
+  @VisibleForTesting static final int MIN_MISSES_TO_PRE_FILL = 8;
+  @VisibleForTesting static final long MIN_PRE_FILL_INTERVAL_MS = TimeUnit.SECONDS.toMillis(5);
+  @VisibleForTesting static final int MAX_PRE_FILL_TYPES = 4;
+  private static final int PRE_FILL_SIZE_DIVISOR = 2;
+
+  private final BitmapPreFiller preFiller;
+  private final BitmapPool bitmapPool;
+  private final Handler mainHandler;
+  private final BitmapMissHistogram histogram = new BitmapMissHistogram();
+  private final AtomicInteger missesSincePreFill = new AtomicInteger();
+  private final AtomicBoolean isPreFillScheduled = new AtomicBoolean();
+
+  @GuardedBy("expectedPreFillMisses")
+  private final List<PreFillType> expectedPreFillMisses = new ArrayList<>();
+  private final MessageQueue.IdleHandler preFillWhenIdle =
+      new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+          preFill();
+          return false;
+        }
+      };
+  private final Runnable addIdleHandler =
+      new Runnable() {
+        @Override
+        public void run() {
+          Looper.myQueue().addIdleHandler(preFillWhenIdle);
+        }
+      };
+  private volatile long lastPreFillTimeMs = -MIN_PRE_FILL_INTERVAL_MS;
+
+  public AutoBitmapPreFiller(@NonNull BitmapPreFiller preFiller, @NonNull BitmapPool bitmapPool) {
+    this(preFiller, bitmapPool, new Handler(Looper.getMainLooper()));
+  }
+
+  @VisibleForTesting
+  AutoBitmapPreFiller(BitmapPreFiller preFiller, BitmapPool bitmapPool, Handler mainHandler) {
+    this.preFiller = preFiller;
+    this.bitmapPool = bitmapPool;
+    this.mainHandler = mainHandler;
+  }
+
+  @Override
+  public void onBitmapMissed(int width, int height, @NonNull Bitmap.Config config) {
+    if (isExpectedPreFillMiss(width, height, config)) {
+      return;
+    }
+    histogram.record(width, height, config);
+    if (missesSincePreFill.incrementAndGet() >= MIN_MISSES_TO_PRE_FILL
+        && isPreFillScheduled.compareAndSet(false, true)) {
+      long delayMs = lastPreFillTimeMs + MIN_PRE_FILL_INTERVAL_MS - SystemClock.uptimeMillis();
+      mainHandler.postDelayed(addIdleHandler, Math.max(0, delayMs));
+    }
+  }
+
+  private boolean isExpectedPreFillMiss(int width, int height, Bitmap.Config config) {
+    synchronized (expectedPreFillMisses) {
+      for (int i = 0; i < expectedPreFillMisses.size(); i++) {
+        PreFillType type = expectedPreFillMisses.get(i);
+        if (type.getWidth() == width
+            && type.getHeight() == height
+            && type.getConfig() == config) {
+          expectedPreFillMisses.remove(i);
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /** Drops the recorded misses, for example because the pool was cleared to free memory. */
+  public void clear() {
+    histogram.clear();
+    missesSincePreFill.set(0);
+  }
+
+  @VisibleForTesting
+  void preFill() {
+    lastPreFillTimeMs = SystemClock.uptimeMillis();
+    missesSincePreFill.set(0);
+    isPreFillScheduled.set(false);
+    PreFillType.Builder[] types = histogram.getMostMissed(MAX_PRE_FILL_TYPES);
+    if (types.length == 0) {
+      return;
+    }
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "Pre-filling pool with " + types.length + " most missed types");
+    }
+    synchronized (expectedPreFillMisses) {
+      // Types from an earlier pre-fill that were already in the pool never missed it.
+      expectedPreFillMisses.clear();
+      for (PreFillType.Builder type : types) {
+        expectedPreFillMisses.add(type.build());
+      }
+    }
+    preFiller.preFill(bitmapPool.getMaxSize() / PRE_FILL_SIZE_DIVISOR, types);
+  }
+}
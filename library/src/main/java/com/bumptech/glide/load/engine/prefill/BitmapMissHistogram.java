@@ -0,0 +1,109 @@
+package com.bumptech.glide.load.engine.prefill;
+
+import android.graphics.Bitmap;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.util.Synthetic;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A rolling histogram of the sizes and configs of {@link Bitmap}s that were requested from a
+ * {@link com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool} but weren't in it.
+ *
+ * <p>Counts are halved every {@link #DECAY_INTERVAL} misses so that the histogram follows what the
+ * app is currently displaying. At most {@link #MAX_TYPES} types are tracked, new types replace the
+ * least frequently missed type once the histogram is full.
+ */
+final class BitmapMissHistogram {
+  @VisibleForTesting static final int MAX_TYPES = 32;
+  @VisibleForTesting static final int DECAY_INTERVAL = 256;
+
+  private static final Comparator<Entry> BY_COUNT_DESCENDING =
+      new Comparator<Entry>() {
+        @Override
+        public int compare(Entry first, Entry second) {
+          return second.count - first.count;
+        }
+      };
+
+  private final List<Entry> entries = new ArrayList<>(MAX_TYPES);
+  private int missesSinceDecay;
+
+  synchronized void record(int width, int height, Bitmap.Config config) {
+    Entry leastMissed = null;
+    for (Entry entry : entries) {
+      if (entry.width == width && entry.height == height && entry.config == config) {
+        entry.count++;
+        onRecorded();
+        return;
+      }
+      if (leastMissed == null || entry.count < leastMissed.count) {
+        leastMissed = entry;
+      }
+    }
+    if (entries.size() < MAX_TYPES) {
+      entries.add(new Entry(width, height, config));
+    } else {
+      leastMissed.set(width, height, config);
+    }
+    onRecorded();
+  }
+
+  private void onRecorded() {
+    if (++missesSinceDecay < DECAY_INTERVAL) {
+      return;
+    }
+    missesSinceDecay = 0;
+    for (int i = entries.size() - 1; i >= 0; i--) {
+      Entry entry = entries.get(i);
+      entry.count /= 2;
+      if (entry.count == 0) {
+        entries.remove(i);
+      }
+    }
+  }
+
+  /**
+   * Returns up to {@code maxTypes} of the most frequently missed types, weighted by how often they
+   * were missed.
+   */
+  synchronized PreFillType.Builder[] getMostMissed(int maxTypes) {
+    List<Entry> sorted = new ArrayList<>(entries);
+    Collections.sort(sorted, BY_COUNT_DESCENDING);
+    int count = Math.min(maxTypes, sorted.size());
+    PreFillType.Builder[] result = new PreFillType.Builder[count];
+    for (int i = 0; i < count; i++) {
+      Entry entry = sorted.get(i);
+      result[i] =
+          new PreFillType.Builder(entry.width, entry.height)
+              .setConfig(entry.config)
+              .setWeight(entry.count);
+    }
+    return result;
+  }
+
+  synchronized void clear() {
+    entries.clear();
+    missesSinceDecay = 0;
+  }
+
+  private static final class Entry {
+    @Synthetic int width;
+    @Synthetic int height;
+    @Synthetic Bitmap.Config config;
+    @Synthetic int count;
+
+    Entry(int width, int height, Bitmap.Config config) {
+      set(width, height, config);
+    }
+
+    void set(int width, int height, Bitmap.Config config) {
+      this.width = width;
+      this.height = height;
+      this.config = config;
+      count = 1;
+    }
+  }
+}
@@ -28,12 +28,20 @@ public final class BitmapPreFiller {
     this.defaultFormat = defaultFormat;
   }
 
-  @SuppressWarnings("deprecation")
   public void preFill(PreFillType.Builder... bitmapAttributeBuilders) {
-    if (current != null) {
-      current.cancel();
-    }
+    start(generateAllocationOrder(buildTypes(bitmapAttributeBuilders)));
+  }
+
+  /**
+   * Like {@link #preFill(PreFillType.Builder...)}, but allocates at most {@code maxSize} bytes
+   * rather than enough to fill the memory cache and the pool.
+   */
+  void preFill(long maxSize, PreFillType.Builder... bitmapAttributeBuilders) {
+    start(generateAllocationOrder(maxSize, buildTypes(bitmapAttributeBuilders)));
+  }
 
+  @SuppressWarnings("deprecation")
+  private PreFillType[] buildTypes(PreFillType.Builder... bitmapAttributeBuilders) {
     PreFillType[] bitmapAttributes = new PreFillType[bitmapAttributeBuilders.length];
     for (int i = 0; i < bitmapAttributeBuilders.length; i++) {
       PreFillType.Builder builder = bitmapAttributeBuilders[i];
@@ -45,8 +53,13 @@ public final class BitmapPreFiller {
       }
       bitmapAttributes[i] = builder.build();
     }
+    return bitmapAttributes;
+  }
 
-    PreFillQueue allocationOrder = generateAllocationOrder(bitmapAttributes);
+  private synchronized void start(PreFillQueue allocationOrder) {
+    if (current != null) {
+      current.cancel();
+    }
     current = new BitmapPreFillRunner(bitmapPool, memoryCache, allocationOrder);
     Util.postOnUiThread(current);
   }
@@ -55,7 +68,11 @@ public final class BitmapPreFiller {
   PreFillQueue generateAllocationOrder(PreFillType... preFillSizes) {
     final long maxSize =
         memoryCache.getMaxSize() - memoryCache.getCurrentSize() + bitmapPool.getMaxSize();
+    return generateAllocationOrder(maxSize, preFillSizes);
+  }
 
+  @VisibleForTesting
+  PreFillQueue generateAllocationOrder(long maxSize, PreFillType... preFillSizes) {
     int totalWeight = 0;
     for (PreFillType size : preFillSizes) {
       totalWeight += size.getWeight();
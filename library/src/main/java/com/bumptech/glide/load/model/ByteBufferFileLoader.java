@@ -2,25 +2,44 @@ package com.bumptech.glide.load.model;
 
 import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.load.Options;
 import com.bumptech.glide.load.data.DataFetcher;
 import com.bumptech.glide.signature.ObjectKey;
 import com.bumptech.glide.util.ByteBufferUtil;
+import com.bumptech.glide.util.LruCache;
 import com.bumptech.glide.util.Synthetic;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
-/** Loads {@link java.nio.ByteBuffer}s using NIO for {@link java.io.File}. */
+/**
+ * Loads {@link java.nio.ByteBuffer}s using NIO for {@link java.io.File}.
+ *
+ * <p>Loaders built by {@link Factory} share the memory mappings of recently loaded files, so files
+ * that are loaded repeatedly, like popular entries in the disk cache, are mapped only once.
+ */
 public class ByteBufferFileLoader implements ModelLoader<File, ByteBuffer> {
   private static final String TAG = "ByteBufferFileLoader";
 
+  @Nullable private final MappedFileCache mappedFileCache;
+
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public ByteBufferFileLoader() {
+    this(/*mappedFileCache=*/ null);
+  }
+
+  ByteBufferFileLoader(@Nullable MappedFileCache mappedFileCache) {
+    this.mappedFileCache = mappedFileCache;
+  }
+
   @Override
   public LoadData<ByteBuffer> buildLoadData(
       @NonNull File file, int width, int height, @NonNull Options options) {
-    return new LoadData<>(new ObjectKey(file), new ByteBufferFetcher(file));
+    return new LoadData<>(new ObjectKey(file), new ByteBufferFetcher(file, mappedFileCache));
   }
 
   @Override
@@ -30,27 +49,97 @@ public class ByteBufferFileLoader implements ModelLoader<File, ByteBuffer> {
 
   /** Factory for {@link com.bumptech.glide.load.model.ByteBufferFileLoader}. */
   public static class Factory implements ModelLoaderFactory<File, ByteBuffer> {
+    private final MappedFileCache mappedFileCache =
+        new MappedFileCache(MappedFileCache.DEFAULT_MAX_SIZE_BYTES);
 
     @NonNull
     @Override
     public ModelLoader<File, ByteBuffer> build(@NonNull MultiModelLoaderFactory multiFactory) {
-      return new ByteBufferFileLoader();
+      return new ByteBufferFileLoader(mappedFileCache);
     }
 
     @Override
     public void teardown() {
-      // Do nothing.
+      mappedFileCache.clearMemory();
+    }
+  }
+
+  /**
+   * Holds on to the memory mappings of recently loaded files.
+   *
+   * <p>Mappings are keyed by path, length and modification time so a file that's replaced, for
+   * example when a disk cache entry is rewritten, is mapped again. Mappings are read only and each
+   * caller receives its own {@link ByteBuffer#duplicate() duplicate}, so callers can't interfere
+   * with each other's positions, limits or byte orders.
+   *
+   * <p>Mapped memory is backed by the file rather than the Java heap, so the size here only limits
+   * the amount of address space that can't be reclaimed until a mapping is evicted.
+   */
+  static final class MappedFileCache extends LruCache<MappedFileCache.MappedFileKey, ByteBuffer> {
+    static final long DEFAULT_MAX_SIZE_BYTES = 16 * 1024 * 1024;
+
+    MappedFileCache(long maxSizeBytes) {
+      super(maxSizeBytes);
+    }
+
+    @NonNull
+    ByteBuffer map(@NonNull File file) throws IOException {
+      MappedFileKey key = new MappedFileKey(file);
+      ByteBuffer mapped = get(key);
+      if (mapped == null) {
+        mapped = ByteBufferUtil.fromFile(file);
+        put(key, mapped);
+      }
+      return mapped.duplicate();
+    }
+
+    @Override
+    protected int getSize(@Nullable ByteBuffer item) {
+      return item == null ? super.getSize(null) : item.capacity();
+    }
+
+    static final class MappedFileKey {
+      private final String path;
+      private final long length;
+      private final long lastModified;
+
+      MappedFileKey(File file) {
+        path = file.getAbsolutePath();
+        length = file.length();
+        lastModified = file.lastModified();
+      }
+
+      @Override
+      public boolean equals(Object o) {
+        if (o instanceof MappedFileKey) {
+          MappedFileKey other = (MappedFileKey) o;
+          return path.equals(other.path)
+              && length == other.length
+              && lastModified == other.lastModified;
+        }
+        return false;
+      }
+
+      @Override
+      public int hashCode() {
+        int result = path.hashCode();
+        result = 31 * result + (int) (length ^ (length >>> 32));
+        result = 31 * result + (int) (lastModified ^ (lastModified >>> 32));
+        return result;
+      }
     }
   }
 
   private static final class ByteBufferFetcher implements DataFetcher<ByteBuffer> {
 
     private final File file;
+    @Nullable private final MappedFileCache mappedFileCache;
 
     @Synthetic
     @SuppressWarnings("WeakerAccess")
-    ByteBufferFetcher(File file) {
+    ByteBufferFetcher(File file, @Nullable MappedFileCache mappedFileCache) {
       this.file = file;
+      this.mappedFileCache = mappedFileCache;
     }
 
     @Override
@@ -58,7 +147,8 @@ public class ByteBufferFileLoader implements ModelLoader<File, ByteBuffer> {
         @NonNull Priority priority, @NonNull DataCallback<? super ByteBuffer> callback) {
       ByteBuffer result;
       try {
-        result = ByteBufferUtil.fromFile(file);
+        result =
+            mappedFileCache != null ? mappedFileCache.map(file) : ByteBufferUtil.fromFile(file);
         callback.onDataReady(result);
       } catch (IOException e) {
         if (Log.isLoggable(TAG, Log.DEBUG)) {
@@ -4,6 +4,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.util.Pools.Pool;
 import com.bumptech.glide.Registry.NoModelLoaderAvailableException;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
 import com.bumptech.glide.util.Synthetic;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -46,6 +47,32 @@ public class ModelLoaderRegistry {
     cache.clear();
   }
 
+  /**
+   * Appends a factory that isn't created until a {@link ModelLoader} is first needed for one of the
+   * given model and data classes.
+   */
+  public synchronized <Model, Data> void append(
+      @NonNull Class<Model> modelClass,
+      @NonNull Class<Data> dataClass,
+      @NonNull
+          GlideSupplier<? extends ModelLoaderFactory<? extends Model, ? extends Data>> factory) {
+    multiModelLoaderFactory.append(modelClass, dataClass, factory);
+    cache.clear();
+  }
+
+  /**
+   * Prepends a factory that isn't created until a {@link ModelLoader} is first needed for one of
+   * the given model and data classes.
+   */
+  public synchronized <Model, Data> void prepend(
+      @NonNull Class<Model> modelClass,
+      @NonNull Class<Data> dataClass,
+      @NonNull
+          GlideSupplier<? extends ModelLoaderFactory<? extends Model, ? extends Data>> factory) {
+    multiModelLoaderFactory.prepend(modelClass, dataClass, factory);
+    cache.clear();
+  }
+
   public synchronized <Model, Data> void remove(
       @NonNull Class<Model> modelClass, @NonNull Class<Data> dataClass) {
     tearDown(multiModelLoaderFactory.remove(modelClass, dataClass));
@@ -106,9 +133,26 @@ public class ModelLoaderRegistry {
     return multiModelLoaderFactory.getDataClasses(modelClass);
   }
 
+  /** Returns every model class that has at least one registered {@link ModelLoaderFactory}. */
+  @NonNull
+  public synchronized List<Class<?>> getModelClasses() {
+    return multiModelLoaderFactory.getModelClasses();
+  }
+
+  @NonNull
+  private <A> List<ModelLoader<A, ?>> getModelLoadersForClass(@NonNull Class<A> modelClass) {
+    // Called for every load, so avoid the lock unless we have to build the loaders.
+    List<ModelLoader<A, ?>> loaders = cache.get(modelClass);
+    if (loaders == null) {
+      loaders = buildModelLoadersForClass(modelClass);
+    }
+    return loaders;
+  }
+
   @NonNull
-  private synchronized <A> List<ModelLoader<A, ?>> getModelLoadersForClass(
+  private synchronized <A> List<ModelLoader<A, ?>> buildModelLoadersForClass(
       @NonNull Class<A> modelClass) {
+    // Another thread may have built the loaders while we were waiting for the lock.
     List<ModelLoader<A, ?>> loaders = cache.get(modelClass);
     if (loaders == null) {
       loaders = Collections.unmodifiableList(multiModelLoaderFactory.build(modelClass));
@@ -123,21 +167,30 @@ public class ModelLoaderRegistry {
     return (Class<A>) model.getClass();
   }
 
+  /**
+   * Reads are lock free, writes must hold the {@link ModelLoaderRegistry}'s lock.
+   *
+   * <p>The map is replaced rather than modified on every write, so readers always see a complete
+   * snapshot. Writes are rare and only happen when components are registered or when loaders are
+   * first built for a model class.
+   */
   private static class ModelLoaderCache {
-    private final Map<Class<?>, Entry<?>> cachedModelLoaders = new HashMap<>();
+    private volatile Map<Class<?>, Entry<?>> cachedModelLoaders = Collections.emptyMap();
 
     @Synthetic
     ModelLoaderCache() {}
 
     public void clear() {
-      cachedModelLoaders.clear();
+      cachedModelLoaders = Collections.emptyMap();
     }
 
     public <Model> void put(Class<Model> modelClass, List<ModelLoader<Model, ?>> loaders) {
-      Entry<?> previous = cachedModelLoaders.put(modelClass, new Entry<>(loaders));
+      Map<Class<?>, Entry<?>> updated = new HashMap<>(cachedModelLoaders);
+      Entry<?> previous = updated.put(modelClass, new Entry<>(loaders));
       if (previous != null) {
         throw new IllegalStateException("Already cached loaders for model: " + modelClass);
       }
+      cachedModelLoaders = updated;
     }
 
     @Nullable
@@ -6,6 +6,7 @@ import androidx.annotation.VisibleForTesting;
 import androidx.core.util.Pools.Pool;
 import com.bumptech.glide.Registry.NoModelLoaderAvailableException;
 import com.bumptech.glide.load.Options;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
 import com.bumptech.glide.util.Preconditions;
 import com.bumptech.glide.util.Synthetic;
 import java.util.ArrayList;
@@ -17,6 +18,9 @@ import java.util.Set;
 /**
  * Capable of building an {@link ModelLoader} that wraps one or more other {@link ModelLoader}s for
  * a given model and data class.
+ *
+ * <p>Factories registered with a {@link GlideSupplier} aren't created until a {@link ModelLoader}
+ * is first built for one of the model and data classes they handle.
  */
 // Hides Model throughout.
 @SuppressWarnings("TypeParameterHidesVisibleType")
@@ -53,6 +57,22 @@ public class MultiModelLoaderFactory {
     add(modelClass, dataClass, factory, /*append=*/ false);
   }
 
+  synchronized <Model, Data> void append(
+      @NonNull Class<Model> modelClass,
+      @NonNull Class<Data> dataClass,
+      @NonNull
+          GlideSupplier<? extends ModelLoaderFactory<? extends Model, ? extends Data>> factory) {
+    entries.add(new Entry<>(modelClass, dataClass, factory));
+  }
+
+  synchronized <Model, Data> void prepend(
+      @NonNull Class<Model> modelClass,
+      @NonNull Class<Data> dataClass,
+      @NonNull
+          GlideSupplier<? extends ModelLoaderFactory<? extends Model, ? extends Data>> factory) {
+    entries.add(0, new Entry<>(modelClass, dataClass, factory));
+  }
+
   private <Model, Data> void add(
       @NonNull Class<Model> modelClass,
       @NonNull Class<Data> dataClass,
@@ -73,6 +93,10 @@ public class MultiModelLoaderFactory {
     return removed;
   }
 
+  /**
+   * Removes the factories for the given model and data classes and returns the ones that were
+   * created, so that they can be torn down.
+   */
   @NonNull
   synchronized <Model, Data> List<ModelLoaderFactory<? extends Model, ? extends Data>> remove(
       @NonNull Class<Model> modelClass, @NonNull Class<Data> dataClass) {
@@ -81,7 +105,10 @@ public class MultiModelLoaderFactory {
       Entry<?, ?> entry = iterator.next();
       if (entry.handles(modelClass, dataClass)) {
         iterator.remove();
-        factories.add(this.<Model, Data>getFactory(entry));
+        // There's no need to create a factory just to tear it down.
+        if (entry.isFactoryCreated()) {
+          factories.add(this.<Model, Data>getFactory(entry));
+        }
       }
     }
     return factories;
@@ -124,6 +151,17 @@ public class MultiModelLoaderFactory {
     return result;
   }
 
+  @NonNull
+  synchronized List<Class<?>> getModelClasses() {
+    List<Class<?>> result = new ArrayList<>();
+    for (Entry<?, ?> entry : entries) {
+      if (!result.contains(entry.modelClass)) {
+        result.add(entry.modelClass);
+      }
+    }
+    return result;
+  }
+
   @NonNull
   public synchronized <Model, Data> ModelLoader<Model, Data> build(
       @NonNull Class<Model> modelClass, @NonNull Class<Data> dataClass) {
@@ -169,13 +207,13 @@ public class MultiModelLoaderFactory {
   @NonNull
   @SuppressWarnings("unchecked")
   private <Model, Data> ModelLoaderFactory<Model, Data> getFactory(@NonNull Entry<?, ?> entry) {
-    return (ModelLoaderFactory<Model, Data>) entry.factory;
+    return (ModelLoaderFactory<Model, Data>) entry.getFactory();
   }
 
   @NonNull
   @SuppressWarnings("unchecked")
   private <Model, Data> ModelLoader<Model, Data> build(@NonNull Entry<?, ?> entry) {
-    return (ModelLoader<Model, Data>) Preconditions.checkNotNull(entry.factory.build(this));
+    return (ModelLoader<Model, Data>) Preconditions.checkNotNull(entry.getFactory().build(this));
   }
 
   @NonNull
@@ -185,9 +223,13 @@ public class MultiModelLoaderFactory {
   }
 
   private static class Entry<Model, Data> {
-    private final Class<Model> modelClass;
+    @Synthetic final Class<Model> modelClass;
     @Synthetic final Class<Data> dataClass;
-    @Synthetic final ModelLoaderFactory<? extends Model, ? extends Data> factory;
+    // Both are guarded by the MultiModelLoaderFactory's lock.
+    @Nullable
+    private GlideSupplier<? extends ModelLoaderFactory<? extends Model, ? extends Data>>
+        factorySupplier;
+    @Nullable private ModelLoaderFactory<? extends Model, ? extends Data> factory;
 
     public Entry(
         @NonNull Class<Model> modelClass,
@@ -198,6 +240,30 @@ public class MultiModelLoaderFactory {
       this.factory = factory;
     }
 
+    public Entry(
+        @NonNull Class<Model> modelClass,
+        @NonNull Class<Data> dataClass,
+        @NonNull
+            GlideSupplier<? extends ModelLoaderFactory<? extends Model, ? extends Data>>
+                factorySupplier) {
+      this.modelClass = modelClass;
+      this.dataClass = dataClass;
+      this.factorySupplier = Preconditions.checkNotNull(factorySupplier);
+    }
+
+    @NonNull
+    ModelLoaderFactory<? extends Model, ? extends Data> getFactory() {
+      if (factory == null) {
+        factory = Preconditions.checkNotNull(Preconditions.checkNotNull(factorySupplier).get());
+        factorySupplier = null;
+      }
+      return factory;
+    }
+
+    boolean isFactoryCreated() {
+      return factory != null;
+    }
+
     public boolean handles(@NonNull Class<?> modelClass, @NonNull Class<?> dataClass) {
       return handles(modelClass) && this.dataClass.isAssignableFrom(dataClass);
     }
@@ -8,6 +8,7 @@ import static com.bumptech.glide.load.ImageHeaderParser.ImageType.UNKNOWN;
 
 import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.bumptech.glide.load.ImageHeaderParser;
 import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
 import com.bumptech.glide.util.Preconditions;
@@ -54,6 +55,10 @@ public final class DefaultImageHeaderParser implements ImageHeaderParser {
   private static final int VP8_HEADER_TYPE_LOSSLESS = 0x0000004C;
   private static final int WEBP_EXTENDED_ALPHA_FLAG = 1 << 4;
   private static final int WEBP_LOSSLESS_ALPHA_FLAG = 1 << 3;
+  // ' '
+  private static final int VP8_HEADER_TYPE_LOSSY = 0x00000020;
+  private static final int VP8_DIMENSION_MASK = 0x3FFF;
+  private static final int VP8L_DIMENSION_BITS = 14;
 
   @NonNull
   @Override
@@ -83,6 +88,162 @@ public final class DefaultImageHeaderParser implements ImageHeaderParser {
         Preconditions.checkNotNull(byteArrayPool));
   }
 
+  /**
+   * Parses the type, exif orientation and dimensions of the image in a single forward pass over its
+   * header, rather than the separate passes needed for {@link #getType(InputStream)}, {@link
+   * #getOrientation(InputStream, ArrayPool)} and an {@code inJustDecodeBounds} decode.
+   *
+   * <p>The type and orientation always match the values returned by the individual methods.
+   * Dimensions are only parsed for JPEGs, PNGs, GIFs and WebPs, and are {@link
+   * ImageHeader#UNKNOWN_DIMENSION} if they can't be found.
+   */
+  @NonNull
+  ImageHeader parseHeader(@NonNull InputStream is, @NonNull ArrayPool byteArrayPool)
+      throws IOException {
+    return parseHeader(
+        new StreamReader(Preconditions.checkNotNull(is)),
+        Preconditions.checkNotNull(byteArrayPool));
+  }
+
+  @NonNull
+  private ImageHeader parseHeader(Reader reader, ArrayPool byteArrayPool) throws IOException {
+    ImageType type = UNKNOWN;
+    int orientation = UNKNOWN_ORIENTATION;
+    int width = ImageHeader.UNKNOWN_DIMENSION;
+    int height = ImageHeader.UNKNOWN_DIMENSION;
+    try {
+      final int firstTwoBytes = reader.getUInt16();
+      if (firstTwoBytes == EXIF_MAGIC_NUMBER) {
+        type = JPEG;
+        boolean isExifSegmentParsed = false;
+        while (true) {
+          if (reader.getUInt8() != SEGMENT_START_ID) {
+            break;
+          }
+          short segmentType = reader.getUInt8();
+          if (segmentType == SEGMENT_SOS || segmentType == MARKER_EOI) {
+            break;
+          }
+          int segmentContentsLength = reader.getUInt16() - 2;
+          if (segmentContentsLength < 0) {
+            break;
+          }
+          if (isStartOfFrame(segmentType) && height == ImageHeader.UNKNOWN_DIMENSION) {
+            // Skip the sample precision.
+            reader.skip(1);
+            height = reader.getUInt16();
+            width = reader.getUInt16();
+            if (reader.skip(segmentContentsLength - 5) != segmentContentsLength - 5) {
+              break;
+            }
+          } else if (segmentType == EXIF_SEGMENT_TYPE && !isExifSegmentParsed) {
+            // Like getOrientation, only the first exif segment is parsed.
+            isExifSegmentParsed = true;
+            byte[] exifData = byteArrayPool.get(segmentContentsLength, byte[].class);
+            try {
+              orientation = parseExifSegment(reader, exifData, segmentContentsLength);
+            } finally {
+              byteArrayPool.put(exifData);
+            }
+          } else if (reader.skip(segmentContentsLength) != segmentContentsLength) {
+            break;
+          }
+          // The exif segment almost always precedes the frame header, but keep looking for it
+          // until the start of the image data so that the orientation matches getOrientation.
+          if (isExifSegmentParsed && height != ImageHeader.UNKNOWN_DIMENSION) {
+            break;
+          }
+        }
+        return new ImageHeader(type, orientation, width, height);
+      }
+
+      final int firstThreeBytes = (firstTwoBytes << 8) | reader.getUInt8();
+      if (firstThreeBytes == GIF_HEADER) {
+        type = GIF;
+        // The rest of the version, followed by the logical screen width and height.
+        reader.skip(3);
+        width = getUInt16LittleEndian(reader);
+        height = getUInt16LittleEndian(reader);
+        return new ImageHeader(type, orientation, width, height);
+      }
+
+      final int firstFourBytes = (firstThreeBytes << 8) | reader.getUInt8();
+      if (firstFourBytes == PNG_HEADER) {
+        type = PNG;
+        // The rest of the signature, followed by the IHDR chunk's length and type.
+        reader.skip(4 + 8);
+        width = getUInt32(reader);
+        height = getUInt32(reader);
+        // Skip the bit depth to get to the color type, see getType.
+        reader.skip(1);
+        int alpha = reader.getUInt8();
+        type = alpha >= 3 ? PNG_A : PNG;
+        return new ImageHeader(type, orientation, width, height);
+      }
+
+      if (firstFourBytes != RIFF_HEADER) {
+        return new ImageHeader(type, orientation, width, height);
+      }
+      reader.skip(4);
+      final int thirdFourBytes = (reader.getUInt16() << 16) | reader.getUInt16();
+      if (thirdFourBytes != WEBP_HEADER) {
+        return new ImageHeader(type, orientation, width, height);
+      }
+      final int fourthFourBytes = (reader.getUInt16() << 16) | reader.getUInt16();
+      if ((fourthFourBytes & VP8_HEADER_MASK) != VP8_HEADER) {
+        return new ImageHeader(type, orientation, width, height);
+      }
+      type = ImageType.WEBP;
+      // Skip the chunk length.
+      reader.skip(4);
+      int headerType = fourthFourBytes & VP8_HEADER_TYPE_MASK;
+      if (headerType == VP8_HEADER_TYPE_EXTENDED) {
+        short flags = reader.getUInt8();
+        type = (flags & WEBP_EXTENDED_ALPHA_FLAG) != 0 ? ImageType.WEBP_A : ImageType.WEBP;
+        // Reserved bytes, followed by the canvas width and height minus one.
+        reader.skip(3);
+        width = getUInt24LittleEndian(reader) + 1;
+        height = getUInt24LittleEndian(reader) + 1;
+      } else if (headerType == VP8_HEADER_TYPE_LOSSLESS) {
+        short flags = reader.getUInt8();
+        type = (flags & WEBP_LOSSLESS_ALPHA_FLAG) != 0 ? ImageType.WEBP_A : ImageType.WEBP;
+        int bits = getUInt16LittleEndian(reader) | (getUInt16LittleEndian(reader) << 16);
+        width = (bits & VP8_DIMENSION_MASK) + 1;
+        height = ((bits >>> VP8L_DIMENSION_BITS) & VP8_DIMENSION_MASK) + 1;
+      } else if (headerType == VP8_HEADER_TYPE_LOSSY) {
+        // The frame tag and start code, followed by the width and height and their scaling bits.
+        reader.skip(6);
+        width = getUInt16LittleEndian(reader) & VP8_DIMENSION_MASK;
+        height = getUInt16LittleEndian(reader) & VP8_DIMENSION_MASK;
+      }
+      return new ImageHeader(type, orientation, width, height);
+    } catch (Reader.EndOfFileException e) {
+      // Return whatever was parsed, a partially parsed size fails ImageHeader#hasDimensions.
+      return new ImageHeader(type, orientation, width, height);
+    }
+  }
+
+  private static boolean isStartOfFrame(int segmentType) {
+    // SOF0 - SOF15, other than DHT, JPG and DAC which share the same range.
+    return segmentType >= 0xC0
+        && segmentType <= 0xCF
+        && segmentType != 0xC4
+        && segmentType != 0xC8
+        && segmentType != 0xCC;
+  }
+
+  private static int getUInt16LittleEndian(Reader reader) throws IOException {
+    return reader.getUInt8() | (reader.getUInt8() << 8);
+  }
+
+  private static int getUInt24LittleEndian(Reader reader) throws IOException {
+    return getUInt16LittleEndian(reader) | (reader.getUInt8() << 16);
+  }
+
+  private static int getUInt32(Reader reader) throws IOException {
+    return (reader.getUInt16() << 16) | reader.getUInt16();
+  }
+
   @NonNull
   private ImageType getType(Reader reader) throws IOException {
     try {
@@ -180,6 +341,12 @@ public final class DefaultImageHeaderParser implements ImageHeaderParser {
           return UNKNOWN_ORIENTATION;
         }
 
+        if (reader instanceof ByteBufferReader) {
+          // The segment can be parsed in place, which avoids copying it out of large (or memory
+          // mapped) buffers and into a temporary array.
+          return parseExifSegment((ByteBufferReader) reader, exifSegmentLength);
+        }
+
         byte[] exifData = byteArrayPool.get(exifSegmentLength, byte[].class);
         try {
           return parseExifSegment(reader, exifData, exifSegmentLength);
@@ -212,9 +379,28 @@ public final class DefaultImageHeaderParser implements ImageHeaderParser {
       return UNKNOWN_ORIENTATION;
     }
 
-    boolean hasJpegExifPreamble = hasJpegExifPreamble(tempArray, exifSegmentLength);
+    return parseExifSegment(ByteBuffer.wrap(tempArray), exifSegmentLength);
+  }
+
+  private int parseExifSegment(ByteBufferReader reader, int exifSegmentLength) {
+    ByteBuffer exifData = reader.slice(exifSegmentLength);
+    if (exifData == null) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Unable to read exif segment data, length: " + exifSegmentLength);
+      }
+      return UNKNOWN_ORIENTATION;
+    }
+    return parseExifSegment(exifData, exifSegmentLength);
+  }
+
+  /**
+   * Parses the exif segment starting at index 0 of the given buffer, which must contain at least
+   * {@code exifSegmentLength} bytes.
+   */
+  private int parseExifSegment(ByteBuffer exifData, int exifSegmentLength) {
+    boolean hasJpegExifPreamble = hasJpegExifPreamble(exifData, exifSegmentLength);
     if (hasJpegExifPreamble) {
-      return parseExifSegment(new RandomAccessReader(tempArray, exifSegmentLength));
+      return parseExifSegment(new RandomAccessReader(exifData, exifSegmentLength));
     } else {
       if (Log.isLoggable(TAG, Log.DEBUG)) {
         Log.d(TAG, "Missing jpeg exif preamble");
@@ -223,12 +409,12 @@ public final class DefaultImageHeaderParser implements ImageHeaderParser {
     }
   }
 
-  private boolean hasJpegExifPreamble(byte[] exifData, int exifSegmentLength) {
+  private boolean hasJpegExifPreamble(ByteBuffer exifData, int exifSegmentLength) {
     boolean result =
         exifData != null && exifSegmentLength > JPEG_EXIF_SEGMENT_PREAMBLE_BYTES.length;
     if (result) {
       for (int i = 0; i < JPEG_EXIF_SEGMENT_PREAMBLE_BYTES.length; i++) {
-        if (exifData[i] != JPEG_EXIF_SEGMENT_PREAMBLE_BYTES[i]) {
+        if (exifData.get(i) != JPEG_EXIF_SEGMENT_PREAMBLE_BYTES[i]) {
           result = false;
           break;
         }
@@ -392,8 +578,8 @@ public final class DefaultImageHeaderParser implements ImageHeaderParser {
   private static final class RandomAccessReader {
     private final ByteBuffer data;
 
-    RandomAccessReader(byte[] data, int length) {
-      this.data = (ByteBuffer) ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN).limit(length);
+    RandomAccessReader(ByteBuffer data, int length) {
+      this.data = (ByteBuffer) data.order(ByteOrder.BIG_ENDIAN).limit(length);
     }
 
     void order(ByteOrder byteOrder) {
@@ -491,6 +677,21 @@ public final class DefaultImageHeaderParser implements ImageHeaderParser {
       byteBuffer.position(byteBuffer.position() + toSkip);
       return toSkip;
     }
+
+    /**
+     * Returns a view of the next {@code byteCount} bytes that shares the underlying data and
+     * advances past them, or {@code null} if fewer than {@code byteCount} bytes remain.
+     */
+    @Nullable
+    ByteBuffer slice(int byteCount) {
+      if (byteBuffer.remaining() < byteCount) {
+        return null;
+      }
+      ByteBuffer result = byteBuffer.slice();
+      result.limit(byteCount);
+      skip(byteCount);
+      return result;
+    }
   }
 
   private static final class StreamReader implements Reader {
@@ -280,6 +280,17 @@ public final class Downsampler {
     boolean isHardwareConfigAllowed =
         options.get(ALLOW_HARDWARE_CONFIG) != null && options.get(ALLOW_HARDWARE_CONFIG);
 
+    // Data from the disk cache may have been decoded before, possibly at another size, in which
+    // case there's no need to parse its header again.
+    ImageHeaderIndex.Entry headerIndexEntry = options.get(ImageHeaderIndex.ENTRY);
+    if (headerIndexEntry != null) {
+      ImageHeader indexedHeader = headerIndexEntry.get();
+      if (indexedHeader != null) {
+        imageReader = new ImageReader.IndexedImageReader(imageReader, indexedHeader);
+        headerIndexEntry = null;
+      }
+    }
+
     try {
       Bitmap result =
           decodeFromWrappedStreams(
@@ -292,6 +303,7 @@ public final class Downsampler {
               requestedWidth,
               requestedHeight,
               fixBitmapToRequestedDimensions,
+              headerIndexEntry,
               callbacks);
       return BitmapResource.obtain(result, bitmapPool);
     } finally {
@@ -310,11 +322,20 @@ public final class Downsampler {
       int requestedWidth,
       int requestedHeight,
       boolean fixBitmapToRequestedDimensions,
+      @Nullable ImageHeaderIndex.Entry headerIndexEntry,
       DecodeCallbacks callbacks)
       throws IOException {
     long startTime = LogTime.getLogTime();
 
-    int[] sourceDimensions = getDimensions(imageReader, options, callbacks, bitmapPool);
+    // Some readers can parse the dimensions along with the rest of the header, which avoids another
+    // pass over the data. The color space is only available from a bounds decode though, as is the
+    // config of images whose config can't be inferred from their type.
+    int[] sourceDimensions = imageReader.getImageDimensions();
+    if (sourceDimensions == null
+        || isColorSpaceRequired(preferredColorSpace)
+        || !setBoundsFromHeader(imageReader.getImageType(), sourceDimensions, options)) {
+      sourceDimensions = getDimensions(imageReader, options, callbacks, bitmapPool);
+    }
     int sourceWidth = sourceDimensions[0];
     int sourceHeight = sourceDimensions[1];
     String sourceMimeType = options.outMimeType;
@@ -342,6 +363,13 @@ public final class Downsampler {
 
     ImageType imageType = imageReader.getImageType();
 
+    if (headerIndexEntry != null
+        && imageType != ImageType.UNKNOWN
+        && sourceWidth > 0
+        && sourceHeight > 0) {
+      headerIndexEntry.put(new ImageHeader(imageType, orientation, sourceWidth, sourceHeight));
+    }
+
     calculateScaling(
         imageType,
         imageReader,
@@ -972,6 +1000,57 @@ public final class Downsampler {
     void onDecodeComplete(BitmapPool bitmapPool, Bitmap downsampled) throws IOException;
   }
 
+  /**
+   * Returns {@code true} if {@link BitmapFactory.Options#outColorSpace} from a bounds decode is
+   * needed to pick {@link BitmapFactory.Options#inPreferredColorSpace}.
+   */
+  private static boolean isColorSpaceRequired(@Nullable PreferredColorSpace preferredColorSpace) {
+    return preferredColorSpace == PreferredColorSpace.DISPLAY_P3
+        && Build.VERSION.SDK_INT >= Build.VERSION_CODES.P;
+  }
+
+  /**
+   * Sets the fields of {@code options} that a bounds decode would set, from the type and
+   * dimensions of an image that were parsed from its header instead.
+   *
+   * <p>Returns {@code false} without setting any fields if a bounds decode is needed because the
+   * mime type or, on O+, the {@link BitmapFactory.Options#outConfig} can't be inferred from the
+   * image type. JPEG, WebP and GIF only have 8 bit components, so a bounds decode reports
+   * {@link Bitmap.Config#ARGB_8888} for them, but PNGs may have 16 bit components.
+   */
+  private static boolean setBoundsFromHeader(
+      ImageType imageType, int[] dimensions, BitmapFactory.Options options) {
+    String mimeType;
+    switch (imageType) {
+      case JPEG:
+        mimeType = "image/jpeg";
+        break;
+      case WEBP:
+      case WEBP_A:
+        mimeType = "image/webp";
+        break;
+      case GIF:
+        mimeType = "image/gif";
+        break;
+      case PNG:
+      case PNG_A:
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+          return false;
+        }
+        mimeType = "image/png";
+        break;
+      default:
+        return false;
+    }
+    options.outWidth = dimensions[0];
+    options.outHeight = dimensions[1];
+    options.outMimeType = mimeType;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+      options.outConfig = Bitmap.Config.ARGB_8888;
+    }
+    return true;
+  }
+
   private static boolean isRotationRequired(int degreesToRotate) {
     return degreesToRotate == 90 || degreesToRotate == 270;
   }
@@ -0,0 +1,74 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide.load.ImageHeaderParser;
+import com.bumptech.glide.load.ImageHeaderParser.ImageType;
+
+/**
+ * The type, exif orientation and dimensions of an image, parsed from its header in a single pass by
+ * {@link DefaultImageHeaderParser#parseHeader(java.io.InputStream,
+ * com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool)} or remembered by an {@link
+ * ImageHeaderIndex}.
+ */
+final class ImageHeader {
+  static final int UNKNOWN_DIMENSION = -1;
+
+  private final ImageType type;
+  private final int orientation;
+  private final int width;
+  private final int height;
+
+  ImageHeader(@NonNull ImageType type, int orientation, int width, int height) {
+    this.type = type;
+    this.orientation = orientation;
+    this.width = width;
+    this.height = height;
+  }
+
+  @NonNull
+  ImageType getType() {
+    return type;
+  }
+
+  /**
+   * Returns the exif orientation of the image, or {@link ImageHeaderParser#UNKNOWN_ORIENTATION} if
+   * the header doesn't contain one.
+   */
+  int getOrientation() {
+    return orientation;
+  }
+
+  /**
+   * Returns the width of the image as {@link android.graphics.BitmapFactory} would report it in
+   * {@code outWidth}, or {@link #UNKNOWN_DIMENSION}.
+   */
+  int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the height of the image as {@link android.graphics.BitmapFactory} would report it in
+   * {@code outHeight}, or {@link #UNKNOWN_DIMENSION}.
+   */
+  int getHeight() {
+    return height;
+  }
+
+  boolean hasDimensions() {
+    return width > 0 && height > 0;
+  }
+
+  @Override
+  public String toString() {
+    return "ImageHeader{"
+        + "type="
+        + type
+        + ", orientation="
+        + orientation
+        + ", width="
+        + width
+        + ", height="
+        + height
+        + '}';
+  }
+}
@@ -0,0 +1,219 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.Option;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.util.LruCache;
+import com.bumptech.glide.util.Preconditions;
+import com.bumptech.glide.util.Synthetic;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+
+/**
+ * Remembers the type, exif orientation and dimensions of images in the disk cache so that
+ * decoding the same data at several sizes only parses the header once.
+ *
+ * <p>Headers are stored in the disk cache under a key derived from the data's key, so they survive
+ * restarts. The most recently used headers are also kept in memory. Each header is a separate disk
+ * cache entry with its own place in the LRU, so it's evicted independently of its data. A header
+ * evicted before its data is parsed and written again on the next decode. A header that outlives
+ * its data is only used again if data is cached under the same key again, which, as for the rest
+ * of the disk cache, assumes that the data for a key doesn't change.
+ *
+ * <p>If enabled with {@link com.bumptech.glide.GlideBuilder#setIndexImageHeaders(boolean)}, the
+ * engine sets {@link #ENTRY} when decoding data from the disk cache and {@link Downsampler} uses it
+ * in place of parsing the header.
+ */
+public final class ImageHeaderIndex {
+  private static final String TAG = "ImageHeaderIndex";
+
+  /**
+   * The {@link Entry} for the disk cache data that's being decoded, or {@code null} if the data
+   * isn't from the disk cache.
+   */
+  public static final Option<Entry> ENTRY =
+      Option.memory("com.bumptech.glide.load.resource.bitmap.ImageHeaderIndex.Entry");
+
+  @VisibleForTesting static final int VERSION = 1;
+  private static final int MAX_RECENT_HEADERS = 256;
+
+  private final LruCache<Key, ImageHeader> recentHeaders = new LruCache<>(MAX_RECENT_HEADERS);
+
+  /**
+   * Returns the {@link Entry} for the data stored in {@code diskCache} under {@code dataCacheKey}.
+   */
+  @NonNull
+  public Entry getEntry(@NonNull DiskCache diskCache, @NonNull Key dataCacheKey) {
+    return new Entry(this, Preconditions.checkNotNull(diskCache), new HeaderKey(dataCacheKey));
+  }
+
+  @Nullable
+  ImageHeader get(DiskCache diskCache, Key key) {
+    ImageHeader result = recentHeaders.get(key);
+    if (result != null) {
+      return result;
+    }
+    File file = diskCache.get(key);
+    if (file == null) {
+      return null;
+    }
+    result = read(file);
+    if (result != null) {
+      recentHeaders.put(key, result);
+    }
+    return result;
+  }
+
+  void put(DiskCache diskCache, Key key, final ImageHeader header) {
+    if (recentHeaders.put(key, header) != null) {
+      // Already written by an earlier decode.
+      return;
+    }
+    diskCache.put(
+        key,
+        new DiskCache.Writer() {
+          @Override
+          public boolean write(@NonNull File file) {
+            return ImageHeaderIndex.write(header, file);
+          }
+        });
+  }
+
+  @Nullable
+  private static ImageHeader read(File file) {
+    DataInputStream is = null;
+    try {
+      is = new DataInputStream(new FileInputStream(file));
+      if (is.readInt() != VERSION) {
+        return null;
+      }
+      ImageType type = ImageType.valueOf(is.readUTF());
+      int orientation = is.readInt();
+      int width = is.readInt();
+      int height = is.readInt();
+      return new ImageHeader(type, orientation, width, height);
+    } catch (IOException | IllegalArgumentException e) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to read image header", e);
+      }
+      return null;
+    } finally {
+      if (is != null) {
+        try {
+          is.close();
+        } catch (IOException e) {
+          // Ignored.
+        }
+      }
+    }
+  }
+
+  @Synthetic
+  static boolean write(ImageHeader header, File file) {
+    DataOutputStream os = null;
+    try {
+      os = new DataOutputStream(new FileOutputStream(file));
+      os.writeInt(VERSION);
+      os.writeUTF(header.getType().name());
+      os.writeInt(header.getOrientation());
+      os.writeInt(header.getWidth());
+      os.writeInt(header.getHeight());
+      return true;
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to write image header", e);
+      }
+      return false;
+    } finally {
+      if (os != null) {
+        try {
+          os.close();
+        } catch (IOException e) {
+          // Ignored.
+        }
+      }
+    }
+  }
+
+  /** The indexed header for a single piece of disk cache data. */
+  public static final class Entry {
+    private final ImageHeaderIndex index;
+    private final DiskCache diskCache;
+    private final Key key;
+
+    Entry(ImageHeaderIndex index, DiskCache diskCache, Key key) {
+      this.index = index;
+      this.diskCache = diskCache;
+      this.key = key;
+    }
+
+    @Nullable
+    ImageHeader get() {
+      return index.get(diskCache, key);
+    }
+
+    void put(@NonNull ImageHeader header) {
+      index.put(diskCache, key, header);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o instanceof Entry) {
+        Entry other = (Entry) o;
+        return index == other.index && diskCache == other.diskCache && key.equals(other.key);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return key.hashCode();
+    }
+  }
+
+  /** Derives a disk cache key for a header from the key of the data it describes. */
+  private static final class HeaderKey implements Key {
+    private static final byte[] SUFFIX = "ImageHeaderIndex".getBytes(CHARSET);
+
+    private final Key dataCacheKey;
+
+    HeaderKey(Key dataCacheKey) {
+      this.dataCacheKey = Preconditions.checkNotNull(dataCacheKey);
+    }
+
+    @Override
+    public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+      dataCacheKey.updateDiskCacheKey(messageDigest);
+      messageDigest.update(SUFFIX);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o instanceof HeaderKey) {
+        HeaderKey other = (HeaderKey) o;
+        return dataCacheKey.equals(other.dataCacheKey);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return dataCacheKey.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return "HeaderKey{dataCacheKey=" + dataCacheKey + '}';
+    }
+  }
+}
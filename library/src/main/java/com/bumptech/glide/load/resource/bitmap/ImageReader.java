@@ -36,6 +36,13 @@ interface ImageReader {
 
   int getImageOrientation() throws IOException;
 
+  /**
+   * Returns the {width, height} of the image if they're known without decoding it, or {@code null}
+   * if an {@code inJustDecodeBounds} decode is required to find them.
+   */
+  @Nullable
+  int[] getImageDimensions() throws IOException;
+
   void stopGrowingBuffers();
 
   final class ByteArrayReader implements ImageReader {
@@ -66,6 +73,12 @@ interface ImageReader {
       return ImageHeaderParserUtils.getOrientation(parsers, ByteBuffer.wrap(bytes), byteArrayPool);
     }
 
+    @Nullable
+    @Override
+    public int[] getImageDimensions() {
+      return null;
+    }
+
     @Override
     public void stopGrowingBuffers() {}
   }
@@ -134,6 +147,12 @@ interface ImageReader {
       }
     }
 
+    @Nullable
+    @Override
+    public int[] getImageDimensions() {
+      return null;
+    }
+
     @Override
     public void stopGrowingBuffers() {}
   }
@@ -167,6 +186,12 @@ interface ImageReader {
           parsers, ByteBufferUtil.rewind(buffer), byteArrayPool);
     }
 
+    @Nullable
+    @Override
+    public int[] getImageDimensions() {
+      return null;
+    }
+
     @Override
     public void stopGrowingBuffers() {}
 
@@ -179,6 +204,8 @@ interface ImageReader {
     private final InputStreamRewinder dataRewinder;
     private final ArrayPool byteArrayPool;
     private final List<ImageHeaderParser> parsers;
+    @Nullable private ImageHeader header;
+    private boolean isHeaderParsed;
 
     InputStreamImageReader(
         InputStream is, List<ImageHeaderParser> parsers, ArrayPool byteArrayPool) {
@@ -196,13 +223,57 @@ interface ImageReader {
 
     @Override
     public ImageHeaderParser.ImageType getImageType() throws IOException {
+      ImageHeader header = getHeader();
+      if (header != null) {
+        return header.getType();
+      }
       return ImageHeaderParserUtils.getType(parsers, dataRewinder.rewindAndGet(), byteArrayPool);
     }
 
     @Override
     public int getImageOrientation() throws IOException {
+      ImageHeader header = getHeader();
+      if (header == null) {
+        return ImageHeaderParserUtils.getOrientation(
+            parsers, dataRewinder.rewindAndGet(), byteArrayPool);
+      }
+      if (header.getOrientation() != ImageHeaderParser.UNKNOWN_ORIENTATION) {
+        return header.getOrientation();
+      }
+      // The first parser has already been asked, give any others a chance to find an orientation.
       return ImageHeaderParserUtils.getOrientation(
-          parsers, dataRewinder.rewindAndGet(), byteArrayPool);
+          parsers.subList(1, parsers.size()), dataRewinder.rewindAndGet(), byteArrayPool);
+    }
+
+    @Nullable
+    @Override
+    public int[] getImageDimensions() throws IOException {
+      ImageHeader header = getHeader();
+      return header != null && header.hasDimensions()
+          ? new int[] {header.getWidth(), header.getHeight()}
+          : null;
+    }
+
+    /**
+     * Parses the type, orientation and dimensions of the image in a single pass if the first
+     * parser is a {@link DefaultImageHeaderParser}, which would otherwise take a pass over the
+     * stream for each of them.
+     *
+     * <p>Returns {@code null} if the first parser is some other parser, or if it doesn't recognize
+     * the image, in which case all parsers are asked as usual.
+     */
+    @Nullable
+    private ImageHeader getHeader() throws IOException {
+      if (!isHeaderParsed) {
+        isHeaderParsed = true;
+        if (!parsers.isEmpty() && parsers.get(0) instanceof DefaultImageHeaderParser) {
+          ImageHeader parsed =
+              ((DefaultImageHeaderParser) parsers.get(0))
+                  .parseHeader(dataRewinder.rewindAndGet(), byteArrayPool);
+          header = parsed.getType() != ImageType.UNKNOWN ? parsed : null;
+        }
+      }
+      return header;
     }
 
     @Override
@@ -211,6 +282,46 @@ interface ImageReader {
     }
   }
 
+  /**
+   * Returns the type, orientation and dimensions from a previously parsed {@link ImageHeader}
+   * without reading the image data, which is only read to decode the {@link Bitmap}.
+   */
+  final class IndexedImageReader implements ImageReader {
+    private final ImageReader wrapped;
+    private final ImageHeader header;
+
+    IndexedImageReader(ImageReader wrapped, ImageHeader header) {
+      this.wrapped = wrapped;
+      this.header = header;
+    }
+
+    @Nullable
+    @Override
+    public Bitmap decodeBitmap(Options options) throws IOException {
+      return wrapped.decodeBitmap(options);
+    }
+
+    @Override
+    public ImageType getImageType() {
+      return header.getType();
+    }
+
+    @Override
+    public int getImageOrientation() {
+      return header.getOrientation();
+    }
+
+    @Override
+    public int[] getImageDimensions() {
+      return new int[] {header.getWidth(), header.getHeight()};
+    }
+
+    @Override
+    public void stopGrowingBuffers() {
+      wrapped.stopGrowingBuffers();
+    }
+  }
+
   @RequiresApi(Build.VERSION_CODES.LOLLIPOP)
   final class ParcelFileDescriptorImageReader implements ImageReader {
     private final ArrayPool byteArrayPool;
@@ -244,6 +355,12 @@ interface ImageReader {
       return ImageHeaderParserUtils.getOrientation(parsers, dataRewinder, byteArrayPool);
     }
 
+    @Nullable
+    @Override
+    public int[] getImageDimensions() {
+      return null;
+    }
+
     @Override
     public void stopGrowingBuffers() {
       // Nothing to do here.
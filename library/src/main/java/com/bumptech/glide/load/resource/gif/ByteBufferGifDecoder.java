@@ -42,6 +42,7 @@ public class ByteBufferGifDecoder implements ResourceDecoder<ByteBuffer, GifDraw
   private final GifHeaderParserPool parserPool;
   private final GifDecoderFactory gifDecoderFactory;
   private final GifBitmapProvider provider;
+  private final SharedGifFrameLoaders sharedFrameLoaders = new SharedGifFrameLoaders();
 
   // Public API.
   @SuppressWarnings("unused")
@@ -120,8 +121,23 @@ public class ByteBufferGifDecoder implements ResourceDecoder<ByteBuffer, GifDraw
 
       Transformation<Bitmap> unitTransformation = UnitTransformation.get();
 
+      int frameLookahead = options.get(GifOptions.FRAME_LOOKAHEAD);
+      SharedGifFrameLoaders.Key sharedKey =
+          options.get(GifOptions.SHARE_FRAME_LOADERS)
+              ? new SharedGifFrameLoaders.Key(
+                  byteBuffer, sampleSize, config, width, height, frameLookahead, unitTransformation)
+              : null;
       GifDrawable gifDrawable =
-          new GifDrawable(context, gifDecoder, unitTransformation, width, height, firstFrame);
+          new GifDrawable(
+              context,
+              gifDecoder,
+              unitTransformation,
+              width,
+              height,
+              firstFrame,
+              frameLookahead,
+              sharedKey != null ? sharedFrameLoaders : null,
+              sharedKey);
 
       return new GifDrawableResource(gifDrawable);
     } finally {
@@ -0,0 +1,35 @@
+package com.bumptech.glide.load.resource.gif;
+
+import android.graphics.Bitmap;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.gifdecoder.FrameSequenceDecoder;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.resource.bitmap.BitmapResource;
+
+/**
+ * Decodes {@link Bitmap}s from {@link FrameSequenceDecoder}s representing a particular frame of a
+ * particular animated image that isn't a GIF, see {@link GifFrameResourceDecoder} for GIFs.
+ */
+public final class FrameSequenceResourceDecoder
+    implements ResourceDecoder<FrameSequenceDecoder, Bitmap> {
+  private final BitmapPool bitmapPool;
+
+  public FrameSequenceResourceDecoder(BitmapPool bitmapPool) {
+    this.bitmapPool = bitmapPool;
+  }
+
+  @Override
+  public boolean handles(@NonNull FrameSequenceDecoder source, @NonNull Options options) {
+    return true;
+  }
+
+  @Override
+  public Resource<Bitmap> decode(
+      @NonNull FrameSequenceDecoder source, int width, int height, @NonNull Options options) {
+    Bitmap bitmap = source.getNextFrame();
+    return BitmapResource.obtain(bitmap, bitmapPool);
+  }
+}
@@ -14,9 +14,11 @@ import android.graphics.drawable.Animatable;
 import android.graphics.drawable.Drawable;
 import android.view.Gravity;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.vectordrawable.graphics.drawable.Animatable2Compat;
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.gifdecoder.FrameSequenceDecoder;
 import com.bumptech.glide.gifdecoder.GifDecoder;
 import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
@@ -61,6 +63,8 @@ public class GifDrawable extends Drawable
   private boolean isVisible = true;
   /** The number of times we've looped over all the frames in the GIF. */
   private int loopCount;
+  /** The index of the last frame that was displayed since the loop count was reset, or -1. */
+  private int lastFrameIndex = -1;
   /** The number of times to loop through the GIF animation. */
   private int maxLoopCount = LOOP_FOREVER;
 
@@ -71,6 +75,10 @@ public class GifDrawable extends Drawable
   /** Callbacks to notify loop completion of a gif, where the loop count is explicitly specified. */
   private List<AnimationCallback> animationCallbacks;
 
+  @Nullable private FrameDropListener frameDropListener;
+  /** The number of dropped frames that have been reported to {@link #frameDropListener}. */
+  private int reportedDroppedFrameCount;
+
   /**
    * Constructor for GifDrawable.
    *
@@ -125,6 +133,69 @@ public class GifDrawable extends Drawable
       int targetFrameWidth,
       int targetFrameHeight,
       Bitmap firstFrame) {
+    this(
+        context,
+        (FrameSequenceDecoder) gifDecoder,
+        frameTransformation,
+        targetFrameWidth,
+        targetFrameHeight,
+        firstFrame);
+  }
+
+  /**
+   * Constructor for GifDrawable that displays an animated image in another format than GIF, for
+   * example an animated WebP.
+   *
+   * @param context A context.
+   * @param frameTransformation An {@link com.bumptech.glide.load.Transformation} that can be
+   *     applied to each frame.
+   * @param targetFrameWidth The desired width of the frames displayed by this drawable (the width
+   *     of the view or {@link com.bumptech.glide.request.target.Target} this drawable is being
+   *     loaded into).
+   * @param targetFrameHeight The desired height of the frames displayed by this drawable (the
+   *     height of the view or {@link com.bumptech.glide.request.target.Target} this drawable is
+   *     being loaded into).
+   * @param frameDecoder The decoder to use to decode the frames of the animated image.
+   * @param firstFrame The decoded and transformed first frame of the animated image.
+   * @see #setFrameTransformation(com.bumptech.glide.load.Transformation, android.graphics.Bitmap)
+   */
+  public GifDrawable(
+      Context context,
+      FrameSequenceDecoder frameDecoder,
+      Transformation<Bitmap> frameTransformation,
+      int targetFrameWidth,
+      int targetFrameHeight,
+      Bitmap firstFrame) {
+    this(
+        context,
+        frameDecoder,
+        frameTransformation,
+        targetFrameWidth,
+        targetFrameHeight,
+        firstFrame,
+        0 /*frameLookahead*/,
+        null /*sharedFrameLoaders*/,
+        null /*sharedKey*/);
+  }
+
+  /**
+   * Constructor for GifDrawable that decodes up to {@code frameLookahead} frames ahead of the one
+   * being displayed and, if {@code sharedFrameLoaders} is non-null, shares its frames with other
+   * drawables for the same GIF once it's initialized.
+   *
+   * @see GifOptions#FRAME_LOOKAHEAD
+   * @see GifOptions#SHARE_FRAME_LOADERS
+   */
+  GifDrawable(
+      Context context,
+      FrameSequenceDecoder gifDecoder,
+      Transformation<Bitmap> frameTransformation,
+      int targetFrameWidth,
+      int targetFrameHeight,
+      Bitmap firstFrame,
+      int frameLookahead,
+      @Nullable SharedGifFrameLoaders sharedFrameLoaders,
+      @Nullable SharedGifFrameLoaders.Key sharedKey) {
     this(
         new GifState(
             new GifFrameLoader(
@@ -134,11 +205,15 @@ public class GifDrawable extends Drawable
                 targetFrameWidth,
                 targetFrameHeight,
                 frameTransformation,
-                firstFrame)));
+                firstFrame,
+                frameLookahead),
+            sharedFrameLoaders,
+            sharedKey));
   }
 
   GifDrawable(GifState state) {
     this.state = Preconditions.checkNotNull(state);
+    reportedDroppedFrameCount = state.frameLoader.getDroppedFrameCount();
   }
 
   @VisibleForTesting
@@ -186,6 +261,7 @@ public class GifDrawable extends Drawable
 
   private void resetLoopCount() {
     loopCount = 0;
+    lastFrameIndex = -1;
   }
 
   /**
@@ -339,10 +415,16 @@ public class GifDrawable extends Drawable
     }
 
     invalidateSelf();
+    notifyDroppedFrames();
 
-    if (getFrameIndex() == getFrameCount() - 1) {
+    int frameIndex = getFrameIndex();
+    int lastIndex = getFrameCount() - 1;
+    // Frames may be dropped when decoding ahead, including the last frame, in which case the loop
+    // ends when the frame index wraps around.
+    if (frameIndex == lastIndex || (frameIndex < lastFrameIndex && lastFrameIndex != lastIndex)) {
       loopCount++;
     }
+    lastFrameIndex = frameIndex;
 
     if (maxLoopCount != LOOP_FOREVER && loopCount >= maxLoopCount) {
       notifyAnimationEndToListeners();
@@ -350,6 +432,37 @@ public class GifDrawable extends Drawable
     }
   }
 
+  private void notifyDroppedFrames() {
+    int droppedFrameCount = getDroppedFrameCount();
+    if (droppedFrameCount != reportedDroppedFrameCount) {
+      int dropped = droppedFrameCount - reportedDroppedFrameCount;
+      reportedDroppedFrameCount = droppedFrameCount;
+      if (frameDropListener != null) {
+        frameDropListener.onFramesDropped(this, dropped);
+      }
+    }
+  }
+
+  /**
+   * Returns the total number of frames that were skipped rather than displayed because they were
+   * decoded too late or released under memory pressure.
+   *
+   * <p>Frames are only dropped when decoding ahead, see {@link GifOptions#FRAME_LOOKAHEAD}.
+   */
+  public int getDroppedFrameCount() {
+    return state.frameLoader.getDroppedFrameCount();
+  }
+
+  /**
+   * Sets a listener that's notified on the main thread when frames are dropped, or {@code null} to
+   * remove the current listener.
+   *
+   * @see #getDroppedFrameCount()
+   */
+  public void setFrameDropListener(@Nullable FrameDropListener frameDropListener) {
+    this.frameDropListener = frameDropListener;
+  }
+
   private void notifyAnimationEndToListeners() {
     if (animationCallbacks != null) {
       for (int i = 0, size = animationCallbacks.size(); i < size; i++) {
@@ -366,7 +479,17 @@ public class GifDrawable extends Drawable
   /** Clears any resources for loading frames that are currently held on to by this object. */
   public void recycle() {
     isRecycled = true;
-    state.frameLoader.clear();
+    state.releaseFrameLoader();
+  }
+
+  /**
+   * Replaces this drawable's frame loader with one that's already showing the same GIF, if
+   * there is one and sharing was requested, see {@link GifOptions#SHARE_FRAME_LOADERS}.
+   *
+   * <p>Must be called before this drawable is started.
+   */
+  void shareFrameLoader() {
+    state.shareFrameLoader();
   }
 
   // For testing.
@@ -428,11 +551,53 @@ public class GifDrawable extends Drawable
     }
   }
 
+  /** Notified when frames of a {@link GifDrawable} are skipped rather than displayed. */
+  public interface FrameDropListener {
+    /**
+     * Called before the frame following the dropped frames is displayed.
+     *
+     * @param droppedFrames The number of frames dropped since the last call.
+     */
+    void onFramesDropped(@NonNull GifDrawable drawable, int droppedFrames);
+  }
+
   static final class GifState extends ConstantState {
-    @VisibleForTesting final GifFrameLoader frameLoader;
+    @VisibleForTesting GifFrameLoader frameLoader;
+    @Nullable private final SharedGifFrameLoaders sharedFrameLoaders;
+    @Nullable private final SharedGifFrameLoaders.Key sharedKey;
 
     GifState(GifFrameLoader frameLoader) {
+      this(frameLoader, null /*sharedFrameLoaders*/, null /*sharedKey*/);
+    }
+
+    GifState(
+        GifFrameLoader frameLoader,
+        @Nullable SharedGifFrameLoaders sharedFrameLoaders,
+        @Nullable SharedGifFrameLoaders.Key sharedKey) {
       this.frameLoader = frameLoader;
+      this.sharedFrameLoaders = sharedFrameLoaders;
+      this.sharedKey = sharedKey;
+    }
+
+    void shareFrameLoader() {
+      if (sharedFrameLoaders == null || sharedKey == null) {
+        return;
+      }
+      // Frames are only shared with drawables that transform them in the same way, which isn't
+      // known until any transformation for the request has been applied.
+      GifFrameLoader candidate = frameLoader;
+      frameLoader =
+          sharedFrameLoaders.acquire(
+              sharedKey.withTransformation(candidate.getFrameTransformation()), candidate);
+      if (frameLoader != candidate) {
+        candidate.clear();
+      }
+    }
+
+    void releaseFrameLoader() {
+      if (sharedFrameLoaders == null || sharedFrameLoaders.release(frameLoader)) {
+        frameLoader.clear();
+      }
     }
 
     @NonNull
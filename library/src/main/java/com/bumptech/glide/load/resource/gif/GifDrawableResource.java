@@ -1,5 +1,6 @@
 package com.bumptech.glide.load.resource.gif;
 
+import android.graphics.Bitmap;
 import androidx.annotation.NonNull;
 import com.bumptech.glide.load.engine.Initializable;
 import com.bumptech.glide.load.resource.drawable.DrawableResource;
@@ -31,6 +32,11 @@ public class GifDrawableResource extends DrawableResource<GifDrawable> implement
 
   @Override
   public void initialize() {
-    drawable.getFirstFrame().prepareToDraw();
+    drawable.shareFrameLoader();
+    // A shared frame loader that's already running has no first frame.
+    Bitmap firstFrame = drawable.getFirstFrame();
+    if (firstFrame != null) {
+      firstFrame.prepareToDraw();
+    }
   }
 }
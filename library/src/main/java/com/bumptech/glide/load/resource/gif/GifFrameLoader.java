@@ -15,7 +15,7 @@ import androidx.annotation.VisibleForTesting;
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.RequestBuilder;
 import com.bumptech.glide.RequestManager;
-import com.bumptech.glide.gifdecoder.GifDecoder;
+import com.bumptech.glide.gifdecoder.FrameSequenceDecoder;
 import com.bumptech.glide.load.Key;
 import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.engine.DiskCacheStrategy;
@@ -32,7 +32,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 class GifFrameLoader {
-  private final GifDecoder gifDecoder;
+  private final FrameSequenceDecoder gifDecoder;
   private final Handler handler;
   private final List<FrameCallback> callbacks = new ArrayList<>();
 
@@ -41,6 +41,7 @@ class GifFrameLoader {
   final RequestManager requestManager;
 
   private final BitmapPool bitmapPool;
+  @Nullable private final GifFrameRing frameRing;
 
   private boolean isRunning;
   private boolean isLoadPending;
@@ -63,11 +64,22 @@ class GifFrameLoader {
 
   GifFrameLoader(
       Glide glide,
-      GifDecoder gifDecoder,
+      FrameSequenceDecoder gifDecoder,
       int width,
       int height,
       Transformation<Bitmap> transformation,
       Bitmap firstFrame) {
+    this(glide, gifDecoder, width, height, transformation, firstFrame, 0 /*frameLookahead*/);
+  }
+
+  GifFrameLoader(
+      Glide glide,
+      FrameSequenceDecoder gifDecoder,
+      int width,
+      int height,
+      Transformation<Bitmap> transformation,
+      Bitmap firstFrame,
+      int frameLookahead) {
     this(
         glide.getBitmapPool(),
         Glide.with(glide.getContext()),
@@ -75,18 +87,48 @@ class GifFrameLoader {
         null /*handler*/,
         getRequestBuilder(Glide.with(glide.getContext()), width, height),
         transformation,
-        firstFrame);
+        firstFrame,
+        frameLookahead > 0
+            ? new GifFrameRing(
+                glide.getContext(),
+                gifDecoder,
+                glide.getBitmapPool(),
+                glide.getAnimationExecutor(),
+                frameLookahead,
+                width,
+                height)
+            : null);
   }
 
-  @SuppressWarnings("PMD.ConstructorCallsOverridableMethod")
   GifFrameLoader(
       BitmapPool bitmapPool,
       RequestManager requestManager,
-      GifDecoder gifDecoder,
+      FrameSequenceDecoder gifDecoder,
       Handler handler,
       RequestBuilder<Bitmap> requestBuilder,
       Transformation<Bitmap> transformation,
       Bitmap firstFrame) {
+    this(
+        bitmapPool,
+        requestManager,
+        gifDecoder,
+        handler,
+        requestBuilder,
+        transformation,
+        firstFrame,
+        null /*frameRing*/);
+  }
+
+  @SuppressWarnings("PMD.ConstructorCallsOverridableMethod")
+  GifFrameLoader(
+      BitmapPool bitmapPool,
+      RequestManager requestManager,
+      FrameSequenceDecoder gifDecoder,
+      Handler handler,
+      RequestBuilder<Bitmap> requestBuilder,
+      Transformation<Bitmap> transformation,
+      Bitmap firstFrame,
+      @Nullable GifFrameRing frameRing) {
     this.requestManager = requestManager;
     if (handler == null) {
       handler = new Handler(Looper.getMainLooper(), new FrameLoaderCallback());
@@ -96,6 +138,7 @@ class GifFrameLoader {
     this.requestBuilder = requestBuilder;
 
     this.gifDecoder = gifDecoder;
+    this.frameRing = frameRing;
 
     setFrameTransformation(transformation, firstFrame);
   }
@@ -104,6 +147,9 @@ class GifFrameLoader {
     this.transformation = Preconditions.checkNotNull(transformation);
     this.firstFrame = Preconditions.checkNotNull(firstFrame);
     requestBuilder = requestBuilder.apply(new RequestOptions().transform(transformation));
+    if (frameRing != null) {
+      frameRing.setTransformation(transformation);
+    }
 
     firstFrameSize = Util.getBitmapByteSize(firstFrame);
     width = firstFrame.getWidth();
@@ -167,18 +213,29 @@ class GifFrameLoader {
     return gifDecoder.getTotalIterationCount();
   }
 
+  /** Returns the number of frames that were decoded ahead but skipped rather than displayed. */
+  int getDroppedFrameCount() {
+    return frameRing != null ? frameRing.getDroppedFrameCount() : 0;
+  }
+
   private void start() {
     if (isRunning) {
       return;
     }
     isRunning = true;
     isCleared = false;
+    if (frameRing != null) {
+      frameRing.start();
+    }
 
     loadNextFrame();
   }
 
   private void stop() {
     isRunning = false;
+    if (frameRing != null) {
+      frameRing.stop();
+    }
   }
 
   void clear() {
@@ -186,18 +243,23 @@ class GifFrameLoader {
     recycleFirstFrame();
     stop();
     if (current != null) {
-      requestManager.clear(current);
+      clearFrame(current);
       current = null;
     }
     if (next != null) {
-      requestManager.clear(next);
+      clearFrame(next);
       next = null;
     }
     if (pendingTarget != null) {
-      requestManager.clear(pendingTarget);
+      clearFrame(pendingTarget);
       pendingTarget = null;
     }
-    gifDecoder.clear();
+    if (frameRing != null) {
+      // The ring clears the decoder once it's no longer decoding a frame.
+      frameRing.clear();
+    } else {
+      gifDecoder.clear();
+    }
     isCleared = true;
   }
 
@@ -209,11 +271,17 @@ class GifFrameLoader {
     if (!isRunning || isLoadPending) {
       return;
     }
+    boolean restarted = false;
     if (startFromFirstFrame) {
       Preconditions.checkArgument(
           pendingTarget == null, "Pending target must be null when starting from the first frame");
-      gifDecoder.resetFrameIndex();
+      if (frameRing != null) {
+        frameRing.reset();
+      } else {
+        gifDecoder.resetFrameIndex();
+      }
       startFromFirstFrame = false;
+      restarted = true;
     }
     if (pendingTarget != null) {
       DelayTarget temp = pendingTarget;
@@ -222,6 +290,13 @@ class GifFrameLoader {
       return;
     }
     isLoadPending = true;
+    if (frameRing != null) {
+      // The decoder is ahead of the frame that's displayed, so get the delay from the frame itself.
+      // After a restart, the first frame is shown immediately, as it is below.
+      int delay = restarted ? 0 : gifDecoder.getDelay(current != null ? current.index : 0);
+      frameRing.take(handler, SystemClock.uptimeMillis() + Math.max(0, delay));
+      return;
+    }
     // Get the delay before incrementing the pointer because the delay indicates the amount of time
     // we want to spend on the current frame.
     int delay = gifDecoder.getNextDelay();
@@ -243,11 +318,20 @@ class GifFrameLoader {
     Preconditions.checkArgument(!isRunning, "Can't restart a running animation");
     startFromFirstFrame = true;
     if (pendingTarget != null) {
-      requestManager.clear(pendingTarget);
+      clearFrame(pendingTarget);
       pendingTarget = null;
     }
   }
 
+  @Synthetic
+  void clearFrame(DelayTarget target) {
+    if (frameRing != null) {
+      frameRing.recycle(target);
+    } else {
+      requestManager.clear(target);
+    }
+  }
+
   @VisibleForTesting
   void setOnEveryFrameReadyListener(@Nullable OnEveryFrameListener onEveryFrameListener) {
     this.onEveryFrameListener = onEveryFrameListener;
@@ -309,7 +393,7 @@ class GifFrameLoader {
         return true;
       } else if (msg.what == MSG_CLEAR) {
         GifFrameLoader.DelayTarget target = (DelayTarget) msg.obj;
-        requestManager.clear(target);
+        clearFrame(target);
       }
       return false;
     }
@@ -335,6 +419,14 @@ class GifFrameLoader {
     @Override
     public void onResourceReady(
         @NonNull Bitmap resource, @Nullable Transition<? super Bitmap> transition) {
+      onFrameDecoded(resource);
+    }
+
+    /**
+     * Delivers a frame decoded outside of a request, or {@code null} if it failed to decode, to be
+     * displayed at this target's time.
+     */
+    void onFrameDecoded(@Nullable Bitmap resource) {
       this.resource = resource;
       Message msg = handler.obtainMessage(FrameLoaderCallback.MSG_DELAY, this);
       handler.sendMessageAtTime(msg, targetTime);
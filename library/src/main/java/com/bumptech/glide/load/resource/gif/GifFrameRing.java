@@ -0,0 +1,331 @@
+package com.bumptech.glide.load.resource.gif;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.gifdecoder.FrameSequenceDecoder;
+import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.resource.bitmap.BitmapResource;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.util.Preconditions;
+import com.bumptech.glide.util.Synthetic;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Decodes the frames of a GIF ahead of time into a bounded queue of pooled {@link Bitmap}s for a
+ * {@link GifFrameLoader}.
+ *
+ * <p>Frames are decoded and transformed one at a time on the given executor, directly from the
+ * {@link FrameSequenceDecoder} rather than with a request per frame. Queued frames whose time on
+ * screen has already passed when they're displayed are dropped so that a slow decode doesn't delay
+ * the rest of the animation. Under memory pressure, queued frames are dropped and the number of
+ * frames decoded ahead is halved until the ring is next started.
+ *
+ * <p>Everything other than decoding is done on the main thread.
+ */
+final class GifFrameRing implements ComponentCallbacks2, Handler.Callback {
+  private static final int MSG_DECODED = 1;
+
+  private final Context context;
+  @Synthetic final FrameSequenceDecoder gifDecoder;
+  @Synthetic final BitmapPool bitmapPool;
+  private final Executor executor;
+  @Synthetic final Handler handler;
+  @Synthetic final int width;
+  @Synthetic final int height;
+  private final Queue<Frame> frames = new ArrayDeque<>();
+
+  @Synthetic volatile Transformation<Bitmap> transformation;
+  private final int maxCapacity;
+  private int capacity;
+  private int droppedFrameCount;
+  private boolean isRunning;
+  private boolean isDecoding;
+  private boolean isCleared;
+  private boolean resetPending;
+  private int generation;
+  @Nullable private Handler deliveryHandler;
+  private boolean isWaiting;
+  private long targetTime;
+
+  GifFrameRing(
+      Context context,
+      FrameSequenceDecoder gifDecoder,
+      BitmapPool bitmapPool,
+      Executor executor,
+      int capacity,
+      int width,
+      int height) {
+    this(context, gifDecoder, bitmapPool, executor, null /*handler*/, capacity, width, height);
+  }
+
+  @VisibleForTesting
+  GifFrameRing(
+      Context context,
+      FrameSequenceDecoder gifDecoder,
+      BitmapPool bitmapPool,
+      Executor executor,
+      @Nullable Handler handler,
+      int capacity,
+      int width,
+      int height) {
+    Preconditions.checkArgument(capacity > 0, "Capacity must be positive");
+    this.context = context.getApplicationContext();
+    this.gifDecoder = gifDecoder;
+    this.bitmapPool = bitmapPool;
+    this.executor = executor;
+    this.handler = handler == null ? new Handler(Looper.getMainLooper(), this) : handler;
+    this.maxCapacity = capacity;
+    this.capacity = capacity;
+    this.width = width;
+    this.height = height;
+  }
+
+  void setTransformation(@NonNull Transformation<Bitmap> transformation) {
+    this.transformation = Preconditions.checkNotNull(transformation);
+  }
+
+  int getDroppedFrameCount() {
+    return droppedFrameCount;
+  }
+
+  @VisibleForTesting
+  int getCapacity() {
+    return capacity;
+  }
+
+  @VisibleForTesting
+  int getQueuedFrameCount() {
+    return frames.size();
+  }
+
+  void start() {
+    if (isRunning || isCleared) {
+      return;
+    }
+    isRunning = true;
+    // Memory pressure may have passed while the animation wasn't running.
+    capacity = maxCapacity;
+    context.registerComponentCallbacks(this);
+    decodeNextFrame();
+  }
+
+  void stop() {
+    if (!isRunning) {
+      return;
+    }
+    isRunning = false;
+    context.unregisterComponentCallbacks(this);
+  }
+
+  /**
+   * Discards the queued frames so that the next frame is the first frame of the GIF.
+   *
+   * <p>Frames discarded this way aren't counted as dropped.
+   */
+  void reset() {
+    recycleQueuedFrames();
+    // Discard the frame that's being decoded, if any, and rewind the decoder before the next one.
+    generation++;
+    resetPending = true;
+    isWaiting = false;
+  }
+
+  /**
+   * Delivers the next frame to {@code handler} as a {@link GifFrameLoader.DelayTarget} to be
+   * displayed at {@code targetTime}, or as soon as possible after it's decoded if it's late.
+   */
+  void take(@NonNull Handler handler, long targetTime) {
+    deliveryHandler = handler;
+    this.targetTime = targetTime;
+    isWaiting = true;
+    deliverNextFrame();
+  }
+
+  /** Returns a frame delivered by {@link #take(Handler, long)} to the pool once it's not shown. */
+  void recycle(@NonNull GifFrameLoader.DelayTarget target) {
+    Bitmap bitmap = target.getResource();
+    target.onLoadCleared(null /*placeholder*/);
+    if (bitmap != null) {
+      bitmapPool.put(bitmap);
+    }
+  }
+
+  /**
+   * Releases the queued frames and the {@link FrameSequenceDecoder}, once any frame that's
+   * currently being decoded has finished.
+   */
+  void clear() {
+    stop();
+    isCleared = true;
+    isWaiting = false;
+    recycleQueuedFrames();
+    if (!isDecoding) {
+      gifDecoder.clear();
+    }
+  }
+
+  private void deliverNextFrame() {
+    if (isWaiting && !frames.isEmpty()) {
+      Frame frame = frames.poll();
+      long now = SystemClock.uptimeMillis();
+      // If decoding fell behind, skip frames that would already have finished being displayed.
+      while (!frames.isEmpty() && targetTime + frame.delay <= now) {
+        targetTime += frame.delay;
+        recycle(frame.bitmap);
+        droppedFrameCount++;
+        frame = frames.poll();
+      }
+      isWaiting = false;
+      new GifFrameLoader.DelayTarget(Preconditions.checkNotNull(deliveryHandler), frame.index,
+              targetTime)
+          .onFrameDecoded(frame.bitmap);
+    }
+    decodeNextFrame();
+  }
+
+  private void decodeNextFrame() {
+    if (!isRunning || isDecoding || isCleared || frames.size() >= capacity) {
+      return;
+    }
+    isDecoding = true;
+    boolean reset = resetPending;
+    resetPending = false;
+    executor.execute(new DecodeTask(generation, reset));
+  }
+
+  @Override
+  public boolean handleMessage(Message msg) {
+    if (msg.what == MSG_DECODED) {
+      onFrameDecoded((Frame) msg.obj);
+      return true;
+    }
+    return false;
+  }
+
+  @VisibleForTesting
+  void onFrameDecoded(Frame frame) {
+    isDecoding = false;
+    if (isCleared) {
+      recycle(frame.bitmap);
+      gifDecoder.clear();
+      return;
+    }
+    if (frame.generation != generation) {
+      recycle(frame.bitmap);
+    } else {
+      frames.add(frame);
+    }
+    deliverNextFrame();
+  }
+
+  private void recycleQueuedFrames() {
+    Frame frame;
+    while ((frame = frames.poll()) != null) {
+      recycle(frame.bitmap);
+    }
+  }
+
+  private void dropQueuedFrames() {
+    droppedFrameCount += frames.size();
+    recycleQueuedFrames();
+  }
+
+  private void recycle(@Nullable Bitmap bitmap) {
+    if (bitmap != null) {
+      bitmapPool.put(bitmap);
+    }
+  }
+
+  @Override
+  public void onTrimMemory(int level) {
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+      dropQueuedFrames();
+      capacity = Math.max(1, capacity / 2);
+    }
+  }
+
+  @Override
+  public void onLowMemory() {
+    dropQueuedFrames();
+    capacity = 1;
+  }
+
+  @Override
+  public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    // Do nothing.
+  }
+
+  @Nullable
+  @Synthetic
+  Bitmap transform(@NonNull Bitmap frame) {
+    Resource<Bitmap> decoded = BitmapResource.obtain(frame, bitmapPool);
+    int targetWidth = width == Target.SIZE_ORIGINAL ? frame.getWidth() : width;
+    int targetHeight = height == Target.SIZE_ORIGINAL ? frame.getHeight() : height;
+    Resource<Bitmap> transformed =
+        transformation.transform(context, decoded, targetWidth, targetHeight);
+    if (!decoded.equals(transformed)) {
+      decoded.recycle();
+    }
+    return transformed.get();
+  }
+
+  @VisibleForTesting
+  static final class Frame {
+    @Synthetic final int generation;
+    @Synthetic final int index;
+    @Synthetic final int delay;
+    @Synthetic @Nullable final Bitmap bitmap;
+
+    Frame(int generation, int index, int delay, @Nullable Bitmap bitmap) {
+      this.generation = generation;
+      this.index = index;
+      this.delay = delay;
+      this.bitmap = bitmap;
+    }
+  }
+
+  private final class DecodeTask implements Runnable {
+    private final int generation;
+    private final boolean reset;
+
+    DecodeTask(int generation, boolean reset) {
+      this.generation = generation;
+      this.reset = reset;
+    }
+
+    @Override
+    public void run() {
+      int index = -1;
+      Bitmap bitmap = null;
+      try {
+        if (reset) {
+          gifDecoder.resetFrameIndex();
+        }
+        gifDecoder.advance();
+        index = gifDecoder.getCurrentFrameIndex();
+        bitmap = gifDecoder.getNextFrame();
+        if (bitmap != null) {
+          bitmap = transform(bitmap);
+        }
+      } finally {
+        int delay = index >= 0 ? Math.max(0, gifDecoder.getDelay(index)) : 0;
+        handler
+            .obtainMessage(MSG_DECODED, new Frame(generation, index, delay, bitmap))
+            .sendToTarget();
+      }
+    }
+  }
+}
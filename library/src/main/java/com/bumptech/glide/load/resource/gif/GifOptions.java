@@ -25,6 +25,32 @@ public final class GifOptions {
   public static final Option<Boolean> DISABLE_ANIMATION =
       Option.memory("com.bumptech.glide.load.resource.gif.GifOptions.DisableAnimation", false);
 
+  /**
+   * The number of frames to decode ahead of the frame being displayed, or {@code 0} to decode each
+   * frame with a separate request only once the previous frame is displayed. Defaults to {@code 0}.
+   *
+   * <p>Decoding ahead smooths playback of large GIFs whose frames sometimes take longer to decode
+   * than they're displayed for, at the cost of holding up to this many extra frames in memory.
+   * Frames are dropped to catch up if decoding still falls behind, and decoded frames are released
+   * under memory pressure, see {@link
+   * GifDrawable#setFrameDropListener(GifDrawable.FrameDropListener)}.
+   */
+  public static final Option<Integer> FRAME_LOOKAHEAD =
+      Option.memory("com.bumptech.glide.load.resource.gif.GifOptions.FrameLookahead", 0);
+
+  /**
+   * If set to {@code true}, {@link GifDrawable}s decoded from identical GIF data at the same size
+   * and with the same frame transformation share a single set of decoded frames and a single
+   * animation timeline. Defaults to {@code false}.
+   *
+   * <p>Sharing avoids decoding and holding the same frames once per drawable when an animation is
+   * displayed in many places at once, for example stickers repeated in a list. Drawables that share
+   * frames always display the same frame, so they can't be started from the first frame
+   * independently of each other.
+   */
+  public static final Option<Boolean> SHARE_FRAME_LOADERS =
+      Option.memory("com.bumptech.glide.load.resource.gif.GifOptions.ShareFrameLoaders", false);
+
   private GifOptions() {
     // Utility class.
   }
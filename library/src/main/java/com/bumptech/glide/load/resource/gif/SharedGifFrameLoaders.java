@@ -0,0 +1,195 @@
+package com.bumptech.glide.load.resource.gif;
+
+import android.graphics.Bitmap;
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.util.Preconditions;
+import com.bumptech.glide.util.Util;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Shares {@link GifFrameLoader}s between {@link GifDrawable}s decoded from identical GIF data at
+ * the same size and with the same frame {@link Transformation}, so that drawables showing the same
+ * animation in several places decode each frame once and display the same frame at the same time.
+ *
+ * <p>Loaders are reference counted. Each decoded {@link GifDrawableResource} holds one reference
+ * from the time it's initialized until it's recycled, and a loader is only cleared once its last
+ * reference is released.
+ *
+ * @see GifOptions#SHARE_FRAME_LOADERS
+ */
+final class SharedGifFrameLoaders {
+  @GuardedBy("this")
+  private final Map<Key, Entry> entries = new HashMap<>();
+
+  @GuardedBy("this")
+  private final Map<GifFrameLoader, Entry> entriesByLoader = new IdentityHashMap<>();
+
+  /**
+   * Returns the loader that's already shared for {@code key}, or shares and returns {@code
+   * candidate} if there isn't one.
+   *
+   * <p>If a different loader is returned, the caller is responsible for clearing {@code
+   * candidate}.
+   */
+  @NonNull
+  synchronized GifFrameLoader acquire(@NonNull Key key, @NonNull GifFrameLoader candidate) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      entry = new Entry(key, candidate);
+      entries.put(key, entry);
+      entriesByLoader.put(candidate, entry);
+    }
+    entry.references++;
+    return entry.loader;
+  }
+
+  /**
+   * Releases a reference to {@code loader} and returns {@code true} if no other drawables use it
+   * and it should be cleared.
+   */
+  synchronized boolean release(@NonNull GifFrameLoader loader) {
+    Entry entry = entriesByLoader.get(loader);
+    if (entry == null) {
+      return true;
+    }
+    if (--entry.references > 0) {
+      return false;
+    }
+    entries.remove(entry.key);
+    entriesByLoader.remove(loader);
+    return true;
+  }
+
+  @VisibleForTesting
+  synchronized int getReferenceCount(@NonNull GifFrameLoader loader) {
+    Entry entry = entriesByLoader.get(loader);
+    return entry != null ? entry.references : 0;
+  }
+
+  private static final class Entry {
+    private final Key key;
+    private final GifFrameLoader loader;
+    private int references;
+
+    Entry(Key key, GifFrameLoader loader) {
+      this.key = key;
+      this.loader = loader;
+    }
+  }
+
+  /** Identifies the frames a {@link GifFrameLoader} produces. */
+  static final class Key {
+    private final ByteBuffer data;
+    private final int dataHashCode;
+    private final int sampleSize;
+    private final Bitmap.Config config;
+    private final int width;
+    private final int height;
+    private final int frameLookahead;
+    private final Transformation<Bitmap> transformation;
+
+    Key(
+        @NonNull ByteBuffer data,
+        int sampleSize,
+        @NonNull Bitmap.Config config,
+        int width,
+        int height,
+        int frameLookahead,
+        @NonNull Transformation<Bitmap> transformation) {
+      this(
+          rewind(data),
+          // Hashing the data is linear in its size, so only do it once per GIF.
+          rewind(data).hashCode(),
+          sampleSize,
+          config,
+          width,
+          height,
+          frameLookahead,
+          transformation);
+    }
+
+    private Key(
+        ByteBuffer data,
+        int dataHashCode,
+        int sampleSize,
+        Bitmap.Config config,
+        int width,
+        int height,
+        int frameLookahead,
+        Transformation<Bitmap> transformation) {
+      this.data = data;
+      this.dataHashCode = dataHashCode;
+      this.sampleSize = sampleSize;
+      this.config = Preconditions.checkNotNull(config);
+      this.width = width;
+      this.height = height;
+      this.frameLookahead = frameLookahead;
+      this.transformation = Preconditions.checkNotNull(transformation);
+    }
+
+    /** Returns a key for the same data with frames transformed by {@code transformation}. */
+    @NonNull
+    Key withTransformation(@NonNull Transformation<Bitmap> transformation) {
+      return new Key(
+          data, dataHashCode, sampleSize, config, width, height, frameLookahead, transformation);
+    }
+
+    private static ByteBuffer rewind(ByteBuffer data) {
+      ByteBuffer result = data.asReadOnlyBuffer();
+      result.position(0);
+      return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o instanceof Key) {
+        Key other = (Key) o;
+        return dataHashCode == other.dataHashCode
+            && sampleSize == other.sampleSize
+            && config == other.config
+            && width == other.width
+            && height == other.height
+            && frameLookahead == other.frameLookahead
+            && transformation.equals(other.transformation)
+            && data.equals(other.data);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      int hashCode = Util.hashCode(dataHashCode, transformation.hashCode());
+      hashCode = Util.hashCode(sampleSize, hashCode);
+      hashCode = Util.hashCode(config, hashCode);
+      hashCode = Util.hashCode(width, hashCode);
+      hashCode = Util.hashCode(height, hashCode);
+      return Util.hashCode(frameLookahead, hashCode);
+    }
+
+    @Override
+    public String toString() {
+      return "Key{"
+          + "dataHashCode="
+          + dataHashCode
+          + ", sampleSize="
+          + sampleSize
+          + ", config="
+          + config
+          + ", width="
+          + width
+          + ", height="
+          + height
+          + ", frameLookahead="
+          + frameLookahead
+          + ", transformation="
+          + transformation
+          + '}';
+    }
+  }
+}
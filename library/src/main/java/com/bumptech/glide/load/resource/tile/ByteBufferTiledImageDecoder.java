@@ -0,0 +1,107 @@
+package com.bumptech.glide.load.resource.tile;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapRegionDecoder;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.ImageHeaderParser;
+import com.bumptech.glide.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide.load.ImageHeaderParserUtils;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.cache.MemoryCache;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.load.resource.bitmap.Downsampler;
+import com.bumptech.glide.util.ByteBufferUtil;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Decodes {@link TiledImage}s from {@link ByteBuffer}s containing JPEGs, PNGs or WebPs.
+ *
+ * <p>Only the image's header is parsed here, tiles are decoded on demand by the returned {@link
+ * TiledImage}. The {@link DownsampleStrategy} and {@link DecodeFormat} in the request's {@link
+ * Options} are used to pick the {@link TiledImage}'s sample size and {@link Bitmap.Config}.
+ */
+public class ByteBufferTiledImageDecoder implements ResourceDecoder<ByteBuffer, TiledImage> {
+  private final List<ImageHeaderParser> parsers;
+  private final BitmapPool bitmapPool;
+  private final MemoryCache memoryCache;
+  private final ArrayPool arrayPool;
+
+  public ByteBufferTiledImageDecoder(
+      List<ImageHeaderParser> parsers,
+      BitmapPool bitmapPool,
+      MemoryCache memoryCache,
+      ArrayPool arrayPool) {
+    this.parsers = parsers;
+    this.bitmapPool = bitmapPool;
+    this.memoryCache = memoryCache;
+    this.arrayPool = arrayPool;
+  }
+
+  @Override
+  public boolean handles(@NonNull ByteBuffer source, @NonNull Options options) throws IOException {
+    return isSupported(ImageHeaderParserUtils.getType(parsers, source));
+  }
+
+  @Nullable
+  @Override
+  public Resource<TiledImage> decode(
+      @NonNull ByteBuffer source, int width, int height, @NonNull Options options)
+      throws IOException {
+    ImageType type = ImageHeaderParserUtils.getType(parsers, source);
+    int orientation = ImageHeaderParserUtils.getOrientation(parsers, source, arrayPool);
+
+    BitmapRegionDecoder regionDecoder;
+    int size = source.remaining();
+    if (source.hasArray()) {
+      regionDecoder =
+          BitmapRegionDecoder.newInstance(
+              source.array(), source.arrayOffset() + source.position(), size, false);
+    } else {
+      byte[] bytes = ByteBufferUtil.toBytes(source);
+      regionDecoder = BitmapRegionDecoder.newInstance(bytes, 0, bytes.length, false);
+    }
+    if (regionDecoder == null) {
+      return null;
+    }
+
+    DecodeFormat decodeFormat = options.get(Downsampler.DECODE_FORMAT);
+    Bitmap.Config config =
+        decodeFormat == DecodeFormat.PREFER_RGB_565 && !type.hasAlpha()
+            ? Bitmap.Config.RGB_565
+            : Bitmap.Config.ARGB_8888;
+
+    TiledImage image =
+        new TiledImage(
+            regionDecoder,
+            bitmapPool,
+            memoryCache,
+            options.get(DownsampleStrategy.OPTION),
+            config,
+            orientation,
+            width,
+            height,
+            size);
+    return new TiledImageResource(image);
+  }
+
+  static boolean isSupported(ImageType type) {
+    switch (type) {
+      case JPEG:
+      case PNG:
+      case PNG_A:
+      case WEBP:
+      case WEBP_A:
+        return true;
+      default:
+        return false;
+    }
+  }
+}
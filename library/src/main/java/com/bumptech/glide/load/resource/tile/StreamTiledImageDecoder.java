@@ -0,0 +1,69 @@
+package com.bumptech.glide.load.resource.tile;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.ImageHeaderParser;
+import com.bumptech.glide.load.ImageHeaderParserUtils;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Decodes {@link TiledImage}s from {@link InputStream}s by reading the stream into a {@link
+ * ByteBuffer} and passing the buffer to a wrapped decoder.
+ *
+ * <p>{@link android.graphics.BitmapRegionDecoder} keeps a copy of the encoded image anyway, so
+ * reading the stream up front costs little beyond the copy itself.
+ */
+public class StreamTiledImageDecoder implements ResourceDecoder<InputStream, TiledImage> {
+  private static final int BUFFER_SIZE = 16 * 1024;
+
+  private final List<ImageHeaderParser> parsers;
+  private final ResourceDecoder<ByteBuffer, TiledImage> byteBufferDecoder;
+  private final ArrayPool byteArrayPool;
+
+  public StreamTiledImageDecoder(
+      List<ImageHeaderParser> parsers,
+      ResourceDecoder<ByteBuffer, TiledImage> byteBufferDecoder,
+      ArrayPool byteArrayPool) {
+    this.parsers = parsers;
+    this.byteBufferDecoder = byteBufferDecoder;
+    this.byteArrayPool = byteArrayPool;
+  }
+
+  @Override
+  public boolean handles(@NonNull InputStream source, @NonNull Options options) throws IOException {
+    return ByteBufferTiledImageDecoder.isSupported(
+        ImageHeaderParserUtils.getType(parsers, source, byteArrayPool));
+  }
+
+  @Nullable
+  @Override
+  public Resource<TiledImage> decode(
+      @NonNull InputStream source, int width, int height, @NonNull Options options)
+      throws IOException {
+    return byteBufferDecoder.decode(ByteBuffer.wrap(readBytes(source)), width, height, options);
+  }
+
+  // ByteBufferUtil.fromStream returns a direct buffer, which would be copied again to create the
+  // BitmapRegionDecoder.
+  private byte[] readBytes(InputStream is) throws IOException {
+    ByteArrayOutputStream outStream = new ByteArrayOutputStream(BUFFER_SIZE);
+    byte[] buffer = byteArrayPool.get(BUFFER_SIZE, byte[].class);
+    try {
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        outStream.write(buffer, 0, read);
+      }
+    } finally {
+      byteArrayPool.put(buffer);
+    }
+    return outStream.toByteArray();
+  }
+}
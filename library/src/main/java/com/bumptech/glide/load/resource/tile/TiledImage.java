@@ -0,0 +1,409 @@
+package com.bumptech.glide.load.resource.tile;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.os.Build;
+import android.util.Log;
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.cache.MemoryCache;
+import com.bumptech.glide.load.resource.bitmap.BitmapResource;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy.SampleSizeRounding;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.util.Preconditions;
+import com.bumptech.glide.util.Synthetic;
+import com.bumptech.glide.util.Util;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An image that's decoded in tiles on demand with a {@link BitmapRegionDecoder}, rather than all at
+ * once, so that very large images can be displayed at their full resolution without allocating a
+ * {@link Bitmap} for the entire image.
+ *
+ * <p>Regions are in the coordinates of the encoded image, before sampling and before any exif
+ * orientation is applied. Tiles are decoded at a power of two sample size, see {@link
+ * #getSampleSize()} and {@link #getSampleSize(int, int)}.
+ *
+ * <p>Tiles that have been released are kept in Glide's memory cache and are returned by later calls
+ * to {@link #acquireTile(Rect, int)} for the same region and sample size. As with other resources
+ * in the memory cache, acquired tiles are removed from the cache until they are released, so their
+ * {@link Bitmap}s won't be recycled or re-used while they're displayed. Every acquired {@link Tile}
+ * must be passed to {@link #releaseTile(Tile)} once it's no longer displayed. No more tiles are
+ * kept than could fit in the memory cache at once, beyond that the least recently released tiles
+ * are removed from the cache.
+ */
+public final class TiledImage {
+  private static final String TAG = "TiledImage";
+  /** The maximum width and height of tiles returned by {@link #getTileRegions(Rect, int)}. */
+  public static final int TILE_SIZE = 512;
+
+  private final BitmapRegionDecoder decoder;
+  private final BitmapPool bitmapPool;
+  private final MemoryCache memoryCache;
+  private final DownsampleStrategy downsampleStrategy;
+  private final Bitmap.Config config;
+  private final int exifOrientation;
+  private final int sampleSize;
+  private final int encodedSize;
+
+  // In the order the tiles were released, so that the first ones are the least recently used.
+  @GuardedBy("this")
+  private final Set<TileKey> cachedTiles = new LinkedHashSet<>();
+  @GuardedBy("this")
+  private boolean isRecycled;
+
+  TiledImage(
+      BitmapRegionDecoder decoder,
+      BitmapPool bitmapPool,
+      MemoryCache memoryCache,
+      DownsampleStrategy downsampleStrategy,
+      Bitmap.Config config,
+      int exifOrientation,
+      int requestedWidth,
+      int requestedHeight,
+      int encodedSize) {
+    this.decoder = decoder;
+    this.bitmapPool = bitmapPool;
+    this.memoryCache = memoryCache;
+    this.downsampleStrategy = downsampleStrategy;
+    this.config = config;
+    this.exifOrientation = exifOrientation;
+    this.encodedSize = encodedSize;
+    this.sampleSize = getSampleSize(requestedWidth, requestedHeight);
+  }
+
+  /** Returns the width of the encoded image in pixels. */
+  public int getWidth() {
+    return decoder.getWidth();
+  }
+
+  /** Returns the height of the encoded image in pixels. */
+  public int getHeight() {
+    return decoder.getHeight();
+  }
+
+  /**
+   * Returns the exif orientation of the image, one of the {@link
+   * android.media.ExifInterface} orientation constants, which is not applied to tiles.
+   */
+  public int getExifOrientation() {
+    return exifOrientation;
+  }
+
+  /**
+   * Returns the sample size at which the entire image best fits the size it was requested at,
+   * according to the request's {@link DownsampleStrategy}.
+   *
+   * <p>For requests with {@link Target#SIZE_ORIGINAL} this is {@code 1}, only the tiles that are
+   * actually requested are decoded at full resolution.
+   */
+  public int getSampleSize() {
+    return sampleSize;
+  }
+
+  /**
+   * Returns the sample size at which the entire image best fits the given size, according to the
+   * request's {@link DownsampleStrategy}, for example to pick the sample size for tiles after the
+   * image is zoomed.
+   */
+  public int getSampleSize(int targetWidth, int targetHeight) {
+    int sourceWidth = getWidth();
+    int sourceHeight = getHeight();
+    if (targetWidth == Target.SIZE_ORIGINAL) {
+      targetWidth = sourceWidth;
+    }
+    if (targetHeight == Target.SIZE_ORIGINAL) {
+      targetHeight = sourceHeight;
+    }
+    if (sourceWidth <= 0 || sourceHeight <= 0 || targetWidth <= 0 || targetHeight <= 0) {
+      return 1;
+    }
+    // Mirrors Downsampler#calculateScaling, without the non power of two scaling.
+    float exactScaleFactor =
+        downsampleStrategy.getScaleFactor(sourceWidth, sourceHeight, targetWidth, targetHeight);
+    if (exactScaleFactor <= 0f || exactScaleFactor >= 1f) {
+      return 1;
+    }
+    SampleSizeRounding rounding =
+        downsampleStrategy.getSampleSizeRounding(
+            sourceWidth, sourceHeight, targetWidth, targetHeight);
+    int outWidth = Math.max(1, Math.round(exactScaleFactor * sourceWidth));
+    int outHeight = Math.max(1, Math.round(exactScaleFactor * sourceHeight));
+    int widthScaleFactor = sourceWidth / outWidth;
+    int heightScaleFactor = sourceHeight / outHeight;
+    int scaleFactor =
+        rounding == SampleSizeRounding.MEMORY
+            ? Math.max(widthScaleFactor, heightScaleFactor)
+            : Math.min(widthScaleFactor, heightScaleFactor);
+    int result = Math.max(1, Integer.highestOneBit(scaleFactor));
+    if (rounding == SampleSizeRounding.MEMORY && result < (1.f / exactScaleFactor)) {
+      result = result << 1;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the regions of the tiles that cover the given region at the given sample size.
+   *
+   * <p>Tiles are aligned to a fixed grid for each sample size so that tiles decoded for one visible
+   * region can be re-used for overlapping regions.
+   */
+  @NonNull
+  public List<Rect> getTileRegions(@NonNull Rect region, int sampleSize) {
+    Preconditions.checkArgument(sampleSize > 0, "Sample size must be positive");
+    int width = getWidth();
+    int height = getHeight();
+    int left = Math.max(0, region.left);
+    int top = Math.max(0, region.top);
+    int right = Math.min(width, region.right);
+    int bottom = Math.min(height, region.bottom);
+    List<Rect> result = new ArrayList<>();
+    if (left >= right || top >= bottom) {
+      return result;
+    }
+    int span = TILE_SIZE * sampleSize;
+    for (int tileTop = (top / span) * span; tileTop < bottom; tileTop += span) {
+      for (int tileLeft = (left / span) * span; tileLeft < right; tileLeft += span) {
+        result.add(
+            new Rect(
+                tileLeft,
+                tileTop,
+                Math.min(width, tileLeft + span),
+                Math.min(height, tileTop + span)));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Acquires the tiles that cover the given region at the given sample size, see {@link
+   * #getTileRegions(Rect, int)} and {@link #acquireTile(Rect, int)}.
+   */
+  @NonNull
+  public List<Tile> acquireTiles(@NonNull Rect region, int sampleSize) {
+    List<Rect> regions = getTileRegions(region, sampleSize);
+    List<Tile> result = new ArrayList<>(regions.size());
+    for (Rect tileRegion : regions) {
+      result.add(acquireTile(tileRegion, sampleSize));
+    }
+    return result;
+  }
+
+  /**
+   * Returns a tile for the given region at the given sample size, either from the memory cache or
+   * by decoding it.
+   *
+   * <p>May be called on any thread, but decoding is slow so it's best to avoid calling this method
+   * on the main thread.
+   *
+   * @throws IllegalStateException If this image has been recycled.
+   */
+  @NonNull
+  public Tile acquireTile(@NonNull Rect region, int sampleSize) {
+    Preconditions.checkArgument(sampleSize > 0, "Sample size must be positive");
+    TileKey key = new TileKey(this, region, sampleSize);
+    synchronized (this) {
+      if (isRecycled) {
+        throw new IllegalStateException("Cannot acquire a tile from a recycled image");
+      }
+      cachedTiles.remove(key);
+    }
+    Resource<?> cached = memoryCache.remove(key);
+    if (cached != null) {
+      return new Tile(key, (Bitmap) cached.get());
+    }
+    return new Tile(key, decodeRegion(region, sampleSize));
+  }
+
+  /**
+   * Returns the given tile to the memory cache so that it can be re-used by later calls to {@link
+   * #acquireTile(Rect, int)}.
+   *
+   * <p>The tile's {@link Bitmap} must not be used after this method is called.
+   */
+  public void releaseTile(@NonNull Tile tile) {
+    Preconditions.checkArgument(tile.key.image == this, "Tile was acquired from another image");
+    List<TileKey> toRemove = null;
+    synchronized (this) {
+      if (!isRecycled) {
+        cachedTiles.add(tile.key);
+        memoryCache.put(tile.key, BitmapResource.obtain(tile.bitmap, bitmapPool));
+        toRemove = trimCachedTiles();
+      }
+    }
+    if (toRemove != null) {
+      removeFromMemoryCache(toRemove);
+    } else {
+      bitmapPool.put(tile.bitmap);
+    }
+  }
+
+  /**
+   * Stops tracking the least recently released tiles once there are more than could fit in the
+   * memory cache, so that panning over a large image doesn't grow {@link #cachedTiles} forever,
+   * and returns the keys of the tiles to remove from the cache in case they're still there.
+   */
+  @GuardedBy("this")
+  private List<TileKey> trimCachedTiles() {
+    int tileSize = Util.getBitmapByteSize(TILE_SIZE, TILE_SIZE, config);
+    long maxTiles = Math.max(1, memoryCache.getMaxSize() / tileSize);
+    List<TileKey> result = new ArrayList<>();
+    Iterator<TileKey> iterator = cachedTiles.iterator();
+    while (cachedTiles.size() > maxTiles) {
+      result.add(iterator.next());
+      iterator.remove();
+    }
+    return result;
+  }
+
+  private void removeFromMemoryCache(List<TileKey> keys) {
+    for (TileKey key : keys) {
+      Resource<?> removed = memoryCache.remove(key);
+      if (removed != null) {
+        removed.recycle();
+      }
+    }
+  }
+
+  private Bitmap decodeRegion(Rect region, int sampleSize) {
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inSampleSize = sampleSize;
+    options.inPreferredConfig = config;
+    options.inMutable = true;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+      // The decoded Bitmap is the same size as inBitmap, so inBitmap must match the tile exactly.
+      int tileWidth = (region.width() + sampleSize - 1) / sampleSize;
+      int tileHeight = (region.height() + sampleSize - 1) / sampleSize;
+      options.inBitmap = bitmapPool.getDirty(tileWidth, tileHeight, config);
+    }
+    try {
+      return decoder.decodeRegion(region, options);
+    } catch (IllegalArgumentException e) {
+      if (options.inBitmap == null) {
+        throw e;
+      }
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to re-use Bitmap for tile, decoding without inBitmap", e);
+      }
+      bitmapPool.put(options.inBitmap);
+      options.inBitmap = null;
+      return decoder.decodeRegion(region, options);
+    }
+  }
+
+  /** Returns the size of the encoded image, which the {@link BitmapRegionDecoder} keeps. */
+  int getSize() {
+    return encodedSize;
+  }
+
+  /**
+   * Removes all of this image's tiles from the memory cache and releases the {@link
+   * BitmapRegionDecoder}.
+   *
+   * <p>Tiles that are currently acquired are returned to the {@link BitmapPool} when they're
+   * released.
+   */
+  void recycle() {
+    List<TileKey> toRemove;
+    synchronized (this) {
+      isRecycled = true;
+      toRemove = new ArrayList<>(cachedTiles);
+      cachedTiles.clear();
+    }
+    removeFromMemoryCache(toRemove);
+    decoder.recycle();
+  }
+
+  @VisibleForTesting
+  synchronized int getCachedTileCount() {
+    return cachedTiles.size();
+  }
+
+  /** A decoded region of a {@link TiledImage}. */
+  public static final class Tile {
+    @Synthetic final TileKey key;
+    @Synthetic final Bitmap bitmap;
+
+    @Synthetic
+    Tile(TileKey key, Bitmap bitmap) {
+      this.key = key;
+      this.bitmap = bitmap;
+    }
+
+    /** Returns the decoded region, scaled down by {@link #getSampleSize()}. */
+    @NonNull
+    public Bitmap getBitmap() {
+      return bitmap;
+    }
+
+    /** Returns the region of the encoded image this tile covers. */
+    @NonNull
+    public Rect getRegion() {
+      return new Rect(key.region);
+    }
+
+    public int getSampleSize() {
+      return key.sampleSize;
+    }
+  }
+
+  /**
+   * Identifies a tile in the memory cache, derived from the image it belongs to, its region and its
+   * sample size.
+   */
+  private static final class TileKey implements Key {
+    @Synthetic final TiledImage image;
+    @Synthetic final Rect region;
+    @Synthetic final int sampleSize;
+
+    @Synthetic
+    TileKey(TiledImage image, Rect region, int sampleSize) {
+      this.image = image;
+      this.region = new Rect(region);
+      this.sampleSize = sampleSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o instanceof TileKey) {
+        TileKey other = (TileKey) o;
+        return image == other.image
+            && sampleSize == other.sampleSize
+            && region.equals(other.region);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = System.identityHashCode(image);
+      result = 31 * result + region.hashCode();
+      result = 31 * result + sampleSize;
+      return result;
+    }
+
+    @Override
+    public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+      // Tiles are only ever cached in memory.
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+      return "TileKey{region=" + region + ", sampleSize=" + sampleSize + '}';
+    }
+  }
+}
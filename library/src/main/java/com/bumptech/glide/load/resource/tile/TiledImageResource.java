@@ -0,0 +1,39 @@
+package com.bumptech.glide.load.resource.tile;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide.load.engine.Resource;
+
+/** A resource wrapping a {@link TiledImage}. */
+public final class TiledImageResource implements Resource<TiledImage> {
+  private final TiledImage image;
+
+  public TiledImageResource(@NonNull TiledImage image) {
+    this.image = image;
+  }
+
+  @NonNull
+  @Override
+  public Class<TiledImage> getResourceClass() {
+    return TiledImage.class;
+  }
+
+  @NonNull
+  @Override
+  public TiledImage get() {
+    return image;
+  }
+
+  /**
+   * Returns the size of the encoded image, decoded tiles are accounted for separately in the memory
+   * cache.
+   */
+  @Override
+  public int getSize() {
+    return image.getSize();
+  }
+
+  @Override
+  public void recycle() {
+    image.recycle();
+  }
+}
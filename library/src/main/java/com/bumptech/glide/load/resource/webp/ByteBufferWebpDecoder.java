@@ -0,0 +1,103 @@
+package com.bumptech.glide.load.resource.webp;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.gifdecoder.FrameSequenceDecoder;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.resource.UnitTransformation;
+import com.bumptech.glide.load.resource.gif.GifBitmapProvider;
+import com.bumptech.glide.load.resource.gif.GifDrawable;
+import com.bumptech.glide.load.resource.gif.GifDrawableResource;
+import com.bumptech.glide.load.resource.gif.GifOptions;
+import com.bumptech.glide.util.LogTime;
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes animated WebPs from {@link ByteBuffer}s into {@link GifDrawable}s.
+ *
+ * <p>Frames are decoded by a {@link FrameSequenceDecoder} for WebPs, so the returned drawables
+ * animate, are cached and can be transformed exactly like GIFs, and the {@link GifOptions} apply to
+ * them too.
+ * Static WebPs aren't handled and are left to {@link
+ * com.bumptech.glide.load.resource.bitmap.Downsampler}.
+ *
+ * <p>Decoding frames with transparency requires the extended WebP support added to {@link
+ * android.graphics.BitmapFactory} in Jelly Bean MR1, so animated WebPs are only handled on Jelly
+ * Bean MR1 and above.
+ */
+public class ByteBufferWebpDecoder implements ResourceDecoder<ByteBuffer, GifDrawable> {
+  private static final String TAG = "BufferWebpDecoder";
+
+  private final Context context;
+  private final GifBitmapProvider provider;
+
+  public ByteBufferWebpDecoder(Context context, BitmapPool bitmapPool, ArrayPool arrayPool) {
+    this.context = context.getApplicationContext();
+    this.provider = new GifBitmapProvider(bitmapPool, arrayPool);
+  }
+
+  @Override
+  public boolean handles(@NonNull ByteBuffer source, @NonNull Options options) {
+    return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1
+        && !options.get(GifOptions.DISABLE_ANIMATION)
+        && WebpHeaderParser.isAnimated(source);
+  }
+
+  @Nullable
+  @Override
+  public GifDrawableResource decode(
+      @NonNull ByteBuffer source, int width, int height, @NonNull Options options) {
+    long startTime = LogTime.getLogTime();
+    try {
+      WebpHeader header = WebpHeaderParser.parse(source);
+      if (header.getFrameCount() <= 0 || header.status != FrameSequenceDecoder.STATUS_OK) {
+        return null;
+      }
+
+      Bitmap.Config config =
+          options.get(GifOptions.DECODE_FORMAT) == DecodeFormat.PREFER_RGB_565
+              ? Bitmap.Config.RGB_565
+              : Bitmap.Config.ARGB_8888;
+
+      int sampleSize = getSampleSize(header, width, height);
+      FrameSequenceDecoder webpDecoder =
+          new StandardWebpDecoder(provider, header, source, sampleSize);
+      webpDecoder.setDefaultBitmapConfig(config);
+      webpDecoder.advance();
+      Bitmap firstFrame = webpDecoder.getNextFrame();
+      if (firstFrame == null) {
+        webpDecoder.clear();
+        return null;
+      }
+
+      GifDrawable drawable =
+          new GifDrawable(
+              context,
+              webpDecoder,
+              UnitTransformation.<Bitmap>get(),
+              width,
+              height,
+              firstFrame);
+      return new GifDrawableResource(drawable);
+    } finally {
+      if (Log.isLoggable(TAG, Log.VERBOSE)) {
+        Log.v(TAG, "Decoded animated WebP in " + LogTime.getElapsedMillis(startTime));
+      }
+    }
+  }
+
+  private static int getSampleSize(WebpHeader header, int targetWidth, int targetHeight) {
+    int exactSampleSize =
+        Math.min(header.canvasHeight / targetHeight, header.canvasWidth / targetWidth);
+    int powerOfTwoSampleSize = exactSampleSize == 0 ? 0 : Integer.highestOneBit(exactSampleSize);
+    return Math.max(1, powerOfTwoSampleSize);
+  }
+}
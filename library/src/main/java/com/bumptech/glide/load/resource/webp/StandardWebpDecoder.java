@@ -0,0 +1,371 @@
+package com.bumptech.glide.load.resource.webp;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.Rect;
+import android.os.Build;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.gifdecoder.FrameSequenceDecoder;
+import com.bumptech.glide.gifdecoder.GifDecoder;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A {@link FrameSequenceDecoder} that composites the frames of animated WebPs, so that they can be
+ * displayed by {@link com.bumptech.glide.load.resource.gif.GifDrawable} like GIFs.
+ *
+ * <p>The container is parsed in Java by {@link WebpHeaderParser}. Each frame's bitstream is
+ * wrapped in a single frame WebP and decoded, downsampled, by {@link BitmapFactory}, then drawn
+ * onto a persistent canvas according to the frame's blend and dispose methods. Moving to a frame
+ * that doesn't follow the previously drawn frame redraws from the closest key frame before it.
+ *
+ * <p>The canvas and, on KitKat and above, the bitmap each frame is decoded into are obtained once
+ * from the {@link GifDecoder.BitmapProvider} and reused for every frame.
+ */
+final class StandardWebpDecoder implements FrameSequenceDecoder {
+  private static final String TAG = "StandardWebpDecoder";
+  private static final int INITIAL_FRAME_POINTER = -1;
+  private static final int BYTES_PER_PIXEL = 4;
+  private static final int UINT24_SIZE = 3;
+
+  private final GifDecoder.BitmapProvider bitmapProvider;
+  private final Paint blendPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+  private final Paint replacePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+  private final Paint clearPaint = new Paint();
+  private final Rect frameRect = new Rect();
+
+  private ByteBuffer rawData;
+  private WebpHeader header;
+  private int framePointer;
+  /** The index of the frame currently drawn on {@link #canvasBitmap}, if any. */
+  private int drawnFramePointer;
+  @GifDecodeStatus private int status;
+  private int sampleSize;
+  private int downsampledWidth;
+  private int downsampledHeight;
+  @NonNull private Bitmap.Config bitmapConfig = Bitmap.Config.ARGB_8888;
+  @Nullable private Bitmap canvasBitmap;
+  @Nullable private Canvas canvas;
+  @Nullable private Bitmap frameBitmap;
+
+  StandardWebpDecoder(
+      @NonNull GifDecoder.BitmapProvider provider,
+      @NonNull WebpHeader header,
+      @NonNull ByteBuffer rawData,
+      int sampleSize) {
+    this(provider);
+    setData(header, rawData, sampleSize);
+  }
+
+  StandardWebpDecoder(@NonNull GifDecoder.BitmapProvider provider) {
+    this.bitmapProvider = provider;
+    this.header = new WebpHeader();
+    replacePaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC));
+    clearPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.CLEAR));
+  }
+
+  @Override
+  public int getWidth() {
+    return header.canvasWidth;
+  }
+
+  @Override
+  public int getHeight() {
+    return header.canvasHeight;
+  }
+
+  @NonNull
+  @Override
+  public ByteBuffer getData() {
+    return rawData;
+  }
+
+  @Override
+  public int getStatus() {
+    return status;
+  }
+
+  @Override
+  public void advance() {
+    framePointer = (framePointer + 1) % header.getFrameCount();
+  }
+
+  @Override
+  public int getDelay(int n) {
+    int delay = -1;
+    if (n >= 0 && n < header.getFrameCount()) {
+      delay = header.frames.get(n).duration;
+    }
+    return delay;
+  }
+
+  @Override
+  public int getNextDelay() {
+    if (header.getFrameCount() <= 0 || framePointer < 0) {
+      return 0;
+    }
+    return getDelay(framePointer);
+  }
+
+  @Override
+  public int getFrameCount() {
+    return header.getFrameCount();
+  }
+
+  @Override
+  public int getCurrentFrameIndex() {
+    return framePointer;
+  }
+
+  @Override
+  public void resetFrameIndex() {
+    framePointer = INITIAL_FRAME_POINTER;
+  }
+
+  @Override
+  public int getTotalIterationCount() {
+    return header.loopCount == WebpHeader.LOOP_COUNT_FOREVER
+        ? TOTAL_ITERATION_COUNT_FOREVER
+        : header.loopCount;
+  }
+
+  @Override
+  public int getByteSize() {
+    int size = rawData.limit();
+    if (canvasBitmap != null) {
+      size += downsampledWidth * downsampledHeight * BYTES_PER_PIXEL;
+    }
+    if (frameBitmap != null) {
+      size +=
+          divideRoundingUp(header.canvasWidth, sampleSize)
+              * divideRoundingUp(header.canvasHeight, sampleSize)
+              * BYTES_PER_PIXEL;
+    }
+    return size;
+  }
+
+  @Nullable
+  @Override
+  public synchronized Bitmap getNextFrame() {
+    if (header.getFrameCount() <= 0 || framePointer < 0) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(
+            TAG,
+            "Unable to decode frame"
+                + ", frameCount="
+                + header.getFrameCount()
+                + ", framePointer="
+                + framePointer);
+      }
+      status = STATUS_FORMAT_ERROR;
+    }
+    if (status == STATUS_FORMAT_ERROR || status == STATUS_OPEN_ERROR) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Unable to decode frame, status=" + status);
+      }
+      return null;
+    }
+    status = STATUS_OK;
+
+    if (canvasBitmap == null) {
+      canvasBitmap =
+          bitmapProvider.obtain(downsampledWidth, downsampledHeight, Bitmap.Config.ARGB_8888);
+      canvas = new Canvas(canvasBitmap);
+      drawnFramePointer = INITIAL_FRAME_POINTER;
+    }
+
+    // Continue from the frame that's already drawn where possible, otherwise redraw from the
+    // closest key frame.
+    boolean continueDrawing =
+        drawnFramePointer >= 0
+            && drawnFramePointer == framePointer - 1
+            && !header.frames.get(framePointer).isKeyFrame;
+    int start = framePointer;
+    if (!continueDrawing) {
+      while (!header.frames.get(start).isKeyFrame) {
+        start--;
+      }
+      canvasBitmap.eraseColor(Color.TRANSPARENT);
+    }
+    for (int i = start; i <= framePointer; i++) {
+      if (i > start || continueDrawing) {
+        WebpFrame previous = header.frames.get(i - 1);
+        if (previous.disposeToBackground && setFrameRect(previous)) {
+          canvas.drawRect(frameRect, clearPaint);
+        }
+      }
+      drawFrame(header.frames.get(i));
+    }
+    drawnFramePointer = framePointer;
+
+    // The canvas is needed for the next frame, so callers get a copy that they own.
+    Bitmap.Config config = header.hasAlpha ? Bitmap.Config.ARGB_8888 : bitmapConfig;
+    Bitmap result = bitmapProvider.obtain(downsampledWidth, downsampledHeight, config);
+    result.setHasAlpha(header.hasAlpha);
+    new Canvas(result).drawBitmap(canvasBitmap, 0, 0, replacePaint);
+    return result;
+  }
+
+  private void drawFrame(WebpFrame frame) {
+    Bitmap decoded = decodeFrame(frame);
+    if (decoded == null) {
+      status = STATUS_PARTIAL_DECODE;
+      return;
+    }
+    if (setFrameRect(frame)) {
+      canvas.drawBitmap(decoded, null /*src*/, frameRect, frame.blend ? blendPaint : replacePaint);
+    }
+    if (decoded != frameBitmap) {
+      bitmapProvider.release(decoded);
+    }
+  }
+
+  /**
+   * Sets {@link #frameRect} to the downsampled area of the given frame and returns {@code true} if
+   * it's not empty.
+   */
+  private boolean setFrameRect(WebpFrame frame) {
+    frameRect.set(
+        frame.x / sampleSize,
+        frame.y / sampleSize,
+        (frame.x + frame.width) / sampleSize,
+        (frame.y + frame.height) / sampleSize);
+    return !frameRect.isEmpty();
+  }
+
+  @Nullable
+  private Bitmap decodeFrame(WebpFrame frame) {
+    int size =
+        WebpHeaderParser.RIFF_HEADER_SIZE
+            + (frame.isExtended
+                ? WebpHeaderParser.CHUNK_HEADER_SIZE + WebpHeaderParser.VP8X_PAYLOAD_SIZE
+                : 0)
+            + frame.dataLength;
+    byte[] bytes = bitmapProvider.obtainByteArray(size);
+    try {
+      writeSingleFrameWebp(frame, bytes, size);
+
+      BitmapFactory.Options options = new BitmapFactory.Options();
+      options.inSampleSize = sampleSize;
+      options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+      options.inMutable = true;
+      // Prior to KitKat, the inBitmap size must exactly match the size of the decoded frame.
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+        if (frameBitmap == null) {
+          frameBitmap =
+              bitmapProvider.obtain(
+                  divideRoundingUp(header.canvasWidth, sampleSize),
+                  divideRoundingUp(header.canvasHeight, sampleSize),
+                  Bitmap.Config.ARGB_8888);
+        }
+        options.inBitmap = frameBitmap;
+      }
+      try {
+        return BitmapFactory.decodeByteArray(bytes, 0, size, options);
+      } catch (IllegalArgumentException e) {
+        if (options.inBitmap == null) {
+          throw e;
+        }
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+          Log.d(TAG, "Unable to reuse frame bitmap, decoding into a new bitmap", e);
+        }
+        options.inBitmap = null;
+        return BitmapFactory.decodeByteArray(bytes, 0, size, options);
+      }
+    } finally {
+      bitmapProvider.release(bytes);
+    }
+  }
+
+  /**
+   * Writes a single frame WebP containing the given frame's data so that it can be decoded by
+   * {@link BitmapFactory}.
+   */
+  private void writeSingleFrameWebp(WebpFrame frame, byte[] bytes, int size) {
+    ByteBuffer out = ByteBuffer.wrap(bytes, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+    out.putInt(WebpHeaderParser.FOURCC_RIFF);
+    out.putInt(size - WebpHeaderParser.CHUNK_HEADER_SIZE);
+    out.putInt(WebpHeaderParser.FOURCC_WEBP);
+    if (frame.isExtended) {
+      out.putInt(WebpHeaderParser.FOURCC_VP8X);
+      out.putInt(WebpHeaderParser.VP8X_PAYLOAD_SIZE);
+      out.putInt(frame.hasAlpha ? WebpHeaderParser.VP8X_FLAG_ALPHA : 0);
+      putUInt24(out, frame.width - 1);
+      putUInt24(out, frame.height - 1);
+    }
+    ByteBuffer frameData = rawData.duplicate();
+    frameData.limit(frame.dataOffset + frame.dataLength);
+    frameData.position(frame.dataOffset);
+    out.put(frameData);
+  }
+
+  private static void putUInt24(ByteBuffer out, int value) {
+    for (int i = 0; i < UINT24_SIZE; i++) {
+      out.put((byte) (value >>> (8 * i)));
+    }
+  }
+
+  private static int divideRoundingUp(int value, int divisor) {
+    return (value + divisor - 1) / divisor;
+  }
+
+  @Override
+  public synchronized void clear() {
+    header = new WebpHeader();
+    rawData = null;
+    if (canvasBitmap != null) {
+      bitmapProvider.release(canvasBitmap);
+    }
+    canvasBitmap = null;
+    canvas = null;
+    if (frameBitmap != null) {
+      bitmapProvider.release(frameBitmap);
+    }
+    frameBitmap = null;
+  }
+
+  synchronized void setData(
+      @NonNull WebpHeader header, @NonNull ByteBuffer buffer, int sampleSize) {
+    if (sampleSize <= 0) {
+      throw new IllegalArgumentException("Sample size must be >=0, not: " + sampleSize);
+    }
+    // Make sure sample size is a power of 2.
+    sampleSize = Integer.highestOneBit(sampleSize);
+    clear();
+    this.header = header;
+    this.status = header.status;
+    framePointer = INITIAL_FRAME_POINTER;
+    drawnFramePointer = INITIAL_FRAME_POINTER;
+    rawData = buffer.asReadOnlyBuffer();
+    rawData.position(0);
+
+    this.sampleSize = sampleSize;
+    downsampledWidth = Math.max(1, header.canvasWidth / sampleSize);
+    downsampledHeight = Math.max(1, header.canvasHeight / sampleSize);
+  }
+
+  /**
+   * Sets the {@link Bitmap.Config} of the returned frames, which is only used for WebPs without
+   * transparent pixels.
+   */
+  @Override
+  public void setDefaultBitmapConfig(@NonNull Bitmap.Config config) {
+    if (config != Bitmap.Config.ARGB_8888 && config != Bitmap.Config.RGB_565) {
+      throw new IllegalArgumentException(
+          "Unsupported format: "
+              + config
+              + ", must be one of "
+              + Bitmap.Config.ARGB_8888
+              + " or "
+              + Bitmap.Config.RGB_565);
+    }
+    bitmapConfig = config;
+  }
+}
@@ -0,0 +1,64 @@
+package com.bumptech.glide.load.resource.webp;
+
+import android.os.Build;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.resource.gif.GifDrawable;
+import com.bumptech.glide.load.resource.gif.GifOptions;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes animated WebPs from {@link InputStream}s by reading the stream into a {@link ByteBuffer}
+ * and passing the buffer to a wrapped decoder.
+ *
+ * <p>Each frame is decoded from the encoded data as it's displayed, so the whole stream has to be
+ * read up front anyway.
+ */
+public class StreamWebpDecoder implements ResourceDecoder<InputStream, GifDrawable> {
+  private static final int BUFFER_SIZE = 16 * 1024;
+
+  private final ResourceDecoder<ByteBuffer, GifDrawable> byteBufferDecoder;
+  private final ArrayPool byteArrayPool;
+
+  public StreamWebpDecoder(
+      ResourceDecoder<ByteBuffer, GifDrawable> byteBufferDecoder, ArrayPool byteArrayPool) {
+    this.byteBufferDecoder = byteBufferDecoder;
+    this.byteArrayPool = byteArrayPool;
+  }
+
+  @Override
+  public boolean handles(@NonNull InputStream source, @NonNull Options options) throws IOException {
+    return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1
+        && !options.get(GifOptions.DISABLE_ANIMATION)
+        && WebpHeaderParser.isAnimated(source);
+  }
+
+  @Nullable
+  @Override
+  public Resource<GifDrawable> decode(
+      @NonNull InputStream source, int width, int height, @NonNull Options options)
+      throws IOException {
+    return byteBufferDecoder.decode(ByteBuffer.wrap(readBytes(source)), width, height, options);
+  }
+
+  private byte[] readBytes(InputStream is) throws IOException {
+    ByteArrayOutputStream outStream = new ByteArrayOutputStream(BUFFER_SIZE);
+    byte[] buffer = byteArrayPool.get(BUFFER_SIZE, byte[].class);
+    try {
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        outStream.write(buffer, 0, read);
+      }
+    } finally {
+      byteArrayPool.put(buffer);
+    }
+    return outStream.toByteArray();
+  }
+}
@@ -0,0 +1,61 @@
+package com.bumptech.glide.load.resource.webp;
+
+/**
+ * Describes a single frame of an animated WebP, as parsed from an {@code ANMF} chunk by {@link
+ * WebpHeaderParser}.
+ *
+ * <p>Offsets and sizes are in pixels of the full size canvas.
+ */
+final class WebpFrame {
+  final int x;
+  final int y;
+  final int width;
+  final int height;
+  /** How long the frame is displayed for in milliseconds. */
+  final int duration;
+  /** Whether the frame's area is cleared to transparent before the next frame is drawn. */
+  final boolean disposeToBackground;
+  /** Whether the frame is drawn over the canvas, rather than replacing the pixels it covers. */
+  final boolean blend;
+  /** Whether the frame's own pixels may be transparent. */
+  final boolean hasAlpha;
+  /**
+   * Whether the frame's data contains chunks other than a single {@code VP8} or {@code VP8L} chunk,
+   * typically an {@code ALPH} chunk, and has to be wrapped in an extended container to be decoded.
+   */
+  final boolean isExtended;
+  /** The offset of the frame's data, its {@code ALPH}, {@code VP8} or {@code VP8L} chunks. */
+  final int dataOffset;
+  final int dataLength;
+  /** Whether the frame can be drawn without drawing any of the frames before it. */
+  boolean isKeyFrame;
+
+  WebpFrame(
+      int x,
+      int y,
+      int width,
+      int height,
+      int duration,
+      boolean disposeToBackground,
+      boolean blend,
+      boolean hasAlpha,
+      boolean isExtended,
+      int dataOffset,
+      int dataLength) {
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+    this.duration = duration;
+    this.disposeToBackground = disposeToBackground;
+    this.blend = blend;
+    this.hasAlpha = hasAlpha;
+    this.isExtended = isExtended;
+    this.dataOffset = dataOffset;
+    this.dataLength = dataLength;
+  }
+
+  boolean isFullFrame(int canvasWidth, int canvasHeight) {
+    return x == 0 && y == 0 && width == canvasWidth && height == canvasHeight;
+  }
+}
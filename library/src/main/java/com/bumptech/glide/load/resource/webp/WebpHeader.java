@@ -0,0 +1,26 @@
+package com.bumptech.glide.load.resource.webp;
+
+import com.bumptech.glide.gifdecoder.FrameSequenceDecoder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The canvas, loop count and frames of an animated WebP, as parsed by {@link WebpHeaderParser}.
+ */
+final class WebpHeader {
+  /** The loop count that means the animation repeats forever. */
+  static final int LOOP_COUNT_FOREVER = 0;
+
+  final List<WebpFrame> frames = new ArrayList<>();
+  @FrameSequenceDecoder.GifDecodeStatus int status = FrameSequenceDecoder.STATUS_OK;
+  int canvasWidth;
+  int canvasHeight;
+  /** The number of times the animation is played, or {@link #LOOP_COUNT_FOREVER}. */
+  int loopCount = LOOP_COUNT_FOREVER;
+  /** Whether any of the composited frames may contain transparent pixels. */
+  boolean hasAlpha;
+
+  int getFrameCount() {
+    return frames.size();
+  }
+}
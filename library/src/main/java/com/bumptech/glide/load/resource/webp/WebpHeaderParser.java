@@ -0,0 +1,265 @@
+package com.bumptech.glide.load.resource.webp;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.gifdecoder.FrameSequenceDecoder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Parses the RIFF container of animated WebPs into {@link WebpHeader}s.
+ *
+ * <p>Only the container is parsed. The {@code VP8} and {@code VP8L} bitstreams of each frame are
+ * left to {@link android.graphics.BitmapFactory}, see {@link StandardWebpDecoder}.
+ *
+ * @see <a href="https://developers.google.com/speed/webp/docs/riff_container">WebP Container
+ *     Specification</a>
+ */
+final class WebpHeaderParser {
+  private static final String TAG = "WebpHeaderParser";
+
+  // Chunk FourCCs, as little endian ints.
+  static final int FOURCC_RIFF = 0x46464952;
+  static final int FOURCC_WEBP = 0x50424557;
+  static final int FOURCC_VP8X = 0x58385056;
+  static final int FOURCC_VP8 = 0x20385056;
+  static final int FOURCC_VP8L = 0x4C385056;
+  static final int FOURCC_ALPH = 0x48504C41;
+  private static final int FOURCC_ANIM = 0x4D494E41;
+  private static final int FOURCC_ANMF = 0x464D4E41;
+
+  /** The size of the RIFF header, including the {@code WEBP} FourCC. */
+  static final int RIFF_HEADER_SIZE = 12;
+  /** The size of a chunk's FourCC and payload size. */
+  static final int CHUNK_HEADER_SIZE = 8;
+  static final int VP8X_PAYLOAD_SIZE = 10;
+  static final int VP8X_FLAG_ALPHA = 1 << 4;
+  private static final int VP8X_FLAG_ANIMATION = 1 << 1;
+  private static final int ANIM_PAYLOAD_SIZE = 6;
+  private static final int ANMF_HEADER_SIZE = 16;
+  private static final int ANMF_FLAG_DISPOSE_TO_BACKGROUND = 1;
+  private static final int ANMF_FLAG_DO_NOT_BLEND = 1 << 1;
+  private static final int VP8L_SIGNATURE_SIZE = 1;
+  private static final int VP8L_ALPHA_BIT = 28;
+  /** The number of bytes needed to tell whether data is an animated WebP. */
+  private static final int ANIMATED_HEADER_SIZE = RIFF_HEADER_SIZE + CHUNK_HEADER_SIZE + 1;
+
+  /**
+   * Frames shown for this long or less are shown for {@link #DEFAULT_FRAME_DURATION_MS} instead,
+   * which matches browsers.
+   */
+  private static final int MIN_FRAME_DURATION_MS = 10;
+
+  private static final int DEFAULT_FRAME_DURATION_MS = 100;
+
+  private WebpHeaderParser() {
+    // Utility class.
+  }
+
+  /**
+   * Returns {@code true} if the given data starts with the header of an extended WebP with the
+   * animation flag set.
+   *
+   * <p>The position of the given buffer is not changed.
+   */
+  static boolean isAnimated(@NonNull ByteBuffer data) {
+    if (data.limit() < ANIMATED_HEADER_SIZE) {
+      return false;
+    }
+    ByteBuffer header = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    return header.getInt(0) == FOURCC_RIFF
+        && header.getInt(8) == FOURCC_WEBP
+        && header.getInt(RIFF_HEADER_SIZE) == FOURCC_VP8X
+        && (header.get(RIFF_HEADER_SIZE + CHUNK_HEADER_SIZE) & VP8X_FLAG_ANIMATION) != 0;
+  }
+
+  /**
+   * Returns {@code true} if the given stream starts with the header of an extended WebP with the
+   * animation flag set.
+   *
+   * <p>Callers are responsible for resetting the stream.
+   */
+  static boolean isAnimated(@NonNull InputStream is) throws IOException {
+    byte[] header = new byte[ANIMATED_HEADER_SIZE];
+    int read = 0;
+    while (read < header.length) {
+      int count = is.read(header, read, header.length - read);
+      if (count == -1) {
+        return false;
+      }
+      read += count;
+    }
+    return isAnimated(ByteBuffer.wrap(header));
+  }
+
+  /**
+   * Parses the canvas and frames of the given animated WebP.
+   *
+   * <p>The returned header has the status {@link FrameSequenceDecoder#STATUS_FORMAT_ERROR} if the
+   * data isn't an animated WebP or is truncated. The position of the given buffer is not changed.
+   */
+  @NonNull
+  static WebpHeader parse(@NonNull ByteBuffer source) {
+    WebpHeader header = new WebpHeader();
+    if (!isAnimated(source)) {
+      header.status = FrameSequenceDecoder.STATUS_FORMAT_ERROR;
+      return header;
+    }
+    ByteBuffer data = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    // The RIFF size excludes the RIFF FourCC and the size itself.
+    int riffEnd = (int) Math.min(data.limit(), CHUNK_HEADER_SIZE + (data.getInt(4) & 0xFFFFFFFFL));
+
+    boolean hasAlphaFlag = false;
+    int offset = RIFF_HEADER_SIZE;
+    while (offset + CHUNK_HEADER_SIZE <= riffEnd
+        && header.status == FrameSequenceDecoder.STATUS_OK) {
+      int fourCc = data.getInt(offset);
+      int size = data.getInt(offset + 4);
+      int payload = offset + CHUNK_HEADER_SIZE;
+      if (size < 0 || payload + size > riffEnd) {
+        setFormatError(header, "Truncated chunk at " + offset);
+        break;
+      }
+      if (fourCc == FOURCC_VP8X) {
+        if (size < VP8X_PAYLOAD_SIZE) {
+          setFormatError(header, "Invalid VP8X chunk");
+          break;
+        }
+        hasAlphaFlag = (data.get(payload) & VP8X_FLAG_ALPHA) != 0;
+        header.canvasWidth = readUInt24(data, payload + 4) + 1;
+        header.canvasHeight = readUInt24(data, payload + 7) + 1;
+      } else if (fourCc == FOURCC_ANIM) {
+        if (size < ANIM_PAYLOAD_SIZE) {
+          setFormatError(header, "Invalid ANIM chunk");
+          break;
+        }
+        header.loopCount = data.getShort(payload + 4) & 0xFFFF;
+      } else if (fourCc == FOURCC_ANMF) {
+        readFrame(data, payload, size, header);
+      }
+      // Chunks are padded to an even size.
+      offset = payload + size + (size & 1);
+    }
+
+    if (header.status == FrameSequenceDecoder.STATUS_OK && header.frames.isEmpty()) {
+      setFormatError(header, "No frames");
+    }
+    if (header.status == FrameSequenceDecoder.STATUS_OK) {
+      markKeyFrames(header);
+      header.hasAlpha = hasAlphaFlag;
+      // Frames that don't cover the canvas may leave transparent pixels, even if they're opaque.
+      for (WebpFrame frame : header.frames) {
+        header.hasAlpha |=
+            frame.hasAlpha || !frame.isFullFrame(header.canvasWidth, header.canvasHeight);
+      }
+    }
+    return header;
+  }
+
+  private static void readFrame(ByteBuffer data, int payload, int size, WebpHeader header) {
+    if (size < ANMF_HEADER_SIZE) {
+      setFormatError(header, "Invalid ANMF chunk");
+      return;
+    }
+    int x = readUInt24(data, payload) * 2;
+    int y = readUInt24(data, payload + 3) * 2;
+    int width = readUInt24(data, payload + 6) + 1;
+    int height = readUInt24(data, payload + 9) + 1;
+    int duration = readUInt24(data, payload + 12);
+    int flags = data.get(payload + 15);
+    if (x + width > header.canvasWidth || y + height > header.canvasHeight) {
+      setFormatError(header, "Frame outside of canvas");
+      return;
+    }
+    if (duration <= MIN_FRAME_DURATION_MS) {
+      duration = DEFAULT_FRAME_DURATION_MS;
+    }
+
+    int dataOffset = payload + ANMF_HEADER_SIZE;
+    int dataEnd = payload + size;
+    boolean hasAlpha = false;
+    boolean hasBitstream = false;
+    int chunkCount = 0;
+    int offset = dataOffset;
+    while (offset + CHUNK_HEADER_SIZE <= dataEnd) {
+      int fourCc = data.getInt(offset);
+      int chunkSize = data.getInt(offset + 4);
+      int chunkPayload = offset + CHUNK_HEADER_SIZE;
+      if (chunkSize < 0 || chunkPayload + chunkSize > dataEnd) {
+        setFormatError(header, "Truncated frame chunk at " + offset);
+        return;
+      }
+      chunkCount++;
+      if (fourCc == FOURCC_ALPH) {
+        hasAlpha = true;
+      } else if (fourCc == FOURCC_VP8L) {
+        hasBitstream = true;
+        if (chunkSize >= VP8L_SIGNATURE_SIZE + 4) {
+          int bits = data.getInt(chunkPayload + VP8L_SIGNATURE_SIZE);
+          hasAlpha |= ((bits >>> VP8L_ALPHA_BIT) & 1) != 0;
+        }
+      } else if (fourCc == FOURCC_VP8) {
+        hasBitstream = true;
+      }
+      offset = chunkPayload + chunkSize + (chunkSize & 1);
+    }
+    if (!hasBitstream) {
+      setFormatError(header, "Frame without image data");
+      return;
+    }
+
+    header.frames.add(
+        new WebpFrame(
+            x,
+            y,
+            width,
+            height,
+            duration,
+            (flags & ANMF_FLAG_DISPOSE_TO_BACKGROUND) != 0,
+            (flags & ANMF_FLAG_DO_NOT_BLEND) == 0,
+            hasAlpha,
+            /*isExtended=*/ chunkCount > 1,
+            dataOffset,
+            Math.min(offset, dataEnd) - dataOffset));
+  }
+
+  /**
+   * Marks the frames that completely replace the canvas, so that seeking to a frame only needs to
+   * draw the frames from the closest key frame before it.
+   */
+  private static void markKeyFrames(WebpHeader header) {
+    List<WebpFrame> frames = header.frames;
+    int canvasWidth = header.canvasWidth;
+    int canvasHeight = header.canvasHeight;
+    for (int i = 0; i < frames.size(); i++) {
+      WebpFrame frame = frames.get(i);
+      if (i == 0) {
+        frame.isKeyFrame = true;
+      } else if (frame.isFullFrame(canvasWidth, canvasHeight)
+          && (!frame.hasAlpha || !frame.blend)) {
+        frame.isKeyFrame = true;
+      } else {
+        WebpFrame previous = frames.get(i - 1);
+        frame.isKeyFrame =
+            previous.disposeToBackground
+                && (previous.isKeyFrame || previous.isFullFrame(canvasWidth, canvasHeight));
+      }
+    }
+  }
+
+  private static int readUInt24(ByteBuffer data, int offset) {
+    return (data.get(offset) & 0xFF)
+        | (data.get(offset + 1) & 0xFF) << 8
+        | (data.get(offset + 2) & 0xFF) << 16;
+  }
+
+  private static void setFormatError(WebpHeader header, String message) {
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "Unable to parse WebP: " + message);
+    }
+    header.status = FrameSequenceDecoder.STATUS_FORMAT_ERROR;
+  }
+}
@@ -30,7 +30,8 @@ public class LoadPathCache {
                   /*listPool=*/ null)),
           /*listPool=*/ null);
 
-  private final ArrayMap<MultiClassKey, LoadPath<?, ?, ?>> cache = new ArrayMap<>();
+  // Replaced rather than modified on every put so that get doesn't need to acquire a lock.
+  private volatile ArrayMap<MultiClassKey, LoadPath<?, ?, ?>> cache = new ArrayMap<>();
   private final AtomicReference<MultiClassKey> keyRef = new AtomicReference<>();
 
   /**
@@ -52,10 +53,7 @@ public class LoadPathCache {
   public <Data, TResource, Transcode> LoadPath<Data, TResource, Transcode> get(
       Class<Data> dataClass, Class<TResource> resourceClass, Class<Transcode> transcodeClass) {
     MultiClassKey key = getKey(dataClass, resourceClass, transcodeClass);
-    LoadPath<?, ?, ?> result;
-    synchronized (cache) {
-      result = cache.get(key);
-    }
+    LoadPath<?, ?, ?> result = cache.get(key);
     keyRef.set(key);
 
     return (LoadPath<Data, TResource, Transcode>) result;
@@ -66,10 +64,12 @@ public class LoadPathCache {
       Class<?> resourceClass,
       Class<?> transcodeClass,
       @Nullable LoadPath<?, ?, ?> loadPath) {
-    synchronized (cache) {
-      cache.put(
+    synchronized (this) {
+      ArrayMap<MultiClassKey, LoadPath<?, ?, ?>> updated = new ArrayMap<>(cache);
+      updated.put(
           new MultiClassKey(dataClass, resourceClass, transcodeClass),
           loadPath != null ? loadPath : NO_PATHS_SIGNAL);
+      cache = updated;
     }
   }
 
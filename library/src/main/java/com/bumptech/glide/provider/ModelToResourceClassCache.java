@@ -13,7 +13,8 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 public class ModelToResourceClassCache {
   private final AtomicReference<MultiClassKey> resourceClassKeyRef = new AtomicReference<>();
-  private final ArrayMap<MultiClassKey, List<Class<?>>> registeredResourceClassCache =
+  // Replaced rather than modified on every write so that get doesn't need to acquire a lock.
+  private volatile ArrayMap<MultiClassKey, List<Class<?>>> registeredResourceClassCache =
       new ArrayMap<>();
 
   @Nullable
@@ -27,10 +28,7 @@ public class ModelToResourceClassCache {
     } else {
       key.set(modelClass, resourceClass, transcodeClass);
     }
-    final List<Class<?>> result;
-    synchronized (registeredResourceClassCache) {
-      result = registeredResourceClassCache.get(key);
-    }
+    final List<Class<?>> result = registeredResourceClassCache.get(key);
     resourceClassKeyRef.set(key);
     return result;
   }
@@ -40,15 +38,17 @@ public class ModelToResourceClassCache {
       @NonNull Class<?> resourceClass,
       @NonNull Class<?> transcodeClass,
       @NonNull List<Class<?>> resourceClasses) {
-    synchronized (registeredResourceClassCache) {
-      registeredResourceClassCache.put(
-          new MultiClassKey(modelClass, resourceClass, transcodeClass), resourceClasses);
+    synchronized (this) {
+      ArrayMap<MultiClassKey, List<Class<?>>> updated =
+          new ArrayMap<>(registeredResourceClassCache);
+      updated.put(new MultiClassKey(modelClass, resourceClass, transcodeClass), resourceClasses);
+      registeredResourceClassCache = updated;
     }
   }
 
   public void clear() {
-    synchronized (registeredResourceClassCache) {
-      registeredResourceClassCache.clear();
+    synchronized (this) {
+      registeredResourceClassCache = new ArrayMap<>();
     }
   }
 }
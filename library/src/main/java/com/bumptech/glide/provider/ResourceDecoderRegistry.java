@@ -2,6 +2,8 @@ package com.bumptech.glide.provider;
 
 import androidx.annotation.NonNull;
 import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.util.GlideSuppliers;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
 import com.bumptech.glide.util.Synthetic;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -11,6 +13,9 @@ import java.util.Map;
 /**
  * Contains an ordered list of {@link ResourceDecoder}s capable of decoding arbitrary data types
  * into arbitrary resource types from highest priority decoders to lowest priority decoders.
+ *
+ * <p>Decoders registered with a {@link GlideSupplier} aren't created until they're first returned
+ * by {@link #getDecoders(Class, Class)}.
  */
 @SuppressWarnings("rawtypes")
 public class ResourceDecoderRegistry {
@@ -46,7 +51,7 @@ public class ResourceDecoderRegistry {
       }
       for (Entry<?, ?> entry : entries) {
         if (entry.handles(dataClass, resourceClass)) {
-          result.add((ResourceDecoder<T, R>) entry.decoder);
+          result.add((ResourceDecoder<T, R>) entry.decoder.get());
         }
       }
     }
@@ -80,6 +85,14 @@ public class ResourceDecoderRegistry {
       @NonNull ResourceDecoder<T, R> decoder,
       @NonNull Class<T> dataClass,
       @NonNull Class<R> resourceClass) {
+    append(bucket, GlideSuppliers.ofInstance(decoder), dataClass, resourceClass);
+  }
+
+  public synchronized <T, R> void append(
+      @NonNull String bucket,
+      @NonNull GlideSupplier<? extends ResourceDecoder<T, R>> decoder,
+      @NonNull Class<T> dataClass,
+      @NonNull Class<R> resourceClass) {
     getOrAddEntryList(bucket).add(new Entry<>(dataClass, resourceClass, decoder));
   }
 
@@ -88,6 +101,14 @@ public class ResourceDecoderRegistry {
       @NonNull ResourceDecoder<T, R> decoder,
       @NonNull Class<T> dataClass,
       @NonNull Class<R> resourceClass) {
+    prepend(bucket, GlideSuppliers.ofInstance(decoder), dataClass, resourceClass);
+  }
+
+  public synchronized <T, R> void prepend(
+      @NonNull String bucket,
+      @NonNull GlideSupplier<? extends ResourceDecoder<T, R>> decoder,
+      @NonNull Class<T> dataClass,
+      @NonNull Class<R> resourceClass) {
     getOrAddEntryList(bucket).add(0, new Entry<>(dataClass, resourceClass, decoder));
   }
 
@@ -108,15 +129,15 @@ public class ResourceDecoderRegistry {
   private static class Entry<T, R> {
     private final Class<T> dataClass;
     @Synthetic final Class<R> resourceClass;
-    @Synthetic final ResourceDecoder<T, R> decoder;
+    @Synthetic final GlideSupplier<? extends ResourceDecoder<T, R>> decoder;
 
     public Entry(
         @NonNull Class<T> dataClass,
         @NonNull Class<R> resourceClass,
-        ResourceDecoder<T, R> decoder) {
+        @NonNull GlideSupplier<? extends ResourceDecoder<T, R>> decoder) {
       this.dataClass = dataClass;
       this.resourceClass = resourceClass;
-      this.decoder = decoder;
+      this.decoder = GlideSuppliers.memoize(decoder);
     }
 
     public boolean handles(@NonNull Class<?> dataClass, @NonNull Class<?> resourceClass) {
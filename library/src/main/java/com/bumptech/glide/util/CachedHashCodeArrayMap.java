@@ -15,41 +15,45 @@ import androidx.collection.SimpleArrayMap;
 public final class CachedHashCodeArrayMap<K, V> extends ArrayMap<K, V> {
 
   private int hashCode;
+  // Tracked separately from hashCode because empty maps, which are common, have a hash code of 0.
+  // Volatile and written after hashCode so that maps shared across threads never see a stale hash.
+  private volatile boolean isHashCodeValid;
 
   @Override
   public void clear() {
-    hashCode = 0;
+    isHashCodeValid = false;
     super.clear();
   }
 
   @Override
   public V setValueAt(int index, V value) {
-    hashCode = 0;
+    isHashCodeValid = false;
     return super.setValueAt(index, value);
   }
 
   @Override
   public V put(K key, V value) {
-    hashCode = 0;
+    isHashCodeValid = false;
     return super.put(key, value);
   }
 
   @Override
   public void putAll(SimpleArrayMap<? extends K, ? extends V> simpleArrayMap) {
-    hashCode = 0;
+    isHashCodeValid = false;
     super.putAll(simpleArrayMap);
   }
 
   @Override
   public V removeAt(int index) {
-    hashCode = 0;
+    isHashCodeValid = false;
     return super.removeAt(index);
   }
 
   @Override
   public int hashCode() {
-    if (hashCode == 0) {
+    if (!isHashCodeValid) {
       hashCode = super.hashCode();
+      isHashCodeValid = true;
     }
     return hashCode;
   }
@@ -0,0 +1,120 @@
+package com.bumptech.glide.util;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A probabilistic, fixed size estimate of how often each key has been seen recently, used as the
+ * admission filter for {@link TinyLfuCache}.
+ *
+ * <p>This is a count-min sketch with four hash functions and 4 bit counters. Sixteen counters are
+ * packed into each {@code long}, and the four counters for a key are spread across four different
+ * {@code long}s. Once the number of increments reaches ten times the table size, every counter is
+ * halved so that old popularity decays and the sketch adapts to changes in the workload.
+ *
+ * <p>This class is not thread safe.
+ */
+final class FrequencySketch {
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+  private static final int MAX_FREQUENCY = 15;
+  private static final int SAMPLE_MULTIPLIER = 10;
+  private static final int MIN_TABLE_SIZE = 16;
+
+  private long[] table;
+  private int tableMask;
+  private int sampleSize;
+  private int size;
+
+  FrequencySketch() {
+    ensureCapacity(MIN_TABLE_SIZE);
+  }
+
+  /**
+   * Grows the sketch so that it can accurately track roughly {@code expectedCount} distinct keys.
+   *
+   * <p>Previously recorded frequencies are kept. A key's counters in a larger table are at an
+   * index whose low bits are its index in the smaller table, so copying the smaller table into
+   * each part of the larger one gives every key exactly the counts it had before.
+   */
+  void ensureCapacity(int expectedCount) {
+    int capacity = Math.max(MIN_TABLE_SIZE, Math.min(expectedCount, 1 << 30));
+    if (table != null && table.length >= capacity) {
+      return;
+    }
+    int tableSize = Integer.highestOneBit(capacity);
+    if (tableSize < capacity) {
+      tableSize <<= 1;
+    }
+    long[] newTable = new long[tableSize];
+    if (table != null) {
+      for (int i = 0; i < tableSize; i += table.length) {
+        System.arraycopy(table, 0, newTable, i, table.length);
+      }
+    }
+    table = newTable;
+    tableMask = tableSize - 1;
+    sampleSize = SAMPLE_MULTIPLIER * tableSize;
+  }
+
+  /** Returns the estimated number of times {@code key} has been seen, at most 15. */
+  int frequency(@NonNull Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = MAX_FREQUENCY;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /** Records an occurrence of {@code key}, aging all counters if the sample size is reached. */
+  void increment(@NonNull Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size >= sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  /** Halves every counter, correcting {@link #size} for the remainders that were dropped. */
+  private void reset() {
+    int oddCounters = 0;
+    for (int i = 0; i < table.length; i++) {
+      oddCounters += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size >>> 1) - (oddCounters >>> 2);
+  }
+
+  private int indexOf(int hash, int i) {
+    long result = (hash + SEEDS[i]) * SEEDS[i];
+    result += result >>> 32;
+    return ((int) result) & tableMask;
+  }
+
+  /** Mixes the bits of the given hash code to defend against poorly distributed hashes. */
+  private static int spread(int hash) {
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    return (hash >>> 16) ^ hash;
+  }
+}
@@ -0,0 +1,83 @@
+package com.bumptech.glide.util;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Suppliers that let components be registered with Glide without being created until they're
+ * first used.
+ */
+public final class GlideSuppliers {
+
+  private GlideSuppliers() {
+    // Utility class.
+  }
+
+  /**
+   * Produces a non-null instance of {@code T}.
+   *
+   * @param <T> The type of object produced.
+   */
+  public interface GlideSupplier<T> {
+    @NonNull
+    T get();
+  }
+
+  /**
+   * Returns a supplier that calls the given supplier at most once, on its first call to {@link
+   * GlideSupplier#get()}, and returns the same instance to every caller after that.
+   */
+  @NonNull
+  public static <T> GlideSupplier<T> memoize(@NonNull final GlideSupplier<T> supplier) {
+    if (supplier instanceof MemoizingSupplier || supplier instanceof InstanceSupplier) {
+      return supplier;
+    }
+    return new MemoizingSupplier<>(supplier);
+  }
+
+  /** Returns a supplier that always returns the given instance. */
+  @NonNull
+  public static <T> GlideSupplier<T> ofInstance(@NonNull T instance) {
+    return new InstanceSupplier<>(instance);
+  }
+
+  private static final class InstanceSupplier<T> implements GlideSupplier<T> {
+    private final T instance;
+
+    InstanceSupplier(@NonNull T instance) {
+      this.instance = Preconditions.checkNotNull(instance);
+    }
+
+    @NonNull
+    @Override
+    public T get() {
+      return instance;
+    }
+  }
+
+  private static final class MemoizingSupplier<T> implements GlideSupplier<T> {
+    private volatile GlideSupplier<T> supplier;
+    private volatile T instance;
+
+    MemoizingSupplier(@NonNull GlideSupplier<T> supplier) {
+      this.supplier = Preconditions.checkNotNull(supplier);
+    }
+
+    @NonNull
+    @Override
+    public T get() {
+      T result = instance;
+      if (result == null) {
+        synchronized (this) {
+          result = instance;
+          if (result == null) {
+            result = Preconditions.checkNotNull(supplier.get());
+            instance = result;
+            // Allow whatever the supplier captured to be collected.
+            supplier = null;
+          }
+        }
+      }
+      return result;
+    }
+  }
+}
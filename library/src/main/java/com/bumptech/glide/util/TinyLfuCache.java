@@ -0,0 +1,414 @@
+package com.bumptech.glide.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A general purpose size limited cache that uses a frequency based admission policy (W-TinyLFU) to
+ * decide which items to retain. By default every item is assumed to have a size of one. Subclasses
+ * can override {@link #getSize(Object)}} to change the size on a per item basis.
+ *
+ * <p>New items enter a small LRU admission window. Items that fall out of the window compete with
+ * the least recently used item in the main cache, and only the item whose key has been requested
+ * more often according to a {@link FrequencySketch} is retained. The main cache is a segmented LRU
+ * where items requested while in the probationary segment are promoted to a protected segment.
+ * Unlike {@link LruCache}, a burst of items that are only ever requested once can't push out items
+ * that are requested repeatedly.
+ *
+ * <p>Both {@link #get(Object)} and {@link #remove(Object)} count as requests for the given key,
+ * regardless of whether or not the key is present. Callers like {@link
+ * com.bumptech.glide.load.engine.Engine} that remove items on a hit and put them back once they're
+ * no longer used therefore still build up frequency for popular keys.
+ *
+ * @param <T> The type of the keys.
+ * @param <Y> The type of the values.
+ */
+public class TinyLfuCache<T, Y> {
+  /** The default fraction of the maximum size reserved for the LRU admission window. */
+  @VisibleForTesting static final float DEFAULT_WINDOW_FRACTION = 0.2f;
+
+  private static final float PROTECTED_FRACTION = 0.8f;
+
+  private final Map<T, Node<T, Y>> cache = new HashMap<>();
+  private final NodeQueue<T, Y> window = new NodeQueue<>();
+  private final NodeQueue<T, Y> probation = new NodeQueue<>();
+  private final NodeQueue<T, Y> protectedQueue = new NodeQueue<>();
+  private final FrequencySketch sketch = new FrequencySketch();
+  private final long initialMaxSize;
+  private final float windowFraction;
+  private long maxSize;
+  private long maxWindowSize;
+  private long maxProtectedSize;
+  private long currentSize;
+  private long windowSize;
+  private long protectedSize;
+
+  /**
+   * Constructor for TinyLfuCache.
+   *
+   * @param size The maximum size of the cache, the units must match the units used in {@link
+   *     #getSize(Object)}.
+   */
+  public TinyLfuCache(long size) {
+    this(size, DEFAULT_WINDOW_FRACTION);
+  }
+
+  /**
+   * Constructor for TinyLfuCache.
+   *
+   * @param size The maximum size of the cache, the units must match the units used in {@link
+   *     #getSize(Object)}.
+   * @param windowFraction The fraction of {@code size} in [0, 1] reserved for recently added items
+   *     that have not yet been admitted to the main cache. Larger values favor recency, smaller
+   *     values favor frequency.
+   */
+  public TinyLfuCache(long size, float windowFraction) {
+    if (windowFraction < 0 || windowFraction > 1) {
+      throw new IllegalArgumentException("Window fraction must be in [0, 1]");
+    }
+    this.initialMaxSize = size;
+    this.windowFraction = windowFraction;
+    setMaxSize(size);
+  }
+
+  /**
+   * Sets a size multiplier that will be applied to the size provided in the constructor to put the
+   * new size of the cache. If the new size is less than the current size, entries will be evicted
+   * until the current size is less than or equal to the new size.
+   *
+   * @param multiplier The multiplier to apply.
+   */
+  public synchronized void setSizeMultiplier(float multiplier) {
+    if (multiplier < 0) {
+      throw new IllegalArgumentException("Multiplier must be >= 0");
+    }
+    setMaxSize(Math.round(initialMaxSize * multiplier));
+    evict();
+  }
+
+  private void setMaxSize(long size) {
+    maxSize = size;
+    maxWindowSize = Math.round(size * windowFraction);
+    maxProtectedSize = Math.round((size - maxWindowSize) * PROTECTED_FRACTION);
+  }
+
+  /**
+   * Returns the size of a given item, defaulting to one. The units must match those used in the
+   * size passed in to the constructor. Subclasses can override this method to return sizes in
+   * various units, usually bytes.
+   *
+   * @param item The item to get the size of.
+   */
+  protected int getSize(@Nullable Y item) {
+    return 1;
+  }
+
+  /** Returns the number of entries stored in cache. */
+  protected synchronized int getCount() {
+    return cache.size();
+  }
+
+  /**
+   * A callback called whenever an item is evicted from the cache. Subclasses can override.
+   *
+   * @param key The key of the evicted item.
+   * @param item The evicted item.
+   */
+  protected void onItemEvicted(@NonNull T key, @Nullable Y item) {
+    // optional override
+  }
+
+  /** Returns the current maximum size of the cache in bytes. */
+  public synchronized long getMaxSize() {
+    return maxSize;
+  }
+
+  /** Returns the sum of the sizes of all items in the cache. */
+  public synchronized long getCurrentSize() {
+    return currentSize;
+  }
+
+  /**
+   * Returns true if there is a value for the given key in the cache.
+   *
+   * <p>Unlike {@link #get(Object)}, this method does not count as a request for the key.
+   *
+   * @param key The key to check.
+   */
+  public synchronized boolean contains(@NonNull T key) {
+    return cache.containsKey(key);
+  }
+
+  /**
+   * Returns the item in the cache for the given key or null if no such item exists.
+   *
+   * @param key The key to check.
+   */
+  @Nullable
+  public synchronized Y get(@NonNull T key) {
+    sketch.increment(key);
+    Node<T, Y> node = cache.get(key);
+    if (node == null) {
+      return null;
+    }
+    onAccess(node);
+    return node.value;
+  }
+
+  /**
+   * Adds the given item to the cache with the given key and returns any previous entry for the
+   * given key that may have already been in the cache.
+   *
+   * <p>If the size of the item is larger than the total cache size, the item will not be added to
+   * the cache and instead {@link #onItemEvicted(Object, Object)} will be called synchronously with
+   * the given key and item.
+   *
+   * <p>New items are always added to the admission window, even if the cache is full. Items that
+   * are evicted from the window in turn may or may not be retained based on the frequency with
+   * which their keys have been requested.
+   *
+   * <p>As with {@link LruCache#put(Object, Object)}, a {@code null} item is retained with a size of
+   * 0.
+   *
+   * @param key The key to add the item at.
+   * @param item The item to add.
+   */
+  @Nullable
+  public synchronized Y put(@NonNull T key, @Nullable Y item) {
+    final int itemSize = getSize(item);
+    if (itemSize >= maxSize) {
+      onItemEvicted(key, item);
+      return null;
+    }
+    final int retainedSize = item == null ? 0 : itemSize;
+
+    Node<T, Y> old = cache.get(key);
+    Y oldValue = null;
+    if (old != null) {
+      oldValue = old.value;
+      old.value = item;
+      updateSize(old, retainedSize - old.size);
+      old.size = retainedSize;
+      onAccess(old);
+    } else {
+      Node<T, Y> node = new Node<>(key, item, retainedSize);
+      cache.put(key, node);
+      node.queue = window;
+      window.addLast(node);
+      updateSize(node, retainedSize);
+      sketch.ensureCapacity(cache.size());
+    }
+
+    if (oldValue != null && !oldValue.equals(item)) {
+      onItemEvicted(key, oldValue);
+    }
+    evict();
+
+    return oldValue;
+  }
+
+  /**
+   * Removes the item at the given key and returns the removed item if present, and null otherwise.
+   *
+   * @param key The key to remove the item at.
+   */
+  @Nullable
+  public synchronized Y remove(@NonNull T key) {
+    sketch.increment(key);
+    Node<T, Y> node = cache.remove(key);
+    if (node == null) {
+      return null;
+    }
+    unlink(node);
+    return node.value;
+  }
+
+  /** Clears all items in the cache. */
+  public void clearMemory() {
+    trimToSize(0);
+  }
+
+  /**
+   * Removes items from the cache until the current size is less than the given size, evicting
+   * first from the probationary segment, then from the admission window and finally from the
+   * protected segment, in least recently used order.
+   *
+   * @param size The size the cache should be less than.
+   */
+  protected synchronized void trimToSize(long size) {
+    while (currentSize > size) {
+      Node<T, Y> victim = probation.head;
+      if (victim == null) {
+        victim = window.head;
+      }
+      if (victim == null) {
+        victim = protectedQueue.head;
+      }
+      evictNode(victim);
+    }
+  }
+
+  private void evict() {
+    Node<T, Y> candidate = evictFromWindow();
+    evictFromMain(candidate);
+  }
+
+  /**
+   * Moves items from the head of the window to the tail of the probationary segment until the
+   * window fits in its budget and returns the first moved item, or null if none were moved.
+   */
+  @Nullable
+  private Node<T, Y> evictFromWindow() {
+    Node<T, Y> first = null;
+    while (windowSize > maxWindowSize && window.head != null) {
+      Node<T, Y> node = window.head;
+      window.remove(node);
+      windowSize -= node.size;
+      node.queue = probation;
+      probation.addLast(node);
+      if (first == null) {
+        first = node;
+      }
+    }
+    return first;
+  }
+
+  /**
+   * Evicts items until the cache fits within its maximum size, choosing between each candidate
+   * from the window and the least recently used probationary item based on frequency.
+   */
+  private void evictFromMain(@Nullable Node<T, Y> candidate) {
+    while (currentSize > maxSize) {
+      Node<T, Y> victim = probation.head;
+      if (victim == null) {
+        victim = protectedQueue.head;
+      }
+      if (victim == null) {
+        victim = window.head;
+      }
+
+      if (candidate == null) {
+        evictNode(victim);
+      } else if (victim == candidate) {
+        // The candidate has outlived every older probationary item, so it's no longer a candidate.
+        candidate = candidate.next;
+      } else if (admit(candidate.key, victim.key)) {
+        evictNode(victim);
+      } else {
+        Node<T, Y> next = candidate.next;
+        evictNode(candidate);
+        candidate = next;
+      }
+    }
+  }
+
+  private boolean admit(@NonNull T candidateKey, @NonNull T victimKey) {
+    return sketch.frequency(candidateKey) > sketch.frequency(victimKey);
+  }
+
+  private void onAccess(Node<T, Y> node) {
+    if (node.queue == probation) {
+      probation.remove(node);
+      node.queue = protectedQueue;
+      protectedQueue.addLast(node);
+      protectedSize += node.size;
+      demoteFromProtected();
+    } else {
+      node.queue.moveToLast(node);
+    }
+  }
+
+  private void demoteFromProtected() {
+    while (protectedSize > maxProtectedSize && protectedQueue.head != null) {
+      Node<T, Y> node = protectedQueue.head;
+      protectedQueue.remove(node);
+      protectedSize -= node.size;
+      node.queue = probation;
+      probation.addLast(node);
+    }
+  }
+
+  private void updateSize(Node<T, Y> node, long delta) {
+    currentSize += delta;
+    if (node.queue == window) {
+      windowSize += delta;
+    } else if (node.queue == protectedQueue) {
+      protectedSize += delta;
+    }
+  }
+
+  private void unlink(Node<T, Y> node) {
+    node.queue.remove(node);
+    updateSize(node, -node.size);
+  }
+
+  private void evictNode(Node<T, Y> node) {
+    cache.remove(node.key);
+    unlink(node);
+    onItemEvicted(node.key, node.value);
+  }
+
+  private static final class Node<T, Y> {
+    @Synthetic final T key;
+    @Synthetic Y value;
+    @Synthetic int size;
+    @Synthetic NodeQueue<T, Y> queue;
+    @Synthetic Node<T, Y> prev;
+    @Synthetic Node<T, Y> next;
+
+    @Synthetic
+    Node(T key, Y value, int size) {
+      this.key = key;
+      this.value = value;
+      this.size = size;
+    }
+  }
+
+  /** An intrusive doubly linked list ordered from least to most recently used. */
+  private static final class NodeQueue<T, Y> {
+    @Synthetic Node<T, Y> head;
+    @Synthetic Node<T, Y> tail;
+
+    @Synthetic
+    NodeQueue() {}
+
+    @Synthetic
+    void addLast(Node<T, Y> node) {
+      node.prev = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+    }
+
+    @Synthetic
+    void remove(Node<T, Y> node) {
+      if (node.prev == null) {
+        head = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+    }
+
+    @Synthetic
+    void moveToLast(Node<T, Y> node) {
+      if (tail != node) {
+        remove(node);
+        addLast(node);
+      }
+    }
+  }
+}
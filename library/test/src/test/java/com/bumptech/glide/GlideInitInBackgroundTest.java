@@ -0,0 +1,191 @@
+package com.bumptech.glide;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import com.bumptech.glide.tests.TearDownGlide;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class GlideInitInBackgroundTest {
+  @Rule public final TearDownGlide tearDownGlide = new TearDownGlide();
+
+  private final QueueingExecutor executor = new QueueingExecutor();
+  private Context context;
+
+  @Before
+  public void setUp() {
+    context = ApplicationProvider.getApplicationContext();
+  }
+
+  @Test
+  public void initInBackground_runsOnExecutor() {
+    Glide.initInBackground(context, executor);
+
+    assertThat(executor.tasks).hasSize(1);
+  }
+
+  @Test
+  public void initInBackground_whileRunning_doesNothing() {
+    Glide.initInBackground(context, executor);
+    Glide.initInBackground(context, executor);
+
+    assertThat(executor.tasks).hasSize(1);
+  }
+
+  @Test
+  public void initInBackground_afterInitialization_doesNothing() {
+    Glide.get(context);
+
+    Glide.initInBackground(context, executor);
+
+    assertThat(executor.tasks).isEmpty();
+  }
+
+  @Test
+  public void whenReady_whileRunning_waitsForInitialization() {
+    Glide.initInBackground(context, executor);
+    CountingRunnable callback = new CountingRunnable();
+
+    Glide.whenReady(context, callback);
+    shadowOf(Looper.getMainLooper()).idle();
+    assertThat(callback.count).isEqualTo(0);
+
+    executor.runAll();
+    shadowOf(Looper.getMainLooper()).idle();
+    assertThat(callback.count).isEqualTo(1);
+  }
+
+  @Test
+  public void whenReady_afterInitialization_runsCallback() {
+    Glide.get(context);
+    CountingRunnable callback = new CountingRunnable();
+
+    Glide.whenReady(context, callback);
+
+    assertThat(callback.count).isEqualTo(1);
+  }
+
+  @Test
+  public void initInBackground_afterBackgroundInitialization_doesNothing() {
+    Glide.initInBackground(context, executor);
+    executor.runAll();
+
+    Glide.initInBackground(context, executor);
+
+    assertThat(executor.tasks).isEmpty();
+  }
+
+  @Test
+  public void initInBackground_afterTearDown_startsInitialization() {
+    Glide.initInBackground(context, executor);
+    Glide.tearDown();
+
+    Glide.initInBackground(context, executor);
+
+    assertThat(executor.tasks).hasSize(2);
+  }
+
+  @Test
+  public void whenReady_withInitializationOnBackgroundThread_runsCallbackOnMainThread()
+      throws InterruptedException {
+    ExecutorService backgroundExecutor = Executors.newSingleThreadExecutor();
+    CountingRunnable callback = new CountingRunnable();
+
+    Glide.initInBackground(context, backgroundExecutor);
+    Glide.whenReady(context, callback);
+    backgroundExecutor.shutdown();
+    assertThat(backgroundExecutor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    shadowOf(Looper.getMainLooper()).idle();
+
+    assertThat(callback.count).isEqualTo(1);
+    assertThat(callback.ranOnMainThread).isTrue();
+  }
+
+  @Test
+  public void whenReady_whileGlideIsLocked_doesNotWaitForLock() throws InterruptedException {
+    Glide.initInBackground(context, executor);
+    final CountDownLatch locked = new CountDownLatch(1);
+    final CountDownLatch unlock = new CountDownLatch(1);
+    // Holds the lock the way a slow initialization on another thread would.
+    Thread initThread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                synchronized (Glide.class) {
+                  locked.countDown();
+                  try {
+                    unlock.await();
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                }
+              }
+            });
+    initThread.start();
+    locked.await();
+
+    Thread caller =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                Glide.whenReady(context, new CountingRunnable());
+              }
+            });
+    try {
+      caller.start();
+      caller.join(TimeUnit.SECONDS.toMillis(10));
+      assertThat(caller.isAlive()).isFalse();
+    } finally {
+      unlock.countDown();
+      initThread.join();
+      caller.join();
+    }
+  }
+
+  private static final class QueueingExecutor implements Executor {
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+      tasks.add(command);
+    }
+
+    void runAll() {
+      for (Runnable task : tasks) {
+        task.run();
+      }
+      tasks.clear();
+    }
+  }
+
+  private static final class CountingRunnable implements Runnable {
+    private int count;
+    private boolean ranOnMainThread;
+
+    @Override
+    public void run() {
+      count++;
+      ranOnMainThread = Looper.myLooper() == Looper.getMainLooper();
+    }
+  }
+}
@@ -1,10 +1,18 @@
 package com.bumptech.glide;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
 
+import androidx.annotation.NonNull;
 import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.model.ModelLoader;
 import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
 import com.bumptech.glide.load.resource.transcode.ResourceTranscoder;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
@@ -17,6 +25,7 @@ import org.robolectric.RobolectricTestRunner;
 public class RegistryTest {
 
   @Mock private ModelLoaderFactory<Model, Data> modelLoaderFactory;
+  @Mock private ModelLoader<Model, Data> modelLoader;
   @Mock private ResourceDecoder<Data, ResourceOne> resourceOneDecoder;
   @Mock private ResourceDecoder<Data, ResourceTwo> resourceTwoDecoder;
   @Mock private ResourceTranscoder<ResourceOne, TranscodeOne> resourceOneTranscodeOneTranscoder;
@@ -129,11 +138,125 @@ public class RegistryTest {
     }
   }
 
+  @Test
+  public void appendLazily_withDecoder_createsDecoderOnlyWhenDecodersAreFirstNeeded() {
+    CountingSupplier<ResourceDecoder<Data, ResourceOne>> decoderSupplier =
+        new CountingSupplier<>(resourceOneDecoder);
+    registry.append(Model.class, Data.class, modelLoaderFactory);
+    registry.appendLazily(Registry.BUCKET_BITMAP, Data.class, ResourceOne.class, decoderSupplier);
+    registry.register(ResourceOne.class, TranscodeOne.class, resourceOneTranscodeOneTranscoder);
+
+    assertThat(getRegisteredResourceClasses()).containsExactly(ResourceOne.class);
+    assertThat(decoderSupplier.count).isEqualTo(0);
+
+    registry.getLoadPath(Data.class, ResourceOne.class, TranscodeOne.class);
+    registry.getLoadPath(Data.class, ResourceOne.class, TranscodeOne.class);
+    assertThat(decoderSupplier.count).isEqualTo(1);
+  }
+
+  @Test
+  public void appendLazily_withModelLoaderFactory_createsFactoryOnlyWhenLoadersAreFirstNeeded() {
+    when(modelLoaderFactory.build(any(MultiModelLoaderFactory.class))).thenReturn(modelLoader);
+    when(modelLoader.handles(any(Model.class))).thenReturn(true);
+    CountingSupplier<ModelLoaderFactory<Model, Data>> factorySupplier =
+        new CountingSupplier<>(modelLoaderFactory);
+
+    registry.appendLazily(Model.class, Data.class, factorySupplier);
+    assertThat(factorySupplier.count).isEqualTo(0);
+
+    List<ModelLoader<Model, ?>> modelLoaders = registry.getModelLoaders(new Model());
+    assertThat(modelLoaders).hasSize(1);
+    assertThat(factorySupplier.count).isEqualTo(1);
+  }
+
+  @Test
+  public void replace_withUnusedLazyModelLoaderFactory_doesNotCreateFactory() {
+    CountingSupplier<ModelLoaderFactory<Model, Data>> factorySupplier =
+        new CountingSupplier<>(modelLoaderFactory);
+    registry.appendLazily(Model.class, Data.class, factorySupplier);
+
+    registry.replace(Model.class, Data.class, modelLoaderFactory);
+
+    assertThat(factorySupplier.count).isEqualTo(0);
+  }
+
+  @Test
+  public void setPrecomputedTranscodeClasses_matchesDynamicResolution() {
+    registry.append(Model.class, Data.class, modelLoaderFactory);
+    registry.append(Data.class, ResourceOne.class, resourceOneDecoder);
+    registry.append(Data.class, ResourceTwo.class, resourceTwoDecoder);
+    registry.register(ResourceOne.class, TranscodeOne.class, resourceOneTranscodeOneTranscoder);
+
+    registry.setPrecomputedTranscodeClasses(
+        Arrays.<Class<?>>asList(TranscodeOne.class, TranscodeTwo.class));
+
+    assertThat(getRegisteredResourceClasses()).containsExactly(ResourceOne.class);
+    assertThat(
+            registry.getRegisteredResourceClasses(Model.class, Object.class, TranscodeOne.class))
+        .containsExactly(ResourceOne.class);
+    assertThat(
+            registry.getRegisteredResourceClasses(Model.class, Object.class, TranscodeTwo.class))
+        .isEmpty();
+  }
+
+  @Test
+  public void setPrecomputedTranscodeClasses_thenRegisterTranscoder_usesNewTranscoder() {
+    registry.append(Model.class, Data.class, modelLoaderFactory);
+    registry.append(Data.class, ResourceOne.class, resourceOneDecoder);
+    registry.setPrecomputedTranscodeClasses(
+        Collections.<Class<?>>singletonList(TranscodeOne.class));
+    assertThat(
+            registry.getRegisteredResourceClasses(Model.class, Object.class, TranscodeOne.class))
+        .isEmpty();
+
+    registry.register(ResourceOne.class, TranscodeOne.class, resourceOneTranscodeOneTranscoder);
+
+    assertThat(
+            registry.getRegisteredResourceClasses(Model.class, Object.class, TranscodeOne.class))
+        .containsExactly(ResourceOne.class);
+  }
+
+  @Test
+  public void setPrecomputedTranscodeClasses_doesNotCreateLazyComponents() {
+    CountingSupplier<ModelLoaderFactory<Model, Data>> factorySupplier =
+        new CountingSupplier<>(modelLoaderFactory);
+    CountingSupplier<ResourceDecoder<Data, ResourceOne>> decoderSupplier =
+        new CountingSupplier<>(resourceOneDecoder);
+    registry.appendLazily(Model.class, Data.class, factorySupplier);
+    registry.appendLazily(Registry.BUCKET_BITMAP, Data.class, ResourceOne.class, decoderSupplier);
+    registry.register(ResourceOne.class, TranscodeOne.class, resourceOneTranscodeOneTranscoder);
+
+    registry.setPrecomputedTranscodeClasses(
+        Collections.<Class<?>>singletonList(TranscodeOne.class));
+
+    assertThat(
+            registry.getRegisteredResourceClasses(Model.class, Object.class, TranscodeOne.class))
+        .containsExactly(ResourceOne.class);
+    assertThat(factorySupplier.count).isEqualTo(0);
+    assertThat(decoderSupplier.count).isEqualTo(0);
+  }
+
   private List<Class<?>> getRegisteredResourceClasses() {
     return registry.getRegisteredResourceClasses(
         Model.class, ResourceOne.class, TranscodeOne.class);
   }
 
+  private static final class CountingSupplier<T> implements GlideSupplier<T> {
+    private final T instance;
+    private int count;
+
+    CountingSupplier(T instance) {
+      this.instance = instance;
+    }
+
+    @NonNull
+    @Override
+    public T get() {
+      count++;
+      return instance;
+    }
+  }
+
   private static final class Model {
     // Empty class to represent model classes for readability.
   }
@@ -0,0 +1,95 @@
+package com.bumptech.glide.load.engine;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.signature.ObjectKey;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ActiveSourceFetchesTest {
+  private final ActiveSourceFetches fetches = new ActiveSourceFetches();
+  private final Key key = new ObjectKey("key");
+  private final ActiveSourceFetches.Callback owner = mock(ActiveSourceFetches.Callback.class);
+  private final ActiveSourceFetches.Callback waiter = mock(ActiveSourceFetches.Callback.class);
+
+  @Test
+  public void startOrWait_withNoFetch_returnsFalse() {
+    assertThat(fetches.startOrWait(key, owner)).isFalse();
+  }
+
+  @Test
+  public void startOrWait_withFetch_returnsTrue() {
+    fetches.startOrWait(key, owner);
+
+    assertThat(fetches.startOrWait(key, waiter)).isTrue();
+  }
+
+  @Test
+  public void startOrWait_withFetchForDifferentKey_returnsFalse() {
+    fetches.startOrWait(new ObjectKey("other"), owner);
+
+    assertThat(fetches.startOrWait(key, waiter)).isFalse();
+  }
+
+  @Test
+  public void finish_notifiesWaiters() {
+    fetches.startOrWait(key, owner);
+    fetches.startOrWait(key, waiter);
+
+    fetches.finish(key, owner);
+
+    verify(waiter).onSourceFetchFinished();
+    verify(owner, never()).onSourceFetchFinished();
+  }
+
+  @Test
+  public void finish_allowsNewFetch() {
+    fetches.startOrWait(key, owner);
+    fetches.finish(key, owner);
+
+    assertThat(fetches.startOrWait(key, waiter)).isFalse();
+  }
+
+  @Test
+  public void finish_withWaiter_doesNothing() {
+    fetches.startOrWait(key, owner);
+    fetches.startOrWait(key, waiter);
+
+    fetches.finish(key, waiter);
+
+    verify(waiter, never()).onSourceFetchFinished();
+    assertThat(fetches.start(key, waiter)).isFalse();
+  }
+
+  @Test
+  public void removeWaiter_doesNotNotifyWaiter() {
+    fetches.startOrWait(key, owner);
+    fetches.startOrWait(key, waiter);
+
+    fetches.removeWaiter(key, waiter);
+    fetches.finish(key, owner);
+
+    verify(waiter, never()).onSourceFetchFinished();
+  }
+
+  @Test
+  public void start_withNoFetch_returnsTrue() {
+    assertThat(fetches.start(key, owner)).isTrue();
+  }
+
+  @Test
+  public void start_withFetch_returnsFalseAndDoesNotWait() {
+    fetches.startOrWait(key, owner);
+
+    assertThat(fetches.start(key, waiter)).isFalse();
+    fetches.finish(key, owner);
+
+    verify(waiter, never()).onSourceFetchFinished();
+  }
+}
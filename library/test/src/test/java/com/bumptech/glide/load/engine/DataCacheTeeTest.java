@@ -0,0 +1,192 @@
+package com.bumptech.glide.load.engine;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheWrapper;
+import com.bumptech.glide.signature.ObjectKey;
+import com.bumptech.glide.util.ByteBufferUtil;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class DataCacheTeeTest {
+  private final byte[] data = new byte[100 * 1024];
+  private final Key key = new ObjectKey("key");
+  private File tempDir;
+  private File cacheDir;
+  private DiskCache diskCache;
+  private DataCacheTee.Callback callback;
+
+  @Before
+  public void setUp() {
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    File root = ApplicationProvider.getApplicationContext().getCacheDir();
+    tempDir = new File(root, "tee_temp");
+    cacheDir = new File(root, "tee_cache");
+    assertThat(tempDir.mkdirs() || tempDir.isDirectory()).isTrue();
+    diskCache = DiskLruCacheWrapper.create(cacheDir, 10 * 1024 * 1024);
+    callback = mock(DataCacheTee.Callback.class);
+  }
+
+  @After
+  public void tearDown() {
+    diskCache.clear();
+    deleteRecursively(tempDir);
+    deleteRecursively(cacheDir);
+  }
+
+  @Test
+  public void read_returnsSourceData() throws IOException {
+    DataCacheTee tee = newTee();
+
+    assertThat(readFully(tee)).isEqualTo(data);
+    tee.abort();
+  }
+
+  @Test
+  public void commit_afterReadingAllData_writesDataToCache() throws IOException {
+    DataCacheTee tee = newTee();
+    readFully(tee);
+
+    assertThat(tee.commit(diskCache, key)).isTrue();
+
+    assertThat(ByteBufferUtil.toBytes(ByteBufferUtil.fromFile(diskCache.get(key))))
+        .isEqualTo(data);
+  }
+
+  @Test
+  public void commit_afterPartialRead_writesRemainingDataToCache() throws IOException {
+    DataCacheTee tee = newTee();
+    assertThat(tee.read(new byte[10], 0, 10)).isEqualTo(10);
+    assertThat(tee.skip(1000)).isEqualTo(1000);
+
+    assertThat(tee.commit(diskCache, key)).isTrue();
+
+    assertThat(ByteBufferUtil.toBytes(ByteBufferUtil.fromFile(diskCache.get(key))))
+        .isEqualTo(data);
+  }
+
+  @Test
+  public void commit_deletesTemporaryFile() throws IOException {
+    DataCacheTee tee = newTee();
+
+    tee.commit(diskCache, key);
+
+    assertThat(tempDir.list()).isEmpty();
+  }
+
+  @Test
+  public void abort_deletesTemporaryFileAndDoesNotWriteToCache() throws IOException {
+    DataCacheTee tee = newTee();
+    readFully(tee);
+
+    tee.abort();
+
+    assertThat(tempDir.list()).isEmpty();
+    assertThat(diskCache.get(key)).isNull();
+  }
+
+  @Test
+  public void onDecodeComplete_notifiesCallbackOnce() throws IOException {
+    DataCacheTee tee = newTee();
+
+    tee.onDecodeComplete(/*isDecoded=*/ true);
+    tee.onDecodeComplete(/*isDecoded=*/ false);
+
+    verify(callback).onDecodeComplete(eq(tee), eq(true));
+    verify(callback, times(1)).onDecodeComplete(any(DataCacheTee.class), anyBoolean());
+    tee.abort();
+  }
+
+  @Test
+  public void commit_withSourceThatFailsMidway_doesNotWriteToCache() throws IOException {
+    DataCacheTee tee =
+        DataCacheTee.create(
+            new FailingInputStream(data, 1024), tempDir, new LruArrayPool(), callback);
+    assertThat(tee.read(new byte[10], 0, 10)).isEqualTo(10);
+
+    assertThat(tee.commit(diskCache, key)).isFalse();
+
+    assertThat(diskCache.get(key)).isNull();
+    assertThat(tempDir.list()).isEmpty();
+  }
+
+  private DataCacheTee newTee() throws IOException {
+    return DataCacheTee.create(
+        new ByteArrayInputStream(data), tempDir, new LruArrayPool(), callback);
+  }
+
+  private static byte[] readFully(InputStream is) throws IOException {
+    byte[] result = new byte[0];
+    byte[] buffer = new byte[4096];
+    int read;
+    while ((read = is.read(buffer)) != -1) {
+      byte[] expanded = new byte[result.length + read];
+      System.arraycopy(result, 0, expanded, 0, result.length);
+      System.arraycopy(buffer, 0, expanded, result.length, read);
+      result = expanded;
+    }
+    return result;
+  }
+
+  private static void deleteRecursively(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteRecursively(child);
+      }
+    }
+    // Ignore failures, the next test will overwrite anything that's left.
+    file.delete();
+  }
+
+  /** Throws after reading a fixed number of bytes, like a dropped connection. */
+  private static final class FailingInputStream extends InputStream {
+    private final InputStream delegate;
+    private final int failAfter;
+    private int totalRead;
+
+    FailingInputStream(@NonNull byte[] data, int failAfter) {
+      this.delegate = new ByteArrayInputStream(data);
+      this.failAfter = failAfter;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] buffer = new byte[1];
+      return read(buffer, 0, 1) == -1 ? -1 : buffer[0] & 0xFF;
+    }
+
+    @Override
+    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+      if (totalRead >= failAfter) {
+        throw new IOException("Connection lost");
+      }
+      int read = delegate.read(buffer, offset, Math.min(length, failAfter - totalRead));
+      totalRead += read;
+      return read;
+    }
+  }
+}
@@ -0,0 +1,314 @@
+package com.bumptech.glide.load.engine;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.annotation.NonNull;
+import androidx.core.util.Pools;
+import com.bumptech.glide.GlideBuilder.IndexImageHeaders;
+import com.bumptech.glide.GlideContext;
+import com.bumptech.glide.GlideExperiments;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheWrapper;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoader.LoadData;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.load.resource.SimpleResource;
+import com.bumptech.glide.load.resource.bitmap.ImageHeaderIndex;
+import com.bumptech.glide.signature.ObjectKey;
+import java.io.IOException;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class DecodeJobTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Key sourceKey = new ObjectKey("source");
+  private final Key signature = new ObjectKey("signature");
+  private final ImageHeaderIndex imageHeaderIndex = new ImageHeaderIndex();
+  private final GlideExperiments experiments = mock(GlideExperiments.class);
+  private final Options options = new Options();
+  private final Model model = new Model();
+  private final Registry registry = new Registry();
+  private final GlideContext glideContext = mock(GlideContext.class);
+  private final FakeFetcher fetcher = new FakeFetcher();
+
+  @SuppressWarnings("unchecked")
+  private final ResourceDecoder<Data, Decoded> decoder = mock(ResourceDecoder.class);
+
+  @SuppressWarnings("unchecked")
+  private final DecodeJob.Callback<Object> callback = mock(DecodeJob.Callback.class);
+
+  private DiskCache diskCache;
+  private DecodeJob<Object> decodeJob;
+
+  @Before
+  public void setUp() throws IOException {
+    diskCache = DiskLruCacheWrapper.create(temporaryFolder.newFolder(), 1024 * 1024);
+    when(glideContext.getRegistry()).thenReturn(registry);
+    when(glideContext.getExperiments()).thenReturn(experiments);
+    when(experiments.isEnabled(IndexImageHeaders.class)).thenReturn(true);
+    registry.append(Model.class, Data.class, new FakeModelLoaderFactory(sourceKey, fetcher));
+    registry.append(Data.class, Decoded.class, decoder);
+    when(decoder.handles(any(Data.class), any(Options.class))).thenReturn(true);
+    when(decoder.decode(any(Data.class), anyInt(), anyInt(), any(Options.class)))
+        .thenReturn(new SimpleResource<>(new Decoded()));
+    // Decode data retrieved from source on a separate decode executor.
+    when(callback.hasDecodeExecutor()).thenReturn(true);
+
+    decodeJob = newDecodeJob(DiskCacheStrategy.AUTOMATIC);
+  }
+
+  @Test
+  public void run_withDataFromSource_handsDecodeToDecodeExecutor() throws IOException {
+    DecodeJob<Object> job = newDecodeJob(DiskCacheStrategy.NONE);
+
+    job.run();
+
+    verify(callback).rescheduleDecode(job);
+    verify(decoder, never()).decode(any(Data.class), anyInt(), anyInt(), any(Options.class));
+  }
+
+  @Test
+  public void run_withDataFromSource_handsDecodeOffAfterFetchReturns() throws IOException {
+    final DecodeJob<Object> job = newDecodeJob(DiskCacheStrategy.NONE);
+    final boolean[] isLoadingDuringHandOff = new boolean[1];
+    doAnswer(
+            new Answer<Void>() {
+              @Override
+              public Void answer(InvocationOnMock invocation) {
+                isLoadingDuringHandOff[0] = fetcher.isLoading;
+                return null;
+              }
+            })
+        .when(callback)
+        .rescheduleDecode(job);
+
+    job.run();
+
+    verify(callback).rescheduleDecode(job);
+    assertThat(isLoadingDuringHandOff[0]).isFalse();
+  }
+
+  @Test
+  public void run_onDecodeExecutor_decodesDataFromSource() throws IOException {
+    DecodeJob<Object> job = newDecodeJob(DiskCacheStrategy.NONE);
+    job.run();
+
+    job.run();
+
+    verify(decoder).decode(any(Data.class), anyInt(), anyInt(), any(Options.class));
+    verify(callback)
+        .onResourceReady(any(Resource.class), any(DataSource.class), anyBoolean());
+    assertThat(fetcher.loadCount).isEqualTo(1);
+  }
+
+  @Test
+  public void run_cancelledDuringHandOffToDecodeExecutor_failsWithoutDecoding()
+      throws IOException {
+    DecodeJob<Object> job = newDecodeJob(DiskCacheStrategy.NONE);
+    job.run();
+
+    job.cancel();
+    job.run();
+
+    verify(callback).onLoadFailed(any(GlideException.class));
+    verify(decoder, never()).decode(any(Data.class), anyInt(), anyInt(), any(Options.class));
+    verify(callback, never())
+        .onResourceReady(any(Resource.class), any(DataSource.class), anyBoolean());
+  }
+
+  @Test
+  public void run_withFailedDecodeOnDecodeExecutor_returnsToSourceExecutor() throws IOException {
+    when(decoder.decode(any(Data.class), anyInt(), anyInt(), any(Options.class)))
+        .thenReturn(null);
+    DecodeJob<Object> job = newDecodeJob(DiskCacheStrategy.NONE);
+    job.run();
+
+    job.run();
+
+    // Remaining sources are fetched on the source executor, not the decode executor.
+    verify(callback).reschedule(job);
+    verify(callback, never()).onLoadFailed(any(GlideException.class));
+  }
+
+  @Test
+  public void run_withFailedDecodeOnDecodeExecutor_andNoOtherSources_notifiesFailure()
+      throws IOException {
+    when(decoder.decode(any(Data.class), anyInt(), anyInt(), any(Options.class)))
+        .thenReturn(null);
+    DecodeJob<Object> job = newDecodeJob(DiskCacheStrategy.NONE);
+    job.run();
+    job.run();
+
+    job.run();
+
+    verify(callback).onLoadFailed(any(GlideException.class));
+    assertThat(fetcher.loadCount).isEqualTo(1);
+  }
+
+  @Test
+  public void getOptionsForDecode_withDataFromDataDiskCache_setsHeaderIndexEntryForDataKey() {
+    Options result = decodeJob.getOptionsForDecode(DataSource.DATA_DISK_CACHE, sourceKey);
+
+    assertThat(result.get(ImageHeaderIndex.ENTRY))
+        .isEqualTo(imageHeaderIndex.getEntry(diskCache, new DataCacheKey(sourceKey, signature)));
+  }
+
+  @Test
+  public void getOptionsForDecode_withHeaderIndexDisabled_doesNotSetHeaderIndexEntry() {
+    when(experiments.isEnabled(IndexImageHeaders.class)).thenReturn(false);
+
+    Options result = decodeJob.getOptionsForDecode(DataSource.DATA_DISK_CACHE, sourceKey);
+
+    assertThat(result.get(ImageHeaderIndex.ENTRY)).isNull();
+  }
+
+  @Test
+  public void getOptionsForDecode_withDataFromDataDiskCache_doesNotModifyRequestOptions() {
+    decodeJob.getOptionsForDecode(DataSource.DATA_DISK_CACHE, sourceKey);
+
+    assertThat(options.get(ImageHeaderIndex.ENTRY)).isNull();
+  }
+
+  @Test
+  public void getOptionsForDecode_withDataFromSource_doesNotSetHeaderIndexEntry() {
+    Options result = decodeJob.getOptionsForDecode(DataSource.REMOTE, sourceKey);
+
+    assertThat(result.get(ImageHeaderIndex.ENTRY)).isNull();
+  }
+
+  @Test
+  public void getOptionsForDecode_withResourceFromResourceDiskCache_doesNotSetHeaderIndexEntry() {
+    Options result = decodeJob.getOptionsForDecode(DataSource.RESOURCE_DISK_CACHE, sourceKey);
+
+    assertThat(result.get(ImageHeaderIndex.ENTRY)).isNull();
+  }
+
+  @SuppressWarnings("unchecked")
+  private DecodeJob<Object> newDecodeJob(DiskCacheStrategy diskCacheStrategy) {
+    DecodeJob<Object> result =
+        new DecodeJob<>(
+            new DecodeJob.DiskCacheProvider() {
+              @Override
+              public DiskCache getDiskCache() {
+                return diskCache;
+              }
+            },
+            imageHeaderIndex,
+            new ActiveSourceFetches(),
+            (Pools.Pool<DecodeJob<?>>) mock(Pools.Pool.class));
+    return result.init(
+        glideContext,
+        model,
+        mock(EngineKey.class),
+        signature,
+        100,
+        100,
+        Object.class,
+        Object.class,
+        Priority.NORMAL,
+        diskCacheStrategy,
+        Collections.<Class<?>, Transformation<?>>emptyMap(),
+        /*isTransformationRequired=*/ false,
+        /*isScaleOnlyOrNoTransform=*/ true,
+        /*onlyRetrieveFromCache=*/ false,
+        options,
+        callback,
+        /*order=*/ 0);
+  }
+
+  private static final class Model {}
+
+  private static final class Data {}
+
+  private static final class Decoded {}
+
+  /** Returns data synchronously, as fetchers for local data typically do. */
+  private static final class FakeFetcher implements DataFetcher<Data> {
+    private int loadCount;
+    private boolean isLoading;
+
+    @Override
+    public void loadData(@NonNull Priority priority, @NonNull DataCallback<? super Data> callback) {
+      loadCount++;
+      isLoading = true;
+      callback.onDataReady(new Data());
+      isLoading = false;
+    }
+
+    @Override
+    public void cleanup() {}
+
+    @Override
+    public void cancel() {}
+
+    @NonNull
+    @Override
+    public Class<Data> getDataClass() {
+      return Data.class;
+    }
+
+    @NonNull
+    @Override
+    public DataSource getDataSource() {
+      return DataSource.REMOTE;
+    }
+  }
+
+  private static final class FakeModelLoaderFactory implements ModelLoaderFactory<Model, Data> {
+    private final Key sourceKey;
+    private final DataFetcher<Data> fetcher;
+
+    FakeModelLoaderFactory(Key sourceKey, DataFetcher<Data> fetcher) {
+      this.sourceKey = sourceKey;
+      this.fetcher = fetcher;
+    }
+
+    @NonNull
+    @Override
+    public ModelLoader<Model, Data> build(@NonNull MultiModelLoaderFactory multiFactory) {
+      return new ModelLoader<Model, Data>() {
+        @Override
+        public LoadData<Data> buildLoadData(
+            @NonNull Model model, int width, int height, @NonNull Options options) {
+          return new LoadData<>(sourceKey, fetcher);
+        }
+
+        @Override
+        public boolean handles(@NonNull Model model) {
+          return true;
+        }
+      };
+    }
+
+    @Override
+    public void teardown() {}
+  }
+}
@@ -472,6 +472,49 @@ public class EngineJobTest {
     verify(harness.decodeJob).run();
   }
 
+  @Test
+  public void hasDecodeExecutor_withoutDecodeExecutor_returnsFalse() {
+    EngineJob<Object> job = harness.getJob();
+
+    assertFalse(job.hasDecodeExecutor());
+  }
+
+  @Test
+  public void hasDecodeExecutor_withDecodeExecutor_returnsTrue() {
+    harness.hasDecodeExecutor = true;
+    EngineJob<Object> job = harness.getJob();
+
+    assertTrue(job.hasDecodeExecutor());
+  }
+
+  @Test
+  public void hasDecodeExecutor_withDecodeExecutorAndUnlimitedSourcePool_returnsFalse() {
+    harness.hasDecodeExecutor = true;
+    harness.useUnlimitedSourceGeneratorPool = true;
+    EngineJob<Object> job = harness.getJob();
+
+    assertFalse(job.hasDecodeExecutor());
+  }
+
+  @Test
+  public void rescheduleDecode_withDecodeExecutor_submitsDecodeJobToDecodeService() {
+    harness.hasDecodeExecutor = true;
+    EngineJob<Object> job = harness.getJob();
+    harness.sourceService.shutdownNow();
+    job.rescheduleDecode(harness.decodeJob);
+
+    verify(harness.decodeJob).run();
+  }
+
+  @Test
+  public void rescheduleDecode_withoutDecodeExecutor_submitsDecodeJobToSourceService() {
+    EngineJob<Object> job = harness.getJob();
+    harness.decodeService.shutdownNow();
+    job.rescheduleDecode(harness.decodeJob);
+
+    verify(harness.decodeJob).run();
+  }
+
   @Test
   public void testSubmitsDecodeJobToDiskCacheServiceWhenDecodingFromCacheOnStart() {
     EngineJob<Object> job = harness.getJob();
@@ -542,6 +585,7 @@ public class EngineJobTest {
               sourceService,
               sourceUnlimitedService,
               animationService,
+              /*decodeExecutor=*/ null,
               engineJobListener,
               resourceListener,
               pool,
@@ -575,6 +619,8 @@ public class EngineJobTest {
     final GlideExecutor sourceService = MockGlideExecutor.newMainThreadExecutor();
     final GlideExecutor sourceUnlimitedService = MockGlideExecutor.newMainThreadExecutor();
     final GlideExecutor animationService = MockGlideExecutor.newMainThreadExecutor();
+    final GlideExecutor decodeService = MockGlideExecutor.newMainThreadExecutor();
+    boolean hasDecodeExecutor = false;
     boolean isCacheable = true;
     boolean useUnlimitedSourceGeneratorPool = false;
     final boolean useAnimationPool = false;
@@ -592,6 +638,7 @@ public class EngineJobTest {
               sourceService,
               sourceUnlimitedService,
               animationService,
+              hasDecodeExecutor ? decodeService : null,
               engineJobListener,
               resourceListener,
               pool,
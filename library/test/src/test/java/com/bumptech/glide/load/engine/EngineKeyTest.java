@@ -1,5 +1,6 @@
 package com.bumptech.glide.load.engine;
 
+import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertThrows;
 
 import androidx.annotation.NonNull;
@@ -188,4 +189,61 @@ public class EngineKeyTest {
                 diskOptions))
         .testEquals();
   }
+
+  @Test
+  public void obtainProbeKey_onSameThread_reusesKey() {
+    EngineKeyFactory factory = new EngineKeyFactory();
+    EngineKey first = obtainProbeKey(factory, "id");
+    factory.releaseProbeKey(first);
+
+    EngineKey second = obtainProbeKey(factory, "otherId");
+
+    assertThat(second).isSameInstanceAs(first);
+  }
+
+  @Test
+  public void obtainProbeKey_isEqualToKeyWithSameArguments() {
+    EngineKey probeKey = obtainProbeKey(new EngineKeyFactory(), "id");
+
+    assertThat(probeKey).isEqualTo(newKey("id"));
+    assertThat(probeKey.hashCode()).isEqualTo(newKey("id").hashCode());
+  }
+
+  @Test
+  public void buildKey_afterProbeKeyIsReused_isUnchanged() {
+    EngineKeyFactory factory = new EngineKeyFactory();
+    EngineKey probeKey = obtainProbeKey(factory, "id");
+    EngineKey key = factory.buildKey(probeKey);
+    factory.releaseProbeKey(probeKey);
+
+    obtainProbeKey(factory, "otherId");
+
+    assertThat(key).isNotSameInstanceAs(probeKey);
+    assertThat(key).isEqualTo(newKey("id"));
+    assertThat(key.hashCode()).isEqualTo(newKey("id").hashCode());
+  }
+
+  private static EngineKey obtainProbeKey(EngineKeyFactory factory, String model) {
+    return factory.obtainProbeKey(
+        model,
+        new ObjectKey("signature"),
+        100,
+        100,
+        Collections.<Class<?>, Transformation<?>>emptyMap(),
+        Object.class,
+        Object.class,
+        new Options());
+  }
+
+  private static EngineKey newKey(String model) {
+    return new EngineKey(
+        model,
+        new ObjectKey("signature"),
+        100,
+        100,
+        Collections.<Class<?>, Transformation<?>>emptyMap(),
+        Object.class,
+        Object.class,
+        new Options());
+  }
 }
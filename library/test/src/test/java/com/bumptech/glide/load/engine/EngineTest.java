@@ -7,6 +7,7 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -30,13 +31,18 @@ import com.bumptech.glide.load.engine.cache.LruResourceCache;
 import com.bumptech.glide.load.engine.cache.MemoryCache;
 import com.bumptech.glide.load.engine.executor.GlideExecutor;
 import com.bumptech.glide.load.engine.executor.MockGlideExecutor;
+import com.bumptech.glide.load.resource.SimpleResource;
 import com.bumptech.glide.request.ResourceCallback;
+import com.bumptech.glide.signature.ObjectKey;
+import com.bumptech.glide.tests.AllocationCounter;
 import com.bumptech.glide.tests.BackgroundUtil;
 import com.bumptech.glide.tests.GlideShadowLooper;
+import com.bumptech.glide.util.CachedHashCodeArrayMap;
 import com.bumptech.glide.util.Executors;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -131,6 +137,29 @@ public class EngineTest {
         .onResourceReady(eq(harness.resource), eq(DataSource.MEMORY_CACHE), eq(false));
   }
 
+  @Test
+  public void load_withResourceInActiveResources_doesNotWaitForEngineLock()
+      throws InterruptedException {
+    harness.activeResources.activate(harness.cacheKey, harness.resource);
+    Engine engine = harness.getEngine();
+    Thread thread =
+        new Thread() {
+          @Override
+          public void run() {
+            harness.doLoad();
+          }
+        };
+
+    synchronized (engine) {
+      thread.start();
+      thread.join(TimeUnit.SECONDS.toMillis(5));
+      assertThat(thread.isAlive()).isFalse();
+    }
+
+    verify(harness.cb)
+        .onResourceReady(eq(harness.resource), eq(DataSource.MEMORY_CACHE), eq(false));
+  }
+
   @Test
   public void testResourceIsAcquiredIfReturnedFromActiveResources() {
     harness.activeResources.activate(harness.cacheKey, harness.resource);
@@ -394,7 +423,7 @@ public class EngineTest {
     harness.doLoad();
 
     verify(harness.keyFactory)
-        .buildKey(
+        .obtainProbeKey(
             eq(harness.model),
             eq(harness.signature),
             eq(harness.width),
@@ -405,6 +434,136 @@ public class EngineTest {
             eq(harness.options));
   }
 
+  @Test
+  public void load_withResourceInActiveResources_doesNotBuildKey() {
+    harness.activeResources.activate(harness.cacheKey, harness.resource);
+
+    harness.doLoad();
+
+    verify(harness.keyFactory, never()).buildKey(any(EngineKey.class));
+  }
+
+  @Test
+  public void load_withResourceInMemoryCache_doesNotBuildKey() {
+    when(harness.cache.remove(eq(harness.cacheKey))).thenReturn(harness.resource);
+
+    harness.doLoad();
+
+    verify(harness.keyFactory, never()).buildKey(any(EngineKey.class));
+  }
+
+  @Test
+  public void load_withResourceNotInMemory_buildsKey() {
+    harness.doLoad();
+
+    verify(harness.keyFactory).buildKey(harness.cacheKey);
+  }
+
+  @Test
+  public void load_releasesProbeKey() {
+    harness.doLoad();
+
+    verify(harness.keyFactory).releaseProbeKey(harness.cacheKey);
+  }
+
+  @Test
+  public void load_withResourceInActiveResources_doesNotAllocate() {
+    assumeTrue(AllocationCounter.isSupported());
+    final Options options = new Options();
+    final Map<Class<?>, Transformation<?>> transformations = new CachedHashCodeArrayMap<>();
+    final Key signature = new ObjectKey("signature");
+    final Engine engine =
+        new Engine(
+            new LruResourceCache(100),
+            mock(DiskCache.Factory.class),
+            MockGlideExecutor.newMainThreadExecutor(),
+            MockGlideExecutor.newMainThreadExecutor(),
+            MockGlideExecutor.newMainThreadExecutor(),
+            MockGlideExecutor.newMainThreadExecutor(),
+            /*decodeExecutor=*/ null,
+            new Jobs(),
+            new EngineKeyFactory(),
+            harness.activeResources,
+            harness.engineJobFactory,
+            harness.decodeJobFactory,
+            harness.resourceRecycler,
+            /*isActiveResourceRetentionAllowed=*/ true);
+    EngineKey key =
+        new EngineKey(
+            "model",
+            signature,
+            harness.width,
+            harness.height,
+            new CachedHashCodeArrayMap<Class<?>, Transformation<?>>(),
+            Object.class,
+            Object.class,
+            new Options());
+    EngineResource<Object> resource =
+        new EngineResource<>(
+            new SimpleResource<>(new Object()),
+            /*isMemoryCacheable=*/ true,
+            /*isRecyclable=*/ true,
+            key,
+            engine);
+    resource.acquire();
+    harness.activeResources.activate(key, resource);
+    final ResourceCallback cb =
+        new ResourceCallback() {
+          @Override
+          public void onResourceReady(
+              Resource<?> resource, DataSource dataSource, boolean isLoadedFromAlternateCacheKey) {
+            engine.release(resource);
+          }
+
+          @Override
+          public void onLoadFailed(GlideException e) {
+            throw new AssertionError("Expected a memory cache hit", e);
+          }
+
+          @Override
+          public Object getLock() {
+            return this;
+          }
+        };
+    final int loads = 10_000;
+    Runnable load =
+        new Runnable() {
+          @Override
+          public void run() {
+            for (int i = 0; i < loads; i++) {
+              engine.load(
+                  harness.glideContext,
+                  "model",
+                  signature,
+                  harness.width,
+                  harness.height,
+                  Object.class,
+                  Object.class,
+                  Priority.HIGH,
+                  DiskCacheStrategy.ALL,
+                  transformations,
+                  /*isTransformationRequired=*/ false,
+                  harness.isScaleOnlyOrNoTransform,
+                  options,
+                  /*isMemoryCacheable=*/ true,
+                  /*useUnlimitedSourceExecutorPool=*/ false,
+                  /*useAnimationPool=*/ false,
+                  /*onlyRetrieveFromCache=*/ false,
+                  cb,
+                  Executors.directExecutor());
+            }
+          }
+        };
+    // Warm up so that one time allocations, like the probe key for this thread, aren't counted.
+    load.run();
+
+    long allocatedBytes = AllocationCounter.countAllocatedBytes(load);
+
+    verify(harness.engineJobFactory, never())
+        .build(any(EngineKey.class), anyBoolean(), anyBoolean(), anyBoolean(), anyBoolean());
+    assertThat(allocatedBytes).isLessThan((long) loads);
+  }
+
   @Test
   public void testFactoryIsGivenNecessaryArguments() {
     harness.doLoad();
@@ -683,7 +842,7 @@ public class EngineTest {
     final boolean isScaleOnlyOrNoTransform = true;
 
     EngineTestHarness() {
-      when(keyFactory.buildKey(
+      when(keyFactory.obtainProbeKey(
               eq(model),
               eq(signature),
               anyInt(),
@@ -693,7 +852,9 @@ public class EngineTest {
               eq(Object.class),
               eq(options)))
           .thenReturn(cacheKey);
+      when(keyFactory.buildKey(cacheKey)).thenReturn(cacheKey);
       when(resource.getResource()).thenReturn(mock(Resource.class));
+      when(resource.getKey()).thenReturn(cacheKey);
 
       job = mock(EngineJob.class);
     }
@@ -740,6 +901,7 @@ public class EngineTest {
                 MockGlideExecutor.newMainThreadExecutor(),
                 MockGlideExecutor.newMainThreadExecutor(),
                 MockGlideExecutor.newMainThreadExecutor(),
+                /*decodeExecutor=*/ null,
                 jobs,
                 keyFactory,
                 activeResources,
@@ -0,0 +1,456 @@
+package com.bumptech.glide.load.engine;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.data.InputStreamRewinder;
+import com.bumptech.glide.load.engine.DataFetcherGenerator.FetcherReadyCallback;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheWrapper;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoader.LoadData;
+import com.bumptech.glide.load.model.StreamEncoder;
+import com.bumptech.glide.signature.ObjectKey;
+import com.bumptech.glide.util.ByteBufferUtil;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class SourceGeneratorTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final byte[] data = new byte[16 * 1024];
+  private final Key sourceKey = new ObjectKey("source");
+  private final Key signature = new ObjectKey("signature");
+  private final ArrayPool arrayPool = new LruArrayPool();
+  private final FakeFetcher<InputStream> sourceFetcher = new FakeFetcher<>(InputStream.class);
+  private final FetcherReadyCallback cb = mock(FetcherReadyCallback.class);
+  private final ActiveSourceFetches activeSourceFetches = new ActiveSourceFetches();
+  // A second load of the same source that may wait for the first one's fetch.
+  private final FakeFetcher<InputStream> waiterFetcher = new FakeFetcher<>(InputStream.class);
+  private final FetcherReadyCallback waiterCb = mock(FetcherReadyCallback.class);
+  private DiskCache diskCache;
+  private DecodeHelper<?> helper;
+  private DecodeHelper<?> waiterHelper;
+
+  @Before
+  public void setUp() throws IOException {
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    diskCache = DiskLruCacheWrapper.create(temporaryFolder.newFolder("cache"), 1024 * 1024);
+    helper = mockHelper(diskCache, temporaryFolder.newFolder("temp"), sourceFetcher);
+    waiterHelper = mockHelper(diskCache, temporaryFolder.newFolder("waiterTemp"), waiterFetcher);
+  }
+
+  @After
+  public void tearDown() {
+    diskCache.clear();
+  }
+
+  @Test
+  public void onDecodeComplete_withDecodedTee_writesDataToCache() throws IOException {
+    SourceGenerator generator = newGenerator(helper, new ActiveSourceFetches(), cb);
+    DataCacheTee tee = fetchAndTee(generator, new ByteArrayInputStream(data));
+
+    readFully(tee);
+    tee.onDecodeComplete(/*isDecoded=*/ true);
+
+    assertThat(getCachedData()).isEqualTo(data);
+  }
+
+  @Test
+  public void startNext_afterDecodedTee_doesNotLoadFromCache() throws IOException {
+    SourceGenerator generator = newGenerator(helper, new ActiveSourceFetches(), cb);
+    DataCacheTee tee = fetchAndTee(generator, new ByteArrayInputStream(data));
+    readFully(tee);
+    tee.onDecodeComplete(/*isDecoded=*/ true);
+
+    assertThat(generator.startNext()).isFalse();
+  }
+
+  @Test
+  public void onDecodeComplete_withFailedDecode_doesNotWriteDataToCache() throws IOException {
+    SourceGenerator generator = newGenerator(helper, new ActiveSourceFetches(), cb);
+    DataCacheTee tee = fetchAndTee(generator, new ByteArrayInputStream(data));
+
+    // Decoders may give up after reading only part of the data.
+    tee.read(new byte[100]);
+    tee.onDecodeComplete(/*isDecoded=*/ false);
+
+    assertThat(diskCache.get(new DataCacheKey(sourceKey, signature))).isNull();
+    assertThat(generator.startNext()).isFalse();
+  }
+
+  @Test
+  public void onDecodeComplete_withFailedDecode_deletesTemporaryFile() throws IOException {
+    File temporaryFileDirectory = helper.getTemporaryFileDirectory();
+    SourceGenerator generator = newGenerator(helper, new ActiveSourceFetches(), cb);
+    DataCacheTee tee = fetchAndTee(generator, new ByteArrayInputStream(data));
+
+    readFully(tee);
+    tee.onDecodeComplete(/*isDecoded=*/ false);
+
+    assertThat(temporaryFileDirectory.list()).isEmpty();
+  }
+
+  @Test
+  public void onDecodeComplete_withSourceReadFailure_doesNotWriteDataToCache()
+      throws IOException {
+    SourceGenerator generator = newGenerator(helper, new ActiveSourceFetches(), cb);
+    DataCacheTee tee =
+        fetchAndTee(generator, new FailingInputStream(data, /*failAfter=*/ data.length / 2));
+
+    tee.read(new byte[100]);
+    tee.onDecodeComplete(/*isDecoded=*/ false);
+
+    assertThat(diskCache.get(new DataCacheKey(sourceKey, signature))).isNull();
+    assertThat(generator.startNext()).isFalse();
+  }
+
+  @Test
+  public void startNext_withoutTemporaryFileDirectory_writesDataToCacheBeforeDecoding()
+      throws IOException {
+    when(helper.getTemporaryFileDirectory()).thenReturn(new File(temporaryFolder.getRoot(), "no"));
+    SourceGenerator generator = newGenerator(helper, new ActiveSourceFetches(), cb);
+    assertThat(generator.startNext()).isTrue();
+    sourceFetcher.callback.onDataReady(new ByteArrayInputStream(data));
+
+    assertThat(generator.startNext()).isTrue();
+
+    assertThat(getCachedData()).isEqualTo(data);
+    verify(cb)
+        .onDataFetcherReady(
+            eq(sourceKey), isA(File.class), any(DataFetcher.class), eq(DataSource.REMOTE), any());
+    verify(cb, never())
+        .onDataFetcherReady(
+            any(Key.class), isA(DataCacheTee.class), any(DataFetcher.class), any(), any());
+  }
+
+  @Test
+  public void startNext_withFetchInProgress_waitsForFetch() {
+    SourceGenerator owner = newGenerator(helper, activeSourceFetches, cb);
+    assertThat(owner.startNext()).isTrue();
+    SourceGenerator waiter = newGenerator(waiterHelper, activeSourceFetches, waiterCb);
+
+    assertThat(waiter.startNext()).isTrue();
+
+    assertThat(sourceFetcher.loadCount).isEqualTo(1);
+    assertThat(waiterFetcher.loadCount).isEqualTo(0);
+    verify(waiterCb, never()).reschedule();
+  }
+
+  @Test
+  public void startNext_afterAwaitedFetchIsCached_loadsFromCache() throws IOException {
+    SourceGenerator owner = newGenerator(helper, activeSourceFetches, cb);
+    SourceGenerator waiter = newGenerator(waiterHelper, activeSourceFetches, waiterCb);
+    DataCacheTee tee = fetchAndTee(owner, new ByteArrayInputStream(data), waiter);
+
+    readFully(tee);
+    tee.onDecodeComplete(/*isDecoded=*/ true);
+    verify(waiterCb).reschedule();
+
+    assertThat(waiter.startNext()).isTrue();
+    assertThat(waiterFetcher.loadCount).isEqualTo(0);
+    verify(waiterCb)
+        .onDataFetcherReady(
+            eq(sourceKey), isA(File.class), any(DataFetcher.class), eq(DataSource.REMOTE), any());
+  }
+
+  @Test
+  public void startNext_afterAwaitedFetchFails_fetchesSource() {
+    SourceGenerator owner = newGenerator(helper, activeSourceFetches, cb);
+    assertThat(owner.startNext()).isTrue();
+    SourceGenerator waiter = newGenerator(waiterHelper, activeSourceFetches, waiterCb);
+    assertThat(waiter.startNext()).isTrue();
+
+    sourceFetcher.callback.onLoadFailed(new IOException("Failed to load"));
+    verify(waiterCb).reschedule();
+
+    // Nothing was cached, so the waiter fetches the source itself.
+    assertThat(waiter.startNext()).isTrue();
+    assertThat(waiterFetcher.loadCount).isEqualTo(1);
+  }
+
+  @Test
+  public void startNext_afterAwaitedFetchFails_onlyWaitsOnce() {
+    SourceGenerator owner = newGenerator(helper, activeSourceFetches, cb);
+    assertThat(owner.startNext()).isTrue();
+    SourceGenerator waiter = newGenerator(waiterHelper, activeSourceFetches, waiterCb);
+    assertThat(waiter.startNext()).isTrue();
+    sourceFetcher.callback.onLoadFailed(new IOException("Failed to load"));
+    // A third load starts a new fetch before the waiter is rescheduled.
+    FakeFetcher<InputStream> otherFetcher = new FakeFetcher<>(InputStream.class);
+    SourceGenerator other =
+        newGenerator(
+            mockHelper(diskCache, temporaryFolder.getRoot(), otherFetcher),
+            activeSourceFetches,
+            mock(FetcherReadyCallback.class));
+    assertThat(other.startNext()).isTrue();
+
+    assertThat(waiter.startNext()).isTrue();
+
+    assertThat(otherFetcher.loadCount).isEqualTo(1);
+    assertThat(waiterFetcher.loadCount).isEqualTo(1);
+  }
+
+  @Test
+  public void cancel_whileWaiting_stopsWaiting() throws IOException {
+    SourceGenerator owner = newGenerator(helper, activeSourceFetches, cb);
+    SourceGenerator waiter = newGenerator(waiterHelper, activeSourceFetches, waiterCb);
+    DataCacheTee tee = fetchAndTee(owner, new ByteArrayInputStream(data), waiter);
+
+    waiter.cancel();
+    readFully(tee);
+    tee.onDecodeComplete(/*isDecoded=*/ true);
+
+    verify(waiterCb, never()).reschedule();
+    assertThat(waiterFetcher.isCancelled).isFalse();
+    assertThat(sourceFetcher.isCancelled).isFalse();
+  }
+
+  @Test
+  public void cancel_withWaiters_notifiesWaiters() {
+    SourceGenerator owner = newGenerator(helper, activeSourceFetches, cb);
+    assertThat(owner.startNext()).isTrue();
+    SourceGenerator waiter = newGenerator(waiterHelper, activeSourceFetches, waiterCb);
+    assertThat(waiter.startNext()).isTrue();
+
+    owner.cancel();
+
+    assertThat(sourceFetcher.isCancelled).isTrue();
+    verify(waiterCb).reschedule();
+  }
+
+  @Test
+  public void onLoadFailed_withWaiters_notifiesWaiters() {
+    SourceGenerator owner = newGenerator(helper, activeSourceFetches, cb);
+    assertThat(owner.startNext()).isTrue();
+    SourceGenerator waiter = newGenerator(waiterHelper, activeSourceFetches, waiterCb);
+    assertThat(waiter.startNext()).isTrue();
+
+    IOException exception = new IOException("Failed to load");
+    sourceFetcher.callback.onLoadFailed(exception);
+
+    verify(cb)
+        .onDataFetcherFailed(any(), eq(exception), any(DataFetcher.class), eq(DataSource.REMOTE));
+    verify(waiterCb).reschedule();
+  }
+
+  private static SourceGenerator newGenerator(
+      DecodeHelper<?> helper, ActiveSourceFetches fetches, FetcherReadyCallback cb) {
+    return new SourceGenerator(helper, fetches, cb);
+  }
+
+  /** Starts the source fetch, delivers the given data and returns the stream passed to decode. */
+  private DataCacheTee fetchAndTee(SourceGenerator generator, InputStream stream) {
+    return fetchAndTee(generator, stream, /*waiter=*/ null);
+  }
+
+  /**
+   * Starts the source fetch, then starts the given waiter, if any, before delivering the given data
+   * and returns the stream passed to decode.
+   */
+  private DataCacheTee fetchAndTee(
+      SourceGenerator generator, InputStream stream, @Nullable SourceGenerator waiter) {
+    assertThat(generator.startNext()).isTrue();
+    if (waiter != null) {
+      assertThat(waiter.startNext()).isTrue();
+    }
+    sourceFetcher.callback.onDataReady(stream);
+    verify(cb).reschedule();
+    assertThat(generator.startNext()).isTrue();
+
+    ArgumentCaptor<Object> dataCaptor = ArgumentCaptor.forClass(Object.class);
+    verify(cb)
+        .onDataFetcherReady(
+            eq(sourceKey),
+            dataCaptor.capture(),
+            any(DataFetcher.class),
+            eq(DataSource.REMOTE),
+            eq(sourceKey));
+    return (DataCacheTee) dataCaptor.getValue();
+  }
+
+  private byte[] getCachedData() throws IOException {
+    File file = diskCache.get(new DataCacheKey(sourceKey, signature));
+    assertThat(file).isNotNull();
+    return ByteBufferUtil.toBytes(ByteBufferUtil.fromFile(file));
+  }
+
+  private static void readFully(InputStream is) throws IOException {
+    byte[] buffer = new byte[1024];
+    while (is.read(buffer) != -1) {
+      // Keep reading.
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private DecodeHelper<?> mockHelper(
+      DiskCache diskCache, File temporaryFileDirectory, FakeFetcher<InputStream> fetcher) {
+    DecodeHelper<?> helper = mock(DecodeHelper.class);
+    List<LoadData<?>> loadData =
+        Collections.<LoadData<?>>singletonList(new LoadData<>(sourceKey, fetcher));
+    when(helper.getLoadData()).thenReturn(loadData);
+    when(helper.getDiskCache()).thenReturn(diskCache);
+    when(helper.getDiskCacheStrategy()).thenReturn(DiskCacheStrategy.DATA);
+    when(helper.getSignature()).thenReturn(signature);
+    when(helper.getPriority()).thenReturn(Priority.NORMAL);
+    when(helper.getOptions()).thenReturn(new Options());
+    when(helper.getArrayPool()).thenReturn(arrayPool);
+    when(helper.getTemporaryFileDirectory()).thenReturn(temporaryFileDirectory);
+    when(helper.isDecodeSourceWhileCachingEnabled()).thenReturn(true);
+    when(helper.hasLoadPath(any(Class.class))).thenReturn(true);
+    doReturn(new StreamEncoder(arrayPool)).when(helper).getSourceEncoder(any());
+    when(helper.getRewinder(any(InputStream.class)))
+        .thenAnswer(
+            new Answer<Object>() {
+              @Override
+              public Object answer(InvocationOnMock invocation) {
+                return new InputStreamRewinder(
+                    (InputStream) invocation.getArgument(0), arrayPool);
+              }
+            });
+    doReturn(Collections.singletonList(new CacheFileLoader()))
+        .when(helper)
+        .getModelLoaders(any(File.class));
+    return helper;
+  }
+
+  private static final class FakeFetcher<T> implements DataFetcher<T> {
+    private final Class<T> dataClass;
+    private DataCallback<? super T> callback;
+    private int loadCount;
+    private boolean isCancelled;
+
+    FakeFetcher(Class<T> dataClass) {
+      this.dataClass = dataClass;
+    }
+
+    @Override
+    public void loadData(@NonNull Priority priority, @NonNull DataCallback<? super T> callback) {
+      loadCount++;
+      this.callback = callback;
+    }
+
+    @Override
+    public void cleanup() {}
+
+    @Override
+    public void cancel() {
+      isCancelled = true;
+    }
+
+    @NonNull
+    @Override
+    public Class<T> getDataClass() {
+      return dataClass;
+    }
+
+    @NonNull
+    @Override
+    public DataSource getDataSource() {
+      return DataSource.REMOTE;
+    }
+  }
+
+  /** Loads files from the disk cache by returning the file itself. */
+  private static final class CacheFileLoader implements ModelLoader<File, File> {
+    @Nullable
+    @Override
+    public LoadData<File> buildLoadData(
+        @NonNull final File file, int width, int height, @NonNull Options options) {
+      return new LoadData<>(
+          new ObjectKey(file),
+          new DataFetcher<File>() {
+            @Override
+            public void loadData(
+                @NonNull Priority priority, @NonNull DataCallback<? super File> callback) {
+              callback.onDataReady(file);
+            }
+
+            @Override
+            public void cleanup() {}
+
+            @Override
+            public void cancel() {}
+
+            @NonNull
+            @Override
+            public Class<File> getDataClass() {
+              return File.class;
+            }
+
+            @NonNull
+            @Override
+            public DataSource getDataSource() {
+              return DataSource.LOCAL;
+            }
+          });
+    }
+
+    @Override
+    public boolean handles(@NonNull File file) {
+      return true;
+    }
+  }
+
+  /** Returns the given data, but throws once more than {@code failAfter} bytes have been read. */
+  private static final class FailingInputStream extends FilterInputStream {
+    private final int failAfter;
+    private int read;
+
+    FailingInputStream(byte[] data, int failAfter) {
+      super(new ByteArrayInputStream(data));
+      this.failAfter = failAfter;
+    }
+
+    @Override
+    public int read() throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+      if (read + length > failAfter) {
+        throw new IOException("Failed to read");
+      }
+      int result = super.read(buffer, offset, length);
+      read += result;
+      return result;
+    }
+  }
+}
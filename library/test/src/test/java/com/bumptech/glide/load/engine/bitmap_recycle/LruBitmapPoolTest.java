@@ -8,9 +8,12 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.graphics.Bitmap;
@@ -164,6 +167,37 @@ public class LruBitmapPoolTest {
     assertThat(result.getConfig()).isEqualTo(Bitmap.Config.ARGB_8888);
   }
 
+  @Test
+  public void getDirty_withEmptyPool_notifiesMissListener() {
+    LruBitmapPool.MissListener listener = mock(LruBitmapPool.MissListener.class);
+    pool.setMissListener(listener);
+
+    pool.getDirty(100, 50, /*config=*/ null);
+
+    verify(listener).onBitmapMissed(100, 50, Bitmap.Config.ARGB_8888);
+  }
+
+  @Test
+  public void get_withEmptyPool_notifiesMissListener() {
+    LruBitmapPool.MissListener listener = mock(LruBitmapPool.MissListener.class);
+    pool.setMissListener(listener);
+
+    pool.get(100, 50, Bitmap.Config.RGB_565);
+
+    verify(listener).onBitmapMissed(100, 50, Bitmap.Config.RGB_565);
+  }
+
+  @Test
+  public void get_withBitmapInPool_doesNotNotifyMissListener() {
+    LruBitmapPool.MissListener listener = mock(LruBitmapPool.MissListener.class);
+    pool.setMissListener(listener);
+    pool.put(createMutableBitmap());
+
+    pool.get(100, 100, Bitmap.Config.ARGB_8888);
+
+    verify(listener, never()).onBitmapMissed(anyInt(), anyInt(), any(Bitmap.Config.class));
+  }
+
   private void testTrimMemory(int fillSize, int trimLevel, int expectedSize) {
     MockStrategy strategy = new MockStrategy();
     LruBitmapPool pool = new LruBitmapPool(MAX_SIZE, strategy, ALLOWED_CONFIGS);
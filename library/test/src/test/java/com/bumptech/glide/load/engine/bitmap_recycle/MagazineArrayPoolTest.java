@@ -0,0 +1,225 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL;
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class MagazineArrayPoolTest {
+  private static final int ARRAY_SIZE = 1024;
+  private static final int MAX_SIZE = 64 * ARRAY_SIZE;
+
+  private MagazineArrayPool pool;
+
+  @Before
+  public void setUp() {
+    pool = new MagazineArrayPool(MAX_SIZE);
+  }
+
+  @Test
+  public void get_afterPut_returnsSameArray() {
+    byte[] array = new byte[ARRAY_SIZE];
+    pool.put(array);
+
+    assertThat(pool.get(ARRAY_SIZE, byte[].class)).isSameInstanceAs(array);
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void get_withSmallerSize_returnsLargerArray() {
+    byte[] array = new byte[ARRAY_SIZE];
+    pool.put(array);
+
+    assertThat(pool.get(ARRAY_SIZE / 2, byte[].class)).isSameInstanceAs(array);
+  }
+
+  @Test
+  public void get_withMuchSmallerSize_doesNotReturnArrayFromMagazine() {
+    byte[] array = new byte[ARRAY_SIZE];
+    pool.put(array);
+
+    byte[] result = pool.get(ARRAY_SIZE / (LruArrayPool.MAX_OVER_SIZE_MULTIPLE + 1), byte[].class);
+
+    assertThat(result).isNotSameInstanceAs(array);
+  }
+
+  @Test
+  public void getExact_withSmallerSize_doesNotReturnLargerArray() {
+    byte[] array = new byte[ARRAY_SIZE];
+    pool.put(array);
+
+    byte[] result = pool.getExact(ARRAY_SIZE / 2, byte[].class);
+
+    assertThat(result).hasLength(ARRAY_SIZE / 2);
+  }
+
+  @Test
+  public void get_withDifferentType_doesNotReturnArray() {
+    pool.put(new byte[ARRAY_SIZE * 4]);
+
+    int[] result = pool.get(ARRAY_SIZE, int[].class);
+
+    assertThat(result).hasLength(ARRAY_SIZE);
+  }
+
+  @Test
+  public void getAndPut_repeatedlyOnOneThread_rarelyAccessesSharedPool() {
+    int decodes = 1000;
+    for (int i = 0; i < decodes; i++) {
+      // Mimics a decode, which uses a couple of standard buffers and a smaller exif buffer.
+      byte[] first = pool.get(ARRAY_SIZE, byte[].class);
+      byte[] second = pool.get(ARRAY_SIZE, byte[].class);
+      byte[] exif = pool.get(ARRAY_SIZE / 4, byte[].class);
+      pool.put(exif);
+      pool.put(second);
+      pool.put(first);
+    }
+
+    assertThat(pool.getSharedPoolAccessCount()).isLessThan(10);
+  }
+
+  @Test
+  public void put_withFullMagazine_spillsToSharedPool() {
+    List<byte[]> arrays = new ArrayList<>();
+    for (int i = 0; i < MagazineArrayPool.MAGAZINE_SIZE + 1; i++) {
+      byte[] array = new byte[ARRAY_SIZE];
+      arrays.add(array);
+      pool.put(array);
+    }
+
+    assertThat(pool.getSharedPoolAccessCount()).isEqualTo(1);
+    assertThat(pool.getCurrentSize()).isEqualTo(arrays.size() * ARRAY_SIZE);
+    List<byte[]> results = new ArrayList<>();
+    for (int i = 0; i < arrays.size(); i++) {
+      results.add(pool.get(ARRAY_SIZE, byte[].class));
+    }
+    assertThat(results).containsExactlyElementsIn(arrays);
+  }
+
+  @Test
+  public void put_beyondMaxSize_keepsTotalSizeWithinMaxSize() {
+    for (int i = 0; i < 2 * MAX_SIZE / ARRAY_SIZE; i++) {
+      pool.put(new byte[ARRAY_SIZE]);
+    }
+
+    assertThat(pool.getCurrentSize()).isAtMost(MAX_SIZE);
+  }
+
+  @Test
+  public void put_withArrayLargerThanPool_doesNotAddArray() {
+    pool.put(new byte[MAX_SIZE + 1]);
+
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void clearMemory_removesArraysFromAllMagazines() throws InterruptedException {
+    pool.put(new byte[ARRAY_SIZE]);
+    Thread other =
+        new Thread() {
+          @Override
+          public void run() {
+            pool.put(new byte[ARRAY_SIZE]);
+          }
+        };
+    other.start();
+    other.join();
+    assertThat(pool.getCurrentSize()).isEqualTo(2 * ARRAY_SIZE);
+
+    pool.clearMemory();
+
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void trimMemory_background_removesAllArrays() {
+    for (int i = 0; i < MAX_SIZE / ARRAY_SIZE; i++) {
+      pool.put(new byte[ARRAY_SIZE]);
+    }
+
+    pool.trimMemory(TRIM_MEMORY_BACKGROUND);
+
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void trimMemory_runningCritical_trimsToHalfOfMaxSize() {
+    for (int i = 0; i < MAX_SIZE / ARRAY_SIZE; i++) {
+      pool.put(new byte[ARRAY_SIZE]);
+    }
+
+    pool.trimMemory(TRIM_MEMORY_RUNNING_CRITICAL);
+
+    assertThat(pool.getCurrentSize()).isAtMost(MAX_SIZE / 2);
+  }
+
+  @Test
+  public void put_afterOwnerThreadDies_returnsOrphanedArraysToSharedPool()
+      throws InterruptedException {
+    final byte[] array = new byte[ARRAY_SIZE];
+    Thread other =
+        new Thread() {
+          @Override
+          public void run() {
+            pool.put(array);
+          }
+        };
+    other.start();
+    other.join();
+
+    // Creating this thread's magazine returns the dead thread's arrays to the shared pool.
+    assertThat(pool.get(ARRAY_SIZE, byte[].class)).isSameInstanceAs(array);
+  }
+
+  @Test
+  public void getAndPut_fromManyThreads_keepsTotalSizeWithinMaxSize() throws InterruptedException {
+    int threadCount = 8;
+    final int operationsPerThread = 1000;
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      final int size = ARRAY_SIZE * (1 + t % 3);
+      Thread thread =
+          new Thread() {
+            @Override
+            public void run() {
+              try {
+                start.await();
+                for (int i = 0; i < operationsPerThread; i++) {
+                  byte[] first = pool.get(size, byte[].class);
+                  byte[] second = pool.get(size, byte[].class);
+                  assertThat(first).isNotSameInstanceAs(second);
+                  pool.put(first);
+                  pool.put(second);
+                }
+              } catch (Throwable e) {
+                failure.set(e);
+              }
+            }
+          };
+      thread.start();
+      threads.add(thread);
+    }
+
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    assertThat(failure.get()).isNull();
+    assertThat(pool.getCurrentSize()).isAtMost(MAX_SIZE);
+  }
+}
@@ -0,0 +1,262 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL;
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Bitmap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SizeClassBitmapPoolTest {
+  private static final int BITMAP_SIZE = 100 * 100 * 4;
+  private static final int MAX_SIZE = 10 * BITMAP_SIZE;
+  private static final Set<Bitmap.Config> ALLOWED_CONFIGS =
+      Collections.singleton(Bitmap.Config.ARGB_8888);
+
+  private SizeClassBitmapPool pool;
+
+  @Before
+  public void setUp() {
+    pool = new SizeClassBitmapPool(MAX_SIZE, ALLOWED_CONFIGS);
+  }
+
+  @Test
+  public void get_withMatchingBitmap_returnsBitmap() {
+    Bitmap bitmap = createMutableBitmap();
+    pool.put(bitmap);
+
+    assertThat(pool.get(100, 100, Bitmap.Config.ARGB_8888)).isSameInstanceAs(bitmap);
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+    assertThat(pool.hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_withSmallerRequest_reconfiguresLargerBitmap() {
+    Bitmap bitmap = createMutableBitmap();
+    pool.put(bitmap);
+
+    Bitmap result = pool.getDirty(50, 50, Bitmap.Config.ARGB_8888);
+
+    assertThat(result).isSameInstanceAs(bitmap);
+    assertThat(result.getWidth()).isEqualTo(50);
+    assertThat(result.getHeight()).isEqualTo(50);
+  }
+
+  @Test
+  public void get_withRequestSmallerThanAnEighth_doesNotReturnBitmap() {
+    Bitmap bitmap = createMutableBitmap();
+    pool.put(bitmap);
+
+    assertThat(pool.getDirty(10, 10, Bitmap.Config.ARGB_8888)).isNotSameInstanceAs(bitmap);
+    assertThat(pool.missCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_withLargerRequest_doesNotReturnBitmap() {
+    Bitmap bitmap = createMutableBitmap();
+    pool.put(bitmap);
+
+    assertThat(pool.getDirty(101, 100, Bitmap.Config.ARGB_8888)).isNotSameInstanceAs(bitmap);
+  }
+
+  @Test
+  public void get_withBitmapsInSameSizeClass_returnsLargeEnoughBitmap() {
+    Bitmap small = Bitmap.createBitmap(91, 91, Bitmap.Config.ARGB_8888);
+    Bitmap large = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+    assertThat(SizeClassBitmapPool.floorSizeClass(small.getAllocationByteCount()))
+        .isEqualTo(SizeClassBitmapPool.floorSizeClass(large.getAllocationByteCount()));
+    pool.put(large);
+    pool.put(small);
+
+    assertThat(pool.getDirty(95, 95, Bitmap.Config.ARGB_8888)).isSameInstanceAs(large);
+  }
+
+  @Test
+  public void put_withImmutableBitmap_recyclesBitmap() {
+    Bitmap bitmap = createMutableBitmap();
+    Shadows.shadowOf(bitmap).setMutable(false);
+
+    pool.put(bitmap);
+
+    assertThat(bitmap.isRecycled()).isTrue();
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void put_withDisallowedConfig_recyclesBitmap() {
+    Bitmap bitmap = Bitmap.createBitmap(100, 100, Bitmap.Config.RGB_565);
+
+    pool.put(bitmap);
+
+    assertThat(bitmap.isRecycled()).isTrue();
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void put_withBitmapLargerThanPool_recyclesBitmap() {
+    pool = new SizeClassBitmapPool(BITMAP_SIZE - 1, ALLOWED_CONFIGS);
+    Bitmap bitmap = createMutableBitmap();
+
+    pool.put(bitmap);
+
+    assertThat(bitmap.isRecycled()).isTrue();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void put_withRecycledBitmap_throws() {
+    Bitmap bitmap = createMutableBitmap();
+    bitmap.recycle();
+
+    pool.put(bitmap);
+  }
+
+  @Test
+  public void put_beyondMaxSize_evictsBitmaps() {
+    List<Bitmap> bitmaps = fillPool(MAX_SIZE / BITMAP_SIZE + 2);
+
+    assertThat(pool.getCurrentSize()).isAtMost((long) MAX_SIZE);
+    assertThat(pool.evictionCount()).isEqualTo(2);
+    assertThat(countRecycled(bitmaps)).isEqualTo(2);
+  }
+
+  @Test
+  public void put_beyondMaxSize_skipsRecentlyUsedSizeClass() {
+    Bitmap first = Bitmap.createBitmap(50, 50, Bitmap.Config.ARGB_8888);
+    pool.put(first);
+    List<Bitmap> large = fillPool(MAX_SIZE / BITMAP_SIZE);
+    // Neither size class was used since the clock last passed, so the oldest bitmap was evicted.
+    assertThat(first.isRecycled()).isTrue();
+    assertThat(countRecycled(large)).isEqualTo(0);
+
+    Bitmap second = Bitmap.createBitmap(50, 50, Bitmap.Config.ARGB_8888);
+    pool.put(second);
+
+    assertThat(second.isRecycled()).isFalse();
+    assertThat(large.get(0).isRecycled()).isTrue();
+  }
+
+  @Test
+  public void clearMemory_recyclesAllBitmaps() {
+    List<Bitmap> bitmaps = fillPool(MAX_SIZE / BITMAP_SIZE);
+
+    pool.clearMemory();
+
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+    assertThat(countRecycled(bitmaps)).isEqualTo(bitmaps.size());
+  }
+
+  @Test
+  public void trimMemory_background_recyclesAllBitmaps() {
+    List<Bitmap> bitmaps = fillPool(MAX_SIZE / BITMAP_SIZE);
+
+    pool.trimMemory(TRIM_MEMORY_BACKGROUND);
+
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+    assertThat(countRecycled(bitmaps)).isEqualTo(bitmaps.size());
+  }
+
+  @Test
+  public void trimMemory_runningCritical_trimsToHalfOfMaxSize() {
+    fillPool(MAX_SIZE / BITMAP_SIZE);
+
+    pool.trimMemory(TRIM_MEMORY_RUNNING_CRITICAL);
+
+    assertThat(pool.getCurrentSize()).isEqualTo(MAX_SIZE / 2);
+  }
+
+  @Test
+  public void setSizeMultiplier_evictsToNewMaxSize() {
+    fillPool(MAX_SIZE / BITMAP_SIZE);
+
+    pool.setSizeMultiplier(0.5f);
+
+    assertThat(pool.getMaxSize()).isEqualTo(MAX_SIZE / 2);
+    assertThat(pool.getCurrentSize()).isEqualTo(MAX_SIZE / 2);
+  }
+
+  @Test
+  public void getAndPut_fromManyThreads_keepsSizeWithinMaxSize() throws InterruptedException {
+    int threadCount = 4;
+    final int operationsPerThread = 1000;
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      final int size = 50 + t * 10;
+      Thread thread =
+          new Thread() {
+            @Override
+            public void run() {
+              try {
+                start.await();
+                for (int i = 0; i < operationsPerThread; i++) {
+                  Bitmap bitmap = pool.getDirty(size, size, Bitmap.Config.ARGB_8888);
+                  pool.put(bitmap);
+                }
+              } catch (Throwable e) {
+                failure.set(e);
+              }
+            }
+          };
+      thread.start();
+      threads.add(thread);
+    }
+
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    assertThat(failure.get()).isNull();
+    assertThat(pool.getCurrentSize()).isAtMost((long) MAX_SIZE);
+    assertThat(pool.hitCount() + pool.missCount())
+        .isEqualTo((long) threadCount * operationsPerThread);
+  }
+
+  @Test
+  public void floorSizeClass_returnsLog2RoundedDown() {
+    assertThat(SizeClassBitmapPool.floorSizeClass(1)).isEqualTo(0);
+    assertThat(SizeClassBitmapPool.floorSizeClass(2)).isEqualTo(1);
+    assertThat(SizeClassBitmapPool.floorSizeClass(3)).isEqualTo(1);
+    assertThat(SizeClassBitmapPool.floorSizeClass(1024)).isEqualTo(10);
+    assertThat(SizeClassBitmapPool.floorSizeClass(Integer.MAX_VALUE)).isEqualTo(30);
+  }
+
+  private List<Bitmap> fillPool(int count) {
+    List<Bitmap> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Bitmap bitmap = createMutableBitmap();
+      result.add(bitmap);
+      pool.put(bitmap);
+    }
+    return result;
+  }
+
+  private static int countRecycled(List<Bitmap> bitmaps) {
+    int result = 0;
+    for (Bitmap bitmap : bitmaps) {
+      if (bitmap.isRecycled()) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  private static Bitmap createMutableBitmap() {
+    return Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+  }
+}
@@ -1,7 +1,9 @@
 package com.bumptech.glide.load.engine.cache;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 import static org.mockito.Mockito.mock;
@@ -170,4 +172,27 @@ public class DiskLruCacheWrapperTest {
 
     cache.get(mock(Key.class));
   }
+
+  @Test
+  public void warmUp_createsDirectoryAndJournal() {
+    File cacheDir = new File(dir, "warm_up");
+    DiskLruCacheWrapper cache = (DiskLruCacheWrapper) DiskLruCacheWrapper.create(cacheDir, 1024);
+
+    cache.warmUp();
+
+    assertTrue(new File(cacheDir, "journal").exists());
+  }
+
+  @Test
+  public void create_withBinaryJournal_writesBinaryJournal() {
+    File cacheDir = new File(dir, "binary_journal");
+    DiskLruCacheWrapper cache =
+        (DiskLruCacheWrapper)
+            DiskLruCacheWrapper.create(cacheDir, 1024, /*useBinaryJournal=*/ true);
+
+    cache.warmUp();
+
+    assertTrue(new File(cacheDir, "journal.bin").exists());
+    assertFalse(new File(cacheDir, "journal").exists());
+  }
 }
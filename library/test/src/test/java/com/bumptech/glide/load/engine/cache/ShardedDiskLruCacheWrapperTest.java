@@ -0,0 +1,168 @@
+package com.bumptech.glide.load.engine.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.signature.ObjectKey;
+import com.bumptech.glide.tests.Util;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class ShardedDiskLruCacheWrapperTest {
+  private static final int SHARD_COUNT = 4;
+  private final byte[] data = new byte[] {1, 2, 3, 4, 5, 6};
+  private File dir;
+  private DiskCache cache;
+
+  @Before
+  public void setUp() {
+    dir = new File(ApplicationProvider.getApplicationContext().getCacheDir(), "sharded");
+    cache = ShardedDiskLruCacheWrapper.create(dir, 10 * 1024 * 1024, SHARD_COUNT);
+  }
+
+  @After
+  public void tearDown() {
+    try {
+      cache.clear();
+    } finally {
+      deleteRecursive(dir);
+    }
+  }
+
+  @Test
+  public void put_thenGet_returnsDataForAllKeys() throws IOException {
+    List<Key> keys = putKeys(20);
+
+    for (Key key : keys) {
+      assertArrayEquals(data, Util.readFile(cache.get(key), data.length));
+    }
+  }
+
+  @Test
+  public void put_withManyKeys_writesToEveryShard() {
+    putKeys(50);
+
+    for (int i = 0; i < SHARD_COUNT; i++) {
+      File shardDirectory = ShardedDiskLruCacheWrapper.getShardDirectory(dir, i, SHARD_COUNT);
+      assertThat(shardDirectory.list()).asList().contains("journal");
+      assertThat(shardDirectory.list().length).isGreaterThan(1);
+    }
+  }
+
+  @Test
+  public void delete_removesOnlyThatKey() {
+    List<Key> keys = putKeys(2);
+
+    cache.delete(keys.get(0));
+
+    assertThat(cache.get(keys.get(0))).isNull();
+    assertThat(cache.get(keys.get(1))).isNotNull();
+  }
+
+  @Test
+  public void clear_removesKeysFromAllShards() {
+    List<Key> keys = putKeys(20);
+
+    cache.clear();
+
+    for (Key key : keys) {
+      assertThat(cache.get(key)).isNull();
+    }
+  }
+
+  @Test
+  public void create_deletesUnshardedCacheAndShardsForOtherShardCounts() throws IOException {
+    cache.clear();
+    File legacyJournal = new File(dir, "journal");
+    Util.writeFile(legacyJournal, data);
+    File otherShardCount = ShardedDiskLruCacheWrapper.getShardDirectory(dir, 0, SHARD_COUNT + 1);
+    assertThat(otherShardCount.mkdirs()).isTrue();
+    File currentShard = ShardedDiskLruCacheWrapper.getShardDirectory(dir, 0, SHARD_COUNT);
+    assertThat(currentShard.mkdirs() || currentShard.isDirectory()).isTrue();
+
+    cache = ShardedDiskLruCacheWrapper.create(dir, 10 * 1024 * 1024, SHARD_COUNT);
+
+    assertThat(legacyJournal.exists()).isFalse();
+    assertThat(otherShardCount.exists()).isFalse();
+    assertThat(currentShard.exists()).isTrue();
+  }
+
+  @Test
+  public void create_doesNotDeleteUnrelatedFiles() throws IOException {
+    assertThat(dir.mkdirs() || dir.isDirectory()).isTrue();
+    File unrelatedFile = new File(dir, "unrelated.txt");
+    Util.writeFile(unrelatedFile, data);
+    File unrelatedDirectory = new File(dir, "unrelated");
+    assertThat(unrelatedDirectory.mkdirs()).isTrue();
+
+    cache = ShardedDiskLruCacheWrapper.create(dir, 10 * 1024 * 1024, SHARD_COUNT);
+
+    assertThat(unrelatedFile.exists()).isTrue();
+    assertThat(unrelatedDirectory.exists()).isTrue();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void factory_withNullDiskCacheName_throws() {
+    new ShardedDiskLruCacheFactory(mock(Context.class), null, 1024, SHARD_COUNT);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void factory_withEmptyDiskCacheName_throws() {
+    new ShardedDiskLruCacheFactory(mock(Context.class), "", 1024, SHARD_COUNT);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void create_withZeroShards_throws() {
+    ShardedDiskLruCacheWrapper.create(dir, 1024, 0);
+  }
+
+  private List<Key> putKeys(int count) {
+    List<Key> result = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Key key = new ObjectKey("key" + i);
+      cache.put(
+          key,
+          new DiskCache.Writer() {
+            @Override
+            public boolean write(@NonNull File file) {
+              try {
+                Util.writeFile(file, data);
+              } catch (IOException e) {
+                fail(e.toString());
+              }
+              return true;
+            }
+          });
+      result.add(key);
+    }
+    return result;
+  }
+
+  private static void deleteRecursive(File file) {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File f : files) {
+        deleteRecursive(f);
+      }
+    }
+    if (!file.delete() && file.exists()) {
+      throw new RuntimeException("Failed to delete: " + file);
+    }
+  }
+}
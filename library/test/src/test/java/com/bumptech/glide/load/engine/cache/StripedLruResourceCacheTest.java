@@ -0,0 +1,290 @@
+package com.bumptech.glide.load.engine.cache;
+
+import static com.bumptech.glide.load.engine.cache.MemoryCache.ResourceRemovedListener;
+import static com.bumptech.glide.tests.Util.mockResource;
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.ComponentCallbacks2;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class StripedLruResourceCacheTest {
+
+  @Test
+  public void put_withExistingItem_updatesSizeCorrectly() {
+    StripedLruResourceCache cache = new StripedLruResourceCache(100);
+    Key key = new MockKey(0);
+    Resource<?> first = getResource(50);
+    Resource<?> second = getResource(30);
+    cache.put(key, first);
+    cache.put(key, second);
+
+    assertThat(cache.getCurrentSize()).isEqualTo(30);
+    assertThat(cache.get(key)).isEqualTo(second);
+  }
+
+  @Test
+  public void put_withExistingItem_evictsExistingItem() {
+    StripedLruResourceCache cache = new StripedLruResourceCache(100);
+    ResourceRemovedListener listener = mock(ResourceRemovedListener.class);
+    cache.setResourceRemovedListener(listener);
+    Key key = new MockKey(0);
+    Resource<?> first = getResource(50);
+    Resource<?> second = getResource(50);
+    cache.put(key, first);
+    cache.put(key, second);
+
+    verify(listener).onResourceRemoved(first);
+    verify(listener, never()).onResourceRemoved(second);
+  }
+
+  @Test
+  public void put_withItemLargerThanCache_notifiesListenerAndDoesNotAdd() {
+    StripedLruResourceCache cache = new StripedLruResourceCache(100);
+    ResourceRemovedListener listener = mock(ResourceRemovedListener.class);
+    cache.setResourceRemovedListener(listener);
+    Key key = new MockKey(0);
+    Resource<?> resource = getResource(200);
+    cache.put(key, resource);
+
+    verify(listener).onResourceRemoved(eq(resource));
+    assertThat(cache.contains(key)).isFalse();
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void put_withItemLargerThanSegmentButSmallerThanCache_isRetained() {
+    StripedLruResourceCache cache = new StripedLruResourceCache(100, /* segmentCount= */ 16);
+    Key key = new MockKey(0);
+    cache.put(key, getResource(90));
+
+    assertThat(cache.contains(key)).isTrue();
+  }
+
+  @Test
+  public void put_overMaxSize_evictsLeastRecentlyUsedAcrossSegments() {
+    StripedLruResourceCache cache = new StripedLruResourceCache(100, /* segmentCount= */ 4);
+    // Hash codes 0..3 land in different segments.
+    Key firstKey = new MockKey(0);
+    Key secondKey = new MockKey(1);
+    Key thirdKey = new MockKey(2);
+    cache.put(firstKey, getResource(40));
+    cache.put(secondKey, getResource(40));
+    cache.get(firstKey);
+    cache.put(thirdKey, getResource(40));
+
+    assertThat(cache.contains(firstKey)).isTrue();
+    assertThat(cache.contains(secondKey)).isFalse();
+    assertThat(cache.contains(thirdKey)).isTrue();
+    assertThat(cache.getCurrentSize()).isEqualTo(80);
+  }
+
+  @Test
+  public void remove_returnsItemAndDecreasesSize() {
+    StripedLruResourceCache cache = new StripedLruResourceCache(100);
+    Key key = new MockKey(0);
+    Resource<?> resource = getResource(50);
+    cache.put(key, resource);
+
+    assertThat(cache.remove(key)).isEqualTo(resource);
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+    assertThat(cache.remove(key)).isNull();
+  }
+
+  @Test
+  public void setSizeMultiplier_withSmallerSize_evictsItems() {
+    StripedLruResourceCache cache = new StripedLruResourceCache(100);
+    ResourceRemovedListener listener = mock(ResourceRemovedListener.class);
+    cache.setResourceRemovedListener(listener);
+    Resource<?> first = getResource(40);
+    Resource<?> second = getResource(40);
+    cache.put(new MockKey(0), first);
+    cache.put(new MockKey(1), second);
+
+    cache.setSizeMultiplier(0.5f);
+
+    assertThat(cache.getMaxSize()).isEqualTo(50);
+    verify(listener).onResourceRemoved(first);
+    verify(listener, never()).onResourceRemoved(second);
+  }
+
+  @Test
+  public void testTrimMemoryBackground() {
+    TrimClearMemoryCacheHarness harness = new TrimClearMemoryCacheHarness();
+
+    harness.resourceCache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+
+    verify(harness.listener).onResourceRemoved(eq(harness.first));
+    verify(harness.listener).onResourceRemoved(eq(harness.second));
+  }
+
+  @Test
+  public void testTrimMemoryUiHidden() {
+    TrimClearMemoryCacheHarness harness = new TrimClearMemoryCacheHarness();
+
+    harness.resourceCache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+    verify(harness.listener).onResourceRemoved(harness.first);
+    verify(harness.listener, never()).onResourceRemoved(harness.second);
+  }
+
+  @Test
+  public void testTrimMemoryRunningCritical() {
+    TrimClearMemoryCacheHarness harness = new TrimClearMemoryCacheHarness();
+
+    harness.resourceCache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+
+    verify(harness.listener).onResourceRemoved(harness.first);
+    verify(harness.listener, never()).onResourceRemoved(harness.second);
+  }
+
+  @Test
+  public void testPreventEviction() {
+    final StripedLruResourceCache cache = new StripedLruResourceCache(100);
+    final Resource<?> first = getResource(30);
+    final Key firstKey = new MockKey(0);
+    cache.put(firstKey, first);
+    Key secondKey = new MockKey(1);
+    cache.put(secondKey, getResource(30));
+    Key thirdKey = new MockKey(2);
+    cache.put(thirdKey, getResource(30));
+    cache.setResourceRemovedListener(
+        new ResourceRemovedListener() {
+          @Override
+          public void onResourceRemoved(@NonNull Resource<?> removed) {
+            if (removed == first) {
+              cache.put(firstKey, first);
+            }
+          }
+        });
+
+    cache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+    assertThat(cache.contains(firstKey)).isTrue();
+    assertThat(cache.contains(secondKey)).isFalse();
+    assertThat(cache.contains(thirdKey)).isFalse();
+  }
+
+  @Test
+  public void concurrentPutsAndRemoves_neverExceedMaxSize() throws Exception {
+    final int threadCount = 8;
+    final int operationsPerThread = 2000;
+    final StripedLruResourceCache cache = new StripedLruResourceCache(1000);
+    final Resource<?> resource = getResource(10);
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int i = 0; i < threadCount; i++) {
+        final int thread = i;
+        futures.add(
+            executor.submit(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    try {
+                      start.await();
+                    } catch (InterruptedException e) {
+                      throw new RuntimeException(e);
+                    }
+                    for (int j = 0; j < operationsPerThread; j++) {
+                      MockKey key = new MockKey(thread * operationsPerThread + j);
+                      cache.put(key, resource);
+                      if (j % 3 == 0) {
+                        cache.remove(key);
+                      }
+                    }
+                  }
+                }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(cache.getCurrentSize()).isAtMost(1000L);
+    cache.clearMemory();
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void clearMemory_evictsAllItems() {
+    StripedLruResourceCache cache = new StripedLruResourceCache(100);
+    ResourceRemovedListener listener = mock(ResourceRemovedListener.class);
+    cache.setResourceRemovedListener(listener);
+    Resource<?> first = getResource(10);
+    Resource<?> second = getResource(10);
+    cache.put(new MockKey(0), first);
+    cache.put(new MockKey(17), second);
+
+    cache.clearMemory();
+
+    verify(listener, times(1)).onResourceRemoved(first);
+    verify(listener, times(1)).onResourceRemoved(second);
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+  }
+
+  private static Resource<?> getResource(int size) {
+    Resource<?> resource = mockResource();
+    when(resource.getSize()).thenReturn(size);
+    return resource;
+  }
+
+  private static final class MockKey implements Key {
+    private final int id;
+
+    MockKey(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof MockKey && ((MockKey) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return id;
+    }
+
+    @Override
+    public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+      messageDigest.update(String.valueOf(id).getBytes(CHARSET));
+    }
+  }
+
+  private static class TrimClearMemoryCacheHarness {
+    final StripedLruResourceCache resourceCache = new StripedLruResourceCache(100);
+    final Resource<?> first = getResource(50);
+    final Resource<?> second = getResource(50);
+    final ResourceRemovedListener listener = mock(ResourceRemovedListener.class);
+
+    TrimClearMemoryCacheHarness() {
+      resourceCache.put(new MockKey(0), first);
+      resourceCache.put(new MockKey(1), second);
+      resourceCache.setResourceRemovedListener(listener);
+    }
+  }
+}
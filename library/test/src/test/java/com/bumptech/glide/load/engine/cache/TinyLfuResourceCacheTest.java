@@ -0,0 +1,118 @@
+package com.bumptech.glide.load.engine.cache;
+
+import static com.bumptech.glide.load.engine.cache.MemoryCache.ResourceRemovedListener;
+import static com.bumptech.glide.tests.Util.mockResource;
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.ComponentCallbacks2;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import java.security.MessageDigest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TinyLfuResourceCacheTest {
+
+  @Test
+  public void testResourceRemovedListenerIsNotifiedWhenResourceIsRemoved() {
+    TinyLfuResourceCache resourceCache = new TinyLfuResourceCache(100);
+    Resource<?> resource = getResource(200);
+    ResourceRemovedListener listener = mock(ResourceRemovedListener.class);
+
+    resourceCache.setResourceRemovedListener(listener);
+    resourceCache.put(new MockKey(), resource);
+
+    verify(listener).onResourceRemoved(eq(resource));
+  }
+
+  @Test
+  public void testSizeIsBasedOnResource() {
+    TinyLfuResourceCache resourceCache = new TinyLfuResourceCache(100);
+    Key firstKey = new MockKey();
+    resourceCache.put(firstKey, getResource(50));
+    Key secondKey = new MockKey();
+    resourceCache.put(secondKey, getResource(50));
+    assertThat(resourceCache.getCurrentSize()).isEqualTo(100);
+
+    Key thirdKey = new MockKey();
+    resourceCache.put(thirdKey, getResource(50));
+
+    assertThat(resourceCache.getCurrentSize()).isEqualTo(100);
+    // None of the keys has been requested, so the new resource isn't admitted.
+    assertThat(resourceCache.contains(firstKey)).isTrue();
+    assertThat(resourceCache.contains(secondKey)).isTrue();
+    assertThat(resourceCache.contains(thirdKey)).isFalse();
+  }
+
+  @Test
+  public void put_withFrequentlyRemovedResource_isRetainedOverNewResources() {
+    TinyLfuResourceCache resourceCache = new TinyLfuResourceCache(100);
+    Key popularKey = new MockKey();
+    Resource<?> popular = getResource(10);
+    // Engine removes resources from the cache on a hit and puts them back when they're released.
+    for (int i = 0; i < 5; i++) {
+      resourceCache.remove(popularKey);
+      resourceCache.put(popularKey, popular);
+    }
+
+    for (int i = 0; i < 50; i++) {
+      resourceCache.put(new MockKey(), getResource(10));
+    }
+
+    assertThat(resourceCache.contains(popularKey)).isTrue();
+  }
+
+  @Test
+  public void testTrimMemoryBackground() {
+    TrimClearMemoryCacheHarness harness = new TrimClearMemoryCacheHarness();
+
+    harness.resourceCache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+
+    verify(harness.listener).onResourceRemoved(eq(harness.first));
+    verify(harness.listener).onResourceRemoved(eq(harness.second));
+  }
+
+  @Test
+  public void testTrimMemoryUiHidden() {
+    TrimClearMemoryCacheHarness harness = new TrimClearMemoryCacheHarness();
+
+    harness.resourceCache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+    verify(harness.listener).onResourceRemoved(harness.first);
+    verify(harness.listener, never()).onResourceRemoved(harness.second);
+  }
+
+  private static Resource<?> getResource(int size) {
+    Resource<?> resource = mockResource();
+    when(resource.getSize()).thenReturn(size);
+    return resource;
+  }
+
+  private static class MockKey implements Key {
+    @Override
+    public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+      messageDigest.update(toString().getBytes(CHARSET));
+    }
+  }
+
+  private static class TrimClearMemoryCacheHarness {
+    final TinyLfuResourceCache resourceCache = new TinyLfuResourceCache(100);
+    final Resource<?> first = getResource(50);
+    final Resource<?> second = getResource(50);
+    final ResourceRemovedListener listener = mock(ResourceRemovedListener.class);
+
+    TrimClearMemoryCacheHarness() {
+      resourceCache.put(new MockKey(), first);
+      resourceCache.put(new MockKey(), second);
+      resourceCache.setResourceRemovedListener(listener);
+    }
+  }
+}
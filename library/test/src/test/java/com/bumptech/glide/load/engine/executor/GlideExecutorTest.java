@@ -1,11 +1,17 @@
 package com.bumptech.glide.load.engine.executor;
 
+import static com.bumptech.glide.Priority.HIGH;
+import static com.bumptech.glide.Priority.IMMEDIATE;
+import static com.bumptech.glide.Priority.LOW;
+import static com.bumptech.glide.Priority.NORMAL;
 import static com.google.common.truth.Truth.assertThat;
 
 import androidx.annotation.NonNull;
+import com.bumptech.glide.Priority;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -40,6 +46,77 @@ public class GlideExecutorTest {
     assertThat(resultPriorities).containsExactly(5, 1, 2, 3, 4).inOrder();
   }
 
+  @Test
+  public void testWorkStealingExecutorRunsLoadsInPriorityOrder() throws InterruptedException {
+    final List<Integer> resultPriorities = Collections.synchronizedList(new ArrayList<Integer>());
+    GlideExecutor executor =
+        GlideExecutor.newDiskCacheBuilder().setWorkStealingEnabled(true).build();
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch blocker = new CountDownLatch(1);
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            started.countDown();
+            try {
+              blocker.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        });
+    assertThat(started.await(500, TimeUnit.MILLISECONDS)).isTrue();
+    for (Priority priority : new Priority[] {LOW, NORMAL, LOW, HIGH, IMMEDIATE}) {
+      executor.execute(
+          new PrioritizedMockRunnable(
+              priority,
+              new MockRunnable.OnRun() {
+                @Override
+                public void onRun(int priority) {
+                  resultPriorities.add(priority);
+                }
+              }));
+    }
+
+    blocker.countDown();
+    executor.shutdown();
+    executor.awaitTermination(500, TimeUnit.MILLISECONDS);
+
+    assertThat(resultPriorities)
+        .containsExactly(
+            IMMEDIATE.ordinal(), HIGH.ordinal(), NORMAL.ordinal(), LOW.ordinal(), LOW.ordinal())
+        .inOrder();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWorkStealingExecutorWithThreadTimeoutThrows() {
+    GlideExecutor.newSourceBuilder()
+        .setWorkStealingEnabled(true)
+        .setThreadTimeoutMillis(1000)
+        .build();
+  }
+
+  private static final class PrioritizedMockRunnable implements Runnable, PrioritizedTask {
+    private final MockRunnable runnable;
+    private final Priority priority;
+
+    PrioritizedMockRunnable(Priority priority, MockRunnable.OnRun onRun) {
+      this.runnable = new MockRunnable(priority.ordinal(), onRun);
+      this.priority = priority;
+    }
+
+    @NonNull
+    @Override
+    public Priority getPriority() {
+      return priority;
+    }
+
+    @Override
+    public void run() {
+      runnable.run();
+    }
+  }
+
   private static final class MockRunnable implements Runnable, Comparable<MockRunnable> {
     private final int priority;
     private final OnRun onRun;
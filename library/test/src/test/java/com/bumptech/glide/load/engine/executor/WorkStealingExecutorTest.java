@@ -0,0 +1,261 @@
+package com.bumptech.glide.load.engine.executor;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide.Priority;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class WorkStealingExecutorTest {
+  private final List<String> runOrder = Collections.synchronizedList(new ArrayList<String>());
+  private WorkStealingExecutor executor;
+
+  @After
+  public void tearDown() throws InterruptedException {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  public void execute_withManyThreads_runsAllTasks() throws InterruptedException {
+    executor = new WorkStealingExecutor(8, Executors.defaultThreadFactory());
+    int taskCount = 10_000;
+    final CountDownLatch latch = new CountDownLatch(taskCount);
+    for (int i = 0; i < taskCount; i++) {
+      executor.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              latch.countDown();
+            }
+          });
+    }
+
+    assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void execute_fromWorkerThread_runsNestedTasks() throws InterruptedException {
+    executor = new WorkStealingExecutor(2, Executors.defaultThreadFactory());
+    final CountDownLatch latch = new CountDownLatch(100);
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            for (int i = 0; i < 100; i++) {
+              executor.execute(
+                  new Runnable() {
+                    @Override
+                    public void run() {
+                      latch.countDown();
+                    }
+                  });
+            }
+          }
+        });
+
+    assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void execute_withQueuedTasks_runsTasksInPriorityOrder() throws InterruptedException {
+    executor = new WorkStealingExecutor(1, Executors.defaultThreadFactory());
+    CountDownLatch blocker = block();
+    executor.execute(new Task("low", Priority.LOW));
+    executor.execute(new Task("normal", Priority.NORMAL));
+    executor.execute(new Task("high", Priority.HIGH));
+    executor.execute(new Task("immediate", Priority.IMMEDIATE));
+    executor.execute(new Task("high2", Priority.HIGH));
+
+    blocker.countDown();
+    awaitShutdown();
+
+    assertThat(runOrder).containsExactly("immediate", "high", "high2", "normal", "low").inOrder();
+  }
+
+  @Test
+  public void execute_withNonPrioritizedTask_runsAtNormalPriority() throws InterruptedException {
+    executor = new WorkStealingExecutor(1, Executors.defaultThreadFactory());
+    CountDownLatch blocker = block();
+    executor.execute(new Task("low", Priority.LOW));
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            runOrder.add("plain");
+          }
+        });
+    executor.execute(new Task("high", Priority.HIGH));
+
+    blocker.countDown();
+    awaitShutdown();
+
+    assertThat(runOrder).containsExactly("high", "plain", "low").inOrder();
+  }
+
+  @Test
+  public void execute_withContinuousHighPriorityTasks_eventuallyRunsLowPriorityTask()
+      throws InterruptedException {
+    executor = new WorkStealingExecutor(1, Executors.defaultThreadFactory());
+    CountDownLatch blocker = block();
+    executor.execute(new Task("low", Priority.LOW));
+    int highCount = 3 * WorkStealingExecutor.MAX_BYPASSES;
+    for (int i = 0; i < highCount; i++) {
+      executor.execute(new Task("high" + i, Priority.HIGH));
+    }
+
+    blocker.countDown();
+    awaitShutdown();
+
+    assertThat(runOrder).hasSize(highCount + 1);
+    assertThat(runOrder.indexOf("low")).isEqualTo(WorkStealingExecutor.MAX_BYPASSES);
+  }
+
+  @Test
+  public void execute_withThrowingTask_replacesThreadAndRunsLaterTasks()
+      throws InterruptedException {
+    final AtomicInteger createdThreads = new AtomicInteger();
+    final ThreadFactory delegate = Executors.defaultThreadFactory();
+    executor =
+        new WorkStealingExecutor(
+            1,
+            new ThreadFactory() {
+              @Override
+              public Thread newThread(@NonNull Runnable r) {
+                createdThreads.incrementAndGet();
+                Thread result = delegate.newThread(r);
+                result.setUncaughtExceptionHandler(
+                    new Thread.UncaughtExceptionHandler() {
+                      @Override
+                      public void uncaughtException(Thread t, Throwable e) {
+                        // Expected.
+                      }
+                    });
+                return result;
+              }
+            });
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            throw new RuntimeException("Test");
+          }
+        });
+    executor.execute(new Task("after", Priority.NORMAL));
+
+    awaitShutdown();
+
+    assertThat(runOrder).containsExactly("after");
+    assertThat(createdThreads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void shutdown_runsQueuedTasksThenTerminates() throws InterruptedException {
+    executor = new WorkStealingExecutor(2, Executors.defaultThreadFactory());
+    CountDownLatch blocker = block();
+    executor.execute(new Task("queued", Priority.NORMAL));
+
+    executor.shutdown();
+    assertThat(executor.isShutdown()).isTrue();
+    assertThat(executor.isTerminated()).isFalse();
+    blocker.countDown();
+
+    assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(runOrder).containsExactly("queued");
+  }
+
+  @Test
+  public void shutdown_withoutTasks_terminatesImmediately() {
+    executor = new WorkStealingExecutor(2, Executors.defaultThreadFactory());
+
+    executor.shutdown();
+
+    assertThat(executor.isTerminated()).isTrue();
+  }
+
+  @Test
+  public void shutdownNow_returnsQueuedTasks() throws InterruptedException {
+    executor = new WorkStealingExecutor(1, Executors.defaultThreadFactory());
+    block();
+    Task queued = new Task("queued", Priority.NORMAL);
+    executor.execute(queued);
+
+    List<Runnable> result = executor.shutdownNow();
+
+    assertThat(result).containsExactly(queued);
+    assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(runOrder).isEmpty();
+  }
+
+  @Test(expected = RejectedExecutionException.class)
+  public void execute_afterShutdown_throws() {
+    executor = new WorkStealingExecutor(1, Executors.defaultThreadFactory());
+    executor.shutdown();
+
+    executor.execute(new Task("rejected", Priority.NORMAL));
+  }
+
+  /**
+   * Occupies every thread in {@link #executor} until the returned latch is counted down, so that
+   * subsequent tasks are queued.
+   */
+  private CountDownLatch block() throws InterruptedException {
+    final CountDownLatch blocker = new CountDownLatch(1);
+    final CountDownLatch started = new CountDownLatch(1);
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            started.countDown();
+            try {
+              blocker.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        });
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    return blocker;
+  }
+
+  private void awaitShutdown() throws InterruptedException {
+    executor.shutdown();
+    assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private final class Task implements Runnable, PrioritizedTask {
+    private final String name;
+    private final Priority priority;
+
+    Task(String name, Priority priority) {
+      this.name = name;
+      this.priority = priority;
+    }
+
+    @NonNull
+    @Override
+    public Priority getPriority() {
+      return priority;
+    }
+
+    @Override
+    public void run() {
+      runOrder.add(name);
+    }
+  }
+}
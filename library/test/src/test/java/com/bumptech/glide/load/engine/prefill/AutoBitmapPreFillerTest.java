@@ -0,0 +1,121 @@
+package com.bumptech.glide.load.engine.prefill;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.MemoryCache;
+import com.bumptech.glide.tests.Util.CreateBitmap;
+import com.bumptech.glide.util.Util;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class AutoBitmapPreFillerTest {
+  private static final int WIDTH = 100;
+  private static final int HEIGHT = 50;
+  private static final Bitmap.Config CONFIG = Bitmap.Config.ARGB_8888;
+
+  private BitmapPool pool;
+  private AutoBitmapPreFiller autoPreFiller;
+
+  @Before
+  public void setUp() {
+    pool = mock(BitmapPool.class);
+    when(pool.getMaxSize()).thenReturn(10L * Util.getBitmapByteSize(WIDTH, HEIGHT, CONFIG));
+    when(pool.getDirty(anyInt(), anyInt(), any(Bitmap.Config.class)))
+        .thenAnswer(new CreateBitmap());
+    MemoryCache memoryCache = mock(MemoryCache.class);
+    BitmapPreFiller preFiller = new BitmapPreFiller(memoryCache, pool, DecodeFormat.DEFAULT);
+    autoPreFiller = new AutoBitmapPreFiller(preFiller, pool);
+  }
+
+  @Test
+  public void onBitmapMissed_belowThreshold_doesNotPreFill() {
+    miss(AutoBitmapPreFiller.MIN_MISSES_TO_PRE_FILL - 1);
+
+    shadowOf(Looper.getMainLooper()).idle();
+
+    verify(pool, never()).put(any(Bitmap.class));
+  }
+
+  @Test
+  public void onBitmapMissed_atThreshold_preFillsMissedTypeWhenIdle() {
+    miss(AutoBitmapPreFiller.MIN_MISSES_TO_PRE_FILL);
+
+    shadowOf(Looper.getMainLooper()).idle();
+
+    verify(pool, atLeastOnce()).put(any(Bitmap.class));
+  }
+
+  @Test
+  public void onBitmapMissed_afterPreFill_waitsForIntervalBeforePreFillingAgain() {
+    miss(AutoBitmapPreFiller.MIN_MISSES_TO_PRE_FILL);
+    shadowOf(Looper.getMainLooper()).idle();
+    verify(pool, atLeastOnce()).put(any(Bitmap.class));
+
+    clearInvocations(pool);
+    miss(AutoBitmapPreFiller.MIN_MISSES_TO_PRE_FILL);
+    shadowOf(Looper.getMainLooper()).idle();
+    verify(pool, never()).put(any(Bitmap.class));
+
+    shadowOf(Looper.getMainLooper())
+        .idleFor(AutoBitmapPreFiller.MIN_PRE_FILL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    verify(pool, atLeastOnce()).put(any(Bitmap.class));
+  }
+
+  @Test
+  public void clear_beforeIdle_doesNotPreFill() {
+    miss(AutoBitmapPreFiller.MIN_MISSES_TO_PRE_FILL);
+
+    autoPreFiller.clear();
+    shadowOf(Looper.getMainLooper()).idle();
+
+    verify(pool, never()).put(any(Bitmap.class));
+  }
+
+  @Test
+  public void preFill_withOwnPoolMisses_doesNotCountThemTowardsNextPreFill() {
+    LruBitmapPool lruPool =
+        new LruBitmapPool(10L * Util.getBitmapByteSize(WIDTH, HEIGHT, CONFIG));
+    BitmapPreFiller preFiller =
+        new BitmapPreFiller(mock(MemoryCache.class), lruPool, DecodeFormat.DEFAULT);
+    Handler mainHandler = mock(Handler.class);
+    autoPreFiller = new AutoBitmapPreFiller(preFiller, lruPool, mainHandler);
+    lruPool.setMissListener(autoPreFiller);
+    miss(AutoBitmapPreFiller.MIN_MISSES_TO_PRE_FILL);
+    verify(mainHandler).postDelayed(any(Runnable.class), anyLong());
+
+    autoPreFiller.preFill();
+    shadowOf(Looper.getMainLooper()).idle();
+    assertThat(lruPool.getCurrentSize()).isGreaterThan(0L);
+    miss(AutoBitmapPreFiller.MIN_MISSES_TO_PRE_FILL - 1);
+
+    verify(mainHandler).postDelayed(any(Runnable.class), anyLong());
+  }
+
+  private void miss(int times) {
+    for (int i = 0; i < times; i++) {
+      autoPreFiller.onBitmapMissed(WIDTH, HEIGHT, CONFIG);
+    }
+  }
+}
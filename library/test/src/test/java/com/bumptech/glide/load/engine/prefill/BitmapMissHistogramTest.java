@@ -0,0 +1,103 @@
+package com.bumptech.glide.load.engine.prefill;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Bitmap;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class BitmapMissHistogramTest {
+  private final BitmapMissHistogram histogram = new BitmapMissHistogram();
+
+  @Test
+  public void getMostMissed_withNoMisses_returnsEmpty() {
+    assertThat(histogram.getMostMissed(4)).isEmpty();
+  }
+
+  @Test
+  public void getMostMissed_returnsTypesInOrderOfMisses() {
+    record(100, 100, Bitmap.Config.ARGB_8888, 1);
+    record(200, 100, Bitmap.Config.ARGB_8888, 3);
+    record(100, 100, Bitmap.Config.RGB_565, 2);
+
+    PreFillType[] result = build(histogram.getMostMissed(4));
+
+    assertThat(result)
+        .asList()
+        .containsExactly(
+            new PreFillType(200, 100, Bitmap.Config.ARGB_8888, 3),
+            new PreFillType(100, 100, Bitmap.Config.RGB_565, 2),
+            new PreFillType(100, 100, Bitmap.Config.ARGB_8888, 1))
+        .inOrder();
+  }
+
+  @Test
+  public void getMostMissed_withMoreTypesThanMax_returnsMostMissed() {
+    record(100, 100, Bitmap.Config.ARGB_8888, 1);
+    record(200, 200, Bitmap.Config.ARGB_8888, 2);
+
+    PreFillType[] result = build(histogram.getMostMissed(1));
+
+    assertThat(result)
+        .asList()
+        .containsExactly(new PreFillType(200, 200, Bitmap.Config.ARGB_8888, 2));
+  }
+
+  @Test
+  public void record_afterDecayInterval_halvesCounts() {
+    record(100, 100, Bitmap.Config.ARGB_8888, BitmapMissHistogram.DECAY_INTERVAL - 1);
+    record(200, 200, Bitmap.Config.ARGB_8888, 1);
+
+    PreFillType[] result = build(histogram.getMostMissed(4));
+
+    // The single miss decays to zero and is dropped.
+    assertThat(result)
+        .asList()
+        .containsExactly(
+            new PreFillType(
+                100, 100, Bitmap.Config.ARGB_8888, (BitmapMissHistogram.DECAY_INTERVAL - 1) / 2));
+  }
+
+  @Test
+  public void record_withMaxTypes_replacesLeastMissedType() {
+    for (int i = 0; i < BitmapMissHistogram.MAX_TYPES; i++) {
+      record(100 + i, 100, Bitmap.Config.ARGB_8888, i == 0 ? 1 : 2);
+    }
+
+    record(50, 50, Bitmap.Config.ARGB_8888, 1);
+
+    PreFillType[] result = build(histogram.getMostMissed(BitmapMissHistogram.MAX_TYPES + 1));
+    assertThat(result).hasLength(BitmapMissHistogram.MAX_TYPES);
+    assertThat(result).asList().contains(new PreFillType(50, 50, Bitmap.Config.ARGB_8888, 1));
+    assertThat(result)
+        .asList()
+        .doesNotContain(new PreFillType(100, 100, Bitmap.Config.ARGB_8888, 1));
+  }
+
+  @Test
+  public void clear_removesAllMisses() {
+    record(100, 100, Bitmap.Config.ARGB_8888, 5);
+
+    histogram.clear();
+
+    assertThat(histogram.getMostMissed(4)).isEmpty();
+  }
+
+  private void record(int width, int height, Bitmap.Config config, int times) {
+    for (int i = 0; i < times; i++) {
+      histogram.record(width, height, config);
+    }
+  }
+
+  private static PreFillType[] build(PreFillType.Builder[] builders) {
+    PreFillType[] result = new PreFillType[builders.length];
+    for (int i = 0; i < builders.length; i++) {
+      result[i] = builders[i].build();
+    }
+    return result;
+  }
+}
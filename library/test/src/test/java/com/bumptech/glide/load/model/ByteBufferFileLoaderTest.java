@@ -0,0 +1,132 @@
+package com.bumptech.glide.load.model;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.model.ByteBufferFileLoader.MappedFileCache;
+import com.bumptech.glide.tests.Util;
+import com.bumptech.glide.util.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ByteBufferFileLoaderTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final byte[] data = new byte[] {1, 2, 3, 4, 5, 6};
+  private MappedFileCache mappedFileCache;
+  private ByteBufferFileLoader loader;
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    mappedFileCache = new MappedFileCache(MappedFileCache.DEFAULT_MAX_SIZE_BYTES);
+    loader = new ByteBufferFileLoader(mappedFileCache);
+    file = temporaryFolder.newFile();
+    Util.writeFile(file, data);
+  }
+
+  @Test
+  public void loadData_returnsFileContents() {
+    assertThat(toBytes(load(loader, file))).isEqualTo(data);
+  }
+
+  @Test
+  public void loadData_withoutMappedFileCache_returnsFileContents() {
+    assertThat(toBytes(load(new ByteBufferFileLoader(), file))).isEqualTo(data);
+  }
+
+  @Test
+  public void loadData_repeatedly_reusesMapping() {
+    load(loader, file);
+    load(loader, file);
+
+    assertThat(mappedFileCache.getCurrentSize()).isEqualTo(data.length);
+  }
+
+  @Test
+  public void loadData_repeatedly_returnsIndependentBuffers() {
+    ByteBuffer first = load(loader, file);
+    first.position(3);
+    first.order(ByteOrder.LITTLE_ENDIAN);
+
+    ByteBuffer second = load(loader, file);
+
+    assertThat(second.position()).isEqualTo(0);
+    assertThat(second.order()).isEqualTo(ByteOrder.BIG_ENDIAN);
+    assertThat(toBytes(second)).isEqualTo(data);
+  }
+
+  @Test
+  public void loadData_afterFileIsReplaced_returnsNewContents() throws IOException {
+    load(loader, file);
+    byte[] newData = new byte[] {6, 5, 4, 3, 2, 1, 0};
+    Util.writeFile(file, newData);
+
+    assertThat(toBytes(load(loader, file))).isEqualTo(newData);
+  }
+
+  @Test
+  public void loadData_withEmptyFile_fails() throws IOException {
+    File empty = temporaryFolder.newFile();
+    final Exception[] failure = new Exception[1];
+    fetcher(loader, empty)
+        .loadData(
+            Priority.NORMAL,
+            new DataFetcher.DataCallback<ByteBuffer>() {
+              @Override
+              public void onDataReady(ByteBuffer data) {
+                fail("Expected load to fail");
+              }
+
+              @Override
+              public void onLoadFailed(@NonNull Exception e) {
+                failure[0] = e;
+              }
+            });
+
+    assertThat(failure[0]).isInstanceOf(IOException.class);
+    assertThat(mappedFileCache.getCurrentSize()).isEqualTo(0);
+  }
+
+  private static ByteBuffer load(ByteBufferFileLoader loader, File file) {
+    final ByteBuffer[] result = new ByteBuffer[1];
+    fetcher(loader, file)
+        .loadData(
+            Priority.NORMAL,
+            new DataFetcher.DataCallback<ByteBuffer>() {
+              @Override
+              public void onDataReady(ByteBuffer data) {
+                result[0] = data;
+              }
+
+              @Override
+              public void onLoadFailed(@NonNull Exception e) {
+                throw new RuntimeException(e);
+              }
+            });
+    return Preconditions.checkNotNull(result[0]);
+  }
+
+  private static DataFetcher<ByteBuffer> fetcher(ByteBufferFileLoader loader, File file) {
+    return Preconditions.checkNotNull(loader.buildLoadData(file, 100, 100, new Options())).fetcher;
+  }
+
+  private static byte[] toBytes(ByteBuffer buffer) {
+    byte[] result = new byte[buffer.remaining()];
+    buffer.get(result);
+    return result;
+  }
+}
@@ -8,6 +8,15 @@ import static org.mockito.Mockito.when;
 import androidx.annotation.NonNull;
 import com.bumptech.glide.Registry.NoModelLoaderAvailableException;
 import com.bumptech.glide.util.pool.FactoryPools;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.function.ThrowingRunnable;
@@ -94,6 +103,69 @@ public class ModelLoaderRegistryTest {
     assertThat(registry.getModelLoaders(model)).containsExactly(handlingModelLoader);
   }
 
+  @Test
+  public void getModelLoaders_calledRepeatedly_buildsModelLoadersOnce() {
+    final Object model = new Object();
+    ModelLoader<Object, Object> modelLoader = mockModelLoader();
+    when(modelLoader.handles(model)).thenReturn(true);
+    CountingFactory factory = new CountingFactory(modelLoader);
+    registry.append(Object.class, Object.class, factory);
+
+    registry.getModelLoaders(model);
+    registry.getModelLoaders(model);
+
+    assertThat(factory.builds.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void getModelLoaders_afterAppend_returnsNewModelLoader() {
+    final Object model = new Object();
+    ModelLoader<Object, Object> first = mockModelLoader();
+    when(first.handles(model)).thenReturn(true);
+    appendModelLoader(first);
+    registry.getModelLoaders(model);
+
+    ModelLoader<Object, Object> second = mockModelLoader();
+    when(second.handles(model)).thenReturn(true);
+    appendModelLoader(second);
+
+    assertThat(registry.getModelLoaders(model)).containsExactly(first, second).inOrder();
+  }
+
+  @Test
+  public void getModelLoaders_withConcurrentCalls_buildsModelLoadersOnce() throws Exception {
+    final Object model = new Object();
+    ModelLoader<Object, Object> modelLoader = mockModelLoader();
+    when(modelLoader.handles(model)).thenReturn(true);
+    CountingFactory factory = new CountingFactory(modelLoader);
+    registry.append(Object.class, Object.class, factory);
+    int threads = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<List<ModelLoader<Object, ?>>>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(
+            executor.submit(
+                new Callable<List<ModelLoader<Object, ?>>>() {
+                  @Override
+                  public List<ModelLoader<Object, ?>> call() throws InterruptedException {
+                    start.await();
+                    return registry.getModelLoaders(model);
+                  }
+                }));
+      }
+      start.countDown();
+      for (Future<List<ModelLoader<Object, ?>>> result : results) {
+        assertThat(result.get(5, TimeUnit.SECONDS)).containsExactly(modelLoader);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(factory.builds.get()).isEqualTo(1);
+  }
+
   private void appendModelLoader(final ModelLoader<Object, Object> modelLoader) {
     registry.append(
         Object.class,
@@ -114,4 +186,23 @@ public class ModelLoaderRegistryTest {
   private static ModelLoader<Object, Object> mockModelLoader() {
     return mock(ModelLoader.class, MOCK_MODEL_LOADER_NAME);
   }
+
+  private static final class CountingFactory implements ModelLoaderFactory<Object, Object> {
+    private final AtomicInteger builds = new AtomicInteger();
+    private final ModelLoader<Object, Object> modelLoader;
+
+    CountingFactory(ModelLoader<Object, Object> modelLoader) {
+      this.modelLoader = modelLoader;
+    }
+
+    @NonNull
+    @Override
+    public ModelLoader<Object, Object> build(@NonNull MultiModelLoaderFactory multiFactory) {
+      builds.incrementAndGet();
+      return modelLoader;
+    }
+
+    @Override
+    public void teardown() {}
+  }
 }
@@ -2,6 +2,8 @@ package com.bumptech.glide.load.resource.bitmap;
 
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 import androidx.annotation.NonNull;
 import com.bumptech.glide.load.ImageHeaderParser;
@@ -14,6 +16,7 @@ import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -364,6 +367,17 @@ public class DefaultImageHeaderParserTest {
     assertThat(parser.getOrientation(new PartialSkipInputStream(is), byteArrayPool)).isEqualTo(6);
   }
 
+  @Test
+  public void getOrientation_withByteBuffer_doesNotUseArrayPool() throws IOException {
+    byte[] data =
+        Util.readBytes(TestResourceUtil.openResource(getClass(), "issue387_rotated_jpeg.jpg"));
+    ArrayPool arrayPool = mock(ArrayPool.class);
+    DefaultImageHeaderParser parser = new DefaultImageHeaderParser();
+
+    assertThat(parser.getOrientation(ByteBuffer.wrap(data), arrayPool)).isEqualTo(6);
+    verifyZeroInteractions(arrayPool);
+  }
+
   @Test
   public void testHandlesSometimesZeroSkips() throws IOException {
     InputStream is =
@@ -456,6 +470,127 @@ public class DefaultImageHeaderParserTest {
     assertEquals(ImageHeaderParser.UNKNOWN_ORIENTATION, parser.getOrientation(data, byteArrayPool));
   }
 
+  @Test
+  public void parseHeader_withJpeg_returnsTypeOrientationAndDimensions() throws IOException {
+    InputStream is = TestResourceUtil.openResource(getClass(), "issue387_rotated_jpeg.jpg");
+    DefaultImageHeaderParser parser = new DefaultImageHeaderParser();
+
+    ImageHeader header = parser.parseHeader(is, byteArrayPool);
+
+    assertThat(header.getType()).isEqualTo(ImageType.JPEG);
+    assertThat(header.getOrientation()).isEqualTo(6);
+    assertThat(header.getWidth()).isEqualTo(4128);
+    assertThat(header.getHeight()).isEqualTo(2322);
+  }
+
+  @Test
+  public void parseHeader_withJpegAndPartialSkips_returnsDimensions() throws IOException {
+    InputStream is = TestResourceUtil.openResource(getClass(), "issue387_rotated_jpeg.jpg");
+    DefaultImageHeaderParser parser = new DefaultImageHeaderParser();
+
+    ImageHeader header = parser.parseHeader(new PartialSkipInputStream(is), byteArrayPool);
+
+    assertThat(header.getOrientation()).isEqualTo(6);
+    assertThat(header.hasDimensions()).isTrue();
+  }
+
+  @Test
+  public void parseHeader_withPng_returnsTypeAndDimensions() throws IOException {
+    DefaultImageHeaderParser parser = new DefaultImageHeaderParser();
+
+    ImageHeader header =
+        parser.parseHeader(new ByteArrayInputStream(generatePngHeaderWithIhdr(6)), byteArrayPool);
+
+    assertThat(header.getType()).isEqualTo(ImageType.PNG_A);
+    assertThat(header.getOrientation()).isEqualTo(ImageHeaderParser.UNKNOWN_ORIENTATION);
+    assertThat(header.getWidth()).isEqualTo(400);
+    assertThat(header.getHeight()).isEqualTo(300);
+  }
+
+  @Test
+  public void parseHeader_withGif_returnsTypeAndDimensions() throws IOException {
+    InputStream is = TestResourceUtil.openResource(getClass(), "test.gif");
+    DefaultImageHeaderParser parser = new DefaultImageHeaderParser();
+
+    ImageHeader header = parser.parseHeader(is, byteArrayPool);
+
+    assertThat(header.getType()).isEqualTo(ImageType.GIF);
+    assertThat(header.getWidth()).isEqualTo(120);
+    assertThat(header.getHeight()).isEqualTo(80);
+  }
+
+  @Test
+  public void parseHeader_withLossyWebp_returnsTypeAndDimensions() throws IOException {
+    byte[] data =
+        new byte[] {
+          0x52, 0x49, 0x46, 0x46, 0x72, 0x1c, 0x00, 0x00, 0x57, 0x45, 0x42, 0x50, 0x56, 0x50, 0x38,
+          0x20, 0x66, 0x1c, 0x00, 0x00, 0x30, 0x3c, 0x01, (byte) 0x9d, 0x01, 0x2a, 0x52, 0x02,
+          (byte) 0x94, 0x03, 0x00, (byte) 0xc7
+        };
+    DefaultImageHeaderParser parser = new DefaultImageHeaderParser();
+
+    ImageHeader header = parser.parseHeader(new ByteArrayInputStream(data), byteArrayPool);
+
+    assertThat(header.getType()).isEqualTo(ImageType.WEBP);
+    assertThat(header.getWidth()).isEqualTo(594);
+    assertThat(header.getHeight()).isEqualTo(916);
+  }
+
+  @Test
+  public void parseHeader_withLosslessWebp_returnsTypeAndDimensions() throws IOException {
+    byte[] data =
+        new byte[] {
+          0x52, 0x49, 0x46, 0x46, 0x3c, 0x50, 0x00, 0x00, 0x57, 0x45, 0x42, 0x50, 0x56, 0x50, 0x38,
+          0x4c, 0x30, 0x50, 0x00, 0x00, 0x2f, (byte) 0xef, (byte) 0x80, 0x15, 0x10, (byte) 0x8d
+        };
+    DefaultImageHeaderParser parser = new DefaultImageHeaderParser();
+
+    ImageHeader header = parser.parseHeader(new ByteArrayInputStream(data), byteArrayPool);
+
+    assertThat(header.getType()).isEqualTo(ImageType.WEBP_A);
+    assertThat(header.getWidth()).isEqualTo(240);
+    assertThat(header.getHeight()).isEqualTo(87);
+  }
+
+  @Test
+  public void parseHeader_withExtendedWebp_returnsTypeAndDimensions() throws IOException {
+    byte[] data =
+        new byte[] {
+          0x52, 0x49, 0x46, 0x46, 0x00, 0x00, 0x00, 0x00, 0x57, 0x45, 0x42, 0x50, 0x56, 0x50, 0x38,
+          0x58, 0x0a, 0x00, 0x00, 0x00, 0x10, 0x00, 0x00, 0x00, (byte) 0xff, 0x01, 0x00, 0x2b, 0x01,
+          0x00
+        };
+    DefaultImageHeaderParser parser = new DefaultImageHeaderParser();
+
+    ImageHeader header = parser.parseHeader(new ByteArrayInputStream(data), byteArrayPool);
+
+    assertThat(header.getType()).isEqualTo(ImageType.WEBP_A);
+    assertThat(header.getWidth()).isEqualTo(512);
+    assertThat(header.getHeight()).isEqualTo(300);
+  }
+
+  @Test
+  public void parseHeader_withTruncatedHeader_returnsTypeWithoutDimensions() throws IOException {
+    byte[] data = Arrays.copyOf(PNG_HEADER_WITH_IHDR_CHUNK, 18);
+    DefaultImageHeaderParser parser = new DefaultImageHeaderParser();
+
+    ImageHeader header = parser.parseHeader(new ByteArrayInputStream(data), byteArrayPool);
+
+    assertThat(header.getType()).isEqualTo(ImageType.PNG);
+    assertThat(header.hasDimensions()).isFalse();
+  }
+
+  @Test
+  public void parseHeader_withUnknownData_returnsUnknown() throws IOException {
+    DefaultImageHeaderParser parser = new DefaultImageHeaderParser();
+
+    ImageHeader header =
+        parser.parseHeader(new ByteArrayInputStream(new byte[] {0, 0, 0, 0}), byteArrayPool);
+
+    assertThat(header.getType()).isEqualTo(ImageType.UNKNOWN);
+    assertThat(header.hasDimensions()).isFalse();
+  }
+
   private static ByteBuffer getExifMagicNumber() {
     ByteBuffer jpegHeaderBytes = ByteBuffer.allocate(2);
     jpegHeaderBytes.putShort((short) DefaultImageHeaderParser.EXIF_MAGIC_NUMBER);
@@ -0,0 +1,117 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import android.graphics.Bitmap;
+import android.util.DisplayMetrics;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.ImageHeaderParser;
+import com.bumptech.glide.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolAdapter;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheWrapper;
+import com.bumptech.glide.signature.ObjectKey;
+import com.bumptech.glide.testutil.TestResourceUtil;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class DownsamplerTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Key dataCacheKey = new ObjectKey("data");
+  private final ImageHeaderIndex imageHeaderIndex = new ImageHeaderIndex();
+  private Downsampler downsampler;
+  private DiskCache diskCache;
+
+  @Before
+  public void setUp() throws IOException {
+    downsampler =
+        new Downsampler(
+            Collections.<ImageHeaderParser>singletonList(new DefaultImageHeaderParser()),
+            new DisplayMetrics(),
+            new BitmapPoolAdapter(),
+            new LruArrayPool());
+    diskCache = DiskLruCacheWrapper.create(temporaryFolder.newFolder(), 1024 * 1024);
+  }
+
+  @Test
+  public void decode_withEmptyHeaderIndexEntry_indexesParsedHeader() throws IOException {
+    ImageHeaderIndex.Entry entry = imageHeaderIndex.getEntry(diskCache, dataCacheKey);
+
+    downsampler.decode(openJpeg(), 100, 100, optionsWithEntry(entry));
+
+    ImageHeader header = new ImageHeaderIndex().getEntry(diskCache, dataCacheKey).get();
+    assertThat(header).isNotNull();
+    assertThat(header.getType()).isEqualTo(ImageType.JPEG);
+    assertThat(header.getOrientation()).isEqualTo(6);
+    assertThat(header.hasDimensions()).isTrue();
+  }
+
+  @Test
+  public void decode_withIndexedHeader_doesNotIndexHeaderAgain() throws IOException {
+    DiskCache mockDiskCache = mock(DiskCache.class);
+    ImageHeaderIndex.Entry entry = imageHeaderIndex.getEntry(mockDiskCache, dataCacheKey);
+    entry.put(new ImageHeader(ImageType.JPEG, 6, 4128, 2322));
+
+    downsampler.decode(openJpeg(), 100, 100, optionsWithEntry(entry));
+
+    // Only the put above.
+    verify(mockDiskCache).put(any(Key.class), any(DiskCache.Writer.class));
+  }
+
+  @Test
+  public void decode_withoutHeaderIndexEntry_doesNotIndexHeader() throws IOException {
+    downsampler.decode(openJpeg(), 100, 100, new Options());
+
+    assertThat(imageHeaderIndex.getEntry(diskCache, dataCacheKey).get()).isNull();
+  }
+
+  @Test
+  @Config(sdk = 26)
+  public void decode_withDimensionsFromHeader_onO_usesConfigOfBoundsDecodeForInBitmap()
+      throws IOException {
+    BitmapPool bitmapPool = mock(BitmapPool.class);
+    downsampler =
+        new Downsampler(
+            Collections.<ImageHeaderParser>singletonList(new DefaultImageHeaderParser()),
+            new DisplayMetrics(),
+            bitmapPool,
+            new LruArrayPool());
+
+    downsampler.decode(
+        openJpeg(),
+        100,
+        100,
+        new Options().set(Downsampler.DECODE_FORMAT, DecodeFormat.PREFER_RGB_565));
+
+    // A bounds decode reports ARGB_8888 for JPEGs, not the requested RGB_565.
+    verify(bitmapPool).getDirty(anyInt(), anyInt(), eq(Bitmap.Config.ARGB_8888));
+  }
+
+  private static Options optionsWithEntry(ImageHeaderIndex.Entry entry) {
+    return new Options().set(ImageHeaderIndex.ENTRY, entry);
+  }
+
+  private InputStream openJpeg() {
+    return TestResourceUtil.openResource(getClass(), "issue387_rotated_jpeg.jpg");
+  }
+}
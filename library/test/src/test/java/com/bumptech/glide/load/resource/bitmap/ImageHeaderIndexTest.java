@@ -0,0 +1,127 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bumptech.glide.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheWrapper;
+import com.bumptech.glide.signature.ObjectKey;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class ImageHeaderIndexTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private DiskCache diskCache;
+  private Key dataCacheKey;
+
+  @Before
+  public void setUp() throws IOException {
+    diskCache = DiskLruCacheWrapper.create(temporaryFolder.newFolder(), 1024 * 1024);
+    dataCacheKey = new ObjectKey("data");
+  }
+
+  @Test
+  public void get_withoutPut_returnsNull() {
+    ImageHeaderIndex index = new ImageHeaderIndex();
+
+    assertThat(index.getEntry(diskCache, dataCacheKey).get()).isNull();
+  }
+
+  @Test
+  public void get_afterPut_returnsHeader() {
+    ImageHeaderIndex index = new ImageHeaderIndex();
+    index.getEntry(diskCache, dataCacheKey).put(new ImageHeader(ImageType.JPEG, 6, 400, 300));
+
+    assertHeader(index.getEntry(diskCache, dataCacheKey).get(), ImageType.JPEG, 6, 400, 300);
+  }
+
+  @Test
+  public void get_withNewIndex_readsHeaderFromDiskCache() {
+    new ImageHeaderIndex()
+        .getEntry(diskCache, dataCacheKey)
+        .put(new ImageHeader(ImageType.PNG_A, -1, 120, 80));
+
+    ImageHeader result = new ImageHeaderIndex().getEntry(diskCache, dataCacheKey).get();
+
+    assertHeader(result, ImageType.PNG_A, -1, 120, 80);
+  }
+
+  @Test
+  public void get_withOtherDataCacheKey_returnsNull() {
+    ImageHeaderIndex index = new ImageHeaderIndex();
+    index.getEntry(diskCache, dataCacheKey).put(new ImageHeader(ImageType.JPEG, 1, 400, 300));
+
+    assertThat(index.getEntry(diskCache, new ObjectKey("other")).get()).isNull();
+  }
+
+  @Test
+  public void put_doesNotOverwriteDataInDiskCache() {
+    ImageHeaderIndex index = new ImageHeaderIndex();
+    index.getEntry(diskCache, dataCacheKey).put(new ImageHeader(ImageType.JPEG, 1, 400, 300));
+
+    assertThat(diskCache.get(dataCacheKey)).isNull();
+  }
+
+  @Test
+  public void put_withHeaderInMemory_doesNotWriteAgain() {
+    DiskCache mockDiskCache = mock(DiskCache.class);
+    ImageHeaderIndex index = new ImageHeaderIndex();
+    ImageHeader header = new ImageHeader(ImageType.JPEG, 1, 400, 300);
+    index.getEntry(mockDiskCache, dataCacheKey).put(header);
+
+    index.getEntry(mockDiskCache, dataCacheKey).put(header);
+
+    verify(mockDiskCache).put(any(Key.class), any(DiskCache.Writer.class));
+  }
+
+  @Test
+  public void get_withHeaderInMemory_doesNotReadDiskCache() {
+    DiskCache mockDiskCache = mock(DiskCache.class);
+    ImageHeaderIndex index = new ImageHeaderIndex();
+    index.getEntry(mockDiskCache, dataCacheKey).put(new ImageHeader(ImageType.JPEG, 1, 400, 300));
+
+    assertThat(index.getEntry(mockDiskCache, dataCacheKey).get()).isNotNull();
+    verify(mockDiskCache, never()).get(any(Key.class));
+  }
+
+  @Test
+  public void get_withOtherVersion_returnsNull() throws IOException {
+    ImageHeaderIndex index = new ImageHeaderIndex();
+    ImageHeader header = new ImageHeader(ImageType.JPEG, 1, 400, 300);
+    File file = temporaryFolder.newFile();
+    assertThat(ImageHeaderIndex.write(header, file)).isTrue();
+    FileOutputStream os = new FileOutputStream(file, /*append=*/ false);
+    os.write(new byte[] {0, 0, 0, ImageHeaderIndex.VERSION + 1});
+    os.close();
+    DiskCache mockDiskCache = mock(DiskCache.class);
+    when(mockDiskCache.get(any(Key.class))).thenReturn(file);
+
+    assertThat(index.getEntry(mockDiskCache, dataCacheKey).get()).isNull();
+  }
+
+  private static void assertHeader(
+      ImageHeader header, ImageType type, int orientation, int width, int height) {
+    assertThat(header).isNotNull();
+    assertThat(header.getType()).isEqualTo(type);
+    assertThat(header.getOrientation()).isEqualTo(orientation);
+    assertThat(header.getWidth()).isEqualTo(width);
+    assertThat(header.getHeight()).isEqualTo(height);
+  }
+}
@@ -0,0 +1,86 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bumptech.glide.load.ImageHeaderParser;
+import com.bumptech.glide.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.load.resource.bitmap.ImageReader.InputStreamImageReader;
+import com.bumptech.glide.testutil.TestResourceUtil;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class ImageReaderTest {
+  private ArrayPool arrayPool;
+
+  @Before
+  public void setUp() {
+    arrayPool = new LruArrayPool();
+  }
+
+  @Test
+  public void inputStreamReader_withDefaultParser_returnsHeaderFromSinglePass() throws IOException {
+    ImageHeaderParser parser = new DefaultImageHeaderParser();
+    InputStreamImageReader reader =
+        new InputStreamImageReader(openJpeg(), Collections.singletonList(parser), arrayPool);
+
+    assertThat(reader.getImageType()).isEqualTo(ImageType.JPEG);
+    assertThat(reader.getImageOrientation()).isEqualTo(6);
+    assertThat(reader.getImageDimensions()).asList().containsExactly(4128, 2322).inOrder();
+  }
+
+  @Test
+  public void inputStreamReader_withOtherFirstParser_requiresBoundsDecode() throws IOException {
+    ImageHeaderParser first = mock(ImageHeaderParser.class);
+    when(first.getType(any(InputStream.class))).thenReturn(ImageType.UNKNOWN);
+    when(first.getOrientation(any(InputStream.class), any(ArrayPool.class)))
+        .thenReturn(ImageHeaderParser.UNKNOWN_ORIENTATION);
+    InputStreamImageReader reader =
+        new InputStreamImageReader(
+            openJpeg(), Arrays.asList(first, new DefaultImageHeaderParser()), arrayPool);
+
+    assertThat(reader.getImageDimensions()).isNull();
+    assertThat(reader.getImageType()).isEqualTo(ImageType.JPEG);
+    assertThat(reader.getImageOrientation()).isEqualTo(6);
+  }
+
+  @Test
+  public void inputStreamReader_withUnknownOrientation_asksRemainingParsers() throws IOException {
+    ImageHeaderParser second = mock(ImageHeaderParser.class);
+    when(second.getOrientation(any(InputStream.class), any(ArrayPool.class))).thenReturn(3);
+    byte[] png =
+        new byte[] {
+          (byte) 0x89, 0x50, 0x4e, 0x47, 0xd, 0xa, 0x1a, 0xa, 0x0, 0x0, 0x0, 0xd, 0x49, 0x48, 0x44,
+          0x52, 0x0, 0x0, 0x1, (byte) 0x90, 0x0, 0x0, 0x1, 0x2c, 0x8, 0x2
+        };
+    InputStreamImageReader reader =
+        new InputStreamImageReader(
+            new ByteArrayInputStream(png),
+            Arrays.asList(new DefaultImageHeaderParser(), second),
+            arrayPool);
+
+    assertThat(reader.getImageOrientation()).isEqualTo(3);
+    assertThat(reader.getImageType()).isEqualTo(ImageType.PNG);
+    assertThat(reader.getImageDimensions()).asList().containsExactly(400, 300).inOrder();
+    verify(second).getOrientation(any(InputStream.class), any(ArrayPool.class));
+  }
+
+  private InputStream openJpeg() {
+    return TestResourceUtil.openResource(getClass(), "issue387_rotated_jpeg.jpg");
+  }
+}
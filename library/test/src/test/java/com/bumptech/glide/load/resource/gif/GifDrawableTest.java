@@ -5,6 +5,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.ArgumentMatchers.isNull;
@@ -370,6 +372,27 @@ public class GifDrawableTest {
     assertEquals(frameHeight, drawable.getIntrinsicHeight());
   }
 
+  @Test
+  public void testNotifiesFrameDropListenerOfFramesDroppedSinceLastFrame() {
+    GifDrawable.FrameDropListener listener = mock(GifDrawable.FrameDropListener.class);
+    drawable.setFrameDropListener(listener);
+    when(frameLoader.getFrameCount()).thenReturn(10);
+    drawable.setVisible(true, true);
+    drawable.start();
+
+    drawable.onFrameReady();
+    verify(listener, never()).onFramesDropped(any(GifDrawable.class), anyInt());
+
+    when(frameLoader.getDroppedFrameCount()).thenReturn(2);
+    drawable.onFrameReady();
+    verify(listener).onFramesDropped(drawable, 2);
+
+    when(frameLoader.getDroppedFrameCount()).thenReturn(5);
+    drawable.onFrameReady();
+    verify(listener).onFramesDropped(drawable, 3);
+    assertEquals(5, drawable.getDroppedFrameCount());
+  }
+
   @Test
   public void testLoopsASingleTimeIfLoopCountIsSetToOne() {
     final int loopCount = 1;
@@ -433,6 +456,42 @@ public class GifDrawableTest {
     assertFalse("drawable should be stopped after loop is completed", drawable.isRunning());
   }
 
+  @Test
+  public void testCountsLoopIfLastFrameIsDropped() {
+    when(frameLoader.getFrameCount()).thenReturn(3);
+    drawable.setLoopCount(1);
+    drawable.setVisible(true, true);
+    drawable.start();
+
+    when(frameLoader.getCurrentIndex()).thenReturn(0);
+    drawable.onFrameReady();
+    when(frameLoader.getCurrentIndex()).thenReturn(1);
+    drawable.onFrameReady();
+    assertTrue("drawable should still be running", drawable.isRunning());
+    // The last frame, index 2, is dropped.
+    when(frameLoader.getCurrentIndex()).thenReturn(0);
+    drawable.onFrameReady();
+
+    assertFalse("drawable should be stopped after loop is completed", drawable.isRunning());
+  }
+
+  @Test
+  public void testDoesNotCountLoopTwiceIfLastFrameIsDisplayed() {
+    when(frameLoader.getFrameCount()).thenReturn(2);
+    drawable.setLoopCount(2);
+    drawable.setVisible(true, true);
+    drawable.start();
+
+    when(frameLoader.getCurrentIndex()).thenReturn(0);
+    drawable.onFrameReady();
+    when(frameLoader.getCurrentIndex()).thenReturn(1);
+    drawable.onFrameReady();
+    when(frameLoader.getCurrentIndex()).thenReturn(0);
+    drawable.onFrameReady();
+
+    assertTrue("drawable should still be running", drawable.isRunning());
+  }
+
   @Test
   public void testCallingStartResetsLoopCounter() {
     when(frameLoader.getFrameCount()).thenReturn(2);
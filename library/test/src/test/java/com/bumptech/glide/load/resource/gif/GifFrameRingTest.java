@@ -0,0 +1,336 @@
+package com.bumptech.glide.load.resource.gif;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import com.bumptech.glide.gifdecoder.GifDecoder;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.resource.UnitTransformation;
+import com.bumptech.glide.load.resource.gif.GifFrameLoader.DelayTarget;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class GifFrameRingTest {
+  private static final int CAPACITY = 3;
+  private static final int DELAY = 100;
+
+  private final QueueExecutor executor = new QueueExecutor();
+  private GifDecoder gifDecoder;
+  private BitmapPool bitmapPool;
+  private RecordingHandler deliveryHandler;
+  private GifFrameRing ring;
+  private int frameIndex = -1;
+
+  @Before
+  public void setUp() {
+    gifDecoder = mock(GifDecoder.class);
+    when(gifDecoder.getDelay(anyInt())).thenReturn(DELAY);
+    when(gifDecoder.getCurrentFrameIndex())
+        .thenAnswer(
+            new Answer<Integer>() {
+              @Override
+              public Integer answer(InvocationOnMock invocation) {
+                return frameIndex;
+              }
+            });
+    doAnswer(
+            new Answer<Void>() {
+              @Override
+              public Void answer(InvocationOnMock invocation) {
+                frameIndex++;
+                return null;
+              }
+            })
+        .when(gifDecoder)
+        .advance();
+    doAnswer(
+            new Answer<Void>() {
+              @Override
+              public Void answer(InvocationOnMock invocation) {
+                frameIndex = -1;
+                return null;
+              }
+            })
+        .when(gifDecoder)
+        .resetFrameIndex();
+    when(gifDecoder.getNextFrame())
+        .thenAnswer(
+            new Answer<Bitmap>() {
+              @Override
+              public Bitmap answer(InvocationOnMock invocation) {
+                return Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+              }
+            });
+    bitmapPool = mock(BitmapPool.class);
+
+    deliveryHandler = new RecordingHandler();
+
+    ring =
+        new GifFrameRing(
+            ApplicationProvider.getApplicationContext(),
+            gifDecoder,
+            bitmapPool,
+            executor,
+            CAPACITY,
+            /*width=*/ 10,
+            /*height=*/ 10);
+    ring.setTransformation(UnitTransformation.<Bitmap>get());
+  }
+
+  @Test
+  public void start_decodesUpToCapacity() {
+    ring.start();
+    executor.runAll();
+
+    assertThat(ring.getQueuedFrameCount()).isEqualTo(CAPACITY);
+    verify(gifDecoder, times(CAPACITY)).advance();
+  }
+
+  @Test
+  public void take_deliversNextFrameAtTargetTimeAndDecodesAnother() {
+    ring.start();
+    executor.runAll();
+
+    long targetTime = SystemClock.uptimeMillis() + DELAY;
+    ring.take(deliveryHandler, targetTime);
+
+    DelayTarget target = captureDeliveredTarget(targetTime);
+    assertThat(target.index).isEqualTo(0);
+    assertThat(target.getResource()).isNotNull();
+    executor.runAll();
+    assertThat(ring.getQueuedFrameCount()).isEqualTo(CAPACITY);
+    assertThat(ring.getDroppedFrameCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void take_withEmptyQueue_deliversFrameOnceDecoded() {
+    ring.start();
+    long targetTime = SystemClock.uptimeMillis();
+    ring.take(deliveryHandler, targetTime);
+    assertThat(deliveryHandler.messages).isEmpty();
+
+    executor.runAll();
+
+    assertThat(captureDeliveredTarget(targetTime).index).isEqualTo(0);
+  }
+
+  @Test
+  public void take_whenBehind_dropsFramesThatWouldAlreadyHaveFinished() {
+    ring.start();
+    executor.runAll();
+
+    long now = SystemClock.uptimeMillis();
+    ring.take(deliveryHandler, now - 2 * DELAY - DELAY / 2);
+
+    // The first two frames would have finished before now, the third is still due.
+    DelayTarget target = captureDeliveredTarget(now - DELAY / 2);
+    assertThat(target.index).isEqualTo(2);
+    assertThat(ring.getDroppedFrameCount()).isEqualTo(2);
+    verify(bitmapPool, times(2)).put(any(Bitmap.class));
+  }
+
+  @Test
+  public void onTrimMemory_dropsQueuedFramesAndHalvesCapacity() {
+    ring =
+        new GifFrameRing(
+            ApplicationProvider.getApplicationContext(),
+            gifDecoder,
+            bitmapPool,
+            executor,
+            /*capacity=*/ 4,
+            /*width=*/ 10,
+            /*height=*/ 10);
+    ring.setTransformation(UnitTransformation.<Bitmap>get());
+    ring.start();
+    executor.runAll();
+
+    ring.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+
+    assertThat(ring.getQueuedFrameCount()).isEqualTo(0);
+    assertThat(ring.getDroppedFrameCount()).isEqualTo(4);
+    assertThat(ring.getCapacity()).isEqualTo(2);
+    verify(bitmapPool, times(4)).put(any(Bitmap.class));
+  }
+
+  @Test
+  public void onTrimMemory_withModerateLevel_keepsQueuedFrames() {
+    ring.start();
+    executor.runAll();
+
+    ring.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+
+    assertThat(ring.getQueuedFrameCount()).isEqualTo(CAPACITY);
+    assertThat(ring.getCapacity()).isEqualTo(CAPACITY);
+  }
+
+  @Test
+  public void onLowMemory_reducesCapacityToOne() {
+    ring.start();
+    executor.runAll();
+
+    ring.onLowMemory();
+
+    assertThat(ring.getCapacity()).isEqualTo(1);
+    assertThat(ring.getDroppedFrameCount()).isEqualTo(CAPACITY);
+  }
+
+  @Test
+  public void start_afterTrimMemory_restoresCapacity() {
+    ring.start();
+    executor.runAll();
+    ring.onLowMemory();
+    ring.stop();
+
+    ring.start();
+
+    assertThat(ring.getCapacity()).isEqualTo(CAPACITY);
+  }
+
+  @Test
+  public void reset_discardsQueuedFramesWithoutCountingThemAsDropped() {
+    ring.start();
+    executor.runAll();
+
+    ring.reset();
+    ring.take(deliveryHandler, SystemClock.uptimeMillis());
+    executor.runAll();
+
+    verify(gifDecoder).resetFrameIndex();
+    assertThat(ring.getDroppedFrameCount()).isEqualTo(0);
+    verify(bitmapPool, times(CAPACITY)).put(any(Bitmap.class));
+  }
+
+  @Test
+  public void reset_whileDecoding_discardsDecodedFrame() {
+    ring.start();
+    ring.reset();
+    executor.runAll();
+
+    // The frame decoded before the reset is discarded and the decoder is rewound for the next one.
+    verify(gifDecoder).resetFrameIndex();
+    verify(bitmapPool).put(any(Bitmap.class));
+    assertThat(ring.getQueuedFrameCount()).isEqualTo(CAPACITY);
+  }
+
+  @Test
+  public void stop_stopsDecodingAhead() {
+    ring.start();
+    executor.runOne();
+    ring.stop();
+    executor.runAll();
+
+    verify(gifDecoder, times(2)).advance();
+  }
+
+  @Test
+  public void clear_whileDecoding_clearsDecoderOnceDecodeFinishes() {
+    ring.start();
+
+    ring.clear();
+    verify(gifDecoder, never()).clear();
+
+    executor.runAll();
+    verify(gifDecoder).clear();
+    verify(bitmapPool).put(any(Bitmap.class));
+  }
+
+  @Test
+  public void clear_whenIdle_clearsDecoderAndQueuedFrames() {
+    ring.start();
+    executor.runAll();
+
+    ring.clear();
+
+    verify(gifDecoder).clear();
+    verify(bitmapPool, times(CAPACITY)).put(any(Bitmap.class));
+    assertThat(ring.getDroppedFrameCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void recycle_putsDeliveredFrameInPool() {
+    ring.start();
+    executor.runAll();
+    long targetTime = SystemClock.uptimeMillis();
+    ring.take(deliveryHandler, targetTime);
+    DelayTarget target = captureDeliveredTarget(targetTime);
+    Bitmap bitmap = target.getResource();
+
+    ring.recycle(target);
+
+    verify(bitmapPool).put(bitmap);
+    assertThat(target.getResource()).isNull();
+  }
+
+  @NonNull
+  private DelayTarget captureDeliveredTarget(long targetTime) {
+    assertThat(deliveryHandler.messages).hasSize(1);
+    assertThat(deliveryHandler.times).containsExactly(targetTime);
+    return (DelayTarget) deliveryHandler.messages.get(0).obj;
+  }
+
+  /** Records the frames the ring delivers instead of delivering them. */
+  private static final class RecordingHandler extends Handler {
+    final List<Message> messages = new ArrayList<>();
+    final List<Long> times = new ArrayList<>();
+
+    RecordingHandler() {
+      super(Looper.getMainLooper());
+    }
+
+    @Override
+    public boolean sendMessageAtTime(@NonNull Message msg, long uptimeMillis) {
+      messages.add(msg);
+      times.add(uptimeMillis);
+      return true;
+    }
+  }
+
+  /** Runs decodes when asked, delivering their results on the main looper. */
+  private static final class QueueExecutor implements Executor {
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+      tasks.add(command);
+    }
+
+    void runOne() {
+      tasks.remove().run();
+      shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    void runAll() {
+      while (!tasks.isEmpty()) {
+        runOne();
+      }
+    }
+  }
+}
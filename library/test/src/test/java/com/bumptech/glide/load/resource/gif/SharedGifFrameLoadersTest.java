@@ -0,0 +1,178 @@
+package com.bumptech.glide.load.resource.gif;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.graphics.Bitmap;
+import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.load.resource.UnitTransformation;
+import com.bumptech.glide.load.resource.gif.GifDrawable.GifState;
+import java.nio.ByteBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class SharedGifFrameLoadersTest {
+  private static final byte[] DATA = new byte[] {'G', 'I', 'F', '8', '9', 'a', 1, 2, 3};
+
+  private final SharedGifFrameLoaders sharedFrameLoaders = new SharedGifFrameLoaders();
+  private final Transformation<Bitmap> unitTransformation = UnitTransformation.get();
+  private GifFrameLoader first;
+  private GifFrameLoader second;
+
+  @Before
+  public void setUp() {
+    first = mockLoader(unitTransformation);
+    second = mockLoader(unitTransformation);
+  }
+
+  @Test
+  public void acquire_withNoSharedLoader_returnsCandidate() {
+    assertThat(sharedFrameLoaders.acquire(newKey(DATA), first)).isSameInstanceAs(first);
+    assertThat(sharedFrameLoaders.getReferenceCount(first)).isEqualTo(1);
+  }
+
+  @Test
+  public void acquire_withIdenticalData_returnsSharedLoader() {
+    sharedFrameLoaders.acquire(newKey(DATA), first);
+
+    assertThat(sharedFrameLoaders.acquire(newKey(DATA.clone()), second)).isSameInstanceAs(first);
+    assertThat(sharedFrameLoaders.getReferenceCount(first)).isEqualTo(2);
+    assertThat(sharedFrameLoaders.getReferenceCount(second)).isEqualTo(0);
+  }
+
+  @Test
+  public void acquire_withDifferentData_returnsCandidate() {
+    sharedFrameLoaders.acquire(newKey(DATA), first);
+    byte[] otherData = DATA.clone();
+    otherData[otherData.length - 1]++;
+
+    assertThat(sharedFrameLoaders.acquire(newKey(otherData), second)).isSameInstanceAs(second);
+  }
+
+  @Test
+  public void acquire_withDifferentSize_returnsCandidate() {
+    sharedFrameLoaders.acquire(newKey(DATA), first);
+    SharedGifFrameLoaders.Key otherSize =
+        new SharedGifFrameLoaders.Key(
+            ByteBuffer.wrap(DATA), 1, Bitmap.Config.ARGB_8888, 200, 100, 0, unitTransformation);
+
+    assertThat(sharedFrameLoaders.acquire(otherSize, second)).isSameInstanceAs(second);
+  }
+
+  @Test
+  public void acquire_withDifferentTransformation_returnsCandidate() {
+    sharedFrameLoaders.acquire(newKey(DATA), first);
+    @SuppressWarnings("unchecked")
+    Transformation<Bitmap> transformation = mock(Transformation.class);
+
+    assertThat(
+            sharedFrameLoaders.acquire(newKey(DATA).withTransformation(transformation), second))
+        .isSameInstanceAs(second);
+  }
+
+  @Test
+  public void acquire_ignoresBufferPosition() {
+    ByteBuffer data = ByteBuffer.wrap(DATA);
+    data.position(4);
+    sharedFrameLoaders.acquire(newKey(data), first);
+
+    assertThat(sharedFrameLoaders.acquire(newKey(DATA), second)).isSameInstanceAs(first);
+  }
+
+  @Test
+  public void release_withOtherReferences_returnsFalse() {
+    sharedFrameLoaders.acquire(newKey(DATA), first);
+    sharedFrameLoaders.acquire(newKey(DATA), second);
+
+    assertThat(sharedFrameLoaders.release(first)).isFalse();
+    assertThat(sharedFrameLoaders.getReferenceCount(first)).isEqualTo(1);
+  }
+
+  @Test
+  public void release_lastReference_returnsTrueAndStopsSharing() {
+    sharedFrameLoaders.acquire(newKey(DATA), first);
+
+    assertThat(sharedFrameLoaders.release(first)).isTrue();
+    assertThat(sharedFrameLoaders.acquire(newKey(DATA), second)).isSameInstanceAs(second);
+  }
+
+  @Test
+  public void release_withUnsharedLoader_returnsTrue() {
+    assertThat(sharedFrameLoaders.release(first)).isTrue();
+  }
+
+  @Test
+  public void gifState_shareFrameLoader_usesSharedLoaderAndClearsCandidate() {
+    GifState firstState = new GifState(first, sharedFrameLoaders, newKey(DATA));
+    GifState secondState = new GifState(second, sharedFrameLoaders, newKey(DATA));
+
+    firstState.shareFrameLoader();
+    secondState.shareFrameLoader();
+
+    assertThat(secondState.frameLoader).isSameInstanceAs(first);
+    verify(second).clear();
+    verify(first, never()).clear();
+  }
+
+  @Test
+  public void gifState_shareFrameLoader_usesTransformationOfCandidate() {
+    @SuppressWarnings("unchecked")
+    Transformation<Bitmap> transformation = mock(Transformation.class);
+    GifFrameLoader transformed = mockLoader(transformation);
+    GifState firstState = new GifState(first, sharedFrameLoaders, newKey(DATA));
+    GifState secondState = new GifState(transformed, sharedFrameLoaders, newKey(DATA));
+
+    firstState.shareFrameLoader();
+    secondState.shareFrameLoader();
+
+    assertThat(secondState.frameLoader).isSameInstanceAs(transformed);
+  }
+
+  @Test
+  public void gifState_releaseFrameLoader_clearsLoaderAfterLastRelease() {
+    GifState firstState = new GifState(first, sharedFrameLoaders, newKey(DATA));
+    GifState secondState = new GifState(second, sharedFrameLoaders, newKey(DATA));
+    firstState.shareFrameLoader();
+    secondState.shareFrameLoader();
+
+    firstState.releaseFrameLoader();
+    verify(first, never()).clear();
+
+    secondState.releaseFrameLoader();
+    verify(first).clear();
+  }
+
+  @Test
+  public void gifState_withoutSharing_releaseFrameLoaderClearsLoader() {
+    GifState state = new GifState(first);
+
+    state.shareFrameLoader();
+    state.releaseFrameLoader();
+
+    assertThat(state.frameLoader).isSameInstanceAs(first);
+    verify(first).clear();
+  }
+
+  private SharedGifFrameLoaders.Key newKey(byte[] data) {
+    return newKey(ByteBuffer.wrap(data));
+  }
+
+  private SharedGifFrameLoaders.Key newKey(ByteBuffer data) {
+    return new SharedGifFrameLoaders.Key(
+        data, 1, Bitmap.Config.ARGB_8888, 100, 100, 0, unitTransformation);
+  }
+
+  private static GifFrameLoader mockLoader(Transformation<Bitmap> transformation) {
+    GifFrameLoader result = mock(GifFrameLoader.class);
+    when(result.getFrameTransformation()).thenReturn(transformation);
+    return result;
+  }
+}
@@ -0,0 +1,223 @@
+package com.bumptech.glide.load.resource.tile;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemoryCache;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.load.resource.tile.TiledImage.Tile;
+import com.bumptech.glide.request.target.Target;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class TiledImageTest {
+  private static final int WIDTH = 4000;
+  private static final int HEIGHT = 3000;
+
+  private BitmapRegionDecoder regionDecoder;
+  private BitmapPool bitmapPool;
+  private MemoryCache memoryCache;
+
+  @Before
+  public void setUp() {
+    regionDecoder = mock(BitmapRegionDecoder.class);
+    when(regionDecoder.getWidth()).thenReturn(WIDTH);
+    when(regionDecoder.getHeight()).thenReturn(HEIGHT);
+    when(regionDecoder.decodeRegion(any(Rect.class), any(BitmapFactory.Options.class)))
+        .thenAnswer(
+            new Answer<Bitmap>() {
+              @Override
+              public Bitmap answer(InvocationOnMock invocation) {
+                Rect region = invocation.getArgument(0);
+                BitmapFactory.Options options = invocation.getArgument(1);
+                int sampleSize = options.inSampleSize;
+                return Bitmap.createBitmap(
+                    (region.width() + sampleSize - 1) / sampleSize,
+                    (region.height() + sampleSize - 1) / sampleSize,
+                    options.inPreferredConfig);
+              }
+            });
+    bitmapPool = mock(BitmapPool.class);
+    memoryCache = new LruResourceCache(64 * 1024 * 1024);
+  }
+
+  @Test
+  public void getSampleSize_withSizeOriginal_returnsOne() {
+    TiledImage image = newImage(DownsampleStrategy.DEFAULT, Target.SIZE_ORIGINAL);
+
+    assertThat(image.getSampleSize()).isEqualTo(1);
+  }
+
+  @Test
+  public void getSampleSize_withSmallerTarget_returnsPowerOfTwo() {
+    TiledImage image = newImage(DownsampleStrategy.FIT_CENTER, 1000);
+
+    assertThat(image.getSampleSize()).isEqualTo(4);
+    assertThat(image.getSampleSize(500, 500)).isEqualTo(8);
+  }
+
+  @Test
+  public void getSampleSize_withLargerTarget_returnsOne() {
+    TiledImage image = newImage(DownsampleStrategy.FIT_CENTER, 1000);
+
+    assertThat(image.getSampleSize(WIDTH * 2, HEIGHT * 2)).isEqualTo(1);
+  }
+
+  @Test
+  public void getTileRegions_alignsTilesToGridAndClipsToImage() {
+    TiledImage image = newImage(DownsampleStrategy.DEFAULT, Target.SIZE_ORIGINAL);
+
+    List<Rect> regions = image.getTileRegions(new Rect(600, 2900, 1100, 3500), /*sampleSize=*/ 1);
+
+    assertThat(regions)
+        .containsExactly(new Rect(512, 2560, 1024, 3000), new Rect(1024, 2560, 1536, 3000))
+        .inOrder();
+  }
+
+  @Test
+  public void getTileRegions_scalesTilesBySampleSize() {
+    TiledImage image = newImage(DownsampleStrategy.DEFAULT, Target.SIZE_ORIGINAL);
+
+    List<Rect> regions = image.getTileRegions(new Rect(0, 0, WIDTH, HEIGHT), /*sampleSize=*/ 4);
+
+    assertThat(regions).hasSize(4);
+    assertThat(regions.get(3)).isEqualTo(new Rect(2048, 2048, WIDTH, HEIGHT));
+  }
+
+  @Test
+  public void getTileRegions_outsideImage_returnsEmpty() {
+    TiledImage image = newImage(DownsampleStrategy.DEFAULT, Target.SIZE_ORIGINAL);
+
+    assertThat(image.getTileRegions(new Rect(WIDTH, 0, WIDTH + 100, 100), 1)).isEmpty();
+  }
+
+  @Test
+  public void acquireTile_decodesRegionAtSampleSize() {
+    TiledImage image = newImage(DownsampleStrategy.DEFAULT, Target.SIZE_ORIGINAL);
+
+    Tile tile = image.acquireTile(new Rect(0, 0, 1024, 1024), 2);
+
+    assertThat(tile.getBitmap().getWidth()).isEqualTo(512);
+    assertThat(tile.getBitmap().getHeight()).isEqualTo(512);
+    assertThat(tile.getRegion()).isEqualTo(new Rect(0, 0, 1024, 1024));
+    assertThat(tile.getSampleSize()).isEqualTo(2);
+  }
+
+  @Test
+  public void acquireTile_afterRelease_returnsCachedTile() {
+    TiledImage image = newImage(DownsampleStrategy.DEFAULT, Target.SIZE_ORIGINAL);
+    Rect region = new Rect(0, 0, 512, 512);
+    Tile first = image.acquireTile(region, 1);
+    image.releaseTile(first);
+    assertThat(image.getCachedTileCount()).isEqualTo(1);
+
+    Tile second = image.acquireTile(region, 1);
+
+    assertThat(second.getBitmap()).isSameInstanceAs(first.getBitmap());
+    assertThat(image.getCachedTileCount()).isEqualTo(0);
+    verify(regionDecoder, times(1)).decodeRegion(any(Rect.class), any(BitmapFactory.Options.class));
+  }
+
+  @Test
+  public void acquireTile_withDifferentSampleSize_decodesAgain() {
+    TiledImage image = newImage(DownsampleStrategy.DEFAULT, Target.SIZE_ORIGINAL);
+    Rect region = new Rect(0, 0, 512, 512);
+    image.releaseTile(image.acquireTile(region, 1));
+
+    image.acquireTile(region, 2);
+
+    verify(regionDecoder, times(2)).decodeRegion(any(Rect.class), any(BitmapFactory.Options.class));
+  }
+
+  @Test
+  public void acquireTiles_returnsTilesCoveringRegion() {
+    TiledImage image = newImage(DownsampleStrategy.DEFAULT, Target.SIZE_ORIGINAL);
+
+    List<Tile> tiles = image.acquireTiles(new Rect(0, 0, 1000, 600), 1);
+
+    assertThat(tiles).hasSize(4);
+  }
+
+  @Test
+  public void releaseTile_withMoreTilesThanFitInMemoryCache_onlyTracksMostRecentTiles() {
+    // Enough for two full size ARGB_8888 tiles.
+    memoryCache = new LruResourceCache(2 * 512 * 512 * 4);
+    TiledImage image = newImage(DownsampleStrategy.DEFAULT, Target.SIZE_ORIGINAL);
+    List<Tile> tiles = image.acquireTiles(new Rect(0, 0, WIDTH, 512), 1);
+    assertThat(tiles.size()).isGreaterThan(2);
+
+    for (Tile tile : tiles) {
+      image.releaseTile(tile);
+    }
+
+    assertThat(image.getCachedTileCount()).isEqualTo(2);
+    Tile last = tiles.get(tiles.size() - 1);
+    assertThat(image.acquireTile(last.getRegion(), 1).getBitmap())
+        .isSameInstanceAs(last.getBitmap());
+  }
+
+  @Test
+  public void recycle_removesCachedTilesAndRecyclesDecoder() {
+    TiledImage image = newImage(DownsampleStrategy.DEFAULT, Target.SIZE_ORIGINAL);
+    image.releaseTile(image.acquireTile(new Rect(0, 0, 512, 512), 1));
+    long sizeWithTile = memoryCache.getCurrentSize();
+
+    image.recycle();
+
+    assertThat(sizeWithTile).isGreaterThan(0L);
+    assertThat(memoryCache.getCurrentSize()).isEqualTo(0L);
+    verify(bitmapPool).put(any(Bitmap.class));
+    verify(regionDecoder).recycle();
+  }
+
+  @Test
+  public void releaseTile_afterRecycle_returnsBitmapToPool() {
+    TiledImage image = newImage(DownsampleStrategy.DEFAULT, Target.SIZE_ORIGINAL);
+    Tile tile = image.acquireTile(new Rect(0, 0, 512, 512), 1);
+    image.recycle();
+
+    image.releaseTile(tile);
+
+    verify(bitmapPool).put(tile.getBitmap());
+    assertThat(memoryCache.getCurrentSize()).isEqualTo(0L);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void acquireTile_afterRecycle_throws() {
+    TiledImage image = newImage(DownsampleStrategy.DEFAULT, Target.SIZE_ORIGINAL);
+    image.recycle();
+
+    image.acquireTile(new Rect(0, 0, 512, 512), 1);
+  }
+
+  private TiledImage newImage(DownsampleStrategy strategy, int targetSize) {
+    return new TiledImage(
+        regionDecoder,
+        bitmapPool,
+        memoryCache,
+        strategy,
+        Bitmap.Config.ARGB_8888,
+        /*exifOrientation=*/ 1,
+        targetSize,
+        targetSize,
+        /*encodedSize=*/ 1024);
+  }
+}
@@ -0,0 +1,131 @@
+package com.bumptech.glide.load.resource.webp;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * Builds animated WebP containers whose frames contain placeholder {@code VP8L} headers, which is
+ * enough for {@link WebpHeaderParser} but not for a real WebP decoder.
+ */
+final class AnimatedWebpBuilder {
+  private static final Charset ASCII = Charset.forName("US-ASCII");
+
+  private final int canvasWidth;
+  private final int canvasHeight;
+  private final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+  private int loopCount;
+  private boolean alphaFlag;
+
+  AnimatedWebpBuilder(int canvasWidth, int canvasHeight) {
+    this.canvasWidth = canvasWidth;
+    this.canvasHeight = canvasHeight;
+  }
+
+  AnimatedWebpBuilder setLoopCount(int loopCount) {
+    this.loopCount = loopCount;
+    return this;
+  }
+
+  AnimatedWebpBuilder setAlphaFlag(boolean alphaFlag) {
+    this.alphaFlag = alphaFlag;
+    return this;
+  }
+
+  /** Adds an opaque, blended frame covering the whole canvas. */
+  AnimatedWebpBuilder addFrame(int duration) {
+    return addFrame(
+        0, 0, canvasWidth, canvasHeight, duration, /*dispose=*/ false, /*blend=*/ true, false);
+  }
+
+  AnimatedWebpBuilder addFrame(
+      int x,
+      int y,
+      int width,
+      int height,
+      int duration,
+      boolean dispose,
+      boolean blend,
+      boolean alphaChunk) {
+    ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+    putUInt24(header, x / 2);
+    putUInt24(header, y / 2);
+    putUInt24(header, width - 1);
+    putUInt24(header, height - 1);
+    putUInt24(header, duration);
+    header.put((byte) ((dispose ? 1 : 0) | (blend ? 0 : 2)));
+
+    ByteArrayOutputStream frameData = new ByteArrayOutputStream();
+    write(frameData, header.array());
+    if (alphaChunk) {
+      writeChunk(frameData, "ALPH", new byte[] {0, 1, 2});
+      writeChunk(frameData, "VP8 ", new byte[10]);
+    } else {
+      writeChunk(frameData, "VP8L", vp8lHeader(width, height));
+    }
+    writeChunk(frames, "ANMF", frameData.toByteArray());
+    return this;
+  }
+
+  byte[] build() {
+    ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+    ByteBuffer vp8x = ByteBuffer.allocate(10).order(ByteOrder.LITTLE_ENDIAN);
+    vp8x.putInt((alphaFlag ? 1 << 4 : 0) | 1 << 1);
+    putUInt24(vp8x, canvasWidth - 1);
+    putUInt24(vp8x, canvasHeight - 1);
+    writeChunk(chunks, "VP8X", vp8x.array());
+
+    ByteBuffer anim = ByteBuffer.allocate(6).order(ByteOrder.LITTLE_ENDIAN);
+    anim.putInt(0xFFFFFFFF);
+    anim.putShort((short) loopCount);
+    writeChunk(chunks, "ANIM", anim.array());
+    write(chunks, frames.toByteArray());
+
+    return riff(chunks.toByteArray());
+  }
+
+  /** Returns a lossless WebP without any animation. */
+  static byte[] buildStatic(int width, int height) {
+    ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+    writeChunk(chunks, "VP8L", vp8lHeader(width, height));
+    return riff(chunks.toByteArray());
+  }
+
+  private static byte[] riff(byte[] chunks) {
+    ByteBuffer result = ByteBuffer.allocate(12 + chunks.length).order(ByteOrder.LITTLE_ENDIAN);
+    result.put("RIFF".getBytes(ASCII));
+    result.putInt(4 + chunks.length);
+    result.put("WEBP".getBytes(ASCII));
+    result.put(chunks);
+    return result.array();
+  }
+
+  private static byte[] vp8lHeader(int width, int height) {
+    ByteBuffer result = ByteBuffer.allocate(5).order(ByteOrder.LITTLE_ENDIAN);
+    result.put((byte) 0x2f);
+    result.putInt((width - 1) | (height - 1) << 14);
+    return result.array();
+  }
+
+  private static void writeChunk(ByteArrayOutputStream out, String fourCc, byte[] payload) {
+    ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    header.put(fourCc.getBytes(ASCII));
+    header.putInt(payload.length);
+    write(out, header.array());
+    write(out, payload);
+    if (payload.length % 2 != 0) {
+      out.write(0);
+    }
+  }
+
+  private static void write(ByteArrayOutputStream out, byte[] bytes) {
+    out.write(bytes, 0, bytes.length);
+  }
+
+  private static void putUInt24(ByteBuffer buffer, int value) {
+    buffer.put((byte) value);
+    buffer.put((byte) (value >>> 8));
+    buffer.put((byte) (value >>> 16));
+  }
+}
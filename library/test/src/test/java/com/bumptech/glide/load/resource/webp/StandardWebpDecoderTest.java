@@ -0,0 +1,199 @@
+package com.bumptech.glide.load.resource.webp;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.graphics.Bitmap;
+import com.bumptech.glide.gifdecoder.FrameSequenceDecoder;
+import com.bumptech.glide.gifdecoder.GifDecoder;
+import java.nio.ByteBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class StandardWebpDecoderTest {
+  private GifDecoder.BitmapProvider provider;
+
+  @Before
+  public void setUp() {
+    provider = mock(GifDecoder.BitmapProvider.class);
+    when(provider.obtain(anyInt(), anyInt(), any(Bitmap.Config.class)))
+        .thenAnswer(
+            new Answer<Bitmap>() {
+              @Override
+              public Bitmap answer(InvocationOnMock invocation) {
+                int width = invocation.getArgument(0);
+                int height = invocation.getArgument(1);
+                Bitmap.Config config = invocation.getArgument(2);
+                return Bitmap.createBitmap(width, height, config);
+              }
+            });
+    when(provider.obtainByteArray(anyInt()))
+        .thenAnswer(
+            new Answer<byte[]>() {
+              @Override
+              public byte[] answer(InvocationOnMock invocation) {
+                int size = invocation.getArgument(0);
+                return new byte[size];
+              }
+            });
+  }
+
+  @Test
+  public void advance_wrapsAroundToFirstFrame() {
+    StandardWebpDecoder decoder =
+        newDecoder(new AnimatedWebpBuilder(10, 10).addFrame(100).addFrame(200));
+
+    assertThat(decoder.getCurrentFrameIndex()).isEqualTo(-1);
+    decoder.advance();
+    assertThat(decoder.getCurrentFrameIndex()).isEqualTo(0);
+    assertThat(decoder.getNextDelay()).isEqualTo(100);
+    decoder.advance();
+    assertThat(decoder.getNextDelay()).isEqualTo(200);
+    decoder.advance();
+    assertThat(decoder.getCurrentFrameIndex()).isEqualTo(0);
+  }
+
+  @Test
+  public void getDelay_withInvalidIndex_returnsMinusOne() {
+    StandardWebpDecoder decoder = newDecoder(new AnimatedWebpBuilder(10, 10).addFrame(100));
+
+    assertThat(decoder.getDelay(1)).isEqualTo(-1);
+    assertThat(decoder.getDelay(-1)).isEqualTo(-1);
+  }
+
+  @Test
+  public void getTotalIterationCount_withLoopCount_returnsLoopCount() {
+    StandardWebpDecoder decoder =
+        newDecoder(new AnimatedWebpBuilder(10, 10).setLoopCount(3).addFrame(100));
+
+    assertThat(decoder.getTotalIterationCount()).isEqualTo(3);
+  }
+
+  @Test
+  public void getTotalIterationCount_withoutLoopCount_repeatsForever() {
+    StandardWebpDecoder decoder = newDecoder(new AnimatedWebpBuilder(10, 10).addFrame(100));
+
+    assertThat(decoder.getTotalIterationCount())
+        .isEqualTo(FrameSequenceDecoder.TOTAL_ITERATION_COUNT_FOREVER);
+  }
+
+  @Test
+  public void getNextFrame_beforeAdvance_returnsNull() {
+    StandardWebpDecoder decoder = newDecoder(new AnimatedWebpBuilder(10, 10).addFrame(100));
+
+    assertThat(decoder.getNextFrame()).isNull();
+    assertThat(decoder.getStatus()).isEqualTo(FrameSequenceDecoder.STATUS_FORMAT_ERROR);
+  }
+
+  @Test
+  public void getNextFrame_returnsDownsampledFrame() {
+    StandardWebpDecoder decoder =
+        newDecoder(new AnimatedWebpBuilder(100, 60).addFrame(100), /*sampleSize=*/ 4);
+    decoder.advance();
+
+    Bitmap frame = decoder.getNextFrame();
+
+    assertThat(frame.getWidth()).isEqualTo(25);
+    assertThat(frame.getHeight()).isEqualTo(15);
+  }
+
+  @Test
+  public void getNextFrame_withOpaqueFrames_usesDefaultConfig() {
+    StandardWebpDecoder decoder = newDecoder(new AnimatedWebpBuilder(10, 10).addFrame(100));
+    decoder.setDefaultBitmapConfig(Bitmap.Config.RGB_565);
+    decoder.advance();
+
+    assertThat(decoder.getNextFrame().getConfig()).isEqualTo(Bitmap.Config.RGB_565);
+  }
+
+  @Test
+  public void getNextFrame_withTransparentFrames_usesArgb8888() {
+    StandardWebpDecoder decoder =
+        newDecoder(new AnimatedWebpBuilder(10, 10).setAlphaFlag(true).addFrame(100));
+    decoder.setDefaultBitmapConfig(Bitmap.Config.RGB_565);
+    decoder.advance();
+
+    assertThat(decoder.getNextFrame().getConfig()).isEqualTo(Bitmap.Config.ARGB_8888);
+  }
+
+  @Test
+  public void getNextFrame_withConsecutiveFrames_decodesEachFrameOnce() {
+    StandardWebpDecoder decoder = newDecoder(newPartialFramesWebp());
+
+    for (int i = 0; i < 3; i++) {
+      decoder.advance();
+      decoder.getNextFrame();
+    }
+
+    verify(provider, times(3)).obtainByteArray(anyInt());
+  }
+
+  @Test
+  public void getNextFrame_afterSkippingFrames_redrawsFromKeyFrame() {
+    StandardWebpDecoder decoder = newDecoder(newPartialFramesWebp());
+    decoder.advance();
+    decoder.advance();
+    decoder.advance();
+
+    decoder.getNextFrame();
+
+    verify(provider, times(3)).obtainByteArray(anyInt());
+  }
+
+  @Test
+  public void getNextFrame_afterReset_redrawsFromKeyFrame() {
+    StandardWebpDecoder decoder = newDecoder(newPartialFramesWebp());
+    decoder.advance();
+    decoder.getNextFrame();
+    decoder.advance();
+    decoder.getNextFrame();
+
+    decoder.resetFrameIndex();
+    decoder.advance();
+    decoder.getNextFrame();
+
+    verify(provider, times(3)).obtainByteArray(anyInt());
+  }
+
+  @Test
+  public void clear_releasesBitmaps() {
+    StandardWebpDecoder decoder = newDecoder(new AnimatedWebpBuilder(10, 10).addFrame(100));
+    decoder.advance();
+    decoder.getNextFrame();
+    clearInvocations(provider);
+
+    decoder.clear();
+
+    // Frames are decoded into new bitmaps prior to KitKat, so only the canvas is kept.
+    verify(provider).release(any(Bitmap.class));
+  }
+
+  private static AnimatedWebpBuilder newPartialFramesWebp() {
+    return new AnimatedWebpBuilder(100, 100)
+        .addFrame(100)
+        .addFrame(0, 0, 50, 50, 100, /*dispose=*/ false, /*blend=*/ true, false)
+        .addFrame(50, 50, 50, 50, 100, /*dispose=*/ false, /*blend=*/ true, false);
+  }
+
+  private StandardWebpDecoder newDecoder(AnimatedWebpBuilder builder) {
+    return newDecoder(builder, /*sampleSize=*/ 1);
+  }
+
+  private StandardWebpDecoder newDecoder(AnimatedWebpBuilder builder, int sampleSize) {
+    ByteBuffer data = ByteBuffer.wrap(builder.build());
+    return new StandardWebpDecoder(provider, WebpHeaderParser.parse(data), data, sampleSize);
+  }
+}
@@ -0,0 +1,222 @@
+package com.bumptech.glide.load.resource.webp;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.bumptech.glide.gifdecoder.FrameSequenceDecoder;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class WebpHeaderParserTest {
+
+  @Test
+  public void isAnimated_withAnimatedWebp_returnsTrue() throws IOException {
+    byte[] data = new AnimatedWebpBuilder(10, 10).addFrame(100).build();
+
+    assertThat(WebpHeaderParser.isAnimated(ByteBuffer.wrap(data))).isTrue();
+    assertThat(WebpHeaderParser.isAnimated(new ByteArrayInputStream(data))).isTrue();
+  }
+
+  @Test
+  public void isAnimated_withStaticWebp_returnsFalse() throws IOException {
+    byte[] data = AnimatedWebpBuilder.buildStatic(10, 10);
+
+    assertThat(WebpHeaderParser.isAnimated(ByteBuffer.wrap(data))).isFalse();
+    assertThat(WebpHeaderParser.isAnimated(new ByteArrayInputStream(data))).isFalse();
+  }
+
+  @Test
+  public void isAnimated_withShortData_returnsFalse() throws IOException {
+    byte[] data = Arrays.copyOf(new AnimatedWebpBuilder(10, 10).addFrame(100).build(), 16);
+
+    assertThat(WebpHeaderParser.isAnimated(ByteBuffer.wrap(data))).isFalse();
+    assertThat(WebpHeaderParser.isAnimated(new ByteArrayInputStream(data))).isFalse();
+  }
+
+  @Test
+  public void isAnimated_doesNotChangeBufferPosition() {
+    ByteBuffer data = ByteBuffer.wrap(new AnimatedWebpBuilder(10, 10).addFrame(100).build());
+
+    WebpHeaderParser.isAnimated(data);
+
+    assertThat(data.position()).isEqualTo(0);
+  }
+
+  @Test
+  public void parse_readsCanvasAndLoopCount() {
+    byte[] data = new AnimatedWebpBuilder(300, 200).setLoopCount(3).addFrame(100).build();
+
+    WebpHeader header = WebpHeaderParser.parse(ByteBuffer.wrap(data));
+
+    assertThat(header.status).isEqualTo(FrameSequenceDecoder.STATUS_OK);
+    assertThat(header.canvasWidth).isEqualTo(300);
+    assertThat(header.canvasHeight).isEqualTo(200);
+    assertThat(header.loopCount).isEqualTo(3);
+    assertThat(header.getFrameCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void parse_readsFrames() {
+    byte[] data =
+        new AnimatedWebpBuilder(100, 100)
+            .addFrame(100)
+            .addFrame(
+                20, 30, 40, 50, 70, /*dispose=*/ true, /*blend=*/ false, /*alphaChunk=*/ true)
+            .build();
+
+    WebpHeader header = WebpHeaderParser.parse(ByteBuffer.wrap(data));
+
+    assertThat(header.getFrameCount()).isEqualTo(2);
+    WebpFrame first = header.frames.get(0);
+    assertThat(first.duration).isEqualTo(100);
+    assertThat(first.isFullFrame(100, 100)).isTrue();
+    assertThat(first.isExtended).isFalse();
+    assertThat(first.hasAlpha).isFalse();
+    WebpFrame second = header.frames.get(1);
+    assertThat(second.x).isEqualTo(20);
+    assertThat(second.y).isEqualTo(30);
+    assertThat(second.width).isEqualTo(40);
+    assertThat(second.height).isEqualTo(50);
+    assertThat(second.duration).isEqualTo(70);
+    assertThat(second.disposeToBackground).isTrue();
+    assertThat(second.blend).isFalse();
+    assertThat(second.hasAlpha).isTrue();
+    assertThat(second.isExtended).isTrue();
+  }
+
+  @Test
+  public void parse_frameData_pointsAtBitstreamChunks() {
+    byte[] data = new AnimatedWebpBuilder(10, 10).addFrame(100).build();
+
+    WebpFrame frame = WebpHeaderParser.parse(ByteBuffer.wrap(data)).frames.get(0);
+
+    assertThat(new String(data, frame.dataOffset, 4)).isEqualTo("VP8L");
+    assertThat(frame.dataOffset + frame.dataLength).isEqualTo(data.length);
+  }
+
+  @Test
+  public void parse_withShortDuration_usesDefaultDuration() {
+    byte[] data = new AnimatedWebpBuilder(10, 10).addFrame(0).addFrame(10).addFrame(11).build();
+
+    WebpHeader header = WebpHeaderParser.parse(ByteBuffer.wrap(data));
+
+    assertThat(header.frames.get(0).duration).isEqualTo(100);
+    assertThat(header.frames.get(1).duration).isEqualTo(100);
+    assertThat(header.frames.get(2).duration).isEqualTo(11);
+  }
+
+  @Test
+  public void parse_marksKeyFrames() {
+    byte[] data =
+        new AnimatedWebpBuilder(100, 100)
+            .addFrame(100)
+            // Partial frames are drawn over the previous frame.
+            .addFrame(0, 0, 50, 50, 100, /*dispose=*/ true, /*blend=*/ true, false)
+            // The previous frame is disposed, but didn't cover the previous canvas.
+            .addFrame(0, 0, 50, 50, 100, /*dispose=*/ false, /*blend=*/ true, false)
+            // Opaque frames that cover the canvas replace it.
+            .addFrame(100)
+            .build();
+
+    WebpHeader header = WebpHeaderParser.parse(ByteBuffer.wrap(data));
+
+    assertThat(header.frames.get(0).isKeyFrame).isTrue();
+    assertThat(header.frames.get(1).isKeyFrame).isFalse();
+    assertThat(header.frames.get(2).isKeyFrame).isFalse();
+    assertThat(header.frames.get(3).isKeyFrame).isTrue();
+  }
+
+  @Test
+  public void parse_afterDisposedKeyFrame_marksKeyFrame() {
+    byte[] data =
+        new AnimatedWebpBuilder(100, 100)
+            .addFrame(0, 0, 50, 50, 100, /*dispose=*/ true, /*blend=*/ true, false)
+            .addFrame(50, 50, 50, 50, 100, /*dispose=*/ false, /*blend=*/ true, false)
+            .build();
+
+    WebpHeader header = WebpHeaderParser.parse(ByteBuffer.wrap(data));
+
+    assertThat(header.frames.get(1).isKeyFrame).isTrue();
+  }
+
+  @Test
+  public void parse_withBlendedTransparentFullFrame_doesNotMarkKeyFrame() {
+    byte[] data =
+        new AnimatedWebpBuilder(100, 100)
+            .addFrame(100)
+            .addFrame(0, 0, 100, 100, 100, /*dispose=*/ false, /*blend=*/ true, true)
+            .build();
+
+    WebpHeader header = WebpHeaderParser.parse(ByteBuffer.wrap(data));
+
+    assertThat(header.frames.get(1).isKeyFrame).isFalse();
+  }
+
+  @Test
+  public void parse_withOpaqueFullFrames_hasNoAlpha() {
+    byte[] data = new AnimatedWebpBuilder(10, 10).addFrame(100).addFrame(100).build();
+
+    assertThat(WebpHeaderParser.parse(ByteBuffer.wrap(data)).hasAlpha).isFalse();
+  }
+
+  @Test
+  public void parse_withPartialFrame_hasAlpha() {
+    byte[] data =
+        new AnimatedWebpBuilder(10, 10)
+            .addFrame(100)
+            .addFrame(0, 0, 4, 4, 100, /*dispose=*/ false, /*blend=*/ true, false)
+            .build();
+
+    assertThat(WebpHeaderParser.parse(ByteBuffer.wrap(data)).hasAlpha).isTrue();
+  }
+
+  @Test
+  public void parse_withAlphaFlag_hasAlpha() {
+    byte[] data = new AnimatedWebpBuilder(10, 10).setAlphaFlag(true).addFrame(100).build();
+
+    assertThat(WebpHeaderParser.parse(ByteBuffer.wrap(data)).hasAlpha).isTrue();
+  }
+
+  @Test
+  public void parse_withFrameOutsideCanvas_returnsFormatError() {
+    byte[] data =
+        new AnimatedWebpBuilder(10, 10)
+            .addFrame(4, 4, 10, 10, 100, /*dispose=*/ false, /*blend=*/ true, false)
+            .build();
+
+    assertThat(WebpHeaderParser.parse(ByteBuffer.wrap(data)).status)
+        .isEqualTo(FrameSequenceDecoder.STATUS_FORMAT_ERROR);
+  }
+
+  @Test
+  public void parse_withTruncatedData_returnsFormatError() {
+    byte[] data = new AnimatedWebpBuilder(10, 10).addFrame(100).addFrame(100).build();
+    byte[] truncated = Arrays.copyOf(data, data.length - 4);
+
+    assertThat(WebpHeaderParser.parse(ByteBuffer.wrap(truncated)).status)
+        .isEqualTo(FrameSequenceDecoder.STATUS_FORMAT_ERROR);
+  }
+
+  @Test
+  public void parse_withoutFrames_returnsFormatError() {
+    byte[] data = new AnimatedWebpBuilder(10, 10).build();
+
+    assertThat(WebpHeaderParser.parse(ByteBuffer.wrap(data)).status)
+        .isEqualTo(FrameSequenceDecoder.STATUS_FORMAT_ERROR);
+  }
+
+  @Test
+  public void parse_withStaticWebp_returnsFormatError() {
+    byte[] data = AnimatedWebpBuilder.buildStatic(10, 10);
+
+    assertThat(WebpHeaderParser.parse(ByteBuffer.wrap(data)).status)
+        .isEqualTo(FrameSequenceDecoder.STATUS_FORMAT_ERROR);
+  }
+}
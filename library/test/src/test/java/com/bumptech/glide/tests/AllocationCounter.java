@@ -0,0 +1,73 @@
+package com.bumptech.glide.tests;
+
+import java.lang.reflect.Method;
+
+/**
+ * Counts the bytes allocated by the current thread on JVMs that support it.
+ *
+ * <p>The management APIs aren't part of the Android SDK, so they're accessed reflectively. Each
+ * call to {@link #getAllocatedBytes()} allocates a small, constant number of bytes itself, so
+ * measurements should cover many operations.
+ */
+public final class AllocationCounter {
+  private static final int WARM_UP_CALLS = 100;
+  private static final Object THREAD_MX_BEAN;
+  private static final Method GET_THREAD_ALLOCATED_BYTES;
+
+  static {
+    Object threadMxBean = null;
+    Method getThreadAllocatedBytes = null;
+    try {
+      Class<?> managementFactory = Class.forName("java.lang.management.ManagementFactory");
+      threadMxBean = managementFactory.getMethod("getThreadMXBean").invoke(null);
+      Class<?> sunThreadMxBean = Class.forName("com.sun.management.ThreadMXBean");
+      if (sunThreadMxBean.isInstance(threadMxBean)) {
+        getThreadAllocatedBytes = sunThreadMxBean.getMethod("getThreadAllocatedBytes", long.class);
+      }
+    } catch (Exception e) {
+      getThreadAllocatedBytes = null;
+    }
+    THREAD_MX_BEAN = threadMxBean;
+    GET_THREAD_ALLOCATED_BYTES = getThreadAllocatedBytes;
+
+    // Reflection allocates more for the first few calls, so get that out of the way.
+    if (isSupported()) {
+      for (int i = 0; i < WARM_UP_CALLS; i++) {
+        getAllocatedBytes();
+      }
+    }
+  }
+
+  private AllocationCounter() {
+    // Utility class.
+  }
+
+  /** Returns {@code true} if allocations can be counted on this JVM. */
+  public static boolean isSupported() {
+    return GET_THREAD_ALLOCATED_BYTES != null;
+  }
+
+  /** Returns the total number of bytes allocated by the current thread so far. */
+  public static long getAllocatedBytes() {
+    if (!isSupported()) {
+      throw new UnsupportedOperationException("Allocation counting isn't supported");
+    }
+    try {
+      return (Long)
+          GET_THREAD_ALLOCATED_BYTES.invoke(THREAD_MX_BEAN, Thread.currentThread().getId());
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Returns the number of bytes allocated by the current thread while running {@code runnable}. */
+  public static long countAllocatedBytes(Runnable runnable) {
+    // Measure the overhead of measuring so that it can be excluded.
+    long overheadStart = getAllocatedBytes();
+    long overhead = getAllocatedBytes() - overheadStart;
+
+    long start = getAllocatedBytes();
+    runnable.run();
+    return Math.max(0, getAllocatedBytes() - start - overhead);
+  }
+}
@@ -0,0 +1,178 @@
+package com.bumptech.glide.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replays recorded streams of cache keys against {@link LruCache} and {@link TinyLfuCache} and
+ * reports the hit rate of each.
+ *
+ * <p>Requests are replayed the same way {@link com.bumptech.glide.load.engine.Engine} uses its
+ * memory cache: a hit removes the item while it's in use and puts it back once it's released, and
+ * a miss puts a newly loaded item.
+ *
+ * <p>Traces are plain text with one request per line. Each line contains a key, optionally
+ * followed by whitespace and the size of the item in bytes. Items without a size have a size of 1.
+ * To compare policies on a recorded trace, run {@link #main(String[])} with the path to the trace
+ * and the maximum cache size.
+ */
+public final class CacheTraceReplayer {
+
+  private CacheTraceReplayer() {}
+
+  /** A single recorded cache request. */
+  public static final class Request {
+    final String key;
+    final int size;
+
+    public Request(@NonNull String key, int size) {
+      this.key = key;
+      this.size = size;
+    }
+  }
+
+  /** The outcome of replaying a trace against a single cache. */
+  public static final class Result {
+    public final long hits;
+    public final long requests;
+
+    Result(long hits, long requests) {
+      this.hits = hits;
+      this.requests = requests;
+    }
+
+    public double hitRate() {
+      return requests == 0 ? 0 : hits / (double) requests;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.US, "%.2f%% (%d/%d)", hitRate() * 100, hits, requests);
+    }
+  }
+
+  /** Replays {@code trace} against a new {@link LruCache} with the given maximum size. */
+  @NonNull
+  public static Result replayLru(@NonNull List<Request> trace, long maxSize) {
+    return replay(trace, new SizedLruCache(maxSize));
+  }
+
+  /** Replays {@code trace} against a new {@link TinyLfuCache} with the given maximum size. */
+  @NonNull
+  public static Result replayTinyLfu(@NonNull List<Request> trace, long maxSize) {
+    return replay(trace, new SizedTinyLfuCache(maxSize));
+  }
+
+  private static Result replay(List<Request> trace, Cache cache) {
+    long hits = 0;
+    for (Request request : trace) {
+      Integer item = cache.acquire(request.key);
+      if (item != null) {
+        hits++;
+      } else {
+        item = request.size;
+      }
+      cache.release(request.key, item);
+    }
+    return new Result(hits, trace.size());
+  }
+
+  /** Parses a trace in the format described in the class documentation. */
+  @NonNull
+  public static List<Request> readTrace(@NonNull Reader reader) throws IOException {
+    BufferedReader bufferedReader = new BufferedReader(reader);
+    List<Request> result = new ArrayList<>();
+    String line;
+    while ((line = bufferedReader.readLine()) != null) {
+      line = line.trim();
+      if (line.isEmpty()) {
+        continue;
+      }
+      String[] parts = line.split("\\s+");
+      int size = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+      result.add(new Request(parts[0], size));
+    }
+    return result;
+  }
+
+  /**
+   * Prints the hit rate of {@link LruCache} and {@link TinyLfuCache} for a recorded trace.
+   *
+   * <p>Usage: {@code CacheTraceReplayer <trace file> <max cache size>}
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: CacheTraceReplayer <trace file> <max cache size>");
+      return;
+    }
+    List<Request> trace;
+    Reader reader = new FileReader(args[0]);
+    try {
+      trace = readTrace(reader);
+    } finally {
+      reader.close();
+    }
+    long maxSize = Long.parseLong(args[1]);
+    System.out.println("LRU:       " + replayLru(trace, maxSize));
+    System.out.println("W-TinyLFU: " + replayTinyLfu(trace, maxSize));
+  }
+
+  private interface Cache {
+    @Nullable
+    Integer acquire(@NonNull String key);
+
+    void release(@NonNull String key, @NonNull Integer size);
+  }
+
+  private static final class SizedLruCache extends LruCache<String, Integer> implements Cache {
+    SizedLruCache(long size) {
+      super(size);
+    }
+
+    @Override
+    protected int getSize(@Nullable Integer item) {
+      return item == null ? 1 : item;
+    }
+
+    @Nullable
+    @Override
+    public Integer acquire(@NonNull String key) {
+      return remove(key);
+    }
+
+    @Override
+    public void release(@NonNull String key, @NonNull Integer size) {
+      put(key, size);
+    }
+  }
+
+  private static final class SizedTinyLfuCache extends TinyLfuCache<String, Integer>
+      implements Cache {
+    SizedTinyLfuCache(long size) {
+      super(size);
+    }
+
+    @Override
+    protected int getSize(@Nullable Integer item) {
+      return item == null ? 1 : item;
+    }
+
+    @Nullable
+    @Override
+    public Integer acquire(@NonNull String key) {
+      return remove(key);
+    }
+
+    @Override
+    public void release(@NonNull String key, @NonNull Integer size) {
+      put(key, size);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.bumptech.glide.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class FrequencySketchTest {
+  private final FrequencySketch sketch = new FrequencySketch();
+
+  @Test
+  public void increment_increasesFrequency() {
+    sketch.increment("key");
+    sketch.increment("key");
+
+    assertThat(sketch.frequency("key")).isAtLeast(2);
+  }
+
+  @Test
+  public void frequency_withUnseenKey_returnsZero() {
+    assertThat(sketch.frequency("key")).isEqualTo(0);
+  }
+
+  @Test
+  public void ensureCapacity_keepsFrequencies() {
+    int[] before = new int[100];
+    for (int i = 0; i < before.length; i++) {
+      for (int j = 0; j < i % 8; j++) {
+        sketch.increment(i);
+      }
+    }
+    for (int i = 0; i < before.length; i++) {
+      before[i] = sketch.frequency(i);
+    }
+
+    sketch.ensureCapacity(4096);
+
+    for (int i = 0; i < before.length; i++) {
+      assertThat(sketch.frequency(i)).isEqualTo(before[i]);
+    }
+  }
+
+  @Test
+  public void ensureCapacity_repeatedly_keepsFrequencies() {
+    for (int i = 0; i < 5; i++) {
+      sketch.increment("key");
+    }
+
+    for (int capacity = 32; capacity <= 1024; capacity *= 2) {
+      sketch.ensureCapacity(capacity);
+    }
+
+    assertThat(sketch.frequency("key")).isAtLeast(5);
+  }
+}
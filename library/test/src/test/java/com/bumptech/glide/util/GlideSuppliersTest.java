@@ -0,0 +1,100 @@
+package com.bumptech.glide.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class GlideSuppliersTest {
+
+  @Test
+  public void memoize_doesNotCallSupplierUntilGet() {
+    CountingSupplier supplier = new CountingSupplier();
+
+    GlideSuppliers.memoize(supplier);
+
+    assertThat(supplier.count.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void memoize_callsSupplierOnce() {
+    CountingSupplier supplier = new CountingSupplier();
+    GlideSupplier<Object> memoized = GlideSuppliers.memoize(supplier);
+
+    Object first = memoized.get();
+    Object second = memoized.get();
+
+    assertThat(first).isSameInstanceAs(second);
+    assertThat(supplier.count.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void memoize_withMemoizedSupplier_returnsSupplier() {
+    GlideSupplier<Object> memoized = GlideSuppliers.memoize(new CountingSupplier());
+
+    assertThat(GlideSuppliers.memoize(memoized)).isSameInstanceAs(memoized);
+  }
+
+  @Test
+  public void memoize_withConcurrentCalls_callsSupplierOnce() throws Exception {
+    final CountingSupplier supplier = new CountingSupplier();
+    final GlideSupplier<Object> memoized = GlideSuppliers.memoize(supplier);
+    int threads = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      @SuppressWarnings("unchecked")
+      Future<Object>[] results = new Future[threads];
+      for (int i = 0; i < threads; i++) {
+        results[i] =
+            executor.submit(
+                new Callable<Object>() {
+                  @Override
+                  public Object call() throws InterruptedException {
+                    start.await();
+                    return memoized.get();
+                  }
+                });
+      }
+      start.countDown();
+      for (Future<Object> result : results) {
+        assertThat(result.get(5, TimeUnit.SECONDS)).isSameInstanceAs(results[0].get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(supplier.count.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void ofInstance_returnsInstance() {
+    Object instance = new Object();
+
+    assertThat(GlideSuppliers.ofInstance(instance).get()).isSameInstanceAs(instance);
+  }
+
+  private static final class CountingSupplier implements GlideSupplier<Object> {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @NonNull
+    @Override
+    public Object get() {
+      count.incrementAndGet();
+      return new Object();
+    }
+  }
+}
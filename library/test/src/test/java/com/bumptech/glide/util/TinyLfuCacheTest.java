@@ -0,0 +1,187 @@
+package com.bumptech.glide.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.util.CacheTraceReplayer.Request;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TinyLfuCacheTest {
+  private static final int SIZE = 10;
+  private TestTinyLfuCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new TestTinyLfuCache(SIZE);
+  }
+
+  @Test
+  public void put_thenGet_returnsItem() {
+    Object item = new Object();
+    cache.put("key", item);
+
+    assertThat(cache.get("key")).isEqualTo(item);
+  }
+
+  @Test
+  public void put_withExistingItem_returnsAndEvictsOldItem() {
+    Object first = new Object();
+    Object second = new Object();
+    cache.put("key", first);
+
+    assertThat(cache.put("key", second)).isEqualTo(first);
+    assertThat(cache.evicted).containsExactly(first);
+    assertThat(cache.getCurrentSize()).isEqualTo(1);
+  }
+
+  @Test
+  public void put_withItemLargerThanCache_evictsItemImmediately() {
+    Object item = new Object();
+    cache.sizes.put(item, SIZE);
+    cache.put("key", item);
+
+    assertThat(cache.contains("key")).isFalse();
+    assertThat(cache.evicted).containsExactly(item);
+  }
+
+  @Test
+  public void put_overMaxSize_neverExceedsMaxSize() {
+    for (int i = 0; i < SIZE * 10; i++) {
+      cache.put("key" + i, new Object());
+      assertThat(cache.getCurrentSize()).isAtMost((long) SIZE);
+    }
+    assertThat(cache.getCount()).isEqualTo(SIZE);
+  }
+
+  @Test
+  public void put_overMaxSize_retainsFrequentlyRequestedItem() {
+    Object popular = new Object();
+    cache.put("popular", popular);
+    for (int i = 0; i < 5; i++) {
+      cache.get("popular");
+    }
+
+    for (int i = 0; i < SIZE * 10; i++) {
+      cache.put("once" + i, new Object());
+    }
+
+    assertThat(cache.contains("popular")).isTrue();
+  }
+
+  @Test
+  public void remove_countsAsRequest() {
+    // Mimics Engine, which removes items from the cache on a hit and puts them back when released.
+    Object popular = new Object();
+    for (int i = 0; i < 5; i++) {
+      cache.remove("popular");
+      cache.put("popular", popular);
+    }
+
+    for (int i = 0; i < SIZE * 10; i++) {
+      cache.put("once" + i, new Object());
+    }
+
+    assertThat(cache.contains("popular")).isTrue();
+  }
+
+  @Test
+  public void remove_returnsItemAndDecreasesSize() {
+    Object item = new Object();
+    cache.put("key", item);
+
+    assertThat(cache.remove("key")).isEqualTo(item);
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+    assertThat(cache.evicted).isEmpty();
+  }
+
+  @Test
+  public void setSizeMultiplier_withSmallerSize_evictsItems() {
+    for (int i = 0; i < SIZE; i++) {
+      cache.put("key" + i, new Object());
+    }
+
+    cache.setSizeMultiplier(0.5f);
+
+    assertThat(cache.getCurrentSize()).isEqualTo(SIZE / 2);
+    assertThat(cache.evicted).hasSize(SIZE / 2);
+  }
+
+  @Test
+  public void clearMemory_evictsAllItems() {
+    for (int i = 0; i < SIZE; i++) {
+      cache.put("key" + i, new Object());
+      cache.get("key" + i);
+    }
+
+    cache.clearMemory();
+
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+    assertThat(cache.getCount()).isEqualTo(0);
+    assertThat(cache.evicted).hasSize(SIZE);
+  }
+
+  @Test
+  public void replay_withOneHitWonders_hasHigherHitRateThanLru() {
+    Random random = new Random(0);
+    List<Request> trace = new ArrayList<>();
+    int oneHitWonders = 0;
+    for (int i = 0; i < 50000; i++) {
+      if (random.nextBoolean()) {
+        trace.add(new Request("once" + oneHitWonders++, 1));
+      } else {
+        // A skewed distribution where a small number of keys are requested most often.
+        int key = (int) Math.pow(500, random.nextDouble());
+        trace.add(new Request("popular" + key, 1));
+      }
+    }
+
+    CacheTraceReplayer.Result lru = CacheTraceReplayer.replayLru(trace, 50);
+    CacheTraceReplayer.Result tinyLfu = CacheTraceReplayer.replayTinyLfu(trace, 50);
+
+    assertThat(tinyLfu.hitRate()).isGreaterThan(lru.hitRate());
+  }
+
+  @Test
+  public void replay_withLoopLargerThanCache_hasHigherHitRateThanLru() {
+    List<Request> trace = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      trace.add(new Request("key" + (i % 150), 1));
+    }
+
+    CacheTraceReplayer.Result lru = CacheTraceReplayer.replayLru(trace, 100);
+    CacheTraceReplayer.Result tinyLfu = CacheTraceReplayer.replayTinyLfu(trace, 100);
+
+    assertThat(lru.hits).isEqualTo(0);
+    assertThat(tinyLfu.hitRate()).isGreaterThan(0.2);
+  }
+
+  private static final class TestTinyLfuCache extends TinyLfuCache<String, Object> {
+    final Map<Object, Integer> sizes = new HashMap<>();
+    final List<Object> evicted = new ArrayList<>();
+
+    TestTinyLfuCache(long size) {
+      super(size);
+    }
+
+    @Override
+    protected int getSize(@Nullable Object item) {
+      Integer size = sizes.get(item);
+      return size != null ? size : 1;
+    }
+
+    @Override
+    protected void onItemEvicted(@NonNull String key, @Nullable Object item) {
+      evicted.add(item);
+    }
+  }
+}
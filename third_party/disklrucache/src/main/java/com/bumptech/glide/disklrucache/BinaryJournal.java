@@ -0,0 +1,317 @@
+package com.bumptech.glide.disklrucache;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A journal made of fixed-width binary records, an alternative to the line based text journal
+ * described in {@link DiskLruCache}.
+ *
+ * <p>The journal starts with a header:
+ * <pre>
+ *     int64   magic, the ASCII bytes "GlideDLC"
+ *     int32   journal version
+ *     int32   application version
+ *     int32   value count
+ *     int32   key width, the number of bytes reserved for each key
+ * </pre>
+ * followed by records that are each {@code 2 + 1 + keyWidth + 8 * valueCount + 4} bytes long:
+ * <pre>
+ *     int8    operation, one of CLEAN, DIRTY, REMOVE or READ
+ *     int16   length of the UTF-8 encoded key
+ *     bytes   the key, padded with zeros to the key width
+ *     int64[] the lengths of each value for CLEAN records, zeros otherwise
+ *     int32   CRC32 of the preceding bytes of the record
+ * </pre>
+ *
+ * <p>Fixed-width records are parsed without scanning for delimiters or parsing numbers and a
+ * record that was only partially written when the process died can be detected from the length of
+ * the file alone. The key width starts at {@link #DEFAULT_KEY_WIDTH}, which fits the 64 character
+ * keys Glide uses, and the journal is rebuilt with a larger width if a longer key is added.
+ *
+ * <p>Records are buffered in memory and written in groups. Buffered records are written when the
+ * buffer is full, when the cache is flushed or closed, and before an editor creates a file for an
+ * entry whose DIRTY record is still buffered. Unlike the text journal, CLEAN and REMOVE records
+ * aren't written as soon as an edit completes. Buffered records are lost if the process dies,
+ * which at worst causes the most recently committed entries to be discarded when the cache is
+ * next opened.
+ */
+final class BinaryJournal {
+  static final String JOURNAL_FILE = "journal.bin";
+  static final String JOURNAL_FILE_TEMP = "journal.bin.tmp";
+  static final String JOURNAL_FILE_BACKUP = "journal.bin.bkp";
+  static final long MAGIC = 0x476c696465444c43L; // "GlideDLC"
+  static final int VERSION = 1;
+  static final int DEFAULT_KEY_WIDTH = 64;
+  static final int MAX_KEY_WIDTH = 0xFFFF;
+
+  static final byte CLEAN = 1;
+  static final byte DIRTY = 2;
+  static final byte REMOVE = 3;
+  static final byte READ = 4;
+
+  private static final int HEADER_SIZE = 24;
+  private static final int CHECKSUM_SIZE = 4;
+  /** The number of records buffered before they're written regardless of their type. */
+  private static final int GROUP_COMMIT_RECORDS = 64;
+  private static final int READ_BUFFER_RECORDS = 256;
+
+  private BinaryJournal() {
+  }
+
+  static int recordSize(int keyWidth, int valueCount) {
+    return 1 + 2 + keyWidth + 8 * valueCount + CHECKSUM_SIZE;
+  }
+
+  /** Returns the number of bytes {@code key} requires in a record. */
+  static int encodedLength(String key) {
+    int length = key.length();
+    for (int i = 0; i < length; i++) {
+      if (key.charAt(i) >= 0x80) {
+        return key.getBytes(Util.UTF_8).length;
+      }
+    }
+    return length;
+  }
+
+  /** Receives records as they are read from a journal. */
+  interface RecordHandler {
+    /**
+     * Called once for each record in the journal, in order.
+     *
+     * @param lengths the lengths of each value for CLEAN records. The array is reused between
+     *     calls.
+     */
+    void onRecord(byte operation, String key, long[] lengths) throws IOException;
+  }
+
+  /** The outcome of reading a journal with {@link #read}. */
+  static final class ReadResult {
+    final int keyWidth;
+    final int recordCount;
+    /** True if the journal ended with a partially written record. */
+    final boolean truncated;
+
+    ReadResult(int keyWidth, int recordCount, boolean truncated) {
+      this.keyWidth = keyWidth;
+      this.recordCount = recordCount;
+      this.truncated = truncated;
+    }
+  }
+
+  /**
+   * Reads the journal in {@code file}, passing each complete record to {@code handler}.
+   *
+   * @throws IOException if the file can't be read, its header doesn't match the given arguments or
+   *     any record is malformed.
+   */
+  static ReadResult read(File file, int appVersion, int valueCount, RecordHandler handler)
+      throws IOException {
+    InputStream in = new FileInputStream(file);
+    try {
+      byte[] header = new byte[HEADER_SIZE];
+      if (readFully(in, header) != HEADER_SIZE) {
+        throw new IOException("unexpected journal header: truncated");
+      }
+      ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+      long magic = headerBuffer.getLong();
+      int version = headerBuffer.getInt();
+      int journalAppVersion = headerBuffer.getInt();
+      int journalValueCount = headerBuffer.getInt();
+      int keyWidth = headerBuffer.getInt();
+      if (magic != MAGIC
+          || version != VERSION
+          || journalAppVersion != appVersion
+          || journalValueCount != valueCount
+          || keyWidth <= 0
+          || keyWidth > MAX_KEY_WIDTH) {
+        throw new IOException("unexpected journal header: [" + Long.toHexString(magic) + ", "
+            + version + ", " + journalAppVersion + ", " + journalValueCount + ", " + keyWidth
+            + "]");
+      }
+
+      int recordSize = recordSize(keyWidth, valueCount);
+      int lengthsOffset = 3 + keyWidth;
+      byte[] buffer = new byte[recordSize * READ_BUFFER_RECORDS];
+      ByteBuffer records = ByteBuffer.wrap(buffer);
+      long[] lengths = new long[valueCount];
+      CRC32 crc = new CRC32();
+      int recordCount = 0;
+      while (true) {
+        int read = readFully(in, buffer);
+        int offset = 0;
+        for (; offset + recordSize <= read; offset += recordSize) {
+          crc.reset();
+          crc.update(buffer, offset, recordSize - CHECKSUM_SIZE);
+          if ((int) crc.getValue() != records.getInt(offset + recordSize - CHECKSUM_SIZE)) {
+            throw new IOException("unexpected journal record: bad checksum at " + recordCount);
+          }
+          byte operation = buffer[offset];
+          int keyLength = records.getShort(offset + 1) & 0xFFFF;
+          if (keyLength == 0 || keyLength > keyWidth) {
+            throw new IOException("unexpected journal record: bad key length at " + recordCount);
+          }
+          String key = new String(buffer, offset + 3, keyLength, Util.UTF_8);
+          for (int i = 0; i < valueCount; i++) {
+            lengths[i] = records.getLong(offset + lengthsOffset + 8 * i);
+          }
+          handler.onRecord(operation, key, lengths);
+          recordCount++;
+        }
+        if (read < buffer.length) {
+          return new ReadResult(keyWidth, recordCount, offset != read);
+        }
+      }
+    } finally {
+      Util.closeQuietly(in);
+    }
+  }
+
+  /** Reads until {@code buffer} is full or the stream is exhausted and returns the bytes read. */
+  private static int readFully(InputStream in, byte[] buffer) throws IOException {
+    int total = 0;
+    while (total < buffer.length) {
+      int read = in.read(buffer, total, buffer.length - total);
+      if (read == -1) {
+        break;
+      }
+      total += read;
+    }
+    return total;
+  }
+
+  /** Appends records to a binary journal. */
+  static final class Writer implements JournalWriter {
+    private final OutputStream out;
+    private final int keyWidth;
+    private final int valueCount;
+    private final byte[] record;
+    private final ByteBuffer recordBuffer;
+    private final CRC32 crc = new CRC32();
+    private boolean hasBufferedDirty;
+
+    private Writer(OutputStream out, int keyWidth, int valueCount) {
+      int recordSize = recordSize(keyWidth, valueCount);
+      this.out = new BufferedOutputStream(out, recordSize * GROUP_COMMIT_RECORDS);
+      this.keyWidth = keyWidth;
+      this.valueCount = valueCount;
+      this.record = new byte[recordSize];
+      this.recordBuffer = ByteBuffer.wrap(record);
+    }
+
+    /** Creates a new, empty journal in {@code file}, replacing any existing file. */
+    static Writer create(File file, int appVersion, int valueCount, int keyWidth)
+        throws IOException {
+      Writer writer = new Writer(new FileOutputStream(file), keyWidth, valueCount);
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putLong(MAGIC)
+          .putInt(VERSION)
+          .putInt(appVersion)
+          .putInt(valueCount)
+          .putInt(keyWidth);
+      writer.out.write(header.array());
+      return writer;
+    }
+
+    /** Opens the existing journal in {@code file} for appending. */
+    static Writer append(File file, int valueCount, int keyWidth) throws FileNotFoundException {
+      return new Writer(new FileOutputStream(file, true), keyWidth, valueCount);
+    }
+
+    @Override
+    public boolean canAppend(String key) {
+      return encodedLength(key) <= keyWidth;
+    }
+
+    @Override
+    public void appendDirty(String key) throws IOException {
+      append(DIRTY, key, null);
+      hasBufferedDirty = true;
+    }
+
+    @Override
+    public void appendClean(String key, long[] lengths) throws IOException {
+      append(CLEAN, key, lengths);
+    }
+
+    @Override
+    public void appendRemove(String key) throws IOException {
+      append(REMOVE, key, null);
+    }
+
+    @Override
+    public void appendRead(String key) throws IOException {
+      append(READ, key, null);
+    }
+
+    @Override
+    public void onEditCompleted() {
+      // Completed edits are written along with the next group of records.
+    }
+
+    @Override
+    public void beforeFileCreated() throws IOException {
+      if (hasBufferedDirty) {
+        flush();
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      DiskLruCache.flushWriter(out);
+      hasBufferedDirty = false;
+    }
+
+    @Override
+    public void close() throws IOException {
+      DiskLruCache.closeWriter(out);
+    }
+
+    private void append(byte operation, String key, long[] lengths) throws IOException {
+      Arrays.fill(record, (byte) 0);
+      record[0] = operation;
+      recordBuffer.putShort(1, (short) encodeKey(key));
+      if (lengths != null) {
+        int lengthsOffset = 3 + keyWidth;
+        for (int i = 0; i < valueCount; i++) {
+          recordBuffer.putLong(lengthsOffset + 8 * i, lengths[i]);
+        }
+      }
+      crc.reset();
+      crc.update(record, 0, record.length - CHECKSUM_SIZE);
+      recordBuffer.putInt(record.length - CHECKSUM_SIZE, (int) crc.getValue());
+      // Once the BufferedOutputStream is full, this writes the whole group of records at once.
+      out.write(record);
+    }
+
+    private int encodeKey(String key) {
+      int length = key.length();
+      if (length <= keyWidth) {
+        boolean isAscii = true;
+        for (int i = 0; i < length && isAscii; i++) {
+          char c = key.charAt(i);
+          isAscii = c < 0x80;
+          record[3 + i] = (byte) c;
+        }
+        if (isAscii) {
+          return length;
+        }
+      }
+      byte[] encoded = key.getBytes(Util.UTF_8);
+      if (encoded.length > keyWidth) {
+        throw new IllegalStateException("key is too long for this journal: " + key);
+      }
+      System.arraycopy(encoded, 0, record, 3, encoded.length);
+      return encoded.length;
+    }
+  }
+}
@@ -27,6 +27,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -137,20 +138,30 @@ public final class DiskLruCache implements Closeable {
      * occasionally be compacted by dropping redundant lines. A temporary file named
      * "journal.tmp" will be used during compaction; that file should be deleted if
      * it exists when the cache is opened.
+     *
+     * Caches opened with a binary journal record the same states in fixed-width
+     * binary records in a file named "journal.bin" instead, see BinaryJournal. A
+     * journal in the other format is migrated when the cache is opened.
      */
 
   private final File directory;
   private final File journalFile;
   private final File journalFileTmp;
   private final File journalFileBackup;
+  private final File binaryJournalFile;
+  private final File binaryJournalFileTmp;
+  private final File binaryJournalFileBackup;
+  private final boolean useBinaryJournal;
   private final int appVersion;
   private long maxSize;
   private final int valueCount;
   private long size = 0;
-  private Writer journalWriter;
+  private JournalWriter journalWriter;
   private final LinkedHashMap<String, Entry> lruEntries =
       new LinkedHashMap<String, Entry>(0, 0.75f, true);
   private int redundantOpCount;
+  /** The number of bytes reserved for each key in the binary journal, if one is used. */
+  private int binaryKeyWidth;
 
   /**
    * To differentiate between old and current snapshots, each entry is given
@@ -179,19 +190,24 @@ public final class DiskLruCache implements Closeable {
     }
   };
 
-  private DiskLruCache(File directory, int appVersion, int valueCount, long maxSize) {
+  private DiskLruCache(
+      File directory, int appVersion, int valueCount, long maxSize, boolean useBinaryJournal) {
     this.directory = directory;
     this.appVersion = appVersion;
     this.journalFile = new File(directory, JOURNAL_FILE);
     this.journalFileTmp = new File(directory, JOURNAL_FILE_TEMP);
     this.journalFileBackup = new File(directory, JOURNAL_FILE_BACKUP);
+    this.binaryJournalFile = new File(directory, BinaryJournal.JOURNAL_FILE);
+    this.binaryJournalFileTmp = new File(directory, BinaryJournal.JOURNAL_FILE_TEMP);
+    this.binaryJournalFileBackup = new File(directory, BinaryJournal.JOURNAL_FILE_BACKUP);
     this.valueCount = valueCount;
     this.maxSize = maxSize;
+    this.useBinaryJournal = useBinaryJournal;
   }
 
   /**
-   * Opens the cache in {@code directory}, creating a cache if none exists
-   * there.
+   * Opens the cache in {@code directory} with a text journal, creating a cache
+   * if none exists there.
    *
    * @param directory a writable directory
    * @param valueCount the number of values per cache entry. Must be positive.
@@ -200,6 +216,28 @@ public final class DiskLruCache implements Closeable {
    */
   public static DiskLruCache open(File directory, int appVersion, int valueCount, long maxSize)
       throws IOException {
+    return open(directory, appVersion, valueCount, maxSize, false /*useBinaryJournal*/);
+  }
+
+  /**
+   * Opens the cache in {@code directory}, creating a cache if none exists
+   * there.
+   *
+   * <p>A binary journal is somewhat faster to read when the cache is opened
+   * and cheaper to append to, but writes completed edits to the filesystem in
+   * groups rather than immediately. If
+   * the cache was last opened with the other journal format, the existing
+   * journal is read and replaced with a journal in the requested format.
+   *
+   * @param directory a writable directory
+   * @param valueCount the number of values per cache entry. Must be positive.
+   * @param maxSize the maximum number of bytes this cache should use to store
+   * @param useBinaryJournal true to use fixed-width binary journal records,
+   *     false to use the original text journal.
+   * @throws IOException if reading or writing the cache directory fails
+   */
+  public static DiskLruCache open(File directory, int appVersion, int valueCount, long maxSize,
+      boolean useBinaryJournal) throws IOException {
     if (maxSize <= 0) {
       throw new IllegalArgumentException("maxSize <= 0");
     }
@@ -208,23 +246,15 @@ public final class DiskLruCache implements Closeable {
     }
 
     // If a bkp file exists, use it instead.
-    File backupFile = new File(directory, JOURNAL_FILE_BACKUP);
-    if (backupFile.exists()) {
-      File journalFile = new File(directory, JOURNAL_FILE);
-      // If journal file also exists just delete backup file.
-      if (journalFile.exists()) {
-        backupFile.delete();
-      } else {
-        renameTo(backupFile, journalFile, false);
-      }
-    }
+    restoreBackup(directory, JOURNAL_FILE, JOURNAL_FILE_BACKUP);
+    restoreBackup(directory, BinaryJournal.JOURNAL_FILE, BinaryJournal.JOURNAL_FILE_BACKUP);
 
     // Prefer to pick up where we left off.
-    DiskLruCache cache = new DiskLruCache(directory, appVersion, valueCount, maxSize);
-    if (cache.journalFile.exists()) {
+    DiskLruCache cache =
+        new DiskLruCache(directory, appVersion, valueCount, maxSize, useBinaryJournal);
+    if (cache.journalFile.exists() || cache.binaryJournalFile.exists()) {
       try {
-        cache.readJournal();
-        cache.processJournal();
+        cache.readExistingJournal();
         return cache;
       } catch (IOException journalIsCorrupt) {
         System.out
@@ -239,12 +269,46 @@ public final class DiskLruCache implements Closeable {
 
     // Create a new empty cache.
     directory.mkdirs();
-    cache = new DiskLruCache(directory, appVersion, valueCount, maxSize);
+    cache = new DiskLruCache(directory, appVersion, valueCount, maxSize, useBinaryJournal);
     cache.rebuildJournal();
     return cache;
   }
 
-  private void readJournal() throws IOException {
+  private static void restoreBackup(File directory, String journalName, String backupName)
+      throws IOException {
+    File backupFile = new File(directory, backupName);
+    if (backupFile.exists()) {
+      File journalFile = new File(directory, journalName);
+      // If journal file also exists just delete backup file.
+      if (journalFile.exists()) {
+        backupFile.delete();
+      } else {
+        renameTo(backupFile, journalFile, false);
+      }
+    }
+  }
+
+  private void readExistingJournal() throws IOException {
+    // If both journals exist, a migration was interrupted before the old journal was deleted. Both
+    // are consistent snapshots, so prefer the one that doesn't need to be migrated.
+    boolean readBinary = useBinaryJournal ? binaryJournalFile.exists() : !journalFile.exists();
+    boolean rebuildRequired = readBinary ? readBinaryJournal() : readJournal();
+    processJournal();
+    // Rebuilding in the requested format also removes the other journal, if any.
+    boolean otherJournalExists =
+        useBinaryJournal ? journalFile.exists() : binaryJournalFile.exists();
+    if (rebuildRequired || otherJournalExists) {
+      rebuildJournal();
+    } else if (useBinaryJournal) {
+      journalWriter = BinaryJournal.Writer.append(binaryJournalFile, valueCount, binaryKeyWidth);
+    } else {
+      journalWriter = new TextJournalWriter(new BufferedWriter(new OutputStreamWriter(
+          new FileOutputStream(journalFile, true), Util.US_ASCII)));
+    }
+  }
+
+  /** Reads the text journal and returns true if the journal must be rebuilt before appending. */
+  private boolean readJournal() throws IOException {
     StrictLineReader reader = new StrictLineReader(new FileInputStream(journalFile), Util.US_ASCII);
     try {
       String magic = reader.readLine();
@@ -273,17 +337,55 @@ public final class DiskLruCache implements Closeable {
       redundantOpCount = lineCount - lruEntries.size();
 
       // If we ended on a truncated line, rebuild the journal before appending to it.
-      if (reader.hasUnterminatedLine()) {
-        rebuildJournal();
-      } else {
-        journalWriter = new BufferedWriter(new OutputStreamWriter(
-            new FileOutputStream(journalFile, true), Util.US_ASCII));
-      }
+      return reader.hasUnterminatedLine();
     } finally {
       Util.closeQuietly(reader);
     }
   }
 
+  /**
+   * Reads the binary journal and returns true if the journal must be rebuilt before appending.
+   */
+  private boolean readBinaryJournal() throws IOException {
+    BinaryJournal.ReadResult result = BinaryJournal.read(binaryJournalFile, appVersion, valueCount,
+        new BinaryJournal.RecordHandler() {
+          @Override
+          public void onRecord(byte operation, String key, long[] lengths) throws IOException {
+            readBinaryJournalRecord(operation, key, lengths);
+          }
+        });
+    binaryKeyWidth = result.keyWidth;
+    redundantOpCount = result.recordCount - lruEntries.size();
+    // If we ended on a truncated record, rebuild the journal before appending to it.
+    return result.truncated;
+  }
+
+  private void readBinaryJournalRecord(byte operation, String key, long[] lengths)
+      throws IOException {
+    if (operation == BinaryJournal.REMOVE) {
+      lruEntries.remove(key);
+      return;
+    }
+
+    Entry entry = lruEntries.get(key);
+    if (entry == null) {
+      entry = new Entry(key);
+      lruEntries.put(key, entry);
+    }
+
+    if (operation == BinaryJournal.CLEAN) {
+      entry.readable = true;
+      entry.currentEditor = null;
+      System.arraycopy(lengths, 0, entry.lengths, 0, valueCount);
+    } else if (operation == BinaryJournal.DIRTY) {
+      entry.currentEditor = new Editor(entry);
+    } else if (operation == BinaryJournal.READ) {
+      // This work was already done by calling lruEntries.get().
+    } else {
+      throw new IOException("unexpected journal record: " + operation + " " + key);
+    }
+  }
+
   private void readJournalLine(String line) throws IOException {
     int firstSpace = line.indexOf(' ');
     if (firstSpace == -1) {
@@ -329,6 +431,7 @@ public final class DiskLruCache implements Closeable {
    */
   private void processJournal() throws IOException {
     deleteIfExists(journalFileTmp);
+    deleteIfExists(binaryJournalFileTmp);
     for (Iterator<Entry> i = lruEntries.values().iterator(); i.hasNext(); ) {
       Entry entry = i.next();
       if (entry.currentEditor == null) {
@@ -352,7 +455,15 @@ public final class DiskLruCache implements Closeable {
    */
   private synchronized void rebuildJournal() throws IOException {
     if (journalWriter != null) {
-      closeWriter(journalWriter);
+      journalWriter.close();
+    }
+
+    if (useBinaryJournal) {
+      rebuildBinaryJournal();
+      // Remove the text journal if we just migrated from it.
+      deleteIfExists(journalFile);
+      deleteIfExists(journalFileBackup);
+      return;
     }
 
     Writer writer = new BufferedWriter(
@@ -384,9 +495,49 @@ public final class DiskLruCache implements Closeable {
     }
     renameTo(journalFileTmp, journalFile, false);
     journalFileBackup.delete();
+    // Remove the binary journal if we just migrated from it.
+    deleteIfExists(binaryJournalFile);
+    deleteIfExists(binaryJournalFileBackup);
 
-    journalWriter = new BufferedWriter(
-        new OutputStreamWriter(new FileOutputStream(journalFile, true), Util.US_ASCII));
+    journalWriter = new TextJournalWriter(new BufferedWriter(
+        new OutputStreamWriter(new FileOutputStream(journalFile, true), Util.US_ASCII)));
+  }
+
+  /**
+   * Writes a compact snapshot of the current entries to a new binary journal,
+   * widening the records if any key no longer fits.
+   */
+  private void rebuildBinaryJournal() throws IOException {
+    int keyWidth = BinaryJournal.DEFAULT_KEY_WIDTH;
+    for (String key : lruEntries.keySet()) {
+      keyWidth = Math.max(keyWidth, BinaryJournal.encodedLength(key));
+    }
+    if (keyWidth > BinaryJournal.MAX_KEY_WIDTH) {
+      throw new IOException("key is too long for a binary journal");
+    }
+
+    BinaryJournal.Writer writer =
+        BinaryJournal.Writer.create(binaryJournalFileTmp, appVersion, valueCount, keyWidth);
+    try {
+      for (Entry entry : lruEntries.values()) {
+        if (entry.currentEditor != null) {
+          writer.appendDirty(entry.key);
+        } else {
+          writer.appendClean(entry.key, entry.lengths);
+        }
+      }
+    } finally {
+      writer.close();
+    }
+
+    if (binaryJournalFile.exists()) {
+      renameTo(binaryJournalFile, binaryJournalFileBackup, true);
+    }
+    renameTo(binaryJournalFileTmp, binaryJournalFile, false);
+    binaryJournalFileBackup.delete();
+
+    binaryKeyWidth = keyWidth;
+    journalWriter = BinaryJournal.Writer.append(binaryJournalFile, valueCount, keyWidth);
   }
 
   private static void deleteIfExists(File file) throws IOException {
@@ -428,10 +579,7 @@ public final class DiskLruCache implements Closeable {
     }
 
     redundantOpCount++;
-    journalWriter.append(READ);
-    journalWriter.append(' ');
-    journalWriter.append(key);
-    journalWriter.append('\n');
+    journalWriter.appendRead(key);
     if (journalRebuildRequired()) {
       executorService.submit(cleanupCallable);
     }
@@ -464,12 +612,12 @@ public final class DiskLruCache implements Closeable {
     Editor editor = new Editor(entry);
     entry.currentEditor = editor;
 
-    // Flush the journal before creating files to prevent file leaks.
-    journalWriter.append(DIRTY);
-    journalWriter.append(' ');
-    journalWriter.append(key);
-    journalWriter.append('\n');
-    flushWriter(journalWriter);
+    if (journalWriter.canAppend(key)) {
+      journalWriter.appendDirty(key);
+    } else {
+      // The new snapshot includes a DIRTY record for this entry.
+      rebuildJournal();
+    }
     return editor;
   }
 
@@ -544,23 +692,16 @@ public final class DiskLruCache implements Closeable {
     entry.currentEditor = null;
     if (entry.readable | success) {
       entry.readable = true;
-      journalWriter.append(CLEAN);
-      journalWriter.append(' ');
-      journalWriter.append(entry.key);
-      journalWriter.append(entry.getLengths());
-      journalWriter.append('\n');
+      journalWriter.appendClean(entry.key, entry.lengths);
 
       if (success) {
         entry.sequenceNumber = nextSequenceNumber++;
       }
     } else {
       lruEntries.remove(entry.key);
-      journalWriter.append(REMOVE);
-      journalWriter.append(' ');
-      journalWriter.append(entry.key);
-      journalWriter.append('\n');
+      journalWriter.appendRemove(entry.key);
     }
-    flushWriter(journalWriter);
+    journalWriter.onEditCompleted();
 
     if (size > maxSize || journalRebuildRequired()) {
       executorService.submit(cleanupCallable);
@@ -600,10 +741,7 @@ public final class DiskLruCache implements Closeable {
     }
 
     redundantOpCount++;
-    journalWriter.append(REMOVE);
-    journalWriter.append(' ');
-    journalWriter.append(key);
-    journalWriter.append('\n');
+    journalWriter.appendRemove(key);
 
     lruEntries.remove(key);
 
@@ -629,7 +767,7 @@ public final class DiskLruCache implements Closeable {
   public synchronized void flush() throws IOException {
     checkNotClosed();
     trimToSize();
-    flushWriter(journalWriter);
+    journalWriter.flush();
   }
 
   /** Closes this cache. Stored values will remain on the filesystem. */
@@ -643,7 +781,7 @@ public final class DiskLruCache implements Closeable {
       }
     }
     trimToSize();
-    closeWriter(journalWriter);
+    journalWriter.close();
     journalWriter = null;
   }
 
@@ -674,7 +812,7 @@ public final class DiskLruCache implements Closeable {
    * <p>Analogous to b/71520172.
    */
   @TargetApi(VERSION_CODES.O)
-  private static void closeWriter(Writer writer) throws IOException {
+  static void closeWriter(Closeable writer) throws IOException {
     // If API is less than 26, we don't need to whitelist with StrictMode.
     if (VERSION.SDK_INT < VERSION_CODES.O) {
       writer.close();
@@ -698,7 +836,7 @@ public final class DiskLruCache implements Closeable {
    * <p>See b/71520172.
    */
   @TargetApi(VERSION_CODES.O)
-  private static void flushWriter(Writer writer) throws IOException {
+  static void flushWriter(Flushable writer) throws IOException {
     // If API is less than 26, we don't need to whitelist with StrictMode.
     if (VERSION.SDK_INT < VERSION_CODES.O) {
       writer.flush();
@@ -797,6 +935,7 @@ public final class DiskLruCache implements Closeable {
 
     public File getFile(int index) throws IOException {
       synchronized (DiskLruCache.this) {
+        checkNotClosed();
         if (entry.currentEditor != this) {
             throw new IllegalStateException();
         }
@@ -804,6 +943,7 @@ public final class DiskLruCache implements Closeable {
             written[index] = true;
         }
         File dirtyFile = entry.getDirtyFile(index);
+        journalWriter.beforeFileCreated();
         directory.mkdirs();
         return dirtyFile;
       }
@@ -890,11 +1030,7 @@ public final class DiskLruCache implements Closeable {
     }
 
     public String getLengths() throws IOException {
-      StringBuilder result = new StringBuilder();
-      for (long size : lengths) {
-        result.append(' ').append(size);
-      }
-      return result.toString();
+      return formatLengths(lengths);
     }
 
     /** Set lengths using decimal numbers like "10123". */
@@ -925,6 +1061,83 @@ public final class DiskLruCache implements Closeable {
     }
   }
 
+  private static String formatLengths(long[] lengths) {
+    StringBuilder result = new StringBuilder();
+    for (long size : lengths) {
+      result.append(' ').append(size);
+    }
+    return result.toString();
+  }
+
+  /** Appends lines to a text journal. */
+  private static final class TextJournalWriter implements JournalWriter {
+    private final Writer writer;
+
+    TextJournalWriter(Writer writer) {
+      this.writer = writer;
+    }
+
+    @Override
+    public boolean canAppend(String key) {
+      return true;
+    }
+
+    @Override
+    public void appendDirty(String key) throws IOException {
+      writer.append(DIRTY);
+      writer.append(' ');
+      writer.append(key);
+      writer.append('\n');
+      // Flush the journal before creating files to prevent file leaks.
+      flushWriter(writer);
+    }
+
+    @Override
+    public void appendClean(String key, long[] lengths) throws IOException {
+      writer.append(CLEAN);
+      writer.append(' ');
+      writer.append(key);
+      writer.append(formatLengths(lengths));
+      writer.append('\n');
+    }
+
+    @Override
+    public void appendRemove(String key) throws IOException {
+      writer.append(REMOVE);
+      writer.append(' ');
+      writer.append(key);
+      writer.append('\n');
+    }
+
+    @Override
+    public void appendRead(String key) throws IOException {
+      writer.append(READ);
+      writer.append(' ');
+      writer.append(key);
+      writer.append('\n');
+    }
+
+    @Override
+    public void onEditCompleted() throws IOException {
+      flushWriter(writer);
+    }
+
+    @Override
+    public void beforeFileCreated() {
+      // DIRTY lines are flushed as soon as they're appended.
+    }
+
+    @Override
+    public void flush() throws IOException {
+      flushWriter(writer);
+    }
+
+    @Override
+    public void close() throws IOException {
+      closeWriter(writer);
+    }
+  }
+
   /**
    * A {@link java.util.concurrent.ThreadFactory} that builds a thread with a specific thread name
    * and with minimum priority.
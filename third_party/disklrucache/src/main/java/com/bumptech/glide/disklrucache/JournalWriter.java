@@ -0,0 +1,37 @@
+package com.bumptech.glide.disklrucache;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Appends records to a {@link DiskLruCache} journal.
+ *
+ * <p>Implementations decide when appended records are written to the filesystem, subject to one
+ * constraint: a DIRTY record must be written before {@link #beforeFileCreated()} returns so that
+ * files created by an editor are never leaked if the process dies mid-edit.
+ */
+interface JournalWriter extends Closeable {
+
+  /**
+   * Returns true if a record for {@code key} can be appended, or false if the journal must be
+   * rebuilt first.
+   */
+  boolean canAppend(String key);
+
+  void appendDirty(String key) throws IOException;
+
+  void appendClean(String key, long[] lengths) throws IOException;
+
+  void appendRemove(String key) throws IOException;
+
+  void appendRead(String key) throws IOException;
+
+  /** Called after the CLEAN or REMOVE record that completes an edit has been appended. */
+  void onEditCompleted() throws IOException;
+
+  /** Called before an editor creates a file for an entry with an appended DIRTY record. */
+  void beforeFileCreated() throws IOException;
+
+  /** Writes all appended records to the filesystem. */
+  void flush() throws IOException;
+}
@@ -0,0 +1,270 @@
+package com.bumptech.glide.disklrucache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.hamcrest.core.IsNot.not;
+import static org.junit.Assume.assumeThat;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.core.StringStartsWith;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class BinaryJournalTest {
+  private final int appVersion = 100;
+  private File cacheDir;
+  private File journalFile;
+  private File binaryJournalFile;
+  private DiskLruCache cache;
+
+  @Rule public TemporaryFolder tempDir = new TemporaryFolder();
+
+  @BeforeClass
+  public static void setUpClass() {
+    assumeThat(System.getProperty("os.name"), not(StringStartsWith.startsWith("Windows")));
+  }
+
+  @Before public void setUp() throws Exception {
+    cacheDir = tempDir.newFolder("BinaryJournalTest");
+    journalFile = new File(cacheDir, DiskLruCache.JOURNAL_FILE);
+    binaryJournalFile = new File(cacheDir, BinaryJournal.JOURNAL_FILE);
+    cache = open(true /*useBinaryJournal*/);
+  }
+
+  @After public void tearDown() throws Exception {
+    cache.close();
+  }
+
+  @Test public void emptyCache() throws Exception {
+    cache.close();
+    assertThat(journalFile.exists()).isFalse();
+    assertJournalEquals();
+  }
+
+  @Test public void readAndWriteEntryAcrossCacheOpenAndClose() throws Exception {
+    set("k1", "A", "BC");
+    cache.close();
+
+    cache = open(true /*useBinaryJournal*/);
+    assertValue("k1", "A", "BC");
+  }
+
+  @Test public void journalWithEditPublishAndRead() throws Exception {
+    set("k1", "AB", "C");
+    set("k2", "DEF", "G");
+    cache.get("k1");
+    DiskLruCache.Editor editor = cache.edit("k3");
+    editor.abort();
+    cache.remove("k2");
+    cache.close();
+
+    assertJournalEquals("DIRTY k1", "CLEAN k1 2 1", "DIRTY k2", "CLEAN k2 3 1", "READ k1",
+        "DIRTY k3", "REMOVE k3", "REMOVE k2");
+  }
+
+  @Test public void dirtyRecordIsWrittenBeforeFilesAreCreated() throws Exception {
+    DiskLruCache.Editor editor = cache.edit("k1");
+    editor.getFile(0);
+
+    assertJournalEquals("DIRTY k1");
+    editor.abort();
+  }
+
+  @Test public void getFileAfterCloseThrows() throws Exception {
+    DiskLruCache.Editor editor = cache.edit("k1");
+    cache.close();
+    try {
+      editor.getFile(0);
+      Assert.fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  @Test public void completedEditsAreWrittenInGroups() throws Exception {
+    set("k1", "A", "B");
+    assertJournalEquals("DIRTY k1");
+
+    set("k2", "C", "D");
+    assertJournalEquals("DIRTY k1", "CLEAN k1 1 1", "DIRTY k2");
+
+    cache.flush();
+    assertJournalEquals("DIRTY k1", "CLEAN k1 1 1", "DIRTY k2", "CLEAN k2 1 1");
+  }
+
+  @Test public void migratesTextJournalToBinary() throws Exception {
+    cache.close();
+    cache = open(false /*useBinaryJournal*/);
+    set("k1", "A", "B");
+    set("k2", "CD", "E");
+    cache.close();
+    assertThat(journalFile.exists()).isTrue();
+
+    cache = open(true /*useBinaryJournal*/);
+
+    assertThat(journalFile.exists()).isFalse();
+    assertJournalEquals("CLEAN k1 1 1", "CLEAN k2 2 1");
+    assertValue("k1", "A", "B");
+    assertValue("k2", "CD", "E");
+  }
+
+  @Test public void migratesBinaryJournalToText() throws Exception {
+    set("k1", "A", "B");
+    cache.close();
+
+    cache = open(false /*useBinaryJournal*/);
+
+    assertThat(binaryJournalFile.exists()).isFalse();
+    assertThat(journalFile.exists()).isTrue();
+    assertValue("k1", "A", "B");
+  }
+
+  @Test public void prefersJournalInRequestedFormatIfBothExist() throws Exception {
+    set("k1", "A", "B");
+    cache.close();
+    Writer writer = new FileWriter(journalFile);
+    writer.write(DiskLruCache.MAGIC + "\n" + DiskLruCache.VERSION_1 + "\n100\n2\n\n");
+    writer.close();
+
+    cache = open(true /*useBinaryJournal*/);
+
+    assertValue("k1", "A", "B");
+    assertThat(journalFile.exists()).isFalse();
+  }
+
+  @Test public void openWithTruncatedRecordDiscardsThatRecord() throws Exception {
+    set("k1", "A", "B");
+    set("k2", "C", "D");
+    cache.close();
+    RandomAccessFile file = new RandomAccessFile(binaryJournalFile, "rw");
+    file.setLength(file.length() - 1);
+    file.close();
+
+    cache = open(true /*useBinaryJournal*/);
+
+    assertValue("k1", "A", "B");
+    assertThat(cache.get("k2")).isNull();
+    // The journal is not corrupt when editing after a truncated record.
+    set("k2", "E", "F");
+    cache.close();
+    cache = open(true /*useBinaryJournal*/);
+    assertValue("k2", "E", "F");
+  }
+
+  @Test public void openWithBadChecksumClearsDirectory() throws Exception {
+    set("k1", "A", "B");
+    cache.close();
+    RandomAccessFile file = new RandomAccessFile(binaryJournalFile, "rw");
+    // Flip a bit in the key of the first record.
+    file.seek(24 + 3);
+    int b = file.read();
+    file.seek(24 + 3);
+    file.write(b ^ 1);
+    file.close();
+
+    cache = open(true /*useBinaryJournal*/);
+
+    assertThat(cache.get("k1")).isNull();
+    assertThat(new File(cacheDir, "k1.0").exists()).isFalse();
+  }
+
+  @Test public void openWithDifferentAppVersionClearsDirectory() throws Exception {
+    set("k1", "A", "B");
+    cache.close();
+
+    cache = DiskLruCache.open(cacheDir, appVersion + 1, 2, Integer.MAX_VALUE, true);
+
+    assertThat(cache.get("k1")).isNull();
+  }
+
+  @Test public void keyLongerThanDefaultWidthRebuildsJournal() throws Exception {
+    char[] chars = new char[BinaryJournal.DEFAULT_KEY_WIDTH + 10];
+    Arrays.fill(chars, 'a');
+    String longKey = new String(chars);
+    set("k1", "A", "B");
+    set(longKey, "C", "D");
+    cache.close();
+
+    cache = open(true /*useBinaryJournal*/);
+
+    assertValue("k1", "A", "B");
+    assertValue(longKey, "C", "D");
+  }
+
+  @Test public void rebuildJournalCompactsRedundantRecords() throws Exception {
+    set("k1", "A", "B");
+    for (int i = 0; i < 3000; i++) {
+      cache.get("k1");
+    }
+    cache.executorService.shutdown();
+    cache.executorService.awaitTermination(5, TimeUnit.SECONDS);
+    cache.flush();
+
+    List<String> records = readJournalRecords();
+    assertThat(records.get(0)).isEqualTo("CLEAN k1 1 1");
+    assertThat(records.size()).isLessThan(3000);
+  }
+
+  private DiskLruCache open(boolean useBinaryJournal) throws IOException {
+    return DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE, useBinaryJournal);
+  }
+
+  private void set(String key, String value0, String value1) throws Exception {
+    DiskLruCache.Editor editor = cache.edit(key);
+    editor.set(0, value0);
+    editor.set(1, value1);
+    editor.commit();
+  }
+
+  private void assertValue(String key, String value0, String value1) throws Exception {
+    DiskLruCache.Value value = cache.get(key);
+    assertThat(value.getString(0)).isEqualTo(value0);
+    assertThat(value.getLength(0)).isEqualTo(value0.length());
+    assertThat(value.getString(1)).isEqualTo(value1);
+    assertThat(value.getLength(1)).isEqualTo(value1.length());
+  }
+
+  private void assertJournalEquals(String... expectedRecords) throws Exception {
+    assertThat(readJournalRecords()).isEqualTo(Arrays.asList(expectedRecords));
+  }
+
+  private List<String> readJournalRecords() throws IOException {
+    final List<String> result = new ArrayList<String>();
+    BinaryJournal.read(binaryJournalFile, appVersion, 2, new BinaryJournal.RecordHandler() {
+      @Override
+      public void onRecord(byte operation, String key, long[] lengths) {
+        switch (operation) {
+          case BinaryJournal.CLEAN:
+            result.add("CLEAN " + key + " " + lengths[0] + " " + lengths[1]);
+            break;
+          case BinaryJournal.DIRTY:
+            result.add("DIRTY " + key);
+            break;
+          case BinaryJournal.REMOVE:
+            result.add("REMOVE " + key);
+            break;
+          case BinaryJournal.READ:
+            result.add("READ " + key);
+            break;
+          default:
+            throw new IllegalArgumentException("Unexpected operation: " + operation);
+        }
+      }
+    });
+    return result;
+  }
+}
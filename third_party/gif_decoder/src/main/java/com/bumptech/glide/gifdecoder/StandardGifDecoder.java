@@ -62,7 +62,7 @@ import java.util.Arrays;
 public class StandardGifDecoder implements GifDecoder {
   private static final String TAG = StandardGifDecoder.class.getSimpleName();
 
-  /** Maximum pixel stack size for decoding LZW compressed data. */
+  /** Maximum number of codes in the LZW string table. */
   private static final int MAX_STACK_SIZE = 4 * 1024;
 
   private static final int NULL_CODE = -1;
@@ -98,9 +98,10 @@ public class StandardGifDecoder implements GifDecoder {
   private GifHeaderParser parser;
 
   // LZW decoder working arrays.
-  private short[] prefix;
-  private byte[] suffix;
-  private byte[] pixelStack;
+  /** Where each code's string starts in {@link #mainPixels}. */
+  private int[] stringOffsets;
+  /** The number of pixels in each code's string. */
+  private short[] stringLengths;
   private byte[] mainPixels;
   @ColorInt
   private int[] mainScratch;
@@ -690,6 +691,12 @@ public class StandardGifDecoder implements GifDecoder {
 
   /**
    * Decodes LZW image data into pixel array. Adapted from John Cristy's BitmapMagick.
+   *
+   * <p>Rather than walking each code's prefix chain and reversing it through a stack, every entry
+   * in the string table remembers where its string was first written to {@link #mainPixels} and
+   * how long it is. A new entry is always the previous code's string followed by the first pixel
+   * of the current one, which is exactly what was just written, so each code is expanded with a
+   * single {@link System#arraycopy(Object, int, Object, int, int)} of earlier output.
    */
   private void decodeBitmapData(GifFrame frame) {
     if (frame != null) {
@@ -698,26 +705,22 @@ public class StandardGifDecoder implements GifDecoder {
     }
 
     int npix = (frame == null) ? header.width * header.height : frame.iw * frame.ih;
-    int available, clear, codeMask, codeSize, endOfInformation, inCode, oldCode, bits, code, count,
-        i, datum, dataSize, first, top, bi, pi;
+    int available, clear, codeMask, codeSize, endOfInformation, oldCode, bits, code, count,
+        datum, dataSize, bi, pi, length, previousOffset, previousLength;
 
     if (mainPixels == null || mainPixels.length < npix) {
       // Allocate new pixel array.
       mainPixels = bitmapProvider.obtainByteArray(npix);
     }
     byte[] mainPixels = this.mainPixels;
-    if (prefix == null) {
-      prefix = new short[MAX_STACK_SIZE];
-    }
-    short[] prefix = this.prefix;
-    if (suffix == null) {
-      suffix = new byte[MAX_STACK_SIZE];
+    if (stringOffsets == null) {
+      stringOffsets = new int[MAX_STACK_SIZE];
     }
-    byte[] suffix = this.suffix;
-    if (pixelStack == null) {
-      pixelStack = new byte[MAX_STACK_SIZE + 1];
+    int[] stringOffsets = this.stringOffsets;
+    if (stringLengths == null) {
+      stringLengths = new short[MAX_STACK_SIZE];
     }
-    byte[] pixelStack = this.pixelStack;
+    short[] stringLengths = this.stringLengths;
 
     // Initialize GIF data stream decoder.
     dataSize = readByte();
@@ -728,92 +731,85 @@ public class StandardGifDecoder implements GifDecoder {
     codeSize = dataSize + 1;
     codeMask = (1 << codeSize) - 1;
 
-    for (code = 0; code < clear; code++) {
-      // XXX ArrayIndexOutOfBoundsException.
-      prefix[code] = 0;
-      suffix[code] = (byte) code;
-    }
     byte[] block = this.block;
     // Decode GIF pixel stream.
-    i = datum = bits = count = first = top = pi = bi = 0;
-    while (i < npix) {
-      // Read a new data block.
-      if (count == 0) {
-        count = readBlock();
-        if (count <= 0) {
-          status = STATUS_PARTIAL_DECODE;
-          break;
+    datum = bits = count = pi = bi = previousOffset = previousLength = 0;
+    while (pi < npix) {
+      if (bits < codeSize) {
+        // Read a new data block.
+        if (count == 0) {
+          count = readBlock();
+          if (count <= 0) {
+            status = STATUS_PARTIAL_DECODE;
+            break;
+          }
+          bi = 0;
         }
-        bi = 0;
+        // Load as many whole bytes from the block as fit, rather than one byte per code.
+        do {
+          datum |= (((int) block[bi]) & MASK_INT_LOWEST_BYTE) << bits;
+          bits += 8;
+          ++bi;
+          --count;
+        } while (bits <= 24 && count > 0);
+        continue;
       }
 
-      datum += (((int) block[bi]) & MASK_INT_LOWEST_BYTE) << bits;
-      bits += 8;
-      ++bi;
-      --count;
-
-      while (bits >= codeSize) {
-        // Get the next code.
-        code = datum & codeMask;
-        datum >>= codeSize;
-        bits -= codeSize;
-
-        // Interpret the code.
-        if (code == clear) {
-          // Reset decoder.
-          codeSize = dataSize + 1;
-          codeMask = (1 << codeSize) - 1;
-          available = clear + 2;
-          oldCode = NULL_CODE;
-          continue;
-        } else if (code == endOfInformation) {
-          break;
-        } else if (oldCode == NULL_CODE) {
-          mainPixels[pi] = suffix[code];
-          ++pi;
-          ++i;
-          oldCode = code;
-          first = code;
-          continue;
-        }
-
-        inCode = code;
-        if (code >= available) {
-          pixelStack[top] = (byte) first;
-          ++top;
-          code = oldCode;
-        }
-
-        while (code >= clear) {
-          pixelStack[top] = suffix[code];
-          ++top;
-          code = prefix[code];
-        }
-        first = ((int) suffix[code]) & MASK_INT_LOWEST_BYTE;
-
-        mainPixels[pi] = (byte) first;
+      // Get the next code.
+      code = datum & codeMask;
+      datum >>>= codeSize;
+      bits -= codeSize;
+
+      // Interpret the code.
+      if (code == clear) {
+        // Reset decoder.
+        codeSize = dataSize + 1;
+        codeMask = (1 << codeSize) - 1;
+        available = clear + 2;
+        oldCode = NULL_CODE;
+        continue;
+      } else if (code == endOfInformation) {
+        continue;
+      } else if (oldCode == NULL_CODE) {
+        mainPixels[pi] = code < clear ? (byte) code : 0;
+        previousOffset = pi;
+        previousLength = 1;
         ++pi;
-        ++i;
+        oldCode = code;
+        continue;
+      }
 
-        while (top > 0) {
-          // Pop a pixel off the pixel stack.
-          mainPixels[pi] = pixelStack[--top];
-          ++pi;
-          ++i;
+      if (code < clear) {
+        mainPixels[pi] = (byte) code;
+        length = 1;
+      } else if (code < available) {
+        length = Math.min(stringLengths[code], npix - pi);
+        System.arraycopy(mainPixels, stringOffsets[code], mainPixels, pi, length);
+      } else {
+        // The code isn't in the table yet, so it must be the previous string followed by its own
+        // first pixel.
+        length = Math.min(previousLength, npix - pi);
+        System.arraycopy(mainPixels, previousOffset, mainPixels, pi, length);
+        if (pi + length < npix) {
+          mainPixels[pi + length] = mainPixels[previousOffset];
+          ++length;
         }
+      }
 
-        // Add a new string to the string table.
-        if (available < MAX_STACK_SIZE) {
-          prefix[available] = (short) oldCode;
-          suffix[available] = (byte) first;
-          ++available;
-          if (((available & codeMask) == 0) && (available < MAX_STACK_SIZE)) {
-            ++codeSize;
-            codeMask += available;
-          }
+      // Add a new string to the string table.
+      if (available < MAX_STACK_SIZE) {
+        stringOffsets[available] = previousOffset;
+        stringLengths[available] = (short) (previousLength + 1);
+        ++available;
+        if (((available & codeMask) == 0) && (available < MAX_STACK_SIZE)) {
+          ++codeSize;
+          codeMask += available;
         }
-        oldCode = inCode;
       }
+      previousOffset = pi;
+      previousLength = length;
+      pi += length;
+      oldCode = code;
     }
 
     // Clear missing pixels.
@@ -0,0 +1,152 @@
+package com.bumptech.glide.gifdecoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import android.graphics.Bitmap;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.testutil.TestUtil;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Config;
+
+/**
+ * Compares every frame decoded by {@link StandardGifDecoder} against checksums of the frames
+ * produced by the previous LZW decoder, which walked each code's prefix chain through a pixel
+ * stack.
+ *
+ * <p>The interlaced GIFs and partial_gif_decode.gif all fill the 4096 entry string table and
+ * contain codes that refer to the entry being added (the KwKwK case), so both paths are covered
+ * here as well as the common ones.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 18)
+public class StandardGifDecoderTest {
+
+  @Test
+  public void testOpaqueInterlacedGifMatchesPreviousDecoder() throws IOException {
+    assertFramesMatch("opaque_interlaced_gif.gif", /*sampleSize=*/ 1, GifDecoder.STATUS_OK,
+        0xa988367aL);
+  }
+
+  @Test
+  public void testTransparentInterlacedGifMatchesPreviousDecoder() throws IOException {
+    assertFramesMatch("interlaced_transparent_gif.gif", /*sampleSize=*/ 1, GifDecoder.STATUS_OK,
+        0x5e363226L, 0x691b80c7L, 0x2fa82dceL, 0x4cada05bL, 0x64466958L, 0xf79aeba5L, 0x22493cbaL,
+        0xa70baa65L, 0xdb4c0509L, 0x0a4af81cL, 0x40a443edL, 0xcb52c6c5L, 0xdcb1bd73L, 0xd92dc762L,
+        0xbb7fff0eL);
+  }
+
+  @Test
+  public void testDownsampledTransparentInterlacedGifMatchesPreviousDecoder() throws IOException {
+    assertFramesMatch("interlaced_transparent_gif.gif", /*sampleSize=*/ 2, GifDecoder.STATUS_OK,
+        0xef6eb89cL, 0xae9dd279L, 0xd0045245L, 0x775fe106L, 0x7b3d32baL, 0x99c6e688L, 0xe0296cffL,
+        0x6217da84L, 0x35cd2981L, 0x1662a7bbL, 0x4321df61L, 0xe73d48baL, 0x28729c4dL, 0xf0b54fbeL,
+        0x389f4991L);
+  }
+
+  @Test
+  public void testLargeAnimatedGifMatchesPreviousDecoder() throws IOException {
+    assertFramesMatch("partial_gif_decode.gif", /*sampleSize=*/ 1, GifDecoder.STATUS_OK,
+        0xae125ab3L, 0xd85bfb29L, 0x80d84e39L, 0x573420b4L, 0x1bc72dcaL, 0x23081646L, 0xdcaa3dd6L,
+        0xed78520bL, 0x0627be56L, 0x877934dbL, 0x964ab28dL);
+  }
+
+  @Test
+  public void testSmallAnimatedGifsMatchPreviousDecoder() throws IOException {
+    assertFramesMatch("dl_world_anim.gif", /*sampleSize=*/ 1, GifDecoder.STATUS_OK,
+        0x55f1afafL, 0x047051bbL, 0x1c3d9ae0L, 0x6d3551b3L, 0x204c17b9L, 0xe04c6972L);
+    assertFramesMatch("gif_netscape_iteration_0.gif", /*sampleSize=*/ 1, GifDecoder.STATUS_OK,
+        0x623c0b8bL, 0x957c9f5eL, 0xf148e17cL, 0x3ca5b25eL);
+    assertFramesMatch("gif_without_graphical_control_extension.gif", /*sampleSize=*/ 1,
+        GifDecoder.STATUS_OK, 0x371ec0a7L);
+  }
+
+  @Test
+  public void testTruncatedImageDataMatchesPreviousDecoder() throws IOException {
+    byte[] data = TestUtil.resourceToBytes(getClass(), "opaque_interlaced_gif.gif");
+    GifHeader header = new GifHeaderParser().setData(data).parseHeader();
+    // Block terminators from the middle of the image data onwards end the frame early.
+    Arrays.fill(data, data.length / 2, data.length, (byte) 0);
+
+    assertFramesMatch(header, data, /*sampleSize=*/ 1, GifDecoder.STATUS_PARTIAL_DECODE,
+        0x4ba668fcL);
+  }
+
+  private void assertFramesMatch(String resourceName, int sampleSize, int expectedStatus,
+      long... expectedChecksums) throws IOException {
+    byte[] data = TestUtil.resourceToBytes(getClass(), resourceName);
+    GifHeader header = new GifHeaderParser().setData(data).parseHeader();
+    assertFramesMatch(header, data, sampleSize, expectedStatus, expectedChecksums);
+  }
+
+  private static void assertFramesMatch(GifHeader header, byte[] data, int sampleSize,
+      int expectedStatus, long... expectedChecksums) {
+    GifDecoder decoder =
+        new StandardGifDecoder(new MockProvider(), header, ByteBuffer.wrap(data), sampleSize);
+    assertEquals(expectedChecksums.length, decoder.getFrameCount());
+    for (int i = 0; i < expectedChecksums.length; i++) {
+      decoder.advance();
+      Bitmap frame = decoder.getNextFrame();
+      assertNotNull(frame);
+      assertEquals("status of frame " + i, expectedStatus, decoder.getStatus());
+      assertEquals("pixels of frame " + i, expectedChecksums[i], checksum(frame));
+    }
+  }
+
+  private static long checksum(Bitmap bitmap) {
+    int width = bitmap.getWidth();
+    int height = bitmap.getHeight();
+    int[] pixels = new int[width * height];
+    bitmap.getPixels(pixels, 0, width, 0, 0, width, height);
+    ByteBuffer bytes = ByteBuffer.allocate(pixels.length * 4);
+    bytes.asIntBuffer().put(pixels);
+    CRC32 crc = new CRC32();
+    crc.update(bytes.array());
+    return crc.getValue();
+  }
+
+  private static class MockProvider implements GifDecoder.BitmapProvider {
+
+    @NonNull
+    @Override
+    public Bitmap obtain(int width, int height, @NonNull Bitmap.Config config) {
+      Bitmap result = Bitmap.createBitmap(width, height, config);
+      Shadows.shadowOf(result).setMutable(true);
+      return result;
+    }
+
+    @Override
+    public void release(@NonNull Bitmap bitmap) {
+      // Do nothing.
+    }
+
+    @NonNull
+    @Override
+    public byte[] obtainByteArray(int size) {
+      return new byte[size];
+    }
+
+    @Override
+    public void release(@NonNull byte[] bytes) {
+      // Do nothing.
+    }
+
+    @NonNull
+    @Override
+    public int[] obtainIntArray(int size) {
+      return new int[size];
+    }
+
+    @Override
+    public void release(@NonNull int[] array) {
+      // Do nothing.
+    }
+  }
+}